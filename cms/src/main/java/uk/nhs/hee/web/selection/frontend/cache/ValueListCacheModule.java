@@ -0,0 +1,299 @@
+package uk.nhs.hee.web.selection.frontend.cache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.events.HippoWorkflowEvent;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.onehippo.cms7.services.eventbus.HippoEventListenerRegistry;
+import org.onehippo.cms7.services.eventbus.Subscribe;
+import org.onehippo.forge.selection.frontend.model.ListItem;
+import org.onehippo.forge.selection.frontend.model.ValueList;
+import org.onehippo.repository.modules.DaemonModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Repository {@link DaemonModule} providing the {@link ValueListCacheService}.</p>
+ *
+ * <p>Loads all the value-lists ({@code selection:valuelist} documents) under
+ * {@code /content/documents/administration/valuelists} at startup and reloads the value-lists on their
+ * publication (or any other workflow action on them), so that the editor sessions
+ * (see {@link uk.nhs.hee.web.selection.frontend.plugin.ChannelBasedDynamicMultiSelectPlugin}) don't read
+ * the value-lists from the repository.</p>
+ *
+ * <p>The published variant of a value-list is cached if there is one. Otherwise, its unpublished variant is cached.</p>
+ */
+public class ValueListCacheModule implements DaemonModule, ValueListCacheService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValueListCacheModule.class);
+
+    private static final String VALUE_LISTS_PATH = "/content/documents/administration/valuelists";
+
+    private static final String VALUE_LIST_NODE_TYPE = "selection:valuelist";
+    private static final String LIST_ITEM_NODE_NAME = "selection:listitem";
+    private static final String KEY_PROPERTY = "selection:key";
+    private static final String LABEL_PROPERTY = "selection:label";
+    private static final String STATE_PROPERTY = "hippostd:state";
+    private static final String UNPUBLISHED_STATE = "unpublished";
+    private static final String LIVE_AVAILABILITY = "live";
+
+    // Value-list handle path -> Value-list (empty if there is no such value-list)
+    private final Map<String, Optional<ValueList>> valueLists = new ConcurrentHashMap<>();
+
+    private Session session;
+
+    @Override
+    public void initialize(final Session session) {
+        this.session = session;
+
+        try {
+            synchronized (this) {
+                if (session.nodeExists(VALUE_LISTS_PATH)) {
+                    load(session.getNode(VALUE_LISTS_PATH));
+                }
+            }
+
+            LOGGER.info("Loaded {} value-lists under '{}'", valueLists.size(), VALUE_LISTS_PATH);
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while loading value-lists at startup. " +
+                    "Value-lists will be loaded on their first lookup instead.", e.getMessage(), e);
+        }
+
+        HippoEventListenerRegistry.get().register(this);
+        HippoServiceRegistry.register(this, ValueListCacheService.class);
+    }
+
+    @Override
+    public void shutdown() {
+        HippoServiceRegistry.unregister(this, ValueListCacheService.class);
+        HippoEventListenerRegistry.get().unregister(this);
+
+        valueLists.clear();
+    }
+
+    @Override
+    public ValueList getValueList(final String valueListPath) {
+        if (StringUtils.isEmpty(valueListPath) || session == null) {
+            return null;
+        }
+
+        // Not using computeIfAbsent as the (synchronized) read mustn't happen while holding the map lock
+        Optional<ValueList> valueList = valueLists.get(valueListPath);
+        if (valueList == null) {
+            valueList = read(valueListPath);
+            if (valueList == null) {
+                return null;
+            }
+
+            valueLists.putIfAbsent(valueListPath, valueList);
+        }
+
+        return valueList.map(ValueListCacheModule::copyOf).orElse(null);
+    }
+
+    /**
+     * Reloads the value-lists under the subject path of the given (successful) workflow {@code event}
+     * (e.g. on the publication of a value-list document).
+     *
+     * @param event the {@link HippoWorkflowEvent} instance.
+     */
+    @Subscribe
+    public void handleEvent(final HippoWorkflowEvent<?> event) {
+        final String subjectPath = event.subjectPath();
+        if (!Boolean.TRUE.equals(event.success())
+                || subjectPath == null || !subjectPath.startsWith(VALUE_LISTS_PATH)) {
+            return;
+        }
+
+        try {
+            synchronized (this) {
+                session.refresh(false);
+
+                final String path = getHandlePath(subjectPath);
+                valueLists.keySet().removeIf(valueListPath ->
+                        valueListPath.equals(path) || valueListPath.startsWith(path + "/"));
+
+                if (session.nodeExists(path)) {
+                    load(session.getNode(path));
+                }
+            }
+
+            LOGGER.debug("Reloaded value-lists under '{}' on '{}' workflow action", subjectPath, event.action());
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while reloading value-lists under '{}'. " +
+                    "Value-lists will be loaded on their next lookup instead.", e.getMessage(), subjectPath, e);
+            valueLists.keySet().removeIf(valueListPath -> valueListPath.startsWith(subjectPath));
+        }
+    }
+
+    /**
+     * Caches the value-lists at or under the given {@code node} (i.e. a value-list document handle or a folder).
+     *
+     * @param node the value-list document handle or the folder {@link Node}.
+     * @throws RepositoryException thrown when an error occurs while reading the value-lists.
+     */
+    private void load(final Node node) throws RepositoryException {
+        if (node.isNodeType(HippoNodeType.NT_HANDLE)) {
+            final Node variant = getVariant(node);
+            if (variant != null && variant.isNodeType(VALUE_LIST_NODE_TYPE)) {
+                valueLists.put(node.getPath(), Optional.of(readValueList(variant)));
+            }
+            return;
+        }
+
+        final NodeIterator childNodeIterator = node.getNodes();
+        while (childNodeIterator.hasNext()) {
+            load(childNodeIterator.nextNode());
+        }
+    }
+
+    /**
+     * Reads and returns value-list of the given {@code valueListPath}.
+     *
+     * @param valueListPath the value-list document handle path.
+     * @return the value-list of the given {@code valueListPath}
+     * or an empty {@link Optional} if there is no such value-list
+     * (or {@code null} if the value-list couldn't be read, so that it isn't cached).
+     */
+    private synchronized Optional<ValueList> read(final String valueListPath) {
+        try {
+            session.refresh(false);
+
+            if (!session.nodeExists(valueListPath)) {
+                return Optional.empty();
+            }
+
+            final Node variant = getVariant(session.getNode(valueListPath));
+            if (variant == null || !variant.isNodeType(VALUE_LIST_NODE_TYPE)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(readValueList(variant));
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while reading '{}' value-list", e.getMessage(), valueListPath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads and returns value-list of the given value-list document {@code variant}. The list items without key
+     * are skipped and the ones without label are labelled by their key.
+     *
+     * @param variant the value-list document variant {@link Node}.
+     * @return the value-list of the given value-list document {@code variant}.
+     * @throws RepositoryException thrown when an error occurs while reading the value-list.
+     */
+    private static ValueList readValueList(final Node variant) throws RepositoryException {
+        final ValueList valueList = new ValueList();
+        final NodeIterator listItemIterator = variant.getNodes(LIST_ITEM_NODE_NAME);
+        while (listItemIterator.hasNext()) {
+            final Node listItem = listItemIterator.nextNode();
+            if (!listItem.hasProperty(KEY_PROPERTY)) {
+                LOGGER.warn("Skipping the list item '{}' without key", listItem.getPath());
+                continue;
+            }
+
+            // The items without label are labelled by their key
+            final String key = listItem.getProperty(KEY_PROPERTY).getString();
+            valueList.add(new ListItem(key,
+                    listItem.hasProperty(LABEL_PROPERTY) ? listItem.getProperty(LABEL_PROPERTY).getString() : key));
+        }
+
+        return valueList;
+    }
+
+    /**
+     * Returns the published variant of the given document {@code handle} in case if there is one.
+     * Otherwise, returns its unpublished variant.
+     *
+     * @param handle the document handle {@link Node}.
+     * @return the published variant of the given document {@code handle} in case if there is one.
+     * Otherwise, returns its unpublished variant (or {@code null} if there is none).
+     * @throws RepositoryException thrown when an error occurs while reading the variants.
+     */
+    private static Node getVariant(final Node handle) throws RepositoryException {
+        Node unpublishedVariant = null;
+
+        final NodeIterator variantIterator = handle.getNodes(handle.getName());
+        while (variantIterator.hasNext()) {
+            final Node variant = variantIterator.nextNode();
+            if (isLive(variant)) {
+                return variant;
+            }
+
+            if (variant.hasProperty(STATE_PROPERTY)
+                    && UNPUBLISHED_STATE.equals(variant.getProperty(STATE_PROPERTY).getString())) {
+                unpublishedVariant = variant;
+            }
+        }
+
+        return unpublishedVariant;
+    }
+
+    /**
+     * Returns {@code true} if the given document {@code variant} is available on live.
+     *
+     * @param variant the document variant {@link Node}.
+     * @return {@code true} if the given document {@code variant} is available on live.
+     * Otherwise, returns {@code false}.
+     * @throws RepositoryException thrown when an error occurs while reading the variant availability.
+     */
+    private static boolean isLive(final Node variant) throws RepositoryException {
+        if (!variant.hasProperty(HippoNodeType.HIPPO_AVAILABILITY)) {
+            return false;
+        }
+
+        for (final Value availability : variant.getProperty(HippoNodeType.HIPPO_AVAILABILITY).getValues()) {
+            if (LIVE_AVAILABILITY.equals(availability.getString())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the document handle path of the given workflow {@code subjectPath}
+     * (which could either be a document handle, a document variant or a folder path).
+     *
+     * @param subjectPath the workflow subject path.
+     * @return the document handle path of the given workflow {@code subjectPath}
+     * or the {@code subjectPath} itself if it isn't a document variant path.
+     * @throws RepositoryException thrown when an error occurs while reading the subject node.
+     */
+    private String getHandlePath(final String subjectPath) throws RepositoryException {
+        if (session.nodeExists(subjectPath)) {
+            final Node subject = session.getNode(subjectPath);
+            if (!subject.isNodeType(HippoNodeType.NT_HANDLE) && subject.getDepth() > 0
+                    && subject.getParent().isNodeType(HippoNodeType.NT_HANDLE)) {
+                return subject.getParent().getPath();
+            }
+        }
+
+        return subjectPath;
+    }
+
+    /**
+     * Returns a copy of the given (cached) {@code valueList} so that the callers
+     * (e.g. sorting the value-list) don't modify the cached value-list.
+     *
+     * @param valueList the cached {@link ValueList}.
+     * @return the copy of the given {@code valueList}.
+     */
+    private static ValueList copyOf(final ValueList valueList) {
+        final ValueList copy = new ValueList();
+        for (final ListItem listItem : valueList) {
+            copy.add(new ListItem(listItem.getKey(), listItem.getLabel()));
+        }
+
+        return copy;
+    }
+}
@@ -0,0 +1,22 @@
+package uk.nhs.hee.web.selection.frontend.cache;
+
+import org.onehippo.forge.selection.frontend.model.ValueList;
+
+/**
+ * <p>CMS wide value-list cache shared across the editor sessions
+ * (registered on {@link org.onehippo.cms7.services.HippoServiceRegistry} by {@link ValueListCacheModule}).</p>
+ *
+ * <p>Value-lists are keyed by their document handle path, i.e. the path
+ * returned by {@link uk.nhs.hee.web.selection.frontend.provider.ChannelBasedValueListNameProvider}.</p>
+ */
+public interface ValueListCacheService {
+
+    /**
+     * Returns (a copy of) the cached value-list of the given {@code valueListPath}.
+     *
+     * @param valueListPath the value-list document handle path.
+     * @return (a copy of) the cached value-list of the given {@code valueListPath}
+     * or {@code null} if there is no such value-list.
+     */
+    ValueList getValueList(String valueListPath);
+}
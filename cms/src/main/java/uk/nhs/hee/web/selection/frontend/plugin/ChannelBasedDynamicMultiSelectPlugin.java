@@ -64,6 +64,7 @@ import org.hippoecm.frontend.types.IFieldDescriptor;
 import org.hippoecm.frontend.validation.IValidationResult;
 import org.hippoecm.frontend.validation.ValidatorUtils;
 import org.hippoecm.frontend.validation.ViolationUtils;
+import org.onehippo.cms7.services.HippoServiceRegistry;
 import org.onehippo.forge.selection.frontend.model.ValueList;
 import org.onehippo.forge.selection.frontend.plugin.Config;
 import org.onehippo.forge.selection.frontend.plugin.DynamicMultiSelectPlugin;
@@ -73,8 +74,8 @@ import org.onehippo.forge.selection.frontend.provider.IValueListProvider;
 import org.onehippo.forge.selection.frontend.utils.SelectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.selection.frontend.cache.ValueListCacheService;
 
-import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -175,31 +176,28 @@ public class ChannelBasedDynamicMultiSelectPlugin extends RenderPlugin {
         // Get value-list by channel
         String valueListPath = getValueListByChannel();
 
-        Node valueListNode;
-        try {
-            valueListNode = getSession().getJcrSession().getNode(valueListPath);
-        } catch (final RepositoryException e) {
-            log.debug("Can't retrieve the value-list '{}' node. " +
-                            "It is possible that the value-list '{}' doesn't exists in the repository",
-                    valueListPath, valueListPath);
-            valueListNode = null;
-        }
+        // Value-list cache shared across the editor sessions (in case if available)
+        final ValueListCacheService valueListCache = HippoServiceRegistry.getService(ValueListCacheService.class);
+        ValueList valueList = StringUtils.isEmpty(valueListPath) || valueListCache == null
+                ? null : valueListCache.getValueList(valueListPath);
+
+        if (valueList == null) {
+            if (StringUtils.isEmpty(valueListPath) || valueListCache != null || !valueListExists(valueListPath)) {
+                // Falls back to 'source' value-list (if value-list by channel can't be constructed
+                // or doesn't exists in the repository) in case if any provided
+                valueListPath = options.getString(Config.SOURCE);
+                log.warn("Falling back to value-list '{}' configured via 'source' plugin config (in case if any) " +
+                        "as channel specific value-list is either can't be constructed or isn't available " +
+                        "in the repository", valueListPath);
+            }
 
-        if (StringUtils.isEmpty(valueListPath) || valueListNode == null) {
-            // Falls back to 'source' value-list (if value-list by channel can't be constructed
-            // or doesn't exists in the repository) in case if any provided
-            valueListPath = options.getString(Config.SOURCE);
-            log.warn("Falling back to value-list '{}' configured via 'source' plugin config (in case if any) " +
-                    "as channel specific value-list is either can't be constructed or isn't available " +
-                    "in the repository", valueListPath);
+            final Locale locale = SelectionUtils.getLocale(SelectionUtils.getNode(model));
+            valueList = selectedProvider.getValueList(valueListPath, locale);
         }
 
         log.debug("Field '{}' will use value-list '{}' to populate items",
                 helper.getField().getName(), valueListPath);
 
-        final Locale locale = SelectionUtils.getLocale(SelectionUtils.getNode(model));
-        final ValueList valueList = selectedProvider.getValueList(valueListPath, locale);
-
         new SortHelper().sort(valueList, options);
 
         final ListModel<String> choicesModel = new ListModel<>(valueList.stream()
@@ -236,6 +234,24 @@ public class ChannelBasedDynamicMultiSelectPlugin extends RenderPlugin {
         return StringUtils.EMPTY;
     }
 
+    /**
+     * Returns {@code true} if the given {@code valueListPath} exists in the repository
+     * (only used when the {@link ValueListCacheService} isn't available).
+     *
+     * @param valueListPath the value-list path.
+     * @return {@code true} if the given {@code valueListPath} exists in the repository. Otherwise, {@code false}.
+     */
+    private boolean valueListExists(final String valueListPath) {
+        try {
+            return getSession().getJcrSession().nodeExists(valueListPath);
+        } catch (final RepositoryException e) {
+            log.debug("Can't retrieve the value-list '{}' node. " +
+                            "It is possible that the value-list '{}' doesn't exists in the repository",
+                    valueListPath, valueListPath);
+            return false;
+        }
+    }
+
     /**
      * <p>Returns channel in which the document is being created. Otherwise, returns an Empty String
      * if channel can't be extracted from the current document path.</p>
@@ -0,0 +1,177 @@
+package uk.nhs.hee.web.selection.frontend.cache;
+
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.events.HippoWorkflowEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.onehippo.cms7.services.eventbus.HippoEventListenerRegistry;
+import org.onehippo.forge.selection.frontend.model.ListItem;
+import org.onehippo.forge.selection.frontend.model.ValueList;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PowerMockIgnore({"javax.management.*", "javax.script.*"})
+@PrepareForTest({
+        HippoEventListenerRegistry.class,
+        HippoServiceRegistry.class
+})
+public class ValueListCacheModuleTest {
+    private static final String VALUE_LISTS_PATH = "/content/documents/administration/valuelists";
+    private static final String NEWS_CATEGORIES_PATH = VALUE_LISTS_PATH + "/lks/newscategories";
+
+    private final Session session = mock(Session.class);
+    private final ValueListCacheModule systemUnderTest = new ValueListCacheModule();
+
+    @Before
+    public void setUp() throws RepositoryException {
+        mockStatic(HippoEventListenerRegistry.class, HippoServiceRegistry.class);
+        when(HippoEventListenerRegistry.get()).thenReturn(mock(HippoEventListenerRegistry.class));
+
+        when(session.nodeExists(VALUE_LISTS_PATH)).thenReturn(true);
+    }
+
+    @Test
+    public void getValueList_AfterInitialize_ReturnsCopyOfValueListWithoutReadingRepository()
+            throws RepositoryException {
+        // Mocks & stubs
+        final Node handle = mockValueListHandle(new String[]{"events", "Events"});
+        final Node valueListsFolder = mockFolder(mockFolder(handle));
+        when(session.getNode(VALUE_LISTS_PATH)).thenReturn(valueListsFolder);
+        systemUnderTest.initialize(session);
+        reset(session);
+
+        // Execute the method to be tested
+        final ValueList actual = systemUnderTest.getValueList(NEWS_CATEGORIES_PATH);
+        actual.clear();
+
+        // Verify
+        assertThat(systemUnderTest.getValueList(NEWS_CATEGORIES_PATH))
+                .extracting(ListItem::getKey, ListItem::getLabel)
+                .containsExactly(tuple("events", "Events"));
+        verifyNoInteractions(session);
+    }
+
+    @Test
+    public void getValueList_WithNonExistentValueList_ReturnsNull() throws RepositoryException {
+        // Mocks & stubs
+        when(session.getNode(VALUE_LISTS_PATH)).thenReturn(mockFolder());
+        systemUnderTest.initialize(session);
+
+        // Execute the method to be tested
+        final ValueList actual = systemUnderTest.getValueList(VALUE_LISTS_PATH + "/lks/blogcategories");
+
+        // Verify
+        assertThat(actual).isNull();
+    }
+
+    @Test
+    public void getValueList_WithIncompleteListItems_SkipsItemsWithoutKeyAndLabelsItemsByKey()
+            throws RepositoryException {
+        // Mocks & stubs
+        final Node handle = mockValueListHandle(
+                new String[]{"events", null}, new String[]{null, "Patient Information"});
+        when(session.getNode(VALUE_LISTS_PATH)).thenReturn(mockFolder(mockFolder(handle)));
+        systemUnderTest.initialize(session);
+
+        // Execute the method to be tested
+        final ValueList actual = systemUnderTest.getValueList(NEWS_CATEGORIES_PATH);
+
+        // Verify
+        assertThat(actual)
+                .extracting(ListItem::getKey, ListItem::getLabel)
+                .containsExactly(tuple("events", "events"));
+    }
+
+    @Test
+    public void handleEvent_WithValueListPublication_ReloadsValueList() throws RepositoryException {
+        // Mocks & stubs
+        final Node handle = mockValueListHandle(new String[]{"events", "Events"});
+        when(session.getNode(VALUE_LISTS_PATH)).thenReturn(mockFolder(mockFolder(handle)));
+        systemUnderTest.initialize(session);
+
+        final Node publishedHandle = mockValueListHandle(
+                new String[]{"events", "Events"}, new String[]{"patient_information", "Patient Information"});
+        when(session.nodeExists(NEWS_CATEGORIES_PATH)).thenReturn(true);
+        when(session.getNode(NEWS_CATEGORIES_PATH)).thenReturn(publishedHandle);
+
+        final HippoWorkflowEvent<?> event = mock(HippoWorkflowEvent.class);
+        when(event.success()).thenReturn(true);
+        when(event.action()).thenReturn("publish");
+        when(event.subjectPath()).thenReturn(NEWS_CATEGORIES_PATH);
+
+        // Execute the method to be tested
+        systemUnderTest.handleEvent(event);
+
+        // Verify
+        assertThat(systemUnderTest.getValueList(NEWS_CATEGORIES_PATH))
+                .extracting(ListItem::getKey)
+                .containsExactly("events", "patient_information");
+        verify(session).refresh(false);
+    }
+
+    private static Node mockFolder(final Node... childNodes) throws RepositoryException {
+        final Node folder = mock(Node.class);
+        when(folder.isNodeType(HippoNodeType.NT_HANDLE)).thenReturn(false);
+        when(folder.getNodes()).thenAnswer(invocation -> mockNodeIterator(childNodes));
+        return folder;
+    }
+
+    private static Node mockValueListHandle(final String[]... listItems) throws RepositoryException {
+        final Node handle = mock(Node.class);
+        final Node variant = mock(Node.class);
+        final Property availability = mock(Property.class);
+        final Value live = mock(Value.class);
+
+        when(handle.isNodeType(HippoNodeType.NT_HANDLE)).thenReturn(true);
+        when(handle.getName()).thenReturn("newscategories");
+        when(handle.getPath()).thenReturn(NEWS_CATEGORIES_PATH);
+        when(handle.getNodes("newscategories")).thenAnswer(invocation -> mockNodeIterator(variant));
+        when(variant.isNodeType("selection:valuelist")).thenReturn(true);
+        when(variant.hasProperty(HippoNodeType.HIPPO_AVAILABILITY)).thenReturn(true);
+        when(variant.getProperty(HippoNodeType.HIPPO_AVAILABILITY)).thenReturn(availability);
+        when(availability.getValues()).thenReturn(new Value[]{live});
+        when(live.getString()).thenReturn("live");
+
+        final Node[] listItemNodes = new Node[listItems.length];
+        for (int i = 0; i < listItems.length; i++) {
+            listItemNodes[i] = mock(Node.class);
+            final Property key = mock(Property.class);
+            final Property label = mock(Property.class);
+            when(key.getString()).thenReturn(listItems[i][0]);
+            when(label.getString()).thenReturn(listItems[i][1]);
+            when(listItemNodes[i].hasProperty("selection:key")).thenReturn(listItems[i][0] != null);
+            when(listItemNodes[i].hasProperty("selection:label")).thenReturn(listItems[i][1] != null);
+            when(listItemNodes[i].getProperty("selection:key")).thenReturn(key);
+            when(listItemNodes[i].getProperty("selection:label")).thenReturn(label);
+        }
+        when(variant.getNodes("selection:listitem")).thenAnswer(invocation -> mockNodeIterator(listItemNodes));
+
+        return handle;
+    }
+
+    private static NodeIterator mockNodeIterator(final Node... nodes) {
+        final Iterator<Node> iterator = Arrays.asList(nodes).iterator();
+        final NodeIterator nodeIterator = mock(NodeIterator.class);
+        when(nodeIterator.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(nodeIterator.nextNode()).thenAnswer(invocation -> iterator.next());
+        return nodeIterator;
+    }
+}
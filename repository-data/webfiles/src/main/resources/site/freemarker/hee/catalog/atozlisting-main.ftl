@@ -4,6 +4,11 @@
 <#-- @ftlvariable name="document" type="uk.nhs.hee.web.beans.AtozPage" -->
 <#-- @ftlvariable name="atozmap" type="java.util.Map" -->
 
+<#-- Anchor of the letter (pages whose title doesn't start with an A to Z letter are listed under '#') -->
+<#function letterAnchor letter>
+    <#return (letter == "#")?then("other", letter)>
+</#function>
+
 <#if document??>
     <div class="nhsuk-width-container">
         <main class="nhsuk-main-wrapper" id="maincontent" role="main">
@@ -19,7 +24,7 @@
                                 <#list atozmap?keys as letter>
                                     <li class="nhsuk-u-margin-bottom-0 nhsuk-u-float-left nhsuk-u-margin-right-1" style="float:left">
                                         <#if atozmap[letter]??>
-                                            <a class="nhsuk-u-font-size-22 nhsuk-u-padding-2 nhsuk-u-display-block" href="#${letter}">${letter}</a>
+                                            <a class="nhsuk-u-font-size-22 nhsuk-u-padding-2 nhsuk-u-display-block" href="#${letterAnchor(letter)}">${letter}</a>
                                         <#else>
                                             <span class="nhsuk-u-font-size-22 nhsuk-u-padding-2 nhsuk-u-display-block nhsuk-u-secondary-text-color">${letter}</span>
                                         </#if>
@@ -31,7 +36,7 @@
                             <#if atozmap[letter]??>
                                 <div class="nhsuk-card nhsuk-card--feature">
                                     <div class="nhsuk-card__content nhsuk-card__content--feature">
-                                        <h2 id="${letter}" class="nhsuk-card__heading nhsuk-card__heading--feature nhsuk-u-font-size-24">
+                                        <h2 id="${letterAnchor(letter)}" class="nhsuk-card__heading nhsuk-card__heading--feature nhsuk-u-font-size-24">
                                             ${letter}
                                         </h2>
                                         <ul class='nhsuk-list nhsuk-list--border'>
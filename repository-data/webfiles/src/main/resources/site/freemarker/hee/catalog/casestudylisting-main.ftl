@@ -12,6 +12,7 @@
 <#-- @ftlvariable name="pageable" type="org.onehippo.cms7.essentials.components.paging.Pageable" -->
 <#-- @ftlvariable name="item" type="uk.nhs.hee.web.beans.CaseStudy" -->
 <#-- @ftlvariable name="impactGroupMap" type="java.util.Map" -->
+<#-- @ftlvariable name="impactGroupCounts" type="java.util.Map" -->
 <#-- @ftlvariable name="impactTypesMap" type="java.util.Map" -->
 <#-- @ftlvariable name="sectorMap" type="java.util.Map" -->
 <#-- @ftlvariable name="regionMap" type="java.util.Map" -->
@@ -45,7 +46,7 @@
                                 <@fmt.message key="casestudy.impact_group" var="impactGroupLabel"/>
 
                                 <div class="nhsuk-filter__group">
-                                    <@checkboxGroup title=impactGroupLabel name="impactGroup" items=impactGroupMap selectedItemsList=selectedImpactGroups />
+                                    <@checkboxGroup title=impactGroupLabel name="impactGroup" items=impactGroupMap selectedItemsList=selectedImpactGroups counts=impactGroupCounts />
                                 </div>
                             </div>
                             <input type="hidden" name="sortBy" value="${selectedSortOrder}">
@@ -12,6 +12,7 @@
 <#-- @ftlvariable name="pageable" type="org.onehippo.cms7.essentials.components.paging.Pageable" -->
 <#-- @ftlvariable name="item" type="[uk.nhs.hee.web.beans.Bulletin, uk.nhs.hee.web.beans.BlogPost]" -->
 <#-- @ftlvariable name="categoriesMap" type="java.util.Map" -->
+<#-- @ftlvariable name="categoryCounts" type="java.util.Map" -->
 <#-- @ftlvariable name="selectedCategories" type="java.util.List" -->
 
 <#if document??>
@@ -41,7 +42,7 @@
                                 <@fmt.message key="filter.category.label" var="categoryLabel"/>
 
                                 <div class="nhsuk-filter__group">
-                                    <@checkboxGroup title=categoryLabel name="category" items=categoriesMap selectedItemsList=selectedCategories />
+                                    <@checkboxGroup title=categoryLabel name="category" items=categoriesMap selectedItemsList=selectedCategories counts=categoryCounts />
                                 </div>
                             </div>
                             <input type="hidden" name="sortBy" value="${selectedSortOrder}">
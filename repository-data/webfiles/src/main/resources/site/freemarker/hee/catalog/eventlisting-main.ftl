@@ -12,6 +12,7 @@
 <#-- @ftlvariable name="pageable" type="org.onehippo.cms7.essentials.components.paging.Pageable" -->
 <#-- @ftlvariable name="item" type="uk.nhs.hee.web.beans.Event" -->
 <#-- @ftlvariable name="years" type="java.util.List" -->
+<#-- @ftlvariable name="yearCounts" type="java.util.Map" -->
 <#-- @ftlvariable name="selectedYears" type="java.util.List" -->
 
 <#if document??>
@@ -12,6 +12,7 @@
 <#-- @ftlvariable name="pageable" type="org.onehippo.cms7.essentials.components.paging.Pageable" -->
 <#-- @ftlvariable name="item" type="uk.nhs.hee.web.beans.SearchBank" -->
 <#-- @ftlvariable name="topicMap" type="java.util.Map" -->
+<#-- @ftlvariable name="topicCounts" type="java.util.Map" -->
 <#-- @ftlvariable name="keyTermMap" type="java.util.Map" -->
 <#-- @ftlvariable name="providerMap" type="java.util.Map" -->
 <#-- @ftlvariable name="selectedTopics" type="java.util.List" -->
@@ -43,7 +44,7 @@
                                 <@fmt.message key="filter.topic.label" var="topicLabel"/>
 
                                 <div class="nhsuk-filter__group">
-                                    <@checkboxGroup title=topicLabel name="topic" items=topicMap selectedItemsList=selectedTopics />
+                                    <@checkboxGroup title=topicLabel name="topic" items=topicMap selectedItemsList=selectedTopics counts=topicCounts />
                                 </div>
                             </div>
                             <input type="hidden" name="sortBy" value="${selectedSortOrder}">
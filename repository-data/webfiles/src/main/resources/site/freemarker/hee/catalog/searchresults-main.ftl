@@ -12,6 +12,7 @@
 <#-- @ftlvariable name="document" type="uk.nhs.hee.web.beans.ListingPage" -->
 <#-- @ftlvariable name="item" type="[uk.nhs.hee.web.beans.Guidance, uk.nhs.hee.web.beans.LandingPage,...]" -->
 <#-- @ftlvariable name="pageable" type="org.onehippo.cms7.essentials.components.paging.Pageable" -->
+<#-- @ftlvariable name="searchSnippets" type="java.util.Map<java.lang.String, uk.nhs.hee.web.search.SearchSnippet>" -->
 
 <#if document??>
     <#assign showHero=false>
@@ -54,7 +55,7 @@
 
                         <#if pageable??>
                             <ul class="nhsuk-list nhsuk-list--border">
-                                <@searchListItem items=pageable.items miniHubGuidancePathToURLMap=miniHubGuidancePathToURLMap/>
+                                <@searchListItem items=pageable.items miniHubGuidancePathToURLMap=miniHubGuidancePathToURLMap searchSnippets=(searchSnippets!{})/>
                             </ul>
                             <#include "../../include/pagination-nhs.ftl">
                         </#if>
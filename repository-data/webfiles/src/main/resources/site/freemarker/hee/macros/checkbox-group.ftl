@@ -1,7 +1,13 @@
 <#-- @ftlvariable name="items" type="[java.util.Map, java.util.List]" -->
 <#-- @ftlvariable name="selectedItemsList" type="java.util.List" -->
+<#-- @ftlvariable name="counts" type="java.util.Map" -->
 
-<#macro checkboxGroup title name items selectedItemsList>
+<#--
+    Renders a group of checkboxes.
+    If the (optional) facet 'counts' are given, each item will be rendered along with its count
+    and the (unselected) items with no matching documents will be hidden.
+-->
+<#macro checkboxGroup title name items selectedItemsList counts={}>
     <div class="nhsuk-form-group">
         <fieldset class="nhsuk-fieldset">
             <legend class="nhsuk-fieldset__legend">
@@ -10,7 +16,16 @@
             <div class="nhsuk-checkboxes">
                 <#if items?is_hash>
                     <#list items as value, text>
-                        <@checkboxItem name=name value=value text=text selected=selectedItemsList?seq_contains("${value}") />
+                        <#assign selected=selectedItemsList?seq_contains("${value}")>
+
+                        <#if counts?has_content>
+                            <#assign count=counts[value]!0>
+                            <#if count gt 0 || selected>
+                                <@checkboxItem name=name value=value text="${text} (${count})" selected=selected />
+                            </#if>
+                        <#else>
+                            <@checkboxItem name=name value=value text=text selected=selected />
+                        </#if>
                     </#list>
                 <#elseif items?is_sequence>
                     <#list items as value>
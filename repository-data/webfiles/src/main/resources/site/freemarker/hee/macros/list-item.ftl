@@ -231,18 +231,19 @@
     </#list>
 </#macro>
 
-<#macro searchListItem items miniHubGuidancePathToURLMap>
+<#macro searchListItem items miniHubGuidancePathToURLMap searchSnippets={}>
     <@hst.link var="pageNotFoundURL" siteMapItemRefId="pagenotfound"/>
 
     <#list items as item>
         <@hst.link hippobean=item var="pageURL"/>
+        <#assign snippet=(searchSnippets[item.canonicalHandlePath])!{}>
 
         <#if ['Bulletin', 'CaseStudy', 'SearchBank', 'Event']?seq_contains(item.class.simpleName) || (pageURL != pageNotFoundURL || ('uk.nhs.hee.web.beans.Guidance' == item.getClass().getName() && miniHubGuidancePathToURLMap[item.path]??))>
             <li>
                 <#switch item.getClass().getName()>
                     <#case "uk.nhs.hee.web.beans.Event">
-                        <h3><a href="${item.link}">${item.title}</a></h3>
-                        <p class="nhsuk-body-s nhsuk-u-margin-top-1">${item.description!}</p>
+                        <h3><a href="${item.link}"><@highlighted html=(snippet.title!"") fallback=item.title/></a></h3>
+                        <p class="nhsuk-body-s nhsuk-u-margin-top-1"><@highlighted html=(snippet.summary!"") fallback=(item.description!"")/></p>
                         <dl class="nhsuk-summary-list">
                             <@fmt.message key="event.date" var="dateLabel"/>
                             <@listItemRow key="${dateLabel}">
@@ -261,7 +262,7 @@
                         <@hst.link var="pageURL" hippobean=item.document>
                             <@hst.param name="forceDownload" value="true"/>
                         </@hst.link>
-                        <h3><a href="${pageURL}" target="_blank">${item.title}</a></h3>
+                        <h3><a href="${pageURL}" target="_blank"><@highlighted html=(snippet.title!"") fallback=item.title/></a></h3>
                         <div class="nhsuk-review-date">
                             <p class="nhsuk-body-s">
                                 <@fmt.message key="published_on.text"/> ${item.publishedDate}
@@ -269,15 +270,15 @@
                         </div>
                         <#break>
                     <#case "uk.nhs.hee.web.beans.Bulletin">
-                        <h3><a href="${item.websiteUrl}">${item.title}</a></h3>
-                        <p class="nhsuk-body-s nhsuk-u-margin-top-1">${item.overview!}</p>
+                        <h3><a href="${item.websiteUrl}"><@highlighted html=(snippet.title!"") fallback=item.title/></a></h3>
+                        <p class="nhsuk-body-s nhsuk-u-margin-top-1"><@highlighted html=(snippet.summary!"") fallback=(item.overview!"")/></p>
                         <#break>
                     <#case "uk.nhs.hee.web.beans.SearchBank">
                         <#if item.searchDocument?? && item.searchDocument.mimeType != 'application/vnd.hippo.blank'>
                             <@hst.link var="pageURL" hippobean=item.searchDocument>
                                 <@hst.param name="forceDownload" value="true"/>
                             </@hst.link>
-                            <h3><a href="${pageURL}">${item.title}</a></h3>
+                            <h3><a href="${pageURL}"><@highlighted html=(snippet.title!"") fallback=item.title/></a></h3>
                             <dl class="nhsuk-summary-list">
 
                                 <#if item.strategyDocument?has_content>
@@ -306,8 +307,8 @@
                         <#break>
                     <#case "uk.nhs.hee.web.beans.Guidance">
                         <#if miniHubGuidancePathToURLMap[item.path]??>
-                            <h3><a href="${miniHubGuidancePathToURLMap[item.path]}">${item.title}</a></h3>
-                            <p class="nhsuk-body-s nhsuk-u-margin-top-1">${item.summary!}</p>
+                            <h3><a href="${miniHubGuidancePathToURLMap[item.path]}"><@highlighted html=(snippet.title!"") fallback=item.title/></a></h3>
+                            <p class="nhsuk-body-s nhsuk-u-margin-top-1"><@highlighted html=(snippet.summary!"") fallback=(item.summary!"")/></p>
                             <div class="nhsuk-review-date">
                                 <p class="nhsuk-body-s">
                                     <@fmt.message key="published_on.text"/> ${item.publishedDate}
@@ -316,8 +317,8 @@
                             <#break>
                         </#if>
                     <#default>
-                        <h3><a href="${pageURL}">${item.title}</a></h3>
-                        <p class="nhsuk-body-s nhsuk-u-margin-top-1">${item.summary!}</p>
+                        <h3><a href="${pageURL}"><@highlighted html=(snippet.title!"") fallback=item.title/></a></h3>
+                        <p class="nhsuk-body-s nhsuk-u-margin-top-1"><@highlighted html=(snippet.summary!"") fallback=(item.summary!"")/></p>
                         <div class="nhsuk-review-date">
                             <p class="nhsuk-body-s">
                                 <@fmt.message key="published_on.text"/> ${item.publishedDate}
@@ -329,6 +330,9 @@
     </#list>
 </#macro>
 
+<#-- Renders the given (highlighted) search snippet HTML if available. Otherwise, the given (plain) fallback text -->
+<#macro highlighted html fallback><#if html?has_content>${html?no_esc}<#else>${fallback}</#if></#macro>
+
 <#macro listItemRow key>
     <div class="nhsuk-summary-list__row">
         <dt class="nhsuk-summary-list__key">
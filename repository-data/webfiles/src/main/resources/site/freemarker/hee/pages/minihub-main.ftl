@@ -10,6 +10,8 @@
 <#-- @ftlvariable name="previousGuidance" type="uk.nhs.hee.web.beans.Guidance" -->
 <#-- @ftlvariable name="nextGuidance" type="uk.nhs.hee.web.beans.Guidance" -->
 <#-- @ftlvariable name="accessFromRootHub" type="java.lang.Boolean" -->
+<#-- @ftlvariable name="guidancePages" type="java.util.List<uk.nhs.hee.web.services.MiniHubNavigation.GuidancePage>" -->
+<#-- @ftlvariable name="currentGuidanceIndex" type="java.lang.Integer" -->
 
 <#assign accessWithEndSlash=hstRequestContext.servletRequest.requestURI?endsWith("/")/>
 <#if document??>
@@ -28,8 +30,8 @@
                     <nav class="nhsuk-contents-list" role="navigation" aria-label="Pages in this guide">
                         <h2>Contents</h2>
                         <ol class="nhsuk-contents-list__list">
-                            <#list document.guidancePages as guidance>
-                                <#if guidance == currentGuidance>
+                            <#list guidancePages as guidance>
+                                <#if guidance?index == currentGuidanceIndex>
                                     <li class="nhsuk-contents-list__item" aria-current="page">
                                         <span class="nhsuk-contents-list__current">${guidance.title}</span>
                                     </li>
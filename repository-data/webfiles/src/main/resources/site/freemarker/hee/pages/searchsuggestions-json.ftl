@@ -0,0 +1,3 @@
+<#ftl output_format="JSON">
+<#-- @ftlvariable name="suggestions" type="java.util.List<java.lang.String>" -->
+[<#list suggestions as suggestion>"${suggestion?json_string}"<#sep>,</#sep></#list>]
@@ -1,4 +1,6 @@
 <#-- @ftlvariable name="pageable" type="org.onehippo.cms7.essentials.components.paging.Pageable" -->
+<#-- @ftlvariable name="previousPageCursor" type="java.lang.String" -->
+<#-- @ftlvariable name="nextPageCursor" type="java.lang.String" -->
 <#include "../include/imports.ftl">
 <@hst.setBundle basename="uk.nhs.hee.web.pagination"/>
 
@@ -10,6 +12,9 @@
                     <@hst.renderURL var="pageUrlPrevious">
                         <@hst.param name="page" value="${pageable.previousPage}"/>
                         <@hst.param name="pageSize" value="${pageable.pageSize}"/>
+                        <#if previousPageCursor??>
+                            <@hst.param name="cursor" value="${previousPageCursor}"/>
+                        </#if>
                     </@hst.renderURL>
                     <li class="nhsuk-pagination-item--previous">
                         <a class="nhsuk-pagination__link nhsuk-pagination__link--prev" href="${pageUrlPrevious}">
@@ -28,6 +33,9 @@
                     <@hst.renderURL var="pageUrlNext">
                         <@hst.param name="page" value="${pageable.nextPage}"/>
                         <@hst.param name="pageSize" value="${pageable.pageSize}"/>
+                        <#if nextPageCursor??>
+                            <@hst.param name="cursor" value="${nextPageCursor}"/>
+                        </#if>
                     </@hst.renderURL>
                     <li class="nhsuk-pagination-item--next">
                         <a class="nhsuk-pagination__link nhsuk-pagination__link--next" href="${pageUrlNext}">
@@ -6,6 +6,7 @@ import org.hippoecm.repository.HippoStdPubWfNodeType;
 import uk.nhs.hee.web.utils.DateUtils;
 
 import javax.jcr.RepositoryException;
+import java.util.Calendar;
 
 @Node(jcrType="hee:basedocument")
 public class BaseDocument extends HippoDocument {
@@ -14,4 +15,8 @@ public class BaseDocument extends HippoDocument {
                 getNode().getProperty(HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE).getDate().getTime(),
                 DateUtils.DD_MMMM_YYYY_PATTERN);
     }
+
+    public Calendar getLastModificationDate() {
+        return getSingleProperty(HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE);
+    }
 }
@@ -1,5 +1,7 @@
 package uk.nhs.hee.web.components;
 
+import org.apache.commons.lang3.LocaleUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.hippoecm.hst.content.beans.query.HstQuery;
@@ -10,10 +12,11 @@ import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
 import org.hippoecm.hst.content.beans.query.filter.Filter;
 import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
-import org.hippoecm.hst.core.component.HstComponentException;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.parameters.ParametersInfo;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
 import org.onehippo.cms7.essentials.components.EssentialsDocumentComponent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,12 +25,20 @@ import uk.nhs.hee.web.beans.Guidance;
 import uk.nhs.hee.web.beans.MiniHub;
 import uk.nhs.hee.web.components.info.AToZPageComponentInfo;
 import uk.nhs.hee.web.repository.HEEField;
+import uk.nhs.hee.web.services.AToZIndexService;
+import uk.nhs.hee.web.services.MiniHubGuidanceURLService;
+import uk.nhs.hee.web.utils.DocumentUtils;
 import uk.nhs.hee.web.utils.HstUtils;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
- * Base component for A to Z Listing Page.
+ * <p>Base component for A to Z Listing Page.</p>
+ *
+ * <p>The A to Z index of the pages is materialized by {@link AToZIndexService} and only re-queried
+ * when an A to Z eligible document of the channel changes.</p>
  */
 @ParametersInfo(type = AToZPageComponentInfo.class)
 public class AToZListingPageComponent extends EssentialsDocumentComponent {
@@ -35,61 +46,83 @@ public class AToZListingPageComponent extends EssentialsDocumentComponent {
 
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
         super.doBeforeRender(request, response);
-        final Map<String, List<Pair>> aToZMap;
-        try {
-            aToZMap = executeAtoZQuery(request);
-            request.setModel("atozmap", aToZMap);
-        } catch (final QueryException e) {
-            throw new HstComponentException("An error has occurred while trying to execute hst query.", e);
+
+        final AtozPage atozPage = request.getModel(REQUEST_ATTR_DOCUMENT);
+        PageDependencies.recordDocument(request, atozPage);
+        if (atozPage == null) {
+            return;
         }
+
+        final HstRequestContext requestContext = request.getRequestContext();
+        final HippoBean scopeBean = doGetScopeBean(atozPage.getPath());
+        final Locale locale = getLocale(requestContext);
+
+        // A to Z Listing Pages depend on any document published under their scope
+        PageDependencies.recordScope(request, scopeBean);
+        PageDependencies.markComplete(request);
+
+        request.setModel("atozmap", getAToZIndexService().getIndex(
+                DocumentUtils.getChannel(scopeBean.getPath() + "/"),
+                HstUtils.getMountCacheKey(requestContext) + "|" + scopeBean.getPath() + "|" + locale,
+                locale,
+                () -> executeAtoZQuery(request, scopeBean)));
     }
 
     /**
      * Builds and executes the Query to list pages for the A to Z Page request.
      *
-     * @param request the {@link HstRequest} instance.
-     * @return the {@link Map<String, List<Pair>>} instance populated with alphabeticised lists containing title and url of pages that meets the criteria
+     * @param request   the {@link HstRequest} instance.
+     * @param scopeBean the scope {@link HippoBean} instance.
+     * @return the {@link List<Pair>} of title and url of pages that meets the criteria.
      * @throws QueryException thrown when an error occurs during execution of the query built.
      */
-    private Map<String, List<Pair>> executeAtoZQuery(final HstRequest request) throws QueryException {
-        final Map <String, List<Pair>> atozmap = new HashMap<String, List<Pair>>();
-        for (char ch = 'A'; ch <= 'Z'; ++ch)
-            atozmap.put(String.valueOf(ch), null);
-
-        final AtozPage atozPage = request.getModel(REQUEST_ATTR_DOCUMENT);
-
-        final HstQuery query = buildQuery(request, atozPage);
+    private List<Pair<String, String>> executeAtoZQuery(final HstRequest request, final HippoBean scopeBean)
+            throws QueryException {
+        final HstQuery query = buildQuery(request, scopeBean);
         LOGGER.debug("Execute query: {}", query.getQueryAsString(false));
         final HstQueryResult results = query.execute();
 
+        final List<Pair<String, String>> pages = new ArrayList<>(results.getSize());
         final HippoBeanIterator beans = results.getHippoBeans();
         while (beans.hasNext()) {
             final HippoBean bean = beans.nextHippoBean();
             if (bean != null) {
-                String firstChar = String.valueOf(bean.getSingleProperty("hee:title").toString().charAt(0)).toUpperCase();
-                final Pair<String, String> page = new ImmutablePair(bean.getSingleProperty("hee:title"), getPageUrl(request, bean));
-                if (atozmap.get(firstChar) == null) {
-                    atozmap.put(firstChar, new ArrayList<>(Arrays.asList(page)));
-                } else {
-                    atozmap.get(firstChar).add(page);
-                }
+                pages.add(new ImmutablePair<>(
+                        bean.getSingleProperty(HEEField.DOCUMENT_TITLE.getName()), getPageUrl(request, bean)));
             }
         }
-        return atozmap;
+        return pages;
+    }
+
+    /**
+     * Returns the {@link Locale} of the resolved Mount with which the page titles needs to be collated.
+     * Defaults to {@link Locale#UK}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the {@link Locale} of the resolved Mount with which the page titles needs to be collated.
+     */
+    private Locale getLocale(final HstRequestContext requestContext) {
+        final String locale = requestContext.getResolvedMount().getMount().getLocale();
+
+        try {
+            return StringUtils.isEmpty(locale) ? Locale.UK : LocaleUtils.toLocale(locale);
+        } catch (final IllegalArgumentException e) {
+            LOGGER.warn("Caught error '{}' while parsing Mount locale '{}'. Defaulting to '{}'",
+                    e.getMessage(), locale, Locale.UK);
+        }
+
+        return Locale.UK;
     }
 
     /**
      * Builds Query for the A to Z Page request.
      *
      * @param request     the {@link HstRequest} instance.
-     * @param atozPage    the {@link AtozPage} instance.
+     * @param scopeBean   the scope {@link HippoBean} instance.
      * @return the {@link HstQuery} instance built for the current Listing Page request.
      * @throws FilterException thrown when an error occurs during Query Filter build.
      */
-    private HstQuery buildQuery(final HstRequest request, final AtozPage atozPage) throws FilterException {
-        final String documentPath = atozPage.getPath();
-        final HippoBean scopeBean = doGetScopeBean(documentPath);
-
+    private HstQuery buildQuery(final HstRequest request, final HippoBean scopeBean) throws FilterException {
         final HstQuery query = createQuery(scopeBean, ListingPageType.ATOZ_LISTING.getDocumentTypes());
         query.setFilter(createQueryFilter(request, query));
         query.addOrderByAscending(HEEField.DOCUMENT_TITLE.getName());
@@ -100,6 +133,8 @@ public class AToZListingPageComponent extends EssentialsDocumentComponent {
     /**
      * Constructs the page url depending on whether the page is a MiniHub
      *
+     * <p>URL of a MiniHub page is its first Guidance page URL served by {@link MiniHubGuidanceURLService}.</p>
+     *
      * @param request   the {@link HstRequest} instance.
      * @param bean      the {@link HippoBean} instance.
      * @return the {@link String} instance.
@@ -108,17 +143,38 @@ public class AToZListingPageComponent extends EssentialsDocumentComponent {
         final boolean isMinihub = bean.getContentType().equals("hee:MiniHub");
         String pageUrl = "";
         if (isMinihub) {
-            final List<Guidance> guidanceDocs = ((MiniHub) bean).getGuidancePages();
-            pageUrl = HstUtils.getURLByBean(request.getRequestContext(), bean, false)
-                    + "/"
-                    + guidanceDocs.get(0).getName();
+            pageUrl = getMiniHubGuidanceURLService().getFirstGuidanceURL(request.getRequestContext(), (MiniHub) bean);
 
+            if (pageUrl == null) {
+                final List<Guidance> guidanceDocs = ((MiniHub) bean).getGuidancePages();
+                pageUrl = HstUtils.getURLByBean(request.getRequestContext(), bean, false)
+                        + "/"
+                        + guidanceDocs.get(0).getName();
+            }
         } else {
             pageUrl = HstUtils.getURLByBean(request.getRequestContext(), bean, false);
         }
         return pageUrl;
     }
 
+    /**
+     * Returns the {@link AToZIndexService} instance.
+     *
+     * @return the {@link AToZIndexService} instance.
+     */
+    protected AToZIndexService getAToZIndexService() {
+        return HstServices.getComponentManager().getComponent(AToZIndexService.class.getName());
+    }
+
+    /**
+     * Returns the {@link MiniHubGuidanceURLService} instance.
+     *
+     * @return the {@link MiniHubGuidanceURLService} instance.
+     */
+    protected MiniHubGuidanceURLService getMiniHubGuidanceURLService() {
+        return HstServices.getComponentManager().getComponent(MiniHubGuidanceURLService.class.getName());
+    }
+
     /**
      * Returns {@link HstQuery} built based on the given {@code scope} bean and {@code documentTypes}.
      *
@@ -19,6 +19,7 @@ public class BannerComponent extends EssentialsDocumentComponent {
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
         super.doBeforeRender(request, response);
+        PageDependencies.recordDocument(request, request.getModel(REQUEST_ATTR_DOCUMENT));
 
         request.setModel("bannerContentRewriter", bannerContentRewriter);
     }
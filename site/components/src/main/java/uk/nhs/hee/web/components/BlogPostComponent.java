@@ -1,17 +1,16 @@
 package uk.nhs.hee.web.components;
 
-import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.parameters.ParametersInfo;
-import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
 import org.onehippo.cms7.essentials.components.EssentialsDocumentComponent;
 import uk.nhs.hee.web.beans.BlogComment;
 import uk.nhs.hee.web.beans.BlogPost;
 import uk.nhs.hee.web.components.info.BlogPostComponentInfo;
 import uk.nhs.hee.web.repository.ValueListIdentifier;
+import uk.nhs.hee.web.services.ListingPageService;
 import uk.nhs.hee.web.utils.DocumentUtils;
-import uk.nhs.hee.web.utils.HstUtils;
 import uk.nhs.hee.web.utils.ValueListUtils;
 
 import java.util.Arrays;
@@ -30,7 +29,9 @@ public class BlogPostComponent extends EssentialsDocumentComponent {
         super.doBeforeRender(request, response);
 
         final BlogPost blogPost = request.getModel(REQUEST_ATTR_DOCUMENT);
+        PageDependencies.recordDocument(request, blogPost);
         if (blogPost != null) {
+            PageDependencies.markComplete(request);
             addCategoriesValueListMapToModel(request, blogPost);
 
             addBlogListingPageURLToModel(request);
@@ -57,17 +58,23 @@ public class BlogPostComponent extends EssentialsDocumentComponent {
      * @param request the {@link HstRequest} instance.
      */
     private void addBlogListingPageURLToModel(final HstRequest request) {
-        final HstRequestContext hstRequestContext = request.getRequestContext();
-        final HippoBean blogListingPageBean =
-                HstUtils.getListingPageBeanByType(hstRequestContext, ListingPageType.BLOG_LISTING.getType());
+        final String blogListingPageURL = getListingPageService().getListingPageURL(
+                request.getRequestContext(), ListingPageType.BLOG_LISTING.getType());
 
-        if (blogListingPageBean == null) {
+        if (blogListingPageURL == null) {
             return;
         }
 
-        request.setModel(
-                Model.BLOG_LISTING_PAGE_URL.getKey(),
-                HstUtils.getURLByBean(hstRequestContext, blogListingPageBean, false));
+        request.setModel(Model.BLOG_LISTING_PAGE_URL.getKey(), blogListingPageURL);
+    }
+
+    /**
+     * Returns the {@link ListingPageService} instance.
+     *
+     * @return the {@link ListingPageService} instance.
+     */
+    protected ListingPageService getListingPageService() {
+        return HstServices.getComponentManager().getComponent(ListingPageService.class.getName());
     }
 
     /**
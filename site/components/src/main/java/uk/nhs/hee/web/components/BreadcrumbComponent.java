@@ -1,5 +1,6 @@
 package uk.nhs.hee.web.components;
 
+import org.apache.commons.lang3.StringUtils;
 import org.hippoecm.hst.configuration.hosting.Mount;
 import org.hippoecm.hst.configuration.sitemap.HstSiteMap;
 import org.hippoecm.hst.configuration.sitemap.HstSiteMapItem;
@@ -7,17 +8,22 @@ import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.linking.HstLink;
 import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+import org.hippoecm.hst.site.HstServices;
 import org.onehippo.cms7.essentials.components.CommonComponent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.nhs.hee.web.components.beans.BreadcrumbLink;
+import uk.nhs.hee.web.services.BreadcrumbService;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * Component that adds Breadcrumb Links model to the request.
+ * <p>Component that adds Breadcrumb Links model to the request.</p>
+ *
+ * <p>The documents of the ancestor pages (i.e. the pages linked from the Breadcrumb) are recorded as
+ * dependencies of the current page (see {@link PageDependencies}).</p>
  */
 public class BreadcrumbComponent extends CommonComponent {
     // Logger
@@ -45,10 +51,49 @@ public class BreadcrumbComponent extends CommonComponent {
             return;
         }
 
-        final List<BreadcrumbLink> breadcrumbLinks = buildBreadCrumbLinks(request, siteMapItem);
+        final BreadcrumbService breadcrumbService = getBreadcrumbService();
+        final List<BreadcrumbLink> breadcrumbLinks = breadcrumbService == null
+                ? buildBreadCrumbLinks(request, siteMapItem)
+                : breadcrumbService.getBreadcrumbLinks(
+                        request.getRequestContext(), siteMapItem, () -> buildBreadCrumbLinks(request, siteMapItem));
 
         LOGGER.debug("Breadcrumb Links = {}", breadcrumbLinks);
         request.setModel("breadcrumbLinks", breadcrumbLinks);
+        recordAncestorDocuments(request, siteMapItem);
+    }
+
+    /**
+     * Records the documents of the ancestors of the given {@code hstSiteMapItem} as dependencies
+     * of the current page. The ancestors without a document or whose content path can only be resolved
+     * against a (wildcard) request path are skipped.
+     *
+     * @param request        the {@link HstRequest} instance.
+     * @param hstSiteMapItem the {@link HstSiteMapItem} instance whose ancestor documents needs to be recorded.
+     */
+    private void recordAncestorDocuments(final HstRequest request, final HstSiteMapItem hstSiteMapItem) {
+        final String contentPath = request.getRequestContext().getResolvedSiteMapItem()
+                .getResolvedMount().getMount().getContentPath();
+        final List<String> handlePaths = new ArrayList<>();
+
+        HstSiteMapItem siteMapItem = hstSiteMapItem;
+        while (siteMapItem.getParentItem() != null) {
+            siteMapItem = siteMapItem.getParentItem();
+            final String relativeContentPath = siteMapItem.getRelativeContentPath();
+            if (StringUtils.isNotEmpty(relativeContentPath) && !relativeContentPath.contains("${")) {
+                handlePaths.add(contentPath + "/" + relativeContentPath);
+            }
+        }
+
+        PageDependencies.recordDocuments(request, handlePaths);
+    }
+
+    /**
+     * Returns the {@link BreadcrumbService} instance.
+     *
+     * @return the {@link BreadcrumbService} instance or {@code null} if it isn't available.
+     */
+    protected BreadcrumbService getBreadcrumbService() {
+        return HstServices.getComponentManager().getComponent(BreadcrumbService.class.getName());
     }
 
     /**
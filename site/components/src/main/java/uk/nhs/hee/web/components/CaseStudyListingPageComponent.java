@@ -12,6 +12,7 @@ import uk.nhs.hee.web.repository.ValueListIdentifier;
 import uk.nhs.hee.web.utils.HstUtils;
 import uk.nhs.hee.web.utils.ValueListUtils;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,21 +25,33 @@ public class CaseStudyListingPageComponent extends ListingPageComponent {
 
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
+        // The value-lists missing from the cache are looked up concurrently with the listing query & facet counts
+        final ConcurrentModels models = ConcurrentModels.start(request, this);
+        models.submit("impactTypesMap",
+                        ValueListUtils.lookupValueListMap(ValueListIdentifier.CASE_STUDY_IMPACT_TYPES.getName()))
+                .submit("sectorMap",
+                        ValueListUtils.lookupValueListMap(ValueListIdentifier.CASE_STUDY_SECTORS.getName()))
+                .submit("regionMap",
+                        ValueListUtils.lookupValueListMap(ValueListIdentifier.CASE_STUDY_REGIONS.getName()))
+                .submit("providerMap",
+                        ValueListUtils.lookupValueListMap(ValueListIdentifier.CASE_STUDY_PROVIDERS.getName()));
+
         super.doBeforeRender(request, response);
 
         request.setModel("selectedImpactGroups",
                 HstUtils.getQueryParameterValues(request, IMPACT_GROUP_QUERY_PARAM));
         request.setModel("selectedSortOrder", getSelectedSortOrder(request));
+        request.setModel("impactGroupCounts",
+                getFacetCounts(request, HEEField.IMPACT_GROUP.getName(), IMPACT_GROUP_QUERY_PARAM));
 
         request.setModel("impactGroupMap", getFilterValueListMap(request));
-        request.setModel("impactTypesMap",
-                ValueListUtils.getValueListMap(ValueListIdentifier.CASE_STUDY_IMPACT_TYPES.getName()));
-        request.setModel("sectorMap",
-                ValueListUtils.getValueListMap(ValueListIdentifier.CASE_STUDY_SECTORS.getName()));
-        request.setModel("regionMap",
-                ValueListUtils.getValueListMap(ValueListIdentifier.CASE_STUDY_REGIONS.getName()));
-        request.setModel("providerMap",
-                ValueListUtils.getValueListMap(ValueListIdentifier.CASE_STUDY_PROVIDERS.getName()));
+
+        models.setModels();
+    }
+
+    @Override
+    protected List<String> getFilterQueryParameters() {
+        return Collections.singletonList(IMPACT_GROUP_QUERY_PARAM);
     }
 
     @Override
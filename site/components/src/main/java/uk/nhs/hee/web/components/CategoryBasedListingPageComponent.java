@@ -10,6 +10,7 @@ import uk.nhs.hee.web.components.info.ListingPageComponentInfo;
 import uk.nhs.hee.web.repository.HEEField;
 import uk.nhs.hee.web.utils.HstUtils;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -27,6 +28,13 @@ public class CategoryBasedListingPageComponent extends ListingPageComponent {
         request.setModel("selectedCategories", HstUtils.getQueryParameterValues(request, CATEGORY_QUERY_PARAM));
         request.setModel("categoriesMap", getFilterValueListMap(request));
         request.setModel("selectedSortOrder", getSelectedSortOrder(request));
+        request.setModel("categoryCounts",
+                getFacetCounts(request, HEEField.CATEGORIES.getName(), CATEGORY_QUERY_PARAM));
+    }
+
+    @Override
+    protected List<String> getFilterQueryParameters() {
+        return Collections.singletonList(CATEGORY_QUERY_PARAM);
     }
 
     @Override
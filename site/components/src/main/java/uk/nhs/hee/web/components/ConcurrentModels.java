@@ -0,0 +1,168 @@
+package uk.nhs.hee.web.components;
+
+import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.services.ModelLookupService;
+
+import javax.jcr.RepositoryException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>Opt-in helper through which a component could run its independent, model producing lookups
+ * (see {@link ModelLookup}) concurrently (on the bounded {@link ModelLookupService} threads) and
+ * also, log the time it has taken.</p>
+ *
+ * <p>Components start it at the beginning of their {@code doBeforeRender}, submit the lookups as early as possible
+ * (e.g. before running the listing query) and set the looked up models at the end:</p>
+ *
+ * <pre>
+ * final ConcurrentModels models = ConcurrentModels.start(request, this);
+ * models.submit("hubTitle", session -&gt; session.getNode(hubPath).getProperty("hee:title").getString());
+ * ...
+ * models.setModels();
+ * </pre>
+ *
+ * <p>The time taken by the component (from {@link #start(HstRequest, Object)} to {@link #setModels()}) and each of
+ * its lookups are logged to the {@code uk.nhs.hee.web.timing} logger (on {@code debug} level, so that they
+ * aren't logged on every render unless the logger is enabled).</p>
+ */
+public final class ConcurrentModels {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentModels.class);
+    private static final Logger TIMING_LOGGER = LoggerFactory.getLogger("uk.nhs.hee.web.timing");
+
+    private final HstRequest request;
+    private final String componentName;
+    private final ModelLookupService modelLookupService;
+    private final long startTime;
+    // Model name -> Model lookup future
+    private final Map<String, Future<?>> lookups = new LinkedHashMap<>();
+    // Model name -> Time (in milliseconds) taken by its lookup
+    private final Map<String, Long> lookupTimes = new ConcurrentHashMap<>();
+
+    private ConcurrentModels(
+            final HstRequest request,
+            final String componentName,
+            final ModelLookupService modelLookupService) {
+        this.request = request;
+        this.componentName = componentName;
+        this.modelLookupService = modelLookupService;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns {@link ConcurrentModels} instance for the given {@code component} of the current request.
+     *
+     * @param request   the {@link HstRequest} instance.
+     * @param component the component (whose class name is logged along with the time taken).
+     * @return the {@link ConcurrentModels} instance for the given {@code component} of the current request.
+     */
+    public static ConcurrentModels start(final HstRequest request, final Object component) {
+        return new ConcurrentModels(
+                request,
+                component.getClass().getSimpleName(),
+                HstServices.isAvailable()
+                        ? HstServices.getComponentManager().getComponent(ModelLookupService.class.getName())
+                        : null);
+    }
+
+    /**
+     * <p>Submits the given {@code lookup} of the model {@code modelName}.</p>
+     *
+     * <p>The model is set without running the lookup if it is already available (see
+     * {@link ModelLookup#getCachedModel()}) and the lookup is run on the request thread (through the request
+     * session) if {@link ModelLookupService} isn't available.</p>
+     *
+     * @param modelName the name of the model produced by the given {@code lookup}.
+     * @param lookup    the {@link ModelLookup} instance.
+     * @param <T>       the type of the model produced by the lookup.
+     * @return this {@link ConcurrentModels} instance.
+     */
+    public <T> ConcurrentModels submit(final String modelName, final ModelLookup<T> lookup) {
+        final T cachedModel = lookup.getCachedModel();
+        if (cachedModel != null) {
+            lookups.put(modelName, CompletableFuture.completedFuture(cachedModel));
+            return this;
+        }
+
+        final ModelLookup<T> timedLookup = session -> {
+            final long lookupStartTime = System.currentTimeMillis();
+            try {
+                return lookup.lookup(session);
+            } finally {
+                lookupTimes.put(modelName, System.currentTimeMillis() - lookupStartTime);
+            }
+        };
+
+        if (modelLookupService == null) {
+            lookups.put(modelName, lookupOnRequestThread(timedLookup));
+        } else {
+            lookups.put(modelName,
+                    modelLookupService.submit(request.getRequestContext().isPreview(), timedLookup));
+        }
+
+        return this;
+    }
+
+    /**
+     * <p>Waits (up to the {@link ModelLookupService} timeout in total) for the submitted lookups and sets their
+     * models to the request. The models whose lookups fail or time out aren't set (and the timed out lookups
+     * are cancelled without interrupting the lookup threads, as interrupting a thread in the middle of a repository
+     * call could leave its pooled session unusable).</p>
+     *
+     * <p>Also, logs the time taken by the component and its lookups.</p>
+     */
+    public void setModels() {
+        final long timeoutMillis = modelLookupService == null ? 0L : modelLookupService.getTimeoutMillis();
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        for (final Map.Entry<String, Future<?>> lookup : lookups.entrySet()) {
+            try {
+                request.setModel(lookup.getKey(), lookup.getValue().get(
+                        Math.max(deadline - System.currentTimeMillis(), 0L), TimeUnit.MILLISECONDS));
+            } catch (final TimeoutException e) {
+                lookup.getValue().cancel(false);
+                LOGGER.warn("Lookup of '{}' model of {} has timed out after {} ms",
+                        lookup.getKey(), componentName, timeoutMillis);
+            } catch (final ExecutionException e) {
+                LOGGER.error("Caught error '{}' while looking up '{}' model of {}",
+                        e.getCause().getMessage(), lookup.getKey(), componentName, e.getCause());
+            } catch (final InterruptedException e) {
+                lookups.values().forEach(future -> future.cancel(false));
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        if (TIMING_LOGGER.isDebugEnabled()) {
+            TIMING_LOGGER.debug("{} of '{}' took {} ms (model lookups: {})",
+                    componentName, request.getRequestURI(), System.currentTimeMillis() - startTime, lookupTimes);
+        }
+    }
+
+    /**
+     * Runs the given {@code lookup} on the request thread through the request session.
+     *
+     * @param lookup the {@link ModelLookup} instance.
+     * @param <T>    the type of the model produced by the lookup.
+     * @return the (completed) {@link Future} of the model produced by the given {@code lookup}.
+     */
+    private <T> Future<T> lookupOnRequestThread(final ModelLookup<T> lookup) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(lookup.lookup(request.getRequestContext().getSession()));
+        } catch (final RepositoryException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+}
@@ -6,27 +6,23 @@ import org.hippoecm.hst.content.beans.query.filter.Filter;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.parameters.ParametersInfo;
-import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.hst.site.HstServices;
 import org.hippoecm.repository.util.DateTools;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import uk.nhs.hee.web.components.info.ListingPageComponentInfo;
 import uk.nhs.hee.web.repository.HEEField;
+import uk.nhs.hee.web.services.EventYearFacetService;
+import uk.nhs.hee.web.utils.DocumentUtils;
 import uk.nhs.hee.web.utils.HstUtils;
 
-import javax.jcr.NodeIterator;
-import javax.jcr.RepositoryException;
-import javax.jcr.query.Query;
-import javax.jcr.query.QueryResult;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Event Listing Page Component.
  */
 @ParametersInfo(type = ListingPageComponentInfo.class)
 public class EventListingPageComponent extends ListingPageComponent {
-    private static final Logger LOGGER = LoggerFactory.getLogger(EventListingPageComponent.class);
 
     private static final String YEAR_QUERY_PARAM = "year";
 
@@ -34,11 +30,18 @@ public class EventListingPageComponent extends ListingPageComponent {
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
         super.doBeforeRender(request, response);
 
+        final String channel = DocumentUtils.getChannel(getListingPageModel(request).getPath());
         request.setModel("selectedYears", HstUtils.getQueryParameterValues(request, YEAR_QUERY_PARAM));
-        request.setModel("years", getDistinctEventYears(request));
+        request.setModel("years", getEventYearFacetService().getYears(channel));
+        request.setModel("yearCounts", getEventYearFacetService().getYearCounts(channel));
         request.setModel("selectedSortOrder", getSelectedSortOrder(request));
     }
 
+    @Override
+    protected List<String> getFilterQueryParameters() {
+        return Collections.singletonList(YEAR_QUERY_PARAM);
+    }
+
     @Override
     protected Filter createQueryFilters(final HstRequest request, final HstQuery query) throws FilterException {
         return createEventDateFilter(request, query);
@@ -68,39 +71,11 @@ public class EventListingPageComponent extends ListingPageComponent {
     }
 
     /**
-     * Returns distinct event years (as a {@link List<Integer>})
-     * based on the events (as {@code hee:event} documents) available in CMS.
+     * Returns the {@link EventYearFacetService} instance.
      *
-     * @param request the {@link HstRequest} instance.
-     * @return the distinct event years based on the events (as {@code hee:event} documents) available in CMS.
+     * @return the {@link EventYearFacetService} instance.
      */
-    private List<Integer> getDistinctEventYears(final HstRequest request) {
-        final Set<Integer> eventYearsSet = new HashSet<>();
-        try {
-            final Query query = request.getRequestContext().getSession().getWorkspace().getQueryManager().createQuery(
-                    String.format("SELECT date FROM [hee:event] WHERE [%s] = '%s'",
-                            HippoStdNodeType.HIPPOSTD_STATE, HippoStdNodeType.PUBLISHED),
-                    Query.JCR_SQL2);
-            final QueryResult results = query.execute();
-            final NodeIterator eventNodeIterator = results.getNodes();
-
-            while (eventNodeIterator.hasNext()) {
-                eventYearsSet.add(eventNodeIterator.nextNode()
-                        .getProperty(HEEField.DATE.getName()).getDate().get(Calendar.YEAR));
-            }
-        } catch (final RepositoryException e) {
-            LOGGER.error("Caught {} while extracting distinct event years from 'hee:event' documents",
-                    e.getMessage(), e);
-        }
-
-        if (eventYearsSet.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        final List<Integer> distinctEventYearsList =
-                eventYearsSet.stream().sorted().collect(Collectors.toCollection(ArrayList::new));
-        LOGGER.debug("Distinct event years extracted from 'hee:event' documents = {}", distinctEventYearsList);
-
-        return distinctEventYearsList;
+    protected EventYearFacetService getEventYearFacetService() {
+        return HstServices.getComponentManager().getComponent(EventYearFacetService.class.getName());
     }
 }
@@ -1,5 +1,6 @@
 package uk.nhs.hee.web.components;
 
+import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.parameters.ParametersInfo;
@@ -12,5 +13,11 @@ public class GuidanceComponent extends EssentialsDocumentComponent {
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
         super.doBeforeRender(request, response);
+
+        final HippoBean document = request.getModel(REQUEST_ATTR_DOCUMENT);
+        PageDependencies.recordDocument(request, document);
+        if (document != null) {
+            PageDependencies.markComplete(request);
+        }
     }
 }
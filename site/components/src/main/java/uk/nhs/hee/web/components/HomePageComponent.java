@@ -18,17 +18,23 @@ public class HomePageComponent extends EssentialsContentComponent {
 
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
+        final ConcurrentModels models = ConcurrentModels.start(request, this);
+
         super.doBeforeRender(request, response);
 
         final HomePage homePage = request.getModel(REQUEST_ATTR_DOCUMENT);
+        PageDependencies.recordDocument(request, homePage);
+        PageDependencies.markComplete(request);
         final List<HippoBean> contentBlocks = (List<HippoBean>) homePage.getContentBlocks();
         final boolean hasNavMap = contentBlocks.stream().anyMatch(NavMap.class::isInstance);
 
         // Add 'NavMapRegions' value-list (as a map) to the model
         // if the Content Block contains at least one hee:navMap block.
         if (hasNavMap) {
-            request.setModel(Model.NAV_MAP_REGION_MAP.getKey(),
-                    ValueListUtils.getValueListMap(ValueListIdentifier.NAV_MAP_REGIONS.getName()));
+            models.submit(Model.NAV_MAP_REGION_MAP.getKey(),
+                    ValueListUtils.lookupValueListMap(ValueListIdentifier.NAV_MAP_REGIONS.getName()));
         }
+
+        models.setModels();
     }
 }
@@ -0,0 +1,69 @@
+package uk.nhs.hee.web.components;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link HippoBeanIterator} over a list of (already loaded) {@link HippoBean}s, so that the results
+ * which haven't been read from a query result (e.g. served by a search provider or a cache) could be paginated
+ * via the {@link org.onehippo.cms7.essentials.components.paging.PageableFactory}.
+ */
+final class ListHippoBeanIterator implements HippoBeanIterator {
+    private final List<HippoBean> beans;
+    private int position;
+
+    /**
+     * Creates {@link ListHippoBeanIterator} instance.
+     *
+     * @param beans the {@link HippoBean}s to be iterated.
+     */
+    ListHippoBeanIterator(final List<HippoBean> beans) {
+        this.beans = beans;
+    }
+
+    @Override
+    public HippoBean nextHippoBean() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return beans.get(position++);
+    }
+
+    @Override
+    public void skip(final int skipNum) {
+        if (skipNum < 0 || position + skipNum > beans.size()) {
+            throw new NoSuchElementException();
+        }
+
+        position += skipNum;
+    }
+
+    @Override
+    public long getSize() {
+        return beans.size();
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < beans.size();
+    }
+
+    @Override
+    public HippoBean next() {
+        return nextHippoBean();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -1,9 +1,9 @@
 package uk.nhs.hee.web.components;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.commons.lang.StringUtils;
-import org.apache.jackrabbit.JcrConstants;
-import org.hippoecm.hst.container.RequestContextProvider;
+import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
 import org.hippoecm.hst.content.beans.query.HstQuery;
 import org.hippoecm.hst.content.beans.query.HstQueryResult;
 import org.hippoecm.hst.content.beans.query.builder.HstQueryBuilder;
@@ -11,24 +11,31 @@ import org.hippoecm.hst.content.beans.query.exceptions.FilterException;
 import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
 import org.hippoecm.hst.content.beans.query.filter.Filter;
 import org.hippoecm.hst.content.beans.standard.HippoBean;
-import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
 import org.hippoecm.hst.core.component.HstComponentException;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.site.HstServices;
+import org.hippoecm.repository.util.DateTools;
 import org.onehippo.cms7.essentials.components.EssentialsDocumentComponent;
 import org.onehippo.cms7.essentials.components.paging.Pageable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import uk.nhs.hee.web.beans.Guidance;
 import uk.nhs.hee.web.beans.ListingPage;
-import uk.nhs.hee.web.beans.MiniHub;
 import uk.nhs.hee.web.repository.HEEField;
+import uk.nhs.hee.web.services.ListingFacetService;
+import uk.nhs.hee.web.services.ListingResult;
+import uk.nhs.hee.web.services.ListingResultService;
+import uk.nhs.hee.web.services.MiniHubGuidanceURLService;
+import uk.nhs.hee.web.services.TokenSigningService;
 import uk.nhs.hee.web.utils.DocumentUtils;
 import uk.nhs.hee.web.utils.HstUtils;
 import uk.nhs.hee.web.utils.ValueListUtils;
 
 import java.util.*;
-import java.util.stream.StreamSupport;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import static uk.nhs.hee.web.repository.HEEField.DOCUMENT_TITLE;
 
@@ -42,11 +49,24 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
     private static final String DESCENDING_SORT_ORDER = "desc";
     private static final String ATOZ_SORT_ORDER = "az";
     private static final String SORT_BY_QUERY_PARAM = "sortBy";
+    private static final String CURSOR_QUERY_PARAM = "cursor";
+    // Name of the (derived) sort by date value (in milliseconds) of the listed results
+    private static final String SORT_BY_DATE_VALUE = "sortByDate";
+    private static final int FACET_QUERY_LIMIT = 10000;
+    // Number of (first) pages paginated by offset for the Listing Page Types with keyset pagination enabled
+    private static final int OFFSET_PAGINATION_PAGES = 10;
 
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
         super.doBeforeRender(request, response);
 
+        // Listing Pages depend on any document published under their scope
+        final ListingPage listingPage = request.getModel(REQUEST_ATTR_DOCUMENT);
+        PageDependencies.recordDocument(request, listingPage);
+        if (listingPage != null) {
+            PageDependencies.recordScope(request, doGetScopeBean(listingPage.getPath()));
+        }
+
         final Pageable<HippoBean> pageable;
         try {
             pageable = executeQuery(request);
@@ -55,38 +75,273 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
         }
 
         request.setModel(REQUEST_ATTR_PAGEABLE, pageable);
+        if (listingPage != null && isPageCacheable(request)) {
+            PageDependencies.markComplete(request);
+        }
+    }
+
+    /**
+     * Returns whether the page built for the given {@code request} could be cached once its dependencies
+     * (i.e. the Listing Page document and its scope) have been recorded.
+     *
+     * <p>Extending classes listing the pages from another source (e.g. {@link SearchResultsComponent})
+     * need to override this in order to prevent their pages from being cached.</p>
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return {@code true} if the page built for the given {@code request} could be cached.
+     * Otherwise, {@code false}.
+     */
+    protected boolean isPageCacheable(final HstRequest request) {
+        return true;
     }
 
     /**
      * Builds and executes the Query to list pages for the current Listing Page request.
      *
+     * <p>The results (i.e. the handle UUIDs of the listed page and the total size) are cached by
+     * {@link ListingResultService} per Mount, Listing Page, filters, sort order and page
+     * (see {@link #getListingResultCacheKey(HstRequest, ListingPage)}) until a document of the Listing Page Type
+     * gets changed. Listing Page Types without document types of their own aren't cached.</p>
+     *
+     * <p>Extending classes may override this in order to list the pages from another source
+     * (e.g. {@link SearchResultsComponent}).</p>
+     *
      * @param request the {@link HstRequest} instance.
      * @return the {@link Pageable<HippoBean>} instance.
      * @throws QueryException thrown when an error occurs during execution of the query built.
      */
-    private Pageable<HippoBean> executeQuery(final HstRequest request) throws QueryException {
+    protected Pageable<HippoBean> executeQuery(final HstRequest request) throws QueryException {
         final ListingPage listingPage = request.getModel(REQUEST_ATTR_DOCUMENT);
+        final ListingPageType listingPageType = getListing(request);
+        final ListingPageCursor cursor = getListingPageCursor(request);
+        final Map<String, Function<HippoBean, Object>> deriveFunctions = getResultDeriveFunctions(request);
+
+        // Results of the listed page if the query has been executed (i.e. not served from the cache)
+        final AtomicReference<ListingResults> queriedResults = new AtomicReference<>();
+        final Callable<ListingResult> loader = () -> {
+            final ListingResults listingResults = executeListingQuery(request, listingPage, cursor, deriveFunctions);
+            queriedResults.set(listingResults);
+            return new ListingResult(
+                    listingResults.getHandleIds(), listingResults.getTotalSize(), listingResults.getDocumentTypes());
+        };
+
+        final ListingResult listingResult = listingPageType.getDocumentTypes().length == 0
+                ? getUncachedListingResult(loader)
+                : getListingResult(request, listingPage, listingPageType, cursor, loader);
+
+        final ListingResults listingResults = queriedResults.get() == null
+                ? ListingResults.collect(
+                        getBeansByHandleIds(request, listingResult.getHandleIds()).iterator(),
+                        Integer.MAX_VALUE,
+                        Collections.emptySet(),
+                        deriveFunctions)
+                : queriedResults.get();
+
+        addMiniHubGuidances(request, listingResults.hasDocumentType("hee:guidance"));
+
+        final Pageable<HippoBean> pageable = getPageableFactory().createPageable(
+                new ListHippoBeanIterator(listingResults.getBeans()),
+                listingResult.getTotalSize(),
+                listingPage.getPageSize().intValue(),
+                getCurrentPage(request));
+
+        addPageCursors(request, pageable, listingResults, cursor);
+
+        return pageable;
+    }
 
-        final HstQuery query = buildQuery(request, listingPage);
+    /**
+     * <p>Returns the functions (by name) deriving the values which needs to be collected for each of the listed
+     * results while collecting them (see {@link ListingResults#collect(Iterator, int, Set, Map)}), so that the
+     * downstream steps don't need to re-read the results.</p>
+     *
+     * <p>Defaults to the sort by date (used to build the pagination cursors) if the current Listing Page could be
+     * paginated by cursor. Extending classes may override this in order to collect more values.</p>
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return the functions (by name) deriving the values which needs to be collected for each of the listed results.
+     */
+    protected Map<String, Function<HippoBean, Object>> getResultDeriveFunctions(final HstRequest request) {
+        if (!isKeysetPaginationEnabled(request)) {
+            return Collections.emptyMap();
+        }
+
+        final String sortByDateField = getListing(request).getSortByDateField();
+        return Collections.singletonMap(SORT_BY_DATE_VALUE, bean -> {
+            final Object date = bean.getSingleProperty(sortByDateField);
+            return date instanceof Calendar ? ((Calendar) date).getTimeInMillis() : null;
+        });
+    }
+
+    /**
+     * Executes the Query for the current Listing Page request and collects its results in a single pass.
+     *
+     * <p>If the given {@code cursor} isn't {@code null}, the documents already listed with its boundary date
+     * are skipped and the results of the pages before the cursor (queried in the reverse order)
+     * are reversed back.</p>
+     *
+     * @param request         the {@link HstRequest} instance.
+     * @param listingPage     the {@link ListingPage} instance.
+     * @param cursor          the {@link ListingPageCursor} of the current request (if paginated by cursor)
+     *                        or {@code null}.
+     * @param deriveFunctions the functions (by name) deriving the values which needs to be collected
+     *                        for each of the results.
+     * @return the {@link ListingResults} of the Query executed for the current Listing Page request.
+     * @throws QueryException thrown when an error occurs during execution of the query built.
+     */
+    private ListingResults executeListingQuery(
+            final HstRequest request,
+            final ListingPage listingPage,
+            final ListingPageCursor cursor,
+            final Map<String, Function<HippoBean, Object>> deriveFunctions) throws QueryException {
+        final HstQuery query = buildQuery(request, listingPage, cursor);
         LOGGER.debug("Execute query: {}", query.getQueryAsString(false));
 
         final HstQueryResult results = query.execute();
 
-        final boolean hasGuidance = StreamSupport.stream(
-                Spliterators.spliteratorUnknownSize(results.getHippoBeans(), Spliterator.ORDERED), false)
-                .anyMatch(bean -> "hee:guidance".equals(bean.getSingleProperty(JcrConstants.JCR_PRIMARYTYPE)));
+        final int pageSize = listingPage.getPageSize().intValue();
+        final ListingResults listingResults = ListingResults.collect(
+                results.getHippoBeans(),
+                pageSize,
+                cursor == null ? Collections.emptySet() : cursor.getListedHandleIds(),
+                deriveFunctions);
 
-        if (hasGuidance) {
-            addMiniHubGuidances(request);
-        } else {
-            request.setModel("miniHubGuidancePathToURLMap", Collections.emptyMap());
+        if (cursor == null) {
+            return listingResults.withTotalSize(results.getTotalSize());
         }
 
-        return getPageableFactory().createPageable(
-                results.getHippoBeans(),
-                results.getTotalSize(),
-                listingPage.getPageSize().intValue(),
-                getCurrentPage(request));
+        // The results are bounded by the cursor, hence the total size is counted separately
+        final int totalSize = countListingQuery(request, listingPage);
+        return cursor.isNext()
+                ? listingResults.withTotalSize(totalSize)
+                : listingResults.reverse().withTotalSize(totalSize);
+    }
+
+    /**
+     * Returns the total number of documents listed by the current Listing Page (honouring the active filters)
+     * counted by a single result query.
+     *
+     * @param request     the {@link HstRequest} instance.
+     * @param listingPage the {@link ListingPage} instance.
+     * @return the total number of documents listed by the current Listing Page.
+     * @throws QueryException thrown when an error occurs during execution of the count query.
+     */
+    private int countListingQuery(final HstRequest request, final ListingPage listingPage) throws QueryException {
+        final HstQuery query = createQuery(
+                doGetScopeBean(listingPage.getPath()), getDocumentTypes(request, listingPage));
+        query.setLimit(1);
+        query.setFilter(createQueryFilters(request, query));
+
+        return query.execute().getTotalSize();
+    }
+
+    /**
+     * Returns {@link ListingResult} of the current Listing Page request served by {@link ListingResultService}.
+     *
+     * @param request         the {@link HstRequest} instance.
+     * @param listingPage     the {@link ListingPage} instance.
+     * @param listingPageType the {@link ListingPageType} of the current Listing Page.
+     * @param cursor          the {@link ListingPageCursor} of the current request (if paginated by cursor)
+     *                        or {@code null}.
+     * @param loader          the loader executing the Listing Page query on cache miss.
+     * @return the {@link ListingResult} of the current Listing Page request.
+     * @throws QueryException thrown when an error occurs during execution of the query built.
+     */
+    private ListingResult getListingResult(
+            final HstRequest request,
+            final ListingPage listingPage,
+            final ListingPageType listingPageType,
+            final ListingPageCursor cursor,
+            final Callable<ListingResult> loader) throws QueryException {
+        try {
+            return getListingResultService().getListingResult(
+                    listingPageType, getListingResultCacheKey(request, listingPage, cursor), loader);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof QueryException) {
+                throw (QueryException) e.getCause();
+            }
+
+            throw new QueryException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Returns {@link ListingResult} loaded (i.e. the Listing Page query executed) by the given {@code loader}
+     * without caching it.
+     *
+     * @param loader the loader executing the Listing Page query.
+     * @return the {@link ListingResult} loaded by the given {@code loader}.
+     * @throws QueryException thrown when an error occurs during execution of the query built.
+     */
+    private ListingResult getUncachedListingResult(final Callable<ListingResult> loader) throws QueryException {
+        try {
+            return loader.call();
+        } catch (final QueryException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new QueryException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a key identifying the Mount, Listing Page (and its page size), filters (i.e. the filter query
+     * parameters, normalised by {@link #getFiltersKey(HstRequest, String...)}), the applied sort order
+     * (see {@link #getAppliedSortOrder(HstRequest)}), page and (decoded) cursor of the current Listing Page request.
+     * Hence, only the request parameters read by the query make up the key, so that any other parameter
+     * (or an unknown/ignored value) doesn't bust the cache.
+     *
+     * @param request     the {@link HstRequest} instance.
+     * @param listingPage the {@link ListingPage} instance.
+     * @param cursor      the {@link ListingPageCursor} of the current request (if paginated by cursor)
+     *                    or {@code null}.
+     * @return the key identifying the current Listing Page request.
+     */
+    private String getListingResultCacheKey(
+            final HstRequest request,
+            final ListingPage listingPage,
+            final ListingPageCursor cursor) {
+        return HstUtils.getMountCacheKey(request.getRequestContext()) + "|" +
+                listingPage.getPath() + "|" +
+                listingPage.getPageSize() + "|" +
+                getFiltersKey(request) + "|" +
+                getAppliedSortOrder(request) + "|" +
+                getCurrentPage(request) + "|" +
+                (cursor == null ? StringUtils.EMPTY : cursor.toToken());
+    }
+
+    /**
+     * Returns the {@link HippoBean}s of the given (canonical) {@code handleIds} (skipping the ones which
+     * no longer exist).
+     *
+     * @param request   the {@link HstRequest} instance.
+     * @param handleIds the (canonical) handle UUIDs of the documents.
+     * @return the {@link HippoBean}s of the given (canonical) {@code handleIds}.
+     */
+    private List<HippoBean> getBeansByHandleIds(final HstRequest request, final List<String> handleIds) {
+        final List<HippoBean> beans = new ArrayList<>(handleIds.size());
+
+        for (final String handleId : handleIds) {
+            try {
+                final Object bean = request.getRequestContext().getObjectBeanManager().getObjectByUuid(handleId);
+                if (bean instanceof HippoBean) {
+                    beans.add((HippoBean) bean);
+                }
+            } catch (final ObjectBeanManagerException e) {
+                LOGGER.warn("Caught error '{}' while getting the bean of the document handle '{}'",
+                        e.getMessage(), handleId, e);
+            }
+        }
+
+        return beans;
+    }
+
+    /**
+     * Returns the {@link ListingResultService} instance.
+     *
+     * @return the {@link ListingResultService} instance.
+     */
+    protected ListingResultService getListingResultService() {
+        return HstServices.getComponentManager().getComponent(ListingResultService.class.getName());
     }
 
     /**
@@ -95,59 +350,84 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
      * <p>This map would be used by search listing view/template in order to render URLs
      * for MiniHub Guidance documents (which may not have a channel page on its own).</p>
      *
-     * <p>This approach has been taken in order to avoid querying {@code hee:MiniHub} document corresponding
-     * to each of the {@code hee:guidance} document available in the search results (which might be
-     * little expensive performance wise) in order to construct the {@code hee:guidance} document URL.</p>
+     * <p>The map is served by {@link MiniHubGuidanceURLService} which maintains it against {@code hee:MiniHub}
+     * documents so that it will only be rebuilt for the {@code hee:MiniHub} documents
+     * that have been added/amended/deleted.</p>
      *
-     * <p>TODO: Improve the performance by caching the {@code miniHubGuidancePathToURLMap} against
-     * {@code hee:MiniHub} documents so that {@code miniHubGuidancePathToURLMap} can be reused
-     * unless {@code hee:MiniHub} documents have been added/amended/deleted.</p>
-     *
-     * @param request the {@link HstRequest} instance.
-     * @throws QueryException thrown when an error occurs during execution of the query built.
+     * @param request     the {@link HstRequest} instance.
+     * @param hasGuidance the flag indicating whether the listed pages contain Guidance documents.
+     *                    An empty map is added if they don't.
      */
-    private void addMiniHubGuidances(final HstRequest request) throws QueryException {
-        final Map<String, String> miniHubGuidancePathToURLMap = new HashMap<>();
-
-        final HstQuery query = HstQueryBuilder
-                .create(RequestContextProvider.get().getSiteContentBaseBean())
-                .ofTypes(MiniHub.class).build();
-        final HstQueryResult result = query.execute();
-        final HippoBeanIterator beanIterator = result.getHippoBeans();
-
-        while (beanIterator.hasNext()) {
-            final MiniHub miniHubBean = (MiniHub) beanIterator.next();
-            final List<Guidance> guidanceDocs = miniHubBean.getGuidancePages();
-
-            for (final Guidance guidanceDoc : guidanceDocs) {
-                miniHubGuidancePathToURLMap.put(
-                        guidanceDoc.getPath(),
-                        HstUtils.getURLByBean(
-                                request.getRequestContext(), miniHubBean, false) +
-                                "/" +
-                                guidanceDoc.getName());
-            }
+    protected void addMiniHubGuidances(final HstRequest request, final boolean hasGuidance) {
+        if (!hasGuidance) {
+            request.setModel("miniHubGuidancePathToURLMap", Collections.emptyMap());
+            return;
         }
 
-        request.setModel("miniHubGuidancePathToURLMap", miniHubGuidancePathToURLMap);
+        request.setModel("miniHubGuidancePathToURLMap",
+                getMiniHubGuidanceURLService().getGuidancePathToURLMap(request.getRequestContext()));
+    }
+
+    /**
+     * Returns the {@link MiniHubGuidanceURLService} instance.
+     *
+     * @return the {@link MiniHubGuidanceURLService} instance.
+     */
+    protected MiniHubGuidanceURLService getMiniHubGuidanceURLService() {
+        return HstServices.getComponentManager().getComponent(MiniHubGuidanceURLService.class.getName());
     }
 
     /**
      * Builds Query for the current Listing Page request.
      *
+     * <p>The results are paginated by offset unless the given {@code cursor} isn't {@code null}, in which case
+     * only the documents from the cursor boundary date onwards (in the direction of the cursor) are queried
+     * so that deep pages don't require the repository to skip all the documents of the previous pages.</p>
+     *
      * @param request     the {@link HstRequest} instance.
      * @param listingPage the {@link ListingPage} instance.
+     * @param cursor      the {@link ListingPageCursor} of the current request (if paginated by cursor)
+     *                    or {@code null}.
      * @return the {@link HstQuery} instance built for the current Listing Page request.
      * @throws FilterException thrown when an error occurs during Query Filter build.
      */
-    private HstQuery buildQuery(final HstRequest request, final ListingPage listingPage) throws FilterException {
-        final String documentPath = listingPage.getPath();
-        final HippoBean scopeBean = doGetScopeBean(documentPath);
+    private HstQuery buildQuery(
+            final HstRequest request,
+            final ListingPage listingPage,
+            final ListingPageCursor cursor) throws FilterException {
+        if (cursor == null) {
+            return buildOffsetQuery(request, listingPage, getCurrentPage(request));
+        }
+
+        final HippoBean scopeBean = doGetScopeBean(listingPage.getPath());
+        final HstQuery query = createQuery(scopeBean, getDocumentTypes(request, listingPage));
+
+        // The documents already listed with the boundary date are skipped from the results
+        query.setLimit(listingPage.getPageSize().intValue() + cursor.getListedHandleIds().size());
+
+        query.setFilter(createKeysetFilter(request, query, cursor));
+        applyKeysetSortOrdering(request, query, cursor);
+
+        return query;
+    }
 
+    /**
+     * Builds Query (paginated by offset) of the given {@code page} of the current Listing Page request.
+     *
+     * @param request     the {@link HstRequest} instance.
+     * @param listingPage the {@link ListingPage} instance.
+     * @param page        the page to be queried.
+     * @return the {@link HstQuery} instance built for the given {@code page} of the current Listing Page request.
+     * @throws FilterException thrown when an error occurs during Query Filter build.
+     */
+    private HstQuery buildOffsetQuery(
+            final HstRequest request,
+            final ListingPage listingPage,
+            final int page) throws FilterException {
+        final HippoBean scopeBean = doGetScopeBean(listingPage.getPath());
         final HstQuery query = createQuery(scopeBean, getDocumentTypes(request, listingPage));
 
         final int pageSize = listingPage.getPageSize().intValue();
-        final int page = getCurrentPage(request);
         query.setLimit(pageSize);
         query.setOffset((page - 1) * pageSize);
 
@@ -157,6 +437,269 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
         return query;
     }
 
+    /**
+     * Returns {@link ListingResults} (with their sort by date values) of the given (offset paginated) {@code page}
+     * of the current Listing Page request. Otherwise, returns {@code null} if the page couldn't be queried.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @param page    the page to be queried.
+     * @return the {@link ListingResults} of the given {@code page} of the current Listing Page request
+     * or {@code null} if the page couldn't be queried.
+     */
+    private ListingResults queryOffsetPage(final HstRequest request, final int page) {
+        final ListingPage listingPage = getListingPageModel(request);
+
+        try {
+            final HstQuery query = buildOffsetQuery(request, listingPage, page);
+            LOGGER.debug("Execute query: {}", query.getQueryAsString(false));
+
+            return ListingResults.collect(
+                    query.execute().getHippoBeans(),
+                    listingPage.getPageSize().intValue(),
+                    Collections.emptySet(),
+                    getResultDeriveFunctions(request));
+        } catch (final QueryException e) {
+            LOGGER.warn("Caught error '{}' while querying the page {} of the Listing Page '{}'",
+                    e.getMessage(), page, listingPage.getPath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns Query {@link Filter} combining the Listing Page filters (see {@link #createQueryFilters(HstRequest,
+     * HstQuery)}) and the (inclusive) range of the sort by date field from the boundary date of the given
+     * {@code cursor} onwards in the direction of the cursor.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @param query   the {@link HstQuery} instance.
+     * @param cursor  the {@link ListingPageCursor} of the current request.
+     * @return the Query {@link Filter} combining the Listing Page filters and the range from the cursor.
+     * @throws FilterException thrown when an error occurs during Query Filter build.
+     */
+    private Filter createKeysetFilter(
+            final HstRequest request,
+            final HstQuery query,
+            final ListingPageCursor cursor) throws FilterException {
+        final String sortByDateField = getListing(request).getSortByDateField();
+        final Calendar boundaryDate = Calendar.getInstance();
+        boundaryDate.setTimeInMillis(cursor.getDate());
+
+        final Filter keysetFilter = query.createFilter();
+        final Filter listingFilter = createQueryFilters(request, query);
+        if (listingFilter != null) {
+            keysetFilter.addAndFilter(listingFilter);
+        }
+
+        if (isKeysetAscending(cursor)) {
+            keysetFilter.addGreaterOrEqualThan(sortByDateField, boundaryDate, DateTools.Resolution.MILLISECOND);
+        } else {
+            keysetFilter.addLessOrEqualThan(sortByDateField, boundaryDate, DateTools.Resolution.MILLISECOND);
+        }
+
+        return keysetFilter;
+    }
+
+    /**
+     * Adds the sort by date ordering in the direction of the given {@code cursor} on the given {@code query}
+     * (i.e. the requested sort order for the pages after the cursor and the reverse for the pages before).
+     *
+     * @param request the {@link HstRequest} instance.
+     * @param query   the {@link HstQuery} instance.
+     * @param cursor  the {@link ListingPageCursor} of the current request.
+     */
+    private void applyKeysetSortOrdering(
+            final HstRequest request,
+            final HstQuery query,
+            final ListingPageCursor cursor) {
+        final String sortByDateField = getListing(request).getSortByDateField();
+
+        if (isKeysetAscending(cursor)) {
+            query.addOrderByAscending(sortByDateField);
+        } else {
+            query.addOrderByDescending(sortByDateField);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the documents from the given {@code cursor} onwards (in the direction of the cursor)
+     * are in the ascending order of their sort by date. Otherwise, returns {@code false}.
+     *
+     * @param cursor the {@link ListingPageCursor} of the current request.
+     * @return {@code true} if the documents from the given {@code cursor} onwards are in the ascending order
+     * of their sort by date. Otherwise, returns {@code false}.
+     */
+    private boolean isKeysetAscending(final ListingPageCursor cursor) {
+        return ASCENDING_SORT_ORDER.equals(cursor.getSortOrder()) == cursor.isNext();
+    }
+
+    /**
+     * Returns {@code true} if the current Listing Page could be paginated by cursor i.e. its
+     * {@link ListingPageType} has keyset pagination enabled and it is sorted by date. Otherwise, returns
+     * {@code false}.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return {@code true} if the current Listing Page could be paginated by cursor. Otherwise, returns
+     * {@code false}.
+     */
+    private boolean isKeysetPaginationEnabled(final HstRequest request) {
+        final ListingPageType listingPageType = getListing(request);
+        final String sortOrder = getRequestedSortOrder(request);
+
+        return listingPageType.isKeysetPaginationEnabled()
+                && listingPageType.isSortingEnabled()
+                && (sortOrder.equals(ASCENDING_SORT_ORDER) || sortOrder.equals(DESCENDING_SORT_ORDER));
+    }
+
+    /**
+     * Returns {@link ListingPageCursor} (decoded from the signed {@code cursor} query parameter, see
+     * {@link TokenSigningService}) of the current request if the current Listing Page could be paginated by cursor
+     * and the requested page is beyond the ones paginated by offset. Otherwise, returns {@code null}
+     * i.e. the page is paginated by offset, also if the cursor hasn't been issued by the site or lists more
+     * documents than a page.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return the {@link ListingPageCursor} of the current request if it needs to be paginated by cursor.
+     * Otherwise, returns {@code null}.
+     */
+    private ListingPageCursor getListingPageCursor(final HstRequest request) {
+        if (!isKeysetPaginationEnabled(request) || getCurrentPage(request) <= OFFSET_PAGINATION_PAGES) {
+            return null;
+        }
+
+        final ListingPageCursor cursor = ListingPageCursor.fromToken(
+                getTokenSigningService().verify(getAnyParameter(request, CURSOR_QUERY_PARAM)));
+        if (cursor == null
+                || !cursor.getSortOrder().equals(getRequestedSortOrder(request))
+                || cursor.getListedHandleIds().size() > getListingPageModel(request).getPageSize().intValue()) {
+            return null;
+        }
+
+        return cursor;
+    }
+
+    /**
+     * <p>Adds the cursor tokens of the next and previous pages (if they are beyond the pages paginated by offset)
+     * to the {@code nextPageCursor} and {@code previousPageCursor} models respectively, so that the pagination
+     * links could be rendered with them.</p>
+     *
+     * <p>The cursor of the next page is positioned at the sort by date of the last document of the current page
+     * and the cursor of the previous page is positioned at the sort by date of the first document.</p>
+     *
+     * @param request        the {@link HstRequest} instance.
+     * @param pageable       the {@link Pageable} of the current page.
+     * @param listingResults the {@link ListingResults} of the current page (with their sort by date values).
+     * @param cursor         the {@link ListingPageCursor} of the current request (if paginated by cursor)
+     *                       or {@code null}.
+     */
+    private void addPageCursors(
+            final HstRequest request,
+            final Pageable<HippoBean> pageable,
+            final ListingResults listingResults,
+            final ListingPageCursor cursor) {
+        final List<HippoBean> beans = listingResults.getBeans();
+        if (!isKeysetPaginationEnabled(request) || beans.isEmpty()) {
+            return;
+        }
+
+        final int page = getCurrentPage(request);
+
+        if (page + 1 > OFFSET_PAGINATION_PAGES && page < pageable.getTotalPages()) {
+            final ListingPageCursor nextPageCursor = createPageCursor(
+                    request, true, beans.get(beans.size() - 1), listingResults, cursor);
+            if (nextPageCursor != null) {
+                request.setModel("nextPageCursor", getTokenSigningService().sign(nextPageCursor.toToken()));
+            }
+        }
+
+        if (page - 1 > OFFSET_PAGINATION_PAGES) {
+            final ListingPageCursor previousPageCursor = createPageCursor(
+                    request, false, beans.get(0), listingResults, cursor);
+            if (previousPageCursor != null) {
+                request.setModel("previousPageCursor", getTokenSigningService().sign(previousPageCursor.toToken()));
+            }
+        }
+    }
+
+    /**
+     * Returns {@link ListingPageCursor} positioned at the sort by date of the given {@code boundaryBean}.
+     * Otherwise, returns {@code null} if the given {@code boundaryBean} doesn't have a sort by date or more than
+     * a page of documents have been listed with it (in which case the adjacent page is paginated by offset).
+     *
+     * <p>If the current page is paginated by offset, the documents listed with the boundary date by all the offset
+     * paginated pages before it (in the direction of the cursor) are collected, since they may span several pages
+     * (see {@link ListingPageCursor#collectListedHandleIds(String, Object, boolean, int, ListingResults, int,
+     * java.util.function.IntFunction)}).</p>
+     *
+     * @param request        the {@link HstRequest} instance.
+     * @param next           {@code true} if the cursor is for the next page or {@code false} if it is for
+     *                       the previous.
+     * @param boundaryBean   the first (for the previous page) or the last (for the next page) {@link HippoBean}
+     *                       of the current page.
+     * @param listingResults the {@link ListingResults} of the current page (with their sort by date values).
+     * @param currentCursor  the {@link ListingPageCursor} of the current request (if paginated by cursor)
+     *                       or {@code null}.
+     * @return the {@link ListingPageCursor} positioned at the sort by date of the given {@code boundaryBean}.
+     * Otherwise, returns {@code null} if the given {@code boundaryBean} doesn't have a sort by date or more than
+     * a page of documents have been listed with it.
+     */
+    private ListingPageCursor createPageCursor(
+            final HstRequest request,
+            final boolean next,
+            final HippoBean boundaryBean,
+            final ListingResults listingResults,
+            final ListingPageCursor currentCursor) {
+        final Object boundaryDate = listingResults.getDerivedValue(SORT_BY_DATE_VALUE, boundaryBean);
+        if (!(boundaryDate instanceof Long)) {
+            return null;
+        }
+
+        final long date = (Long) boundaryDate;
+
+        final int pageSize = getListingPageModel(request).getPageSize().intValue();
+
+        // The documents with the boundary date already listed (by the current & the previous pages in the direction)
+        final Set<String> listedHandleIds;
+        if (currentCursor == null) {
+            // The documents with the boundary date may span several of the offset paginated pages
+            listedHandleIds = ListingPageCursor.collectListedHandleIds(
+                    SORT_BY_DATE_VALUE,
+                    boundaryDate,
+                    next,
+                    getCurrentPage(request),
+                    listingResults,
+                    pageSize,
+                    page -> queryOffsetPage(request, page));
+        } else {
+            listedHandleIds = new LinkedHashSet<>();
+            if (currentCursor.isNext() == next && currentCursor.getDate() == date) {
+                listedHandleIds.addAll(currentCursor.getListedHandleIds());
+            }
+
+            for (final HippoBean bean : listingResults.getBeans()) {
+                if (boundaryDate.equals(listingResults.getDerivedValue(SORT_BY_DATE_VALUE, bean))) {
+                    listedHandleIds.add(bean.getCanonicalHandleUUID());
+                }
+            }
+        }
+
+        if (listedHandleIds == null || listedHandleIds.size() > pageSize) {
+            LOGGER.debug("More than a page of documents have been listed with the boundary date {} " +
+                    "(or they couldn't be queried). Paginating the adjacent page by offset", date);
+            return null;
+        }
+
+        return new ListingPageCursor(next, getRequestedSortOrder(request), date, listedHandleIds);
+    }
+
+    /**
+     * Returns the {@link TokenSigningService} instance.
+     *
+     * @return the {@link TokenSigningService} instance.
+     */
+    protected TokenSigningService getTokenSigningService() {
+        return HstServices.getComponentManager().getComponent(TokenSigningService.class.getName());
+    }
+
     /**
      * Returns {@link HstQuery} built based on the given {@code scope} bean and {@code documentTypes}.
      *
@@ -194,7 +737,7 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
      * @param request the {@link HstRequest} instance.
      * @return current result/listing page number.
      */
-    private int getCurrentPage(final HstRequest request) {
+    protected int getCurrentPage(final HstRequest request) {
         return getAnyIntParameter(request, REQUEST_PARAM_PAGE, 1);
     }
 
@@ -233,6 +776,163 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
         return baseFilter;
     }
 
+    /**
+     * Returns Query Filters to be applied while counting the values of the given {@code facetField}.
+     *
+     * <p>These should be all the active filters other than the one on the given {@code facetField} itself,
+     * so that the count of each facet value reflects the results that selecting it would list.
+     * Defaults to {@code null} (i.e. no filters) as the facet is the only filter of the Listing Pages
+     * supporting facet counts. Extending classes with more filters should override this.</p>
+     *
+     * @param request    the {@link HstRequest} instance.
+     * @param query      the {@link HstQuery} instance.
+     * @param facetField the facet field name (e.g. {@code hee:categories}).
+     * @return the {@link Filter} instance to be applied while counting the values of the given {@code facetField}
+     * or {@code null} if there are no other active filters.
+     * @throws FilterException thrown when an error occurs during Query Filter build.
+     */
+    protected Filter createFacetQueryFilters(
+            final HstRequest request,
+            final HstQuery query,
+            final String facetField) throws FilterException {
+        return null;
+    }
+
+    /**
+     * Returns (immutable) map of the values of the given {@code facetField} and the number of documents
+     * listed by the current Listing Page (honouring the other active filters) for each of them.
+     *
+     * <p>The counts are computed in a single pass over the scoped results and cached by {@link ListingFacetService}
+     * per Mount, Listing Page, facet and the other active filters (i.e. the filter query parameters other than
+     * {@code facetQueryParam}, see {@link #getFilterQueryParameters()}). If the scoped results exceed
+     * the facet query limit, the counts are computed by a count query per facet value instead, so that
+     * they don't get truncated.</p>
+     *
+     * @param request         the {@link HstRequest} instance.
+     * @param facetField      the facet field name (e.g. {@code hee:categories}).
+     * @param facetQueryParam the query parameter through which the facet values are filtered (e.g. {@code category}).
+     * @return the (immutable) map of the values of the given {@code facetField} and its document counts.
+     */
+    protected Map<String, Long> getFacetCounts(
+            final HstRequest request,
+            final String facetField,
+            final String facetQueryParam) {
+        final ListingPage listingPage = getListingPageModel(request);
+        final String cacheKey = HstUtils.getMountCacheKey(request.getRequestContext()) + "|" +
+                listingPage.getPath() + "|" + facetField + "|" + getFiltersKey(request, facetQueryParam);
+
+        return getListingFacetService().getFacetCounts(cacheKey, () -> {
+            final HstQuery query = createQuery(
+                    doGetScopeBean(listingPage.getPath()), getDocumentTypes(request, listingPage));
+            query.setLimit(FACET_QUERY_LIMIT);
+
+            final Filter filter = createFacetQueryFilters(request, query, facetField);
+            if (filter != null) {
+                query.setFilter(filter);
+            }
+
+            LOGGER.debug("Execute facet query: {}", query.getQueryAsString(false));
+            final HstQueryResult result = query.execute();
+            if (result.getTotalSize() <= FACET_QUERY_LIMIT) {
+                return ListingFacetService.countFacetValues(result.getHippoBeans(), facetField);
+            }
+
+            LOGGER.warn("Facet query of the Listing Page '{}' matched {} documents (more than {}). " +
+                            "Counting '{}' values by count queries instead",
+                    listingPage.getPath(), result.getTotalSize(), FACET_QUERY_LIMIT, facetField);
+            return countFacetValuesByQuery(request, listingPage, facetField);
+        });
+    }
+
+    /**
+     * Returns map of the values (from the filter value-list, see {@link #getFilterValueListMap(HstRequest)})
+     * of the given {@code facetField} and the number of documents listed by the current Listing Page (honouring
+     * the other active filters) for each of them, counted by a (single result) query per value.
+     *
+     * @param request     the {@link HstRequest} instance.
+     * @param listingPage the {@link ListingPage} instance.
+     * @param facetField  the facet field name (e.g. {@code hee:categories}).
+     * @return the map of the values of the given {@code facetField} and its (non-zero) document counts.
+     * @throws QueryException thrown when an error occurs during execution of the count queries.
+     */
+    private Map<String, Long> countFacetValuesByQuery(
+            final HstRequest request,
+            final ListingPage listingPage,
+            final String facetField) throws QueryException {
+        final HippoBean scopeBean = doGetScopeBean(listingPage.getPath());
+        final String[] documentTypes = getDocumentTypes(request, listingPage);
+        final Map<String, Long> counts = new LinkedHashMap<>();
+
+        for (final String facetValue : getFilterValueListMap(request).keySet()) {
+            final HstQuery query = createQuery(scopeBean, documentTypes);
+            query.setLimit(1);
+
+            final Filter filter = query.createFilter();
+            final Filter otherFilters = createFacetQueryFilters(request, query, facetField);
+            if (otherFilters != null) {
+                filter.addAndFilter(otherFilters);
+            }
+            filter.addEqualTo(facetField, facetValue);
+            query.setFilter(filter);
+
+            final int count = query.execute().getTotalSize();
+            if (count > 0) {
+                counts.put(facetValue, (long) count);
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Returns a key (sorted by parameter name & value) identifying the values of the filter query parameters
+     * (see {@link #getFilterQueryParameters()}) other than the given {@code excludedQueryParams}. Any other
+     * request parameter (e.g. {@code utm_*} tracking parameters) is ignored as it doesn't affect the results.
+     *
+     * @param request             the {@link HstRequest} instance.
+     * @param excludedQueryParams the query parameters which needs to be excluded from the key.
+     * @return the key identifying the values of the filter query parameters other than the given
+     * {@code excludedQueryParams}.
+     */
+    private String getFiltersKey(final HstRequest request, final String... excludedQueryParams) {
+        final List<String> excludedParams = Arrays.asList(excludedQueryParams);
+        final StringBuilder key = new StringBuilder();
+
+        for (final String name : new TreeSet<>(getFilterQueryParameters())) {
+            if (excludedParams.contains(name)) {
+                continue;
+            }
+
+            final SortedSet<String> sortedValues = new TreeSet<>(HstUtils.getQueryParameterValues(request, name));
+            if (!sortedValues.isEmpty()) {
+                key.append(name).append('=').append(String.join(",", sortedValues)).append('&');
+            }
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Returns the names of the query parameters through which the current Listing Page is filtered i.e. the ones
+     * read by {@link #createQueryFilters(HstRequest, HstQuery)} and
+     * {@link #createFacetQueryFilters(HstRequest, HstQuery, String)}. Only these are keyed by the cached results
+     * and facet counts. Defaults to none. Extending classes filtering the results must override this.
+     *
+     * @return the names of the query parameters through which the current Listing Page is filtered.
+     */
+    protected List<String> getFilterQueryParameters() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the {@link ListingFacetService} instance.
+     *
+     * @return the {@link ListingFacetService} instance.
+     */
+    protected ListingFacetService getListingFacetService() {
+        return HstServices.getComponentManager().getComponent(ListingFacetService.class.getName());
+    }
+
     /**
      * Adds sorting order on the given {@code query} instance based
      * on the requested sorting order via {@code sortByDate} query parameter.
@@ -249,13 +949,7 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
             return;
         }
 
-        String sortOrder = DESCENDING_SORT_ORDER;
-
-        final List<String> sortByDateQueryParamValues =
-                HstUtils.getQueryParameterValues(request, SORT_BY_QUERY_PARAM);
-        if (!sortByDateQueryParamValues.isEmpty()) {
-            sortOrder = sortByDateQueryParamValues.get(0);
-        }
+        final String sortOrder = getRequestedSortOrder(request);
 
         if (sortOrder.equals(ASCENDING_SORT_ORDER)) {
             query.addOrderByAscending(listingPageType.getSortByDateField());
@@ -266,6 +960,43 @@ public abstract class ListingPageComponent extends EssentialsDocumentComponent {
         }
     }
 
+    /**
+     * Returns the sort order applied on the Listing Page query (see {@link #applySortOrdering(HstRequest, HstQuery)})
+     * i.e. {@code asc}, {@code az} or (defaults to) {@code desc}. Otherwise, returns an empty string
+     * if the current Listing Page Type doesn't support sorting.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return the sort order applied on the Listing Page query.
+     */
+    private String getAppliedSortOrder(final HstRequest request) {
+        if (!getListing(request).isSortingEnabled()) {
+            return StringUtils.EMPTY;
+        }
+
+        final String sortOrder = getRequestedSortOrder(request);
+        if (sortOrder.equals(ASCENDING_SORT_ORDER) || sortOrder.equals(ATOZ_SORT_ORDER)) {
+            return sortOrder;
+        }
+
+        return DESCENDING_SORT_ORDER;
+    }
+
+    /**
+     * Returns the sort order requested via {@code sortBy} query parameter. Defaults to Descending sort order.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return the sort order requested via {@code sortBy} query parameter. Defaults to Descending sort order.
+     */
+    private String getRequestedSortOrder(final HstRequest request) {
+        final List<String> sortByDateQueryParamValues =
+                HstUtils.getQueryParameterValues(request, SORT_BY_QUERY_PARAM);
+        if (!sortByDateQueryParamValues.isEmpty()) {
+            return sortByDateQueryParamValues.get(0);
+        }
+
+        return DESCENDING_SORT_ORDER;
+    }
+
     /**
      * Returns value-list map for the filter.
      *
@@ -0,0 +1,218 @@
+package uk.nhs.hee.web.components;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * <p>(Immutable) cursor of the keyset (seek) pagination of Listing Pages i.e. the position
+ * (sort by date value) from which the next (or previous) page of results needs to be listed.</p>
+ *
+ * <p>As the sort by date values are not unique, the cursor also holds the (canonical) handle UUIDs of the
+ * documents already listed with the boundary date so that they can be skipped from the (inclusive) range.</p>
+ *
+ * <p>The cursor is exchanged with the clients as an opaque (URL safe Base64) token
+ * (see {@link #toToken()} & {@link #fromToken(String)}) which needs to be signed, so that only the cursors issued
+ * by the site are accepted (see {@link uk.nhs.hee.web.services.TokenSigningService}). The cursor doesn't hold
+ * anything (e.g. the total number of documents) which the site doesn't re-validate or re-derive.</p>
+ */
+public final class ListingPageCursor {
+    private static final String TOKEN_VERSION = "2";
+    private static final String TOKEN_SEPARATOR = ";";
+    private static final String HANDLE_ID_SEPARATOR = ",";
+    private static final String NEXT_DIRECTION = "n";
+    private static final String PREVIOUS_DIRECTION = "p";
+    private static final int TOKEN_PARTS = 5;
+
+    private final boolean next;
+    private final String sortOrder;
+    private final long date;
+    private final Set<String> listedHandleIds;
+
+    /**
+     * Creates {@link ListingPageCursor} instance.
+     *
+     * @param next            {@code true} if the page after the cursor needs to be listed or {@code false}
+     *                        if the page before the cursor needs to be listed.
+     * @param sortOrder       the sort order (i.e. {@code asc} or {@code desc}) of the listing.
+     * @param date            the boundary sort by date value (in milliseconds).
+     * @param listedHandleIds the (canonical) handle UUIDs of the documents already listed with the boundary date.
+     */
+    public ListingPageCursor(
+            final boolean next,
+            final String sortOrder,
+            final long date,
+            final Set<String> listedHandleIds) {
+        this.next = next;
+        this.sortOrder = sortOrder;
+        this.date = date;
+        this.listedHandleIds = Collections.unmodifiableSet(new LinkedHashSet<>(listedHandleIds));
+    }
+
+    /**
+     * Returns {@link ListingPageCursor} decoded from the given {@code token}.
+     * Otherwise, returns {@code null} if the given {@code token} isn't a valid cursor token.
+     *
+     * @param token the cursor token.
+     * @return the {@link ListingPageCursor} decoded from the given {@code token}.
+     * Otherwise, returns {@code null} if the given {@code token} isn't a valid cursor token.
+     */
+    public static ListingPageCursor fromToken(final String token) {
+        if (StringUtils.isBlank(token)) {
+            return null;
+        }
+
+        try {
+            final String[] parts = StringUtils.splitPreserveAllTokens(
+                    new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8), TOKEN_SEPARATOR);
+            if (parts.length != TOKEN_PARTS
+                    || !TOKEN_VERSION.equals(parts[0])
+                    || !(NEXT_DIRECTION.equals(parts[1]) || PREVIOUS_DIRECTION.equals(parts[1]))) {
+                return null;
+            }
+
+            final Set<String> listedHandleIds = new LinkedHashSet<>();
+            for (final String handleId : StringUtils.split(parts[4], HANDLE_ID_SEPARATOR)) {
+                listedHandleIds.add(handleId);
+            }
+
+            return new ListingPageCursor(
+                    NEXT_DIRECTION.equals(parts[1]),
+                    parts[2],
+                    Long.parseLong(parts[3]),
+                    listedHandleIds);
+        } catch (final IllegalArgumentException e) {
+            // Including NumberFormatException
+            return null;
+        }
+    }
+
+    /**
+     * <p>Returns the (canonical) handle UUIDs of the documents listed with the given {@code boundaryValue} by the
+     * given offset paginated {@code page} and the pages before it in the direction of the cursor (i.e. the previous
+     * pages for the cursor of the next page and the next pages for the cursor of the previous page).</p>
+     *
+     * <p>As the documents with the boundary value may span several offset paginated pages, the adjacent pages are
+     * loaded (see {@code pageLoader}) for as long as their far edge still has the boundary value, so that none of
+     * the documents already listed with it is listed again by the page after the cursor.</p>
+     *
+     * <p>Returns {@code null} if more than {@code maximumSize} documents have been listed with the boundary value
+     * or an adjacent page couldn't be loaded, in which case the cursor can't be created.</p>
+     *
+     * @param derivedValueName the name of the derived (sort by date) value of the results.
+     * @param boundaryValue    the boundary (sort by date) value of the cursor.
+     * @param next             {@code true} if the cursor is for the next page or {@code false} if it is for
+     *                         the previous.
+     * @param page             the (offset paginated) page of the given {@code pageResults}.
+     * @param pageResults      the {@link ListingResults} of the given {@code page}.
+     * @param maximumSize      the maximum number of documents which could be listed with the boundary value.
+     * @param pageLoader       the function loading the {@link ListingResults} of the given (offset paginated) page
+     *                         or returning {@code null} if it couldn't be loaded.
+     * @return the (canonical) handle UUIDs of the documents listed with the given {@code boundaryValue}
+     * or {@code null} if more than {@code maximumSize} documents have been listed with it or an adjacent page
+     * couldn't be loaded.
+     */
+    static Set<String> collectListedHandleIds(
+            final String derivedValueName,
+            final Object boundaryValue,
+            final boolean next,
+            final int page,
+            final ListingResults pageResults,
+            final int maximumSize,
+            final IntFunction<ListingResults> pageLoader) {
+        final Set<String> listedHandleIds = new LinkedHashSet<>();
+
+        int currentPage = page;
+        ListingResults currentResults = pageResults;
+        while (true) {
+            final List<HippoBean> beans = currentResults.getBeans();
+            for (final HippoBean bean : beans) {
+                if (boundaryValue.equals(currentResults.getDerivedValue(derivedValueName, bean))) {
+                    listedHandleIds.add(bean.getCanonicalHandleUUID());
+                }
+            }
+
+            if (listedHandleIds.size() > maximumSize) {
+                return null;
+            }
+
+            if (beans.isEmpty()) {
+                return listedHandleIds;
+            }
+
+            // The documents with the boundary value continue on the adjacent page only if they start the page
+            final HippoBean farEdgeBean = next ? beans.get(0) : beans.get(beans.size() - 1);
+            currentPage = next ? currentPage - 1 : currentPage + 1;
+            if (!boundaryValue.equals(currentResults.getDerivedValue(derivedValueName, farEdgeBean))
+                    || currentPage < 1) {
+                return listedHandleIds;
+            }
+
+            currentResults = pageLoader.apply(currentPage);
+            if (currentResults == null) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Returns the (URL safe Base64) token of this cursor.
+     *
+     * @return the (URL safe Base64) token of this cursor.
+     */
+    public String toToken() {
+        final String token = String.join(TOKEN_SEPARATOR,
+                TOKEN_VERSION,
+                next ? NEXT_DIRECTION : PREVIOUS_DIRECTION,
+                sortOrder,
+                String.valueOf(date),
+                String.join(HANDLE_ID_SEPARATOR, listedHandleIds));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns {@code true} if the page after the cursor needs to be listed or {@code false}
+     * if the page before the cursor needs to be listed.
+     *
+     * @return {@code true} if the page after the cursor needs to be listed or {@code false}
+     * if the page before the cursor needs to be listed.
+     */
+    public boolean isNext() {
+        return next;
+    }
+
+    /**
+     * Returns the sort order (i.e. {@code asc} or {@code desc}) of the listing.
+     *
+     * @return the sort order (i.e. {@code asc} or {@code desc}) of the listing.
+     */
+    public String getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * Returns the boundary sort by date value (in milliseconds).
+     *
+     * @return the boundary sort by date value (in milliseconds).
+     */
+    public long getDate() {
+        return date;
+    }
+
+    /**
+     * Returns (immutable) set of (canonical) handle UUIDs of the documents already listed with the boundary date.
+     *
+     * @return the (immutable) set of (canonical) handle UUIDs of the documents already listed with the boundary date.
+     */
+    public Set<String> getListedHandleIds() {
+        return listedHandleIds;
+    }
+}
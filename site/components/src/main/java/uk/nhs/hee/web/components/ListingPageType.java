@@ -22,6 +22,7 @@ public enum ListingPageType {
             Boolean.FALSE,
             HEEField.PUBLICATION_DATE.getName(),
             StringUtils.EMPTY,
+            Boolean.FALSE,
             Boolean.FALSE),
 
     /**
@@ -33,6 +34,7 @@ public enum ListingPageType {
             Boolean.TRUE,
             HEEField.PUBLICATION_DATE.getName(),
             ValueListIdentifier.BLOG_CATEGORIES.getName(),
+            Boolean.TRUE,
             Boolean.TRUE),
 
     /**
@@ -44,7 +46,8 @@ public enum ListingPageType {
             Boolean.TRUE,
             HippoStdPubWfNodeType.HIPPOSTDPUBWF_PUBLICATION_DATE,
             ValueListIdentifier.BULLETIN_CATEGORIES.getName(),
-            Boolean.FALSE),
+            Boolean.FALSE,
+            Boolean.TRUE),
 
     /**
      * Case Study Listing
@@ -55,6 +58,7 @@ public enum ListingPageType {
             Boolean.TRUE,
             HippoStdPubWfNodeType.HIPPOSTDPUBWF_CREATION_DATE,
             ValueListIdentifier.CASE_STUDY_IMPACT_GROUPS.getName(),
+            Boolean.FALSE,
             Boolean.FALSE),
 
     /**
@@ -66,6 +70,7 @@ public enum ListingPageType {
             Boolean.TRUE,
             HEEField.DATE.getName(),
             StringUtils.EMPTY,
+            Boolean.FALSE,
             Boolean.FALSE),
 
     /**
@@ -77,6 +82,7 @@ public enum ListingPageType {
             Boolean.TRUE,
             HEEField.PUBLICATION_DATE.getName(),
             ValueListIdentifier.NEWS_CATEGORIES.getName(),
+            Boolean.TRUE,
             Boolean.TRUE),
 
     /**
@@ -88,6 +94,7 @@ public enum ListingPageType {
             Boolean.FALSE,
             HippoStdPubWfNodeType.HIPPOSTDPUBWF_PUBLICATION_DATE,
             StringUtils.EMPTY,
+            Boolean.FALSE,
             Boolean.FALSE),
 
     /**
@@ -99,6 +106,7 @@ public enum ListingPageType {
             Boolean.TRUE,
             HEEField.COMPLETED_DATE.getName(),
             ValueListIdentifier.SEARCH_BANK_TOPICS.getName(),
+            Boolean.FALSE,
             Boolean.FALSE);
 
 
@@ -108,6 +116,7 @@ public enum ListingPageType {
     private final String sortByDateField;
     private final String filterValueListIdentifier;
     private final boolean channelSpecificValueListIdentifier;
+    private final boolean keysetPaginationEnabled;
 
     /**
      * Constructor that initialises the Listing Type (Default) Information.
@@ -119,6 +128,8 @@ public enum ListingPageType {
      * @param filterValueListIdentifier          the value-list identifier for the listing filter.
      * @param channelSpecificValueListIdentifier the flag indicating whether channel specific
      *                                           {@code filterValueListIdentifier} is available.
+     * @param keysetPaginationEnabled            the flag indicating whether deep pages of the listing needs to be
+     *                                           paginated by (sort by date) cursor instead of offset.
      */
     ListingPageType(
             final String type,
@@ -126,7 +137,8 @@ public enum ListingPageType {
             final boolean sortingEnabled,
             final String sortByDateField,
             final String filterValueListIdentifier,
-            final boolean channelSpecificValueListIdentifier
+            final boolean channelSpecificValueListIdentifier,
+            final boolean keysetPaginationEnabled
     ) {
         this.type = type;
         this.documentTypes = documentTypes;
@@ -134,6 +146,7 @@ public enum ListingPageType {
         this.sortByDateField = sortByDateField;
         this.filterValueListIdentifier = filterValueListIdentifier;
         this.channelSpecificValueListIdentifier = channelSpecificValueListIdentifier;
+        this.keysetPaginationEnabled = keysetPaginationEnabled;
     }
 
     /**
@@ -212,4 +225,15 @@ public enum ListingPageType {
     public boolean isChannelSpecificValueListIdentifier() {
         return channelSpecificValueListIdentifier;
     }
+
+    /**
+     * Returns {@code true} if deep pages of the listing needs to be paginated by (sort by date) cursor
+     * (i.e. keyset/seek pagination) instead of offset. Otherwise, returns {@code false}.
+     *
+     * @return {@code true} if deep pages of the listing needs to be paginated by (sort by date) cursor
+     * instead of offset. Otherwise, returns {@code false}.
+     */
+    public boolean isKeysetPaginationEnabled() {
+        return keysetPaginationEnabled;
+    }
 }
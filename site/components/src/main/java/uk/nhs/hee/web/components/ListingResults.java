@@ -0,0 +1,175 @@
+package uk.nhs.hee.web.components;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>(Immutable) materialized results of a Listing Page i.e. the {@link HippoBean}s of the listed page,
+ * their (canonical) handle UUIDs, the document types present and the values derived from each of the results
+ * (e.g. sort by date), all collected in a single pass over the results (see {@link #collect(Iterator, int, Set, Map)}),
+ * along with the total number of results.</p>
+ *
+ * <p>Downstream steps (e.g. pagination, MiniHub Guidance URLs) should work from this list rather than
+ * re-iterating (and so, re-materializing) the query results.</p>
+ */
+public final class ListingResults {
+    private final List<HippoBean> beans;
+    private final List<String> handleIds;
+    private final Set<String> documentTypes;
+    // Derived value name -> (Handle UUID -> Derived value)
+    private final Map<String, Map<String, Object>> derivedValues;
+    private final int totalSize;
+
+    private ListingResults(
+            final List<HippoBean> beans,
+            final List<String> handleIds,
+            final Set<String> documentTypes,
+            final Map<String, Map<String, Object>> derivedValues,
+            final int totalSize) {
+        this.beans = Collections.unmodifiableList(beans);
+        this.handleIds = Collections.unmodifiableList(handleIds);
+        this.documentTypes = Collections.unmodifiableSet(documentTypes);
+        this.derivedValues = Collections.unmodifiableMap(derivedValues);
+        this.totalSize = totalSize;
+    }
+
+    /**
+     * Collects (at most {@code limit}) results from the given {@code results} in a single pass, skipping
+     * the {@code null} results and the ones whose (canonical) handle UUID is in the given {@code skippedHandleIds}.
+     *
+     * @param results          the results (e.g. {@link org.hippoecm.hst.content.beans.standard.HippoBeanIterator}).
+     * @param limit            the maximum number of results to be collected.
+     * @param skippedHandleIds the (canonical) handle UUIDs of the results which needs to be skipped.
+     * @param deriveFunctions  the functions (by name) deriving the values which needs to be collected
+     *                         for each of the results.
+     * @return the {@link ListingResults} collected from the given {@code results} (with the number of collected
+     * results as total size, see {@link #withTotalSize(int)}).
+     */
+    public static ListingResults collect(
+            final Iterator<? extends HippoBean> results,
+            final int limit,
+            final Set<String> skippedHandleIds,
+            final Map<String, Function<HippoBean, Object>> deriveFunctions) {
+        final List<HippoBean> beans = new ArrayList<>();
+        final List<String> handleIds = new ArrayList<>();
+        final Set<String> documentTypes = new HashSet<>();
+        final Map<String, Map<String, Object>> derivedValues = new LinkedHashMap<>();
+        deriveFunctions.keySet().forEach(name -> derivedValues.put(name, new HashMap<>()));
+
+        while (results.hasNext() && beans.size() < limit) {
+            final HippoBean bean = results.next();
+            if (bean == null || skippedHandleIds.contains(bean.getCanonicalHandleUUID())) {
+                continue;
+            }
+
+            beans.add(bean);
+            handleIds.add(bean.getCanonicalHandleUUID());
+            documentTypes.add(bean.getSingleProperty(JcrConstants.JCR_PRIMARYTYPE));
+            deriveFunctions.forEach((name, deriveFunction) -> {
+                final Object value = deriveFunction.apply(bean);
+                if (value != null) {
+                    derivedValues.get(name).put(bean.getCanonicalHandleUUID(), value);
+                }
+            });
+        }
+
+        return new ListingResults(beans, handleIds, documentTypes, derivedValues, beans.size());
+    }
+
+    /**
+     * Returns {@link ListingResults} with the results of this instance in the reverse order.
+     *
+     * @return the {@link ListingResults} with the results of this instance in the reverse order.
+     */
+    public ListingResults reverse() {
+        final List<HippoBean> reversedBeans = new ArrayList<>(beans);
+        Collections.reverse(reversedBeans);
+        final List<String> reversedHandleIds = new ArrayList<>(handleIds);
+        Collections.reverse(reversedHandleIds);
+
+        return new ListingResults(reversedBeans, reversedHandleIds, documentTypes, derivedValues, totalSize);
+    }
+
+    /**
+     * Returns {@link ListingResults} with the results of this instance and the given {@code totalSize}.
+     *
+     * @param totalSize the total number of results (i.e. across all the pages).
+     * @return the {@link ListingResults} with the results of this instance and the given {@code totalSize}.
+     */
+    public ListingResults withTotalSize(final int totalSize) {
+        return new ListingResults(beans, handleIds, documentTypes, derivedValues, totalSize);
+    }
+
+    /**
+     * Returns the total number of results (i.e. across all the pages).
+     *
+     * @return the total number of results (i.e. across all the pages).
+     */
+    public int getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * Returns (immutable) list of {@link HippoBean}s of the listed page.
+     *
+     * @return the (immutable) list of {@link HippoBean}s of the listed page.
+     */
+    public List<HippoBean> getBeans() {
+        return beans;
+    }
+
+    /**
+     * Returns (immutable) list of (canonical) handle UUIDs of the listed page (in the order of its beans).
+     *
+     * @return the (immutable) list of (canonical) handle UUIDs of the listed page.
+     */
+    public List<String> getHandleIds() {
+        return handleIds;
+    }
+
+    /**
+     * Returns (immutable) set of document types present in the listed page.
+     *
+     * @return the (immutable) set of document types present in the listed page.
+     */
+    public Set<String> getDocumentTypes() {
+        return documentTypes;
+    }
+
+    /**
+     * Returns {@code true} if the listed page contains document(s) of the given {@code documentType}.
+     * Otherwise, returns {@code false}.
+     *
+     * @param documentType the document type (e.g. {@code hee:guidance}).
+     * @return {@code true} if the listed page contains document(s) of the given {@code documentType}.
+     * Otherwise, returns {@code false}.
+     */
+    public boolean hasDocumentType(final String documentType) {
+        return documentTypes.contains(documentType);
+    }
+
+    /**
+     * Returns the value (derived by the function named {@code name}) of the given {@code bean}.
+     * Otherwise, returns {@code null} if there is no such value.
+     *
+     * @param name the name of the derive function.
+     * @param bean the {@link HippoBean} of the listed page.
+     * @return the value (derived by the function named {@code name}) of the given {@code bean}.
+     * Otherwise, returns {@code null} if there is no such value.
+     */
+    public Object getDerivedValue(final String name, final HippoBean bean) {
+        final Map<String, Object> values = derivedValues.get(name);
+        return values == null ? null : values.get(bean.getCanonicalHandleUUID());
+    }
+}
@@ -3,12 +3,13 @@ package uk.nhs.hee.web.components;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.parameters.ParametersInfo;
+import org.hippoecm.hst.site.HstServices;
 import org.onehippo.cms7.essentials.components.EssentialsDocumentComponent;
 import uk.nhs.hee.web.beans.Guidance;
 import uk.nhs.hee.web.beans.MiniHub;
 import uk.nhs.hee.web.components.info.MiniHubComponentInfo;
-
-import java.util.List;
+import uk.nhs.hee.web.services.MiniHubNavigation;
+import uk.nhs.hee.web.services.MiniHubNavigationService;
 
 @ParametersInfo(type = MiniHubComponentInfo.class)
 public class MiniHubComponent extends EssentialsDocumentComponent {
@@ -17,36 +18,34 @@ public class MiniHubComponent extends EssentialsDocumentComponent {
         super.doBeforeRender(request, response);
 
         MiniHub miniHub = request.getModel(REQUEST_ATTR_DOCUMENT);
+        PageDependencies.recordDocument(request, miniHub);
         if (miniHub != null) {
+            PageDependencies.markComplete(request);
+
             // When the page accessed from URL minihubName/guidanceName, request will be forward to te related _default_ sitemap item
             boolean accessWithGuidancePath = request.getRequestContext().getResolvedSiteMapItem().getHstSiteMapItem().isWildCard();
             Guidance previousGuidance = null, nextGuidance = null, currentGuidance = null;
             boolean accessFromRootHub = false;
-            List<Guidance> guidancePages = miniHub.getGuidancePages();
+            int currentIndex = -1;
+            final MiniHubNavigationService navigationService = getMiniHubNavigationService();
+            final MiniHubNavigation navigation = navigationService.getNavigation(request.getRequestContext(), miniHub);
 
             if (accessWithGuidancePath) {
                 // The guidance name in URL will be resolved as "1" parameter name
                 String guidanceName = (String) request.getRequestContext().getResolvedSiteMapItem().getLocalParameters().get("1");
-                for (int i = 0; i < guidancePages.size(); i++) {
-                    Guidance guidance = guidancePages.get(i);
-                    if (guidance.getName().equalsIgnoreCase(guidanceName)) {
-                        currentGuidance = guidance;
-                        if (i > 0) {
-                            previousGuidance = guidancePages.get(i - 1);
-                        }
-                        if (i < guidancePages.size() - 1) {
-                            nextGuidance = guidancePages.get(i + 1);
-                        }
-                        break;
-                    }
+                currentIndex = navigation.indexOf(guidanceName);
+                if (currentIndex >= 0) {
+                    // Only the current, previous and next guidance beans are loaded
+                    currentGuidance = navigationService.getGuidance(request.getRequestContext(), navigation, currentIndex);
+                    previousGuidance = navigationService.getGuidance(request.getRequestContext(), navigation, currentIndex - 1);
+                    nextGuidance = navigationService.getGuidance(request.getRequestContext(), navigation, currentIndex + 1);
                 }
             } else {
                 accessFromRootHub = true;
                 // There is restriction in the CMS to make sure having at least one guidance on hub
-                currentGuidance = guidancePages.get(0);
-                if (guidancePages.size() > 1) {
-                    nextGuidance = guidancePages.get(1);
-                }
+                currentIndex = 0;
+                currentGuidance = navigationService.getGuidance(request.getRequestContext(), navigation, 0);
+                nextGuidance = navigationService.getGuidance(request.getRequestContext(), navigation, 1);
 
                 String minihubName = request.getRequestContext().getResolvedSiteMapItem().getHstSiteMapItem().getValue();
                 request.setModel("minihubName", minihubName);
@@ -56,6 +55,17 @@ public class MiniHubComponent extends EssentialsDocumentComponent {
             request.setModel("currentGuidance", currentGuidance);
             request.setModel("nextGuidance", nextGuidance);
             request.setModel("accessFromRootHub", accessFromRootHub);
+            request.setModel("guidancePages", navigation.getGuidancePages());
+            request.setModel("currentGuidanceIndex", currentIndex);
         }
     }
+
+    /**
+     * Returns the {@link MiniHubNavigationService} instance.
+     *
+     * @return the {@link MiniHubNavigationService} instance.
+     */
+    protected MiniHubNavigationService getMiniHubNavigationService() {
+        return HstServices.getComponentManager().getComponent(MiniHubNavigationService.class.getName());
+    }
 }
@@ -0,0 +1,41 @@
+package uk.nhs.hee.web.components;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+/**
+ * <p>An independent, model producing (repository) lookup which could be run concurrently with the other lookups
+ * of a component (see {@link ConcurrentModels}).</p>
+ *
+ * <p>As the lookup runs outside of the request thread, it must only read the repository through the given
+ * {@link Session} (which is borrowed for the lookup alone) and must not access the request, its context or
+ * any of the beans bound to the request session.</p>
+ *
+ * @param <T> the type of the model produced by the lookup.
+ */
+@FunctionalInterface
+public interface ModelLookup<T> {
+
+    /**
+     * Looks up and returns the model.
+     *
+     * @param session the JCR {@link Session} (borrowed for this lookup alone) through which the repository
+     *                needs to be read.
+     * @return the model.
+     * @throws RepositoryException thrown when an error occurs while reading the repository.
+     */
+    T lookup(Session session) throws RepositoryException;
+
+    /**
+     * <p>Returns the model if it is already available without reading the repository (e.g. from a cache),
+     * in which case {@link ConcurrentModels} sets it straight away on the request thread instead of borrowing
+     * a session and a lookup thread for it. Otherwise, returns {@code null}.</p>
+     *
+     * <p>Defaults to {@code null} i.e. the model is always looked up.</p>
+     *
+     * @return the model if it is already available without reading the repository or {@code null}.
+     */
+    default T getCachedModel() {
+        return null;
+    }
+}
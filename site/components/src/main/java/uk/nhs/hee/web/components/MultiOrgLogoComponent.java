@@ -12,16 +12,21 @@ import uk.nhs.hee.web.utils.ValueListUtils;
  * <p>Component class for {@code multi-org-logo} component,
  * and it essentially adds {@code hee:logoGroup} document object to the model.</p>
  *
- * <p>Also, it adds {@code `/content/documents/administration/valuelists/logotypes`} value-list to model.</p>
+ * <p>Also, it adds {@code `/content/documents/administration/valuelists/logotypes`} value-list to model
+ * (looked up concurrently with the document on cache miss, see {@link ConcurrentModels}).</p>
  */
 @ParametersInfo(type = MultiOrgLogoComponentInfo.class)
 public class MultiOrgLogoComponent extends EssentialsDocumentComponent {
 
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
+        final ConcurrentModels models = ConcurrentModels.start(request, this);
+        models.submit("logoTypes", ValueListUtils.lookupValueListMap(ValueListIdentifier.LOGO_TYPES.getName()));
+
         super.doBeforeRender(request, response);
+        PageDependencies.recordDocument(request, request.getModel(REQUEST_ATTR_DOCUMENT));
 
-        request.setModel("logoTypes", ValueListUtils.getValueListMap(ValueListIdentifier.LOGO_TYPES.getName()));
+        models.setModels();
     }
 
 }
@@ -1,16 +1,15 @@
 package uk.nhs.hee.web.components;
 
-import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.parameters.ParametersInfo;
-import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
 import org.onehippo.cms7.essentials.components.EssentialsDocumentComponent;
 import uk.nhs.hee.web.beans.News;
 import uk.nhs.hee.web.components.info.NewsComponentInfo;
 import uk.nhs.hee.web.repository.ValueListIdentifier;
+import uk.nhs.hee.web.services.ListingPageService;
 import uk.nhs.hee.web.utils.DocumentUtils;
-import uk.nhs.hee.web.utils.HstUtils;
 import uk.nhs.hee.web.utils.ValueListUtils;
 
 import java.util.Arrays;
@@ -26,7 +25,9 @@ public class NewsComponent extends EssentialsDocumentComponent {
         super.doBeforeRender(request, response);
 
         final News news = request.getModel(REQUEST_ATTR_DOCUMENT);
+        PageDependencies.recordDocument(request, news);
         if (news != null) {
+            PageDependencies.markComplete(request);
             addCategoriesValueListMapToModel(request, news);
             addNewsListingPageURLToModel(request);
         }
@@ -38,17 +39,23 @@ public class NewsComponent extends EssentialsDocumentComponent {
      * @param request the {@link HstRequest} instance.
      */
     private void addNewsListingPageURLToModel(final HstRequest request) {
-        final HstRequestContext hstRequestContext = request.getRequestContext();
-        final HippoBean newsListingPageBean =
-                HstUtils.getListingPageBeanByType(hstRequestContext, ListingPageType.NEWS_LISTING.getType());
+        final String newsListingPageURL = getListingPageService().getListingPageURL(
+                request.getRequestContext(), ListingPageType.NEWS_LISTING.getType());
 
-        if (newsListingPageBean == null) {
+        if (newsListingPageURL == null) {
             return;
         }
 
-        request.setModel(
-                Model.NEWS_LISTING_PAGE_URL.getKey(),
-                HstUtils.getURLByBean(hstRequestContext, newsListingPageBean, false));
+        request.setModel(Model.NEWS_LISTING_PAGE_URL.getKey(), newsListingPageURL);
+    }
+
+    /**
+     * Returns the {@link ListingPageService} instance.
+     *
+     * @return the {@link ListingPageService} instance.
+     */
+    protected ListingPageService getListingPageService() {
+        return HstServices.getComponentManager().getComponent(ListingPageService.class.getName());
     }
 
     /**
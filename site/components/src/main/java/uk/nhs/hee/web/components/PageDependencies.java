@@ -0,0 +1,104 @@
+package uk.nhs.hee.web.components;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
+import uk.nhs.hee.web.services.PageDependencyService;
+
+import java.util.Collection;
+
+/**
+ * <p>Helper through which the components record (during their {@code doBeforeRender}) the documents
+ * and the queried folders the current page depends on (see {@link PageDependencyService}), e.g.</p>
+ *
+ * <pre>
+ * super.doBeforeRender(request, response);
+ * PageDependencies.recordDocument(request, request.getModel(REQUEST_ATTR_DOCUMENT));
+ * PageDependencies.markComplete(request);
+ * </pre>
+ *
+ * <p>Only the main (content) component of a page marks its dependencies as complete, so that the pages
+ * built by the components which don't record their dependencies aren't cached.</p>
+ *
+ * <p>The documents linked from the recorded documents and the value-lists looked up via
+ * {@link uk.nhs.hee.web.utils.ValueListUtils} are recorded as well.</p>
+ */
+public final class PageDependencies {
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private PageDependencies() {
+    }
+
+    /**
+     * Records the given {@code document} (and the documents it links to) as a dependency of the current page.
+     *
+     * @param request  the {@link HstRequest} instance.
+     * @param document the document (bean) of the component or {@code null} if the component doesn't have one.
+     */
+    public static void recordDocument(final HstRequest request, final HippoBean document) {
+        final PageDependencyService pageDependencyService = getPageDependencyService();
+        if (pageDependencyService != null && document != null) {
+            pageDependencyService.recordDocument(request.getRequestContext(), document);
+        }
+    }
+
+    /**
+     * Records the given (queried) folder as a dependency of the current page.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @param scope   the folder (bean) of the query or {@code null} if there isn't one.
+     */
+    public static void recordScope(final HstRequest request, final HippoBean scope) {
+        final PageDependencyService pageDependencyService = getPageDependencyService();
+        if (pageDependencyService != null && scope != null) {
+            pageDependencyService.recordScope(request.getRequestContext(), scope.getPath());
+        }
+    }
+
+    /**
+     * Records the given document handles (e.g. the ancestor pages of the current page) as dependencies
+     * of the current page.
+     *
+     * @param request     the {@link HstRequest} instance.
+     * @param handlePaths the paths of the document handles ({@code hippo:handle}).
+     */
+    public static void recordDocuments(final HstRequest request, final Collection<String> handlePaths) {
+        final PageDependencyService pageDependencyService = getPageDependencyService();
+        if (pageDependencyService != null) {
+            final HstRequestContext requestContext = request.getRequestContext();
+            handlePaths.forEach(handlePath -> pageDependencyService.recordDocument(requestContext, handlePath));
+        }
+    }
+
+    /**
+     * Marks the dependencies recorded for the current page as complete, so that the page could be cached.
+     * Needs to be called by the main (content) component of the page once it has recorded everything
+     * the page has been built from.
+     *
+     * @param request the {@link HstRequest} instance.
+     */
+    public static void markComplete(final HstRequest request) {
+        final PageDependencyService pageDependencyService = getPageDependencyService();
+        if (pageDependencyService != null) {
+            pageDependencyService.markComplete(request.getRequestContext());
+        }
+    }
+
+    /**
+     * Returns the {@link PageDependencyService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     *
+     * @return the {@link PageDependencyService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     */
+    private static PageDependencyService getPageDependencyService() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+
+        return HstServices.getComponentManager().getComponent(PageDependencyService.class.getName());
+    }
+}
@@ -12,6 +12,7 @@ import uk.nhs.hee.web.repository.ValueListIdentifier;
 import uk.nhs.hee.web.utils.HstUtils;
 import uk.nhs.hee.web.utils.ValueListUtils;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -24,16 +25,28 @@ public class SearchBankListingPageComponent extends ListingPageComponent {
 
     @Override
     public void doBeforeRender(final HstRequest request, final HstResponse response) {
+        // The value-lists missing from the cache are looked up concurrently with the listing query & facet counts
+        final ConcurrentModels models = ConcurrentModels.start(request, this);
+        models.submit("keyTermMap",
+                        ValueListUtils.lookupValueListMap(ValueListIdentifier.SEARCH_BANK_KEY_TERMS.getName()))
+                .submit("providerMap",
+                        ValueListUtils.lookupValueListMap(ValueListIdentifier.SEARCH_BANK_PROVIDERS.getName()));
+
         super.doBeforeRender(request, response);
 
         request.setModel("selectedTopics", HstUtils.getQueryParameterValues(request, TOPIC_QUERY_PARAM));
         request.setModel("selectedSortOrder", getSelectedSortOrder(request));
+        request.setModel("topicCounts",
+                getFacetCounts(request, HEEField.TOPICS.getName(), TOPIC_QUERY_PARAM));
 
         request.setModel("topicMap", getFilterValueListMap(request));
-        request.setModel("keyTermMap",
-                ValueListUtils.getValueListMap(ValueListIdentifier.SEARCH_BANK_KEY_TERMS.getName()));
-        request.setModel("providerMap",
-                ValueListUtils.getValueListMap(ValueListIdentifier.SEARCH_BANK_PROVIDERS.getName()));
+
+        models.setModels();
+    }
+
+    @Override
+    protected List<String> getFilterQueryParameters() {
+        return Collections.singletonList(TOPIC_QUERY_PARAM);
     }
 
     @Override
@@ -2,24 +2,28 @@ package uk.nhs.hee.web.components;
 
 import org.hippoecm.hst.content.beans.query.HstQuery;
 import org.hippoecm.hst.content.beans.query.exceptions.FilterException;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
 import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.parameters.ParametersInfo;
-import org.onehippo.cms7.essentials.components.info.EssentialsDocumentComponentInfo;
+import org.hippoecm.hst.site.HstServices;
+import org.onehippo.cms7.essentials.components.paging.Pageable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.nhs.hee.web.beans.ListingPage;
-import uk.nhs.hee.web.utils.HstUtils;
-import uk.nhs.hee.web.utils.StringUtils;
+import uk.nhs.hee.web.components.info.SearchResultsComponentInfo;
+import uk.nhs.hee.web.search.JcrSearchProvider;
+import uk.nhs.hee.web.search.SearchProvider;
+import uk.nhs.hee.web.search.SearchQuery;
+import uk.nhs.hee.web.search.SearchResults;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Collections;
 
-import static org.apache.commons.lang3.StringUtils.isNotEmpty;
-
-@ParametersInfo(type = EssentialsDocumentComponentInfo.class)
+@ParametersInfo(type = SearchResultsComponentInfo.class)
 public class SearchResultsComponent extends ListingPageComponent {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchResultsComponent.class);
 
     private static final String SEARCH_TEXT_QUERY_PARAM = "q";
 
@@ -30,55 +34,82 @@ public class SearchResultsComponent extends ListingPageComponent {
         request.setModel("searchText", request.getParameter(SEARCH_TEXT_QUERY_PARAM));
     }
 
+    /**
+     * Returns {@code false} as the results are served by the {@link SearchProvider} for the search text
+     * (i.e. {@code q} query parameter) which isn't part of the page cache key.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return {@code false}.
+     */
     @Override
-    protected Filter createQueryFilters(final HstRequest request, final HstQuery query) throws FilterException {
-        final Filter baseFilter = query.createFilter();
-
-        String searchText = request.getParameter(SEARCH_TEXT_QUERY_PARAM);
-        if (isNotEmpty(searchText)) {
-            searchText = searchText.trim();
-
-            if (searchText.startsWith("\"") && searchText.endsWith("\"")) {
-                // Phrase search
-                baseFilter.addAndFilter(buildSearchFilter(query, searchText));
-            } else {
-                // Performs search based on the space delimited words/terms
-                Filter searchTermFilters = null;
-                for (final String searchTerm : searchText.split("\\s+")) {
-                    if (searchTermFilters == null) {
-                        searchTermFilters = buildSearchFilter(query, searchTerm);
-                    } else {
-                        searchTermFilters = searchTermFilters.addOrFilter(buildSearchFilter(query, searchTerm));
-                    }
-                }
-
-                baseFilter.addAndFilter(searchTermFilters);
-            }
-        }
+    protected boolean isPageCacheable(final HstRequest request) {
+        return false;
+    }
+
+    /**
+     * Lists the results of the search (identified by {@code q} query parameter)
+     * served by the configured {@link SearchProvider} (see {@link #getSearchProvider(HstRequest)}).
+     *
+     * <p>The highlighted snippets (if any) of the results are added to the {@code searchSnippets} model
+     * keyed by the (canonical) handle path of the results.</p>
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return the {@link Pageable<HippoBean>} instance.
+     * @throws QueryException thrown when an error occurs during execution of the search.
+     */
+    @Override
+    protected Pageable<HippoBean> executeQuery(final HstRequest request) throws QueryException {
+        final ListingPage listingPage = getListingPageModel(request);
+        final int pageSize = listingPage.getPageSize().intValue();
+        final int page = getCurrentPage(request);
+
+        final SearchQuery searchQuery = new SearchQuery(
+                request.getRequestContext(),
+                doGetScopeBean(listingPage.getPath()),
+                request.getParameter(SEARCH_TEXT_QUERY_PARAM),
+                getDocumentTypes(request, listingPage),
+                (page - 1) * pageSize,
+                pageSize);
+
+        final SearchProvider searchProvider = getSearchProvider(request);
+        final long startTime = System.currentTimeMillis();
+        final SearchResults results = searchProvider.search(searchQuery);
+        LOGGER.debug("Search '{}' by '{}' provider returned {} results in {} ms",
+                searchQuery.getText(), searchProvider.getName(), results.getTotalSize(),
+                System.currentTimeMillis() - startTime);
+
+        final ListingResults listingResults = ListingResults.collect(
+                results.getItems().iterator(), Integer.MAX_VALUE, Collections.emptySet(), Collections.emptyMap());
+
+        request.setModel("searchSnippets", results.getSnippets());
+        addMiniHubGuidances(request, listingResults.hasDocumentType("hee:guidance"));
+
+        return getPageableFactory().createPageable(
+                new ListHippoBeanIterator(listingResults.getBeans()), results.getTotalSize(), pageSize, page);
+    }
 
-        return baseFilter;
+    @Override
+    protected Filter createQueryFilters(final HstRequest request, final HstQuery query) throws FilterException {
+        return JcrSearchProvider.createSearchFilter(query, request.getParameter(SEARCH_TEXT_QUERY_PARAM));
     }
 
     /**
-     * Builds {@code OR} search {@link Filter} on {@code hee:title} and (all) document fields
-     * using the given {@code searchTerm}.
+     * Returns the {@link SearchProvider} configured via {@code searchProvider} component parameter.
+     * Defaults to {@link JcrSearchProvider} if there is no such provider.
      *
-     * @param query      the {@link HstQuery} instance.
-     * @param searchTerm the search term/word with which Filter needs to be build.
-     * @return {@code OR} search {@link Filter} on {@code hee:title} and (all) document fields
-     * using the given {@code searchTerm}.
-     * @throws FilterException thrown when an error occurs during Query Filter build.
+     * @param request the {@link HstRequest} instance.
+     * @return the {@link SearchProvider} configured via {@code searchProvider} component parameter.
      */
-    private Filter buildSearchFilter(final HstQuery query, final String searchTerm) throws FilterException {
-        // Filter that searches the 'searchText' on Title field.
-        final Filter titleFilter = query.createFilter();
-        titleFilter.addContains("hee:title", searchTerm);
+    protected SearchProvider getSearchProvider(final HstRequest request) {
+        final SearchResultsComponentInfo componentInfo = getComponentParametersInfo(request);
 
-        // Filter that searches the 'searchText' on all document fields.
-        final Filter documentFilter = query.createFilter();
-        documentFilter.addContains(".", searchTerm);
+        for (final SearchProvider searchProvider :
+                HstServices.getComponentManager().getComponentsOfType(SearchProvider.class).values()) {
+            if (searchProvider.getName().equals(componentInfo.getSearchProvider())) {
+                return searchProvider;
+            }
+        }
 
-        return titleFilter.addOrFilter(documentFilter);
+        return HstServices.getComponentManager().getComponent(JcrSearchProvider.class.getName());
     }
-
 }
@@ -0,0 +1,64 @@
+package uk.nhs.hee.web.components;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.core.component.HstResponse;
+import org.hippoecm.hst.site.HstServices;
+import org.onehippo.cms7.essentials.components.CommonComponent;
+import uk.nhs.hee.web.search.TitleSuggestionService;
+import uk.nhs.hee.web.utils.DocumentUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Component class for {@code searchsuggestions} page, rendering (as JSON) the typo-tolerant title suggestions
+ * of the (partially typed) search text (identified by {@code q} query parameter) for the site search box.
+ */
+public class SearchSuggestionsComponent extends CommonComponent {
+    private static final String SEARCH_TEXT_QUERY_PARAM = "q";
+    private static final String LIMIT_QUERY_PARAM = "limit";
+    private static final int MIN_SEARCH_TEXT_LENGTH = 2;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 20;
+
+    @Override
+    public void doBeforeRender(final HstRequest request, final HstResponse response) {
+        super.doBeforeRender(request, response);
+
+        response.setContentType("application/json;charset=UTF-8");
+
+        final String searchText = StringUtils.trimToEmpty(request.getParameter(SEARCH_TEXT_QUERY_PARAM));
+        List<String> suggestions = Collections.emptyList();
+
+        if (searchText.length() >= MIN_SEARCH_TEXT_LENGTH) {
+            final String channel =
+                    DocumentUtils.getChannel("/" + request.getRequestContext().getSiteContentBasePath() + "/");
+            suggestions = getTitleSuggestionService().suggest(channel, searchText, getLimit(request));
+        }
+
+        request.setModel("suggestions", suggestions);
+    }
+
+    /**
+     * Returns the maximum number of suggestions requested via {@code limit} query parameter
+     * (capped to {@code MAX_LIMIT}). Defaults to {@code DEFAULT_LIMIT}.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @return the maximum number of suggestions requested via {@code limit} query parameter.
+     */
+    private int getLimit(final HstRequest request) {
+        final int limit = NumberUtils.toInt(request.getParameter(LIMIT_QUERY_PARAM), DEFAULT_LIMIT);
+        return limit > 0 ? Math.min(limit, MAX_LIMIT) : DEFAULT_LIMIT;
+    }
+
+    /**
+     * Returns {@link TitleSuggestionService} instance.
+     *
+     * @return the {@link TitleSuggestionService} instance.
+     */
+    private TitleSuggestionService getTitleSuggestionService() {
+        return HstServices.getComponentManager().getComponent(TitleSuggestionService.class.getName());
+    }
+}
@@ -0,0 +1,11 @@
+package uk.nhs.hee.web.components.info;
+
+import org.hippoecm.hst.core.parameters.DropDownList;
+import org.hippoecm.hst.core.parameters.Parameter;
+import org.onehippo.cms7.essentials.components.info.EssentialsDocumentComponentInfo;
+
+public interface SearchResultsComponentInfo extends EssentialsDocumentComponentInfo {
+    @Parameter(name = "searchProvider", defaultValue = "jcr", displayName = "Search Provider")
+    @DropDownList({"jcr", "index"})
+    String getSearchProvider();
+}
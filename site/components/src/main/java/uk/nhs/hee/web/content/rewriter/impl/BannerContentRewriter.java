@@ -3,8 +3,13 @@ package uk.nhs.hee.web.content.rewriter.impl;
 import org.hippoecm.hst.configuration.hosting.Mount;
 import org.hippoecm.hst.content.rewriter.impl.SimpleContentRewriter;
 import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.services.BannerCopyCacheService;
 
 import javax.jcr.Node;
+import javax.jcr.RepositoryException;
 
 /**
  * A Content Rewriter for copy (RichText) field of Banner ({@code hee:banner}) document
@@ -13,12 +18,20 @@ import javax.jcr.Node;
  *     <li>Add {@code class="nhsuk-link"} to all anchor tags</li>
  *     <li>Remove the paragraph tag around the copy (in case if any)</li>
  * </ul>
+ *
+ * <p>As the same site-wide banner is rewritten on every page view, the rewritten copy is cached
+ * (see {@link BannerCopyCacheService}) and both the above rewrites are done in a single pass
+ * (see {@link #rewriteCopy(String)}).</p>
  */
 public class BannerContentRewriter extends SimpleContentRewriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BannerContentRewriter.class);
 
     public static final String ANCHOR_TAG_START = "<a ";
     public static final String NHSUK_LINK_CLASS = "class=\"nhsuk-link\"";
-    public static final String SERVICE_BANNER_COPY_PATTERN = "<p>(.*?)</p>";
+    public static final String PARAGRAPH_TAG_START = "<p>";
+    public static final String PARAGRAPH_TAG_END = "</p>";
+
+    private static final String ANCHOR_TAG_START_WITH_NHSUK_LINK_CLASS = ANCHOR_TAG_START + NHSUK_LINK_CLASS + " ";
 
     @Override
     public String rewrite(
@@ -26,15 +39,136 @@ public class BannerContentRewriter extends SimpleContentRewriter {
             final Node hippoHtmlNode,
             final HstRequestContext requestContext,
             final Mount targetMount) {
-        String rewrittenHtml = super.rewrite(html, hippoHtmlNode, requestContext, targetMount);
+        final BannerCopyCacheService bannerCopyCacheService = getBannerCopyCacheService();
+        final String htmlNodeId = getIdentifier(hippoHtmlNode);
+
+        if (bannerCopyCacheService == null || htmlNodeId == null || html == null) {
+            return rewriteCopy(super.rewrite(html, hippoHtmlNode, requestContext, targetMount));
+        }
+
+        return bannerCopyCacheService.getRewrittenCopy(requestContext, targetMount, htmlNodeId, html,
+                () -> rewriteCopy(super.rewrite(html, hippoHtmlNode, requestContext, targetMount)));
+    }
+
+    /**
+     * <p>Adds {@code class="nhsuk-link"} to all anchor tags and removes the paragraph tags around the copy
+     * (i.e. the paragraph tags closed on the same line) of the given (link rewritten) {@code html}
+     * in a single pass.</p>
+     *
+     * <p>The paragraph tags are removed as per {@code html.replaceAll("<p>(.*?)</p>", "$1")} i.e. an opening
+     * paragraph tag is removed along with the nearest closing paragraph tag (if it is on the same line)
+     * and the paragraph tags in between are retained.</p>
+     *
+     * @param html the (link rewritten) copy HTML.
+     * @return the rewritten copy HTML.
+     */
+    static String rewriteCopy(final String html) {
+        if (html == null
+                || (!html.contains(ANCHOR_TAG_START) && !html.contains(PARAGRAPH_TAG_START))) {
+            return html;
+        }
+
+        final int length = html.length();
+        final StringBuilder rewrittenHtml = new StringBuilder(length + 64);
+        // Index of the closing paragraph tag to be removed (or -1 if there is no open paragraph being removed)
+        int closingParagraphIndex = -1;
+        int index = 0;
+
+        while (index < length) {
+            if (index == closingParagraphIndex) {
+                index += PARAGRAPH_TAG_END.length();
+                closingParagraphIndex = -1;
+                continue;
+            }
+
+            if (closingParagraphIndex == -1 && html.startsWith(PARAGRAPH_TAG_START, index)) {
+                closingParagraphIndex = findClosingParagraph(html, index);
+                if (closingParagraphIndex != -1) {
+                    index += PARAGRAPH_TAG_START.length();
+                    continue;
+                }
+            }
+
+            if (html.startsWith(ANCHOR_TAG_START, index)) {
+                rewrittenHtml.append(ANCHOR_TAG_START_WITH_NHSUK_LINK_CLASS);
+                index += ANCHOR_TAG_START.length();
+            } else {
+                rewrittenHtml.append(html.charAt(index++));
+            }
+        }
 
-        // Adds 'class="nhsuk-link"' to all anchor tags
-        rewrittenHtml = rewrittenHtml.replace(ANCHOR_TAG_START, ANCHOR_TAG_START + NHSUK_LINK_CLASS + " ");
+        return rewrittenHtml.toString();
+    }
+
+    /**
+     * Returns the index of the nearest closing paragraph tag of the opening paragraph tag at the given
+     * {@code openingParagraphIndex} if it is on the same line. Otherwise, returns {@code -1}.
+     *
+     * @param html                  the copy HTML.
+     * @param openingParagraphIndex the index of the opening paragraph tag.
+     * @return the index of the nearest closing paragraph tag of the opening paragraph tag if it is on the same line.
+     * Otherwise, {@code -1}.
+     */
+    private static int findClosingParagraph(final String html, final int openingParagraphIndex) {
+        final int contentIndex = openingParagraphIndex + PARAGRAPH_TAG_START.length();
+        final int closingParagraphIndex = html.indexOf(PARAGRAPH_TAG_END, contentIndex);
+        if (closingParagraphIndex == -1) {
+            return -1;
+        }
 
-        // Removes the paragraph tag around the copy (in case if any)
-        rewrittenHtml = rewrittenHtml.replaceAll(SERVICE_BANNER_COPY_PATTERN, "$1");
+        for (int index = contentIndex; index < closingParagraphIndex; index++) {
+            if (isLineTerminator(html.charAt(index))) {
+                return -1;
+            }
+        }
 
-        return rewrittenHtml;
+        return closingParagraphIndex;
     }
 
+    /**
+     * Returns {@code true} if the given {@code character} is a line terminator
+     * (i.e. a character not matched by {@code .} in regular expressions). Otherwise, returns {@code false}.
+     *
+     * @param character the character.
+     * @return {@code true} if the given {@code character} is a line terminator. Otherwise, {@code false}.
+     */
+    private static boolean isLineTerminator(final char character) {
+        return character == '\n' || character == '\r'
+                || character == '\u0085' || character == '\u2028' || character == '\u2029';
+    }
+
+    /**
+     * Returns the identifier of the given {@code hippoHtmlNode}.
+     *
+     * @param hippoHtmlNode the copy ({@code hippostd:html}) node.
+     * @return the identifier of the given {@code hippoHtmlNode} or {@code null} if it can't be read.
+     */
+    private String getIdentifier(final Node hippoHtmlNode) {
+        if (hippoHtmlNode == null) {
+            return null;
+        }
+
+        try {
+            return hippoHtmlNode.getIdentifier();
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while reading the identifier of the banner copy node",
+                    e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the {@link BannerCopyCacheService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     *
+     * @return the {@link BannerCopyCacheService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     */
+    protected BannerCopyCacheService getBannerCopyCacheService() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+
+        return HstServices.getComponentManager().getComponent(BannerCopyCacheService.class.getName());
+    }
 }
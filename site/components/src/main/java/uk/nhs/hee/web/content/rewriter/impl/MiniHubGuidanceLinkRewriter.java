@@ -4,13 +4,17 @@ import org.hippoecm.hst.configuration.hosting.Mount;
 import org.hippoecm.hst.content.rewriter.impl.SimpleContentRewriter;
 import org.hippoecm.hst.core.linking.HstLink;
 import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
 import org.hippoecm.repository.api.HippoNodeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.services.MiniHubReferenceService;
+import uk.nhs.hee.web.services.RichTextFragmentCacheService;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryResult;
 
@@ -18,6 +22,10 @@ import javax.jcr.query.QueryResult;
  * A Content Rewriter for RichText fields extended from OOTB {@link SimpleContentRewriter}
  * to rewrite Mini-hub Guidance document links in case if they end up with 'pagenotfound'
  * by OOTB contentrewriter {@link SimpleContentRewriter}.
+ *
+ * <p>As this is the default content rewriter of all the RichText fields, the rewritten markup is cached
+ * via {@link RichTextFragmentCacheService} along with the documents (e.g. the MiniHub documents) the rewritten
+ * links depend on.</p>
  */
 public class MiniHubGuidanceLinkRewriter extends SimpleContentRewriter {
     public static final String REFERENCED_MINI_HUB_NODE_FINDER_QUERY =
@@ -29,6 +37,21 @@ public class MiniHubGuidanceLinkRewriter extends SimpleContentRewriter {
     private static final String AVAILABILITY_PREVIEW = "preview";
     private static final String AVAILABILITY_LIVE = "live";
 
+    @Override
+    public String rewrite(
+            final String html,
+            final Node hippoHtmlNode,
+            final HstRequestContext requestContext,
+            final Mount targetMount) {
+        final RichTextFragmentCacheService richTextFragmentCacheService = getRichTextFragmentCacheService();
+        if (richTextFragmentCacheService == null || hippoHtmlNode == null || html == null) {
+            return super.rewrite(html, hippoHtmlNode, requestContext, targetMount);
+        }
+
+        return richTextFragmentCacheService.getRenderedFragment(requestContext, targetMount, hippoHtmlNode,
+                () -> super.rewrite(html, hippoHtmlNode, requestContext, targetMount));
+    }
+
     @Override
     protected HstLink getLink(
             final String path,
@@ -90,9 +113,13 @@ public class MiniHubGuidanceLinkRewriter extends SimpleContentRewriter {
             if (miniHubNode == null) {
                 log.debug("Guidance node with UUID '{}' and path '{}' hasn't been associated to any Mini-hub page(s)",
                         referencedUUID, referencedNode.getPath());
+                // The link would be resolved as soon as the Guidance gets associated to a Mini-hub page
+                markUncacheable(requestContext);
                 return link;
             }
 
+            addLinkDependency(requestContext, miniHubNode);
+
             log.debug("Guidance node with UUID '{}' and path '{}' has been associated to the Mini-hub page = {}",
                     referencedUUID, referencedNode.getPath(), miniHubNode.getPath());
 
@@ -139,6 +166,10 @@ public class MiniHubGuidanceLinkRewriter extends SimpleContentRewriter {
      * Returns the first MiniHub ({@code hee:MiniHub}) document Handle node
      * to which the given Guidance document ({@code guidanceUUID}) has been associated. Otherwise, returns {@code null}.
      *
+     * <p>The lookups are served from {@link MiniHubReferenceService} (if available) and the repository
+     * will only be queried (via {@link #queryReferencedMiniHubNode(Session, String, String, String)})
+     * on a cache miss.</p>
+     *
      * @param requestContext the {@link HstRequestContext} instance.
      * @param contentPath the (channel) content path under which the referenced MiniHub document
      *                    needs to be searched for.
@@ -151,16 +182,69 @@ public class MiniHubGuidanceLinkRewriter extends SimpleContentRewriter {
             final HstRequestContext requestContext,
             final String contentPath,
             final String guidanceUUID) throws RepositoryException {
+        final Session session = requestContext.getQueryManager().getSession();
+        final String availability =
+                requestContext.isChannelManagerPreviewRequest() ? AVAILABILITY_PREVIEW : AVAILABILITY_LIVE;
+
+        final MiniHubReferenceService miniHubReferenceService = getMiniHubReferenceService();
+        if (miniHubReferenceService == null) {
+            return queryReferencedMiniHubNode(session, contentPath, availability, guidanceUUID);
+        }
+
+        final String cachedMiniHubPath =
+                miniHubReferenceService.getMiniHubPath(contentPath, availability, guidanceUUID);
+        if (MiniHubReferenceService.NOT_REFERENCED.equals(cachedMiniHubPath)) {
+            log.debug("Guidance node with UUID '{}' is cached as not associated to any Mini-hub page(s)",
+                    guidanceUUID);
+            return null;
+        }
+
+        if (cachedMiniHubPath != null) {
+            if (session.nodeExists(cachedMiniHubPath)) {
+                log.debug("Guidance node with UUID '{}' is cached as associated to the Mini-hub page = {}",
+                        guidanceUUID, cachedMiniHubPath);
+                return session.getNode(cachedMiniHubPath);
+            }
+
+            miniHubReferenceService.evict(contentPath, availability, guidanceUUID);
+        }
+
+        final long lookupGeneration = miniHubReferenceService.getGeneration();
+        final Node miniHubNode = queryReferencedMiniHubNode(session, contentPath, availability, guidanceUUID);
+        miniHubReferenceService.putMiniHubPath(contentPath, availability, guidanceUUID,
+                miniHubNode == null ? null : miniHubNode.getPath(), lookupGeneration);
+
+        return miniHubNode;
+    }
+
+    /**
+     * Queries the repository for the first MiniHub ({@code hee:MiniHub}) document Handle node
+     * to which the given Guidance document ({@code guidanceUUID}) has been associated. Otherwise, returns {@code null}.
+     *
+     * @param session      the JCR {@link Session} with which the query needs to be executed.
+     * @param contentPath  the (channel) content path under which the referenced MiniHub document
+     *                     needs to be searched for.
+     * @param availability the availability ({@code preview} or {@code live}) of the MiniHub document.
+     * @param guidanceUUID the UUID of the Guidance Handle node.
+     * @return the first MiniHub ({@code hee:MiniHub}) document Handle node
+     * to which the given Guidance document ({@code guidanceUUID}) has been associated. Otherwise, returns {@code null}.
+     * @throws RepositoryException thrown when an error occurs while searching for referenced MiniHub in the repository.
+     */
+    private Node queryReferencedMiniHubNode(
+            final Session session,
+            final String contentPath,
+            final String availability,
+            final String guidanceUUID) throws RepositoryException {
         final String formattedReferencedMiniHubNodeFinderQuery = String.format(REFERENCED_MINI_HUB_NODE_FINDER_QUERY,
                 contentPath,
-                requestContext.isChannelManagerPreviewRequest() ? AVAILABILITY_PREVIEW : AVAILABILITY_LIVE,
+                availability,
                 guidanceUUID);
 
         log.debug("Formatted referenced Mini-hub (hee:MiniHub) node finder query = {}",
                 formattedReferencedMiniHubNodeFinderQuery);
 
         final Query referencedMiniHubNodeFinderQuery =
-                requestContext.getQueryManager().getSession().getWorkspace().getQueryManager().createQuery(
+                session.getWorkspace().getQueryManager().createQuery(
                        formattedReferencedMiniHubNodeFinderQuery,
                         Query.XPATH
                 );
@@ -174,6 +258,64 @@ public class MiniHubGuidanceLinkRewriter extends SimpleContentRewriter {
         return null;
     }
 
+    /**
+     * Records the handle of the given Mini-hub document as a dependency of the RichText being rewritten.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param miniHubNode    the Mini-hub document node through which a link has been rewritten.
+     * @throws RepositoryException thrown when an error occurs while reading the Mini-hub document handle.
+     */
+    private void addLinkDependency(
+            final HstRequestContext requestContext,
+            final Node miniHubNode) throws RepositoryException {
+        final RichTextFragmentCacheService richTextFragmentCacheService = getRichTextFragmentCacheService();
+        if (richTextFragmentCacheService != null) {
+            richTextFragmentCacheService.addLinkDependency(requestContext, miniHubNode.getParent().getPath());
+        }
+    }
+
+    /**
+     * Marks the RichText being rewritten as uncacheable.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     */
+    private void markUncacheable(final HstRequestContext requestContext) {
+        final RichTextFragmentCacheService richTextFragmentCacheService = getRichTextFragmentCacheService();
+        if (richTextFragmentCacheService != null) {
+            richTextFragmentCacheService.markUncacheable(requestContext);
+        }
+    }
+
+    /**
+     * Returns the {@link RichTextFragmentCacheService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     *
+     * @return the {@link RichTextFragmentCacheService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     */
+    protected RichTextFragmentCacheService getRichTextFragmentCacheService() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+
+        return HstServices.getComponentManager().getComponent(RichTextFragmentCacheService.class.getName());
+    }
+
+    /**
+     * Returns the {@link MiniHubReferenceService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     *
+     * @return the {@link MiniHubReferenceService} instance
+     * or {@code null} if the HST services aren't available (e.g. outside of the HST container).
+     */
+    protected MiniHubReferenceService getMiniHubReferenceService() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+
+        return HstServices.getComponentManager().getComponent(MiniHubReferenceService.class.getName());
+    }
+
     /**
      * Returns {@code true} if the given {@code linkPath} is a valid binary path. Otherwise, returns {@code false}.
      *
@@ -1,66 +1,123 @@
 package uk.nhs.hee.web.eforms.hst.behaviors;
 
 import com.onehippo.cms7.eforms.hst.behaviors.MailFormDataBehavior;
+import com.onehippo.cms7.eforms.hst.beans.FormBean;
 import com.onehippo.cms7.eforms.hst.model.Form;
 import com.onehippo.cms7.eforms.hst.util.FormVariableParser;
-import com.onehippo.cms7.eforms.hst.util.mail.MailSender;
-import com.onehippo.cms7.eforms.hst.util.mail.MailTemplate;
 import org.apache.commons.lang3.StringUtils;
 import org.hippoecm.hst.component.support.forms.FormMap;
 import org.hippoecm.hst.configuration.components.HstComponentConfiguration;
-import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
 import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.content.beans.standard.HippoItem;
 import org.hippoecm.hst.core.component.HstRequest;
+import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.request.ComponentConfiguration;
-import org.hippoecm.hst.platform.model.HstModel;
-import org.hippoecm.hst.platform.model.HstModelRegistry;
-import org.hippoecm.hst.util.HstRequestUtils;
-import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.hippoecm.hst.site.HstServices;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.nhs.hee.web.beans.BlogPost;
+import uk.nhs.hee.web.services.CmsBaseUrlService;
+import uk.nhs.hee.web.services.MailDispatchService;
+import uk.nhs.hee.web.services.OutboundMail;
 
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
 import javax.mail.Address;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * An extension of {@link MailFormDataBehavior} for BlogPost Comment form
  * to replace {@code ##BLOG_POST_DOCUMENT##} placeholder with blog post ({@code hee:blogPost}) document CMS link
- * to which the comment has been submitted to.
+ * to which the comment has been submitted to and to send the notification in the background
+ * (see {@link MailDispatchService}).
  */
 public class BlogPostCommentMailFormDataBehavior extends MailFormDataBehavior {
 
     // Blog post document email text placeholder
     public static final String BLOG_POST_DOCUMENT_EMAIL_TEXT_PLACEHOLDER = "##BLOG_POST_DOCUMENT##";
 
-    // CMS context path
-    public static final String CMS_CONTEXT_PATH = "/cms";
-
-    // Alias for CMS mounts
-    public static final String CMS_MOUNT_ALIAS = "cms-mount";
+    // Form mail configuration node type and notification email (property) names
+    private static final String FORM_CONFIGURATION_NODE_TYPE = "eforms:formconfiguration";
+    private static final String PROP_NAME_NOTIFICATIONEMAIL = "eforms:notificationemail";
+    private static final String PROP_NAME_NOTIFICATIONCCEMAIL = "eforms:notificationccemail";
+    private static final String PROP_NAME_NOTIFICATIONBCCEMAIL = "eforms:notificationbccemail";
 
     // Logger
     private static final Logger log = LoggerFactory.getLogger(BlogPostCommentMailFormDataBehavior.class);
 
     /**
      * An override of
-     * {@link MailFormDataBehavior#createMailTemplate(
-     *org.hippoecm.hst.core.component.HstRequest,
+     * {@link MailFormDataBehavior#onValidationSuccess(
+     *      org.hippoecm.hst.core.component.HstRequest,
+     *      org.hippoecm.hst.core.component.HstResponse,
      *      org.hippoecm.hst.core.request.ComponentConfiguration,
+     *      com.onehippo.cms7.eforms.hst.beans.FormBean,
      *      com.onehippo.cms7.eforms.hst.model.Form,
-     *      org.hippoecm.hst.component.support.forms.FormMap,
-     *      java.util.List,
-     *      java.util.List,
-     *      java.util.List,
-     *      com.onehippo.cms7.eforms.hst.util.mail.MailSender,
-     *      org.hippoecm.hst.content.beans.standard.HippoItem)}
-     * which replaces {@code ##BLOG_POST_DOCUMENT##} placeholders on both plaintext and html
-     * with blog post ({@code hee:blogPost}) document CMS link to which the comment has been submitted to.
+     *      org.hippoecm.hst.component.support.forms.FormMap)}
+     * which queues the blog comment moderation notification (see {@link MailDispatchService}) instead of sending it
+     * on the request thread. The notifications of the same blog post are batched within the batch window.
      */
     @Override
-    protected MailTemplate createMailTemplate(
+    public void onValidationSuccess(
+            final HstRequest request,
+            final HstResponse response,
+            final ComponentConfiguration config,
+            final FormBean bean,
+            final Form form,
+            final FormMap map) {
+        try {
+            final HippoItem mailConfiguration = getMailConfiguration(request, bean);
+            final List<Address> recipients = parseAddresses(bean.getSingleProperty(PROP_NAME_NOTIFICATIONEMAIL));
+            if (mailConfiguration == null || recipients.isEmpty()) {
+                log.warn("Blog comment form '{}' has no mail configuration/notification email. " +
+                        "Skipping the moderation notification.", bean.getPath());
+                return;
+            }
+
+            final OutboundMail mail = createMail(
+                    request,
+                    config,
+                    form,
+                    map,
+                    recipients,
+                    parseAddresses(mailConfiguration.getSingleProperty(PROP_NAME_NOTIFICATIONCCEMAIL)),
+                    parseAddresses(mailConfiguration.getSingleProperty(PROP_NAME_NOTIFICATIONBCCEMAIL)),
+                    mailConfiguration);
+
+            if (!getMailDispatchService().enqueue(mail)) {
+                log.error("Blog comment moderation notification '{}' has been rejected by the mail dispatch queue",
+                        mail.getSubject());
+            }
+        } catch (final RepositoryException | ObjectBeanManagerException | AddressException e) {
+            log.error("Caught error '{}' while queueing the blog comment moderation notification",
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the blog comment moderation notification (with the HTML and plaintext contents of
+     * {@link MailFormDataBehavior}) in which {@code ##BLOG_POST_DOCUMENT##} placeholders on both plaintext and html
+     * are replaced with blog post ({@code hee:blogPost}) document CMS link to which the comment has been submitted to.
+     *
+     * @param request           the {@link HstRequest} instance.
+     * @param config            the blog comment {@link ComponentConfiguration} instance.
+     * @param form              the {@link Form} instance.
+     * @param map               the blog comment form map.
+     * @param recipients        the recipients.
+     * @param ccRecipients      the CC recipients.
+     * @param bccRecipients     the BCC recipients.
+     * @param mailConfiguration the mail configuration ({@code eforms:formconfiguration}) of the blog comment form.
+     * @return the blog comment moderation notification {@link OutboundMail} batched by the blog post
+     * to which the comment has been submitted to.
+     */
+    private OutboundMail createMail(
             final HstRequest request,
             final ComponentConfiguration config,
             final Form form,
@@ -68,29 +125,88 @@ public class BlogPostCommentMailFormDataBehavior extends MailFormDataBehavior {
             final List<Address> recipients,
             final List<Address> ccRecipients,
             final List<Address> bccRecipients,
-            final MailSender sender,
-            final HippoItem bean) {
-        final String subject = FormVariableParser.parse(getSubject(request, config, bean, ""), map);
-        final String mailText = bean.getSingleProperty(PROP_NAME_NOTIFICATIONTEXT);
-        final String template = bean.getSingleProperty(PROP_NAME_NOTIFICATIONTEMPLATE);
+            final HippoItem mailConfiguration) {
+        final String subject = FormVariableParser.parse(getSubject(request, config, mailConfiguration, ""), map);
+        final String mailText = mailConfiguration.getSingleProperty(PROP_NAME_NOTIFICATIONTEXT);
+        final String template = mailConfiguration.getSingleProperty(PROP_NAME_NOTIFICATIONTEMPLATE);
 
         String plainText = getPlainText(request, config, form, map, mailText, true);
         String html = createHTMLContent(request, config, form, map, mailText, template);
 
         final BlogPost blogPost = getBlogPost(request, config);
+        String batchKey = null;
 
         if (blogPost != null) {
             log.debug("Blog post (hee:blogPost) document absolute path = {}", blogPost.getPath());
 
-            final String blogPostDocumentCMSURL = getDocumentURL(request, blogPost.getPath());
+            final String blogPostDocumentCMSURL = getCmsBaseUrlService().getDocumentURL(
+                    request, request.getRequestContext().getVirtualHost().getHostGroupName(), blogPost.getPath());
             log.debug("CMS URL of the blog post (hee:blogPost) document '{}' = {}",
                     blogPost.getPath(), blogPostDocumentCMSURL);
 
             plainText = updateBlogPostPlaceholders(blogPost, blogPostDocumentCMSURL, plainText, false);
             html = updateBlogPostPlaceholders(blogPost, blogPostDocumentCMSURL, html, true);
+            batchKey = blogPost.getCanonicalHandlePath();
         }
 
-        return new MailTemplate(sender, recipients, ccRecipients, bccRecipients, subject, html, plainText);
+        return new OutboundMail(batchKey, recipients, ccRecipients, bccRecipients, subject, html, plainText);
+    }
+
+    /**
+     * Returns the mail configuration ({@code eforms:formconfiguration}) bean of the given form {@code bean}.
+     *
+     * @param request the {@link HstRequest} instance.
+     * @param bean    the blog comment {@link FormBean} instance.
+     * @return the mail configuration ({@code eforms:formconfiguration}) bean of the given form {@code bean}
+     * or {@code null} if the form doesn't have one.
+     * @throws RepositoryException        thrown when an error occurs while reading the form node.
+     * @throws ObjectBeanManagerException thrown when the mail configuration bean can't be loaded.
+     */
+    private HippoItem getMailConfiguration(final HstRequest request, final FormBean bean)
+            throws RepositoryException, ObjectBeanManagerException {
+        final NodeIterator children = bean.getNode().getNodes();
+        while (children.hasNext()) {
+            final Node child = children.nextNode();
+            if (child.isNodeType(FORM_CONFIGURATION_NODE_TYPE)) {
+                return (HippoItem) request.getRequestContext().getObjectBeanManager().getObject(child.getPath());
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the addresses of the given comma separated {@code addresses}.
+     *
+     * @param addresses the comma separated addresses.
+     * @return the addresses of the given comma separated {@code addresses}
+     * or an empty list if the given {@code addresses} is empty.
+     * @throws AddressException thrown when the given {@code addresses} can't be parsed.
+     */
+    private List<Address> parseAddresses(final String addresses) throws AddressException {
+        if (StringUtils.isBlank(addresses)) {
+            return Collections.emptyList();
+        }
+
+        return Arrays.asList(InternetAddress.parse(addresses));
+    }
+
+    /**
+     * Returns {@link CmsBaseUrlService} instance.
+     *
+     * @return the {@link CmsBaseUrlService} instance.
+     */
+    protected CmsBaseUrlService getCmsBaseUrlService() {
+        return HstServices.getComponentManager().getComponent(CmsBaseUrlService.class.getName());
+    }
+
+    /**
+     * Returns {@link MailDispatchService} instance.
+     *
+     * @return the {@link MailDispatchService} instance.
+     */
+    protected MailDispatchService getMailDispatchService() {
+        return HstServices.getComponentManager().getComponent(MailDispatchService.class.getName());
     }
 
     /**
@@ -162,91 +278,6 @@ public class BlogPostCommentMailFormDataBehavior extends MailFormDataBehavior {
         return root.getBean(blogPostDocumentRelativePath);
     }
 
-    /**
-     * <p>Returns CMS document URL of the given {@code documentPath}</p>.
-     *
-     * <p>It constructs the CMS document URL using {@code [CMS_URL]/content/path/[JCR_DOCUMENT_PATH]} pattern.</p>
-     *
-     * <p>In case if the current request (site) host isn't a CMS/Platform host
-     * (which is the case for production channel specific domains), then it would construct the CMS/Platform base URL
-     * based on the current request's HostGroupName (e.g. prd-brcloud) and {@code cms_mount} alias.</p>
-     *
-     * @param request      the {@link HstRequest} instance.
-     * @param documentPath the canonical (JCR) document path.
-     * @return the CMS document URL of the given {@code documentPath}.
-     */
-    private String getDocumentURL(final HstRequest request, final String documentPath) {
-        String cmsBaseURL = StringUtils.EMPTY;
-        try {
-            cmsBaseURL = HstRequestUtils.getCmsBaseURL(request);
-        } catch (final Exception e) {
-            // Fails silently as it bound to happen especially on production
-            // wherein channels will have channel specific domains (e.g. dental.hee.nhs.uk for Dental, etc.)
-            // which is different from the CMS domain (e.g. cms-prod.hee.bloomreach.cloud).
-        }
-
-        final String hostGroupName = request.getRequestContext().getVirtualHost().getHostGroupName();
-        if (StringUtils.isEmpty(cmsBaseURL)) {
-            log.debug("Failed to get CMS base URL based on the current request [{}]. " +
-                            "Going to manually construct CMS base URL by querying the Platform Mount " +
-                            "corresponding to the current request HostGroup = {} and Alias (hst:alias) = {}",
-                    request.getRequestURL(), hostGroupName, CMS_MOUNT_ALIAS);
-
-            cmsBaseURL = getCMSBaseURL(hostGroupName);
-        }
-
-        log.debug("CMS base URL = {}", cmsBaseURL);
-
-        if (StringUtils.isEmpty(cmsBaseURL)) {
-            log.warn("Can't construct CMS base URL for the HostGroup = {} and Alias (hst:alias) = {}. " +
-                            "Perhaps Alias '{}' hasn't been added to the corresponding Platform Mount.",
-                    hostGroupName, CMS_MOUNT_ALIAS, CMS_MOUNT_ALIAS);
-            return cmsBaseURL;
-        }
-
-        return cmsBaseURL + "/content/path" + documentPath;
-    }
-
-    /**
-     * Returns CMS/Platform base URL for the given {@code hostGroupName} and the mount alias {@code cms-mount}.
-     *
-     * @param hostGroupName the (virtual) HostGroupName whose CMS/Platform base URL needs to be returned.
-     * @return the CMS/Platform base URL for the given  {@code hostGroupName} and the mount alias {@code cms-mount}.
-     */
-    private String getCMSBaseURL(final String hostGroupName) {
-        String cmsBaseURL = StringUtils.EMPTY;
-
-        final HstModelRegistry hstModelRegistry = HippoServiceRegistry.getService(HstModelRegistry.class);
-        for (final HstModel hstModel : hstModelRegistry.getHstModels()) {
-            try {
-                final String contextPath = hstModel.getVirtualHosts().getContextPath();
-                if (CMS_CONTEXT_PATH.equals(contextPath)) {
-                    final Mount platformMount = hstModel.getVirtualHosts()
-                            .getMountByGroupAliasAndType(hostGroupName, CMS_MOUNT_ALIAS, Mount.LIVE_NAME);
-
-                    if (platformMount != null) {
-                        cmsBaseURL = platformMount.getScheme() +
-                                "://" +
-                                platformMount.getVirtualHost().getHostName() +
-                                (platformMount.isPortInUrl() ? ":" + platformMount.getPort() : StringUtils.EMPTY) +
-                                "/cms";
-
-                        log.debug("CMS base URL for the HostGroup '{}' and Alias (hst:alias) '{}' = {}",
-                                hostGroupName, CMS_MOUNT_ALIAS, cmsBaseURL);
-                        break;
-                    }
-                }
-            } catch (final Exception e) {
-                log.error("Caught error '{}' while constructing CMS base URL " +
-                                "based on the current request HostGroup = {} and Alias (hst:alias) = {}",
-                        e.getMessage(), hostGroupName, CMS_MOUNT_ALIAS, e);
-            }
-        }
-
-        return cmsBaseURL;
-    }
-
-
     /**
      * Replaces {@code ##BLOG_POST_DOCUMENT##} placeholders on the given {@code htmlOrPlainText}
      * with blog post ({@code hee:blogPost}) document CMS link to which the comment has been submitted to.
@@ -7,31 +7,28 @@ import com.onehippo.cms7.eforms.hst.exceptions.EformBehaviorException;
 import com.onehippo.cms7.eforms.hst.model.Form;
 import org.hippoecm.hst.component.support.forms.FormField;
 import org.hippoecm.hst.component.support.forms.FormMap;
-import org.hippoecm.hst.component.support.forms.FormUtils;
 import org.hippoecm.hst.configuration.components.HstComponentConfiguration;
 import org.hippoecm.hst.content.beans.standard.HippoBean;
 import org.hippoecm.hst.core.component.HstRequest;
 import org.hippoecm.hst.core.component.HstResponse;
 import org.hippoecm.hst.core.request.ComponentConfiguration;
-import org.hippoecm.repository.api.HippoWorkspace;
-import org.hippoecm.repository.api.WorkflowManager;
-import org.onehippo.repository.documentworkflow.DocumentWorkflow;
+import org.hippoecm.hst.site.HstServices;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.nhs.hee.web.beans.BlogPost;
+import uk.nhs.hee.web.services.BlogCommentQueueService;
+import uk.nhs.hee.web.services.PendingBlogComment;
 
-import javax.jcr.Node;
-import javax.jcr.RepositoryException;
-import javax.jcr.Session;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Calendar;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Class that adds behaviour to perform actions post successful blog comment form validation.
  *
  * <p>This class essentially extracts the comment submitted by the site visitor and
- * adds it ({@code hee:blogComment}) to the corresponding blog post ({@code hee:blogPost}) document.</p>
+ * queues it (see {@link BlogCommentQueueService}) to be added ({@code hee:blogComment})
+ * to the corresponding blog post ({@code hee:blogPost}) document in the background.</p>
  */
 public class StoreBlogCommentBehavior implements OnValidationSuccessBehavior {
     private static final Logger LOGGER = LoggerFactory.getLogger(StoreBlogCommentBehavior.class);
@@ -48,20 +45,7 @@ public class StoreBlogCommentBehavior implements OnValidationSuccessBehavior {
             final String documentPath = getBlogDocumentPath(config);
             if (!Strings.isNullOrEmpty(documentPath)) {
                 final BlogPost blogPost = getBlogPost(request, documentPath);
-                final Session session = FormUtils.getWritableSession();
-                final WorkflowManager workflowManager = ((HippoWorkspace) session.getWorkspace()).getWorkflowManager();
-                final DocumentWorkflow documentWorkflow =
-                        (DocumentWorkflow) workflowManager.getWorkflow(
-                                "default", session.getNode(blogPost.getNode().getPath()).getParent());
-
-                final Node editingNode = documentWorkflow.obtainEditableInstance().getNode(session);
-                addBlogCommentNode(editingNode, map);
-
-                session.save();
-                documentWorkflow.commitEditableInstance();
-                if (Boolean.TRUE.equals(documentWorkflow.hints().get("publish"))) {
-                    documentWorkflow.publish();
-                }
+                getBlogCommentQueueService().enqueue(toPendingBlogComment(blogPost, map));
             }
         } catch (final Exception e) {
             final String errorMsg = "Caught error '" + e.getMessage() + "' while processing/storing the submitted blog post comment.";
@@ -103,23 +87,32 @@ public class StoreBlogCommentBehavior implements OnValidationSuccessBehavior {
     }
 
     /**
-     * Extracts blog comment fields from the form {@code map} and adds a {@code hee:comments} node
-     * to the {@code editingNode}.
+     * Extracts blog comment fields from the form {@code map} and returns them as {@link PendingBlogComment}
+     * of the given {@code blogPost}.
      *
-     * @param editingNode the editing blog post node.
-     * @param map         the blog comment form map
-     * @throws RepositoryException thrown when an error occurs during adding blog comment node to the editing node instance.
+     * @param blogPost the {@link BlogPost} instance.
+     * @param map      the blog comment form map
+     * @return the {@link PendingBlogComment} of the given {@code blogPost}.
      */
-    private void addBlogCommentNode(final Node editingNode, final FormMap map) throws RepositoryException {
-        final Node commentNode = editingNode.addNode("hee:comments", "hee:blogComment");
+    private PendingBlogComment toPendingBlogComment(final BlogPost blogPost, final FormMap map) {
         final Map<String, FormField> formValues = map.getValue();
-        commentNode.setProperty("hee:message", formValues.get("comment").getValue());
-        commentNode.setProperty("hee:postedDate", Calendar.getInstance());
-        commentNode.setProperty("hee:moderated", Boolean.FALSE);
-        final Node authorNode = commentNode.addNode("hee:author", "hee:blogCommentAuthor");
-        authorNode.setProperty("hee:firstName", formValues.get("firstName").getValue());
-        authorNode.setProperty("hee:lastName", formValues.get("lastName").getValue());
-        authorNode.setProperty("hee:email", formValues.get("emailAddress").getValue());
+        return new PendingBlogComment(
+                UUID.randomUUID().toString(),
+                blogPost.getCanonicalHandlePath(),
+                formValues.get("comment").getValue(),
+                formValues.get("firstName").getValue(),
+                formValues.get("lastName").getValue(),
+                formValues.get("emailAddress").getValue(),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Returns {@link BlogCommentQueueService} instance.
+     *
+     * @return the {@link BlogCommentQueueService} instance.
+     */
+    protected BlogCommentQueueService getBlogCommentQueueService() {
+        return HstServices.getComponentManager().getComponent(BlogCommentQueueService.class.getName());
     }
 
 }
@@ -0,0 +1,174 @@
+package uk.nhs.hee.web.filters;
+
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.core.container.ContainerException;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.services.CachedPage;
+import uk.nhs.hee.web.services.PageCacheService;
+import uk.nhs.hee.web.services.PageValidator;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * <p>Output cache filter serving the rendered pages to the anonymous live visitors from {@link PageCacheService}.
+ * On cache hit, the stored bytes of the page are written straight to the response without the HST request
+ * processing. On cache miss, the request is passed down the chain (i.e. to {@code HstFilter}) while the rendered
+ * page is captured (see {@link PageCaptureResponseWrapper}), written to the response once built and cached
+ * if it's cacheable. The cached pages keep their response headers (e.g. the ones configured via
+ * {@code hst:responseheaders}), {@code Cache-Control} policy and validators, so that the conditional requests are
+ * answered with {@code 304 Not Modified} on cache hit as well.</p>
+ *
+ * <p>It needs to be mapped before {@code HstFilter} as the latter doesn't pass the HST requests down the chain.
+ * The requests bypassing the cache (e.g. preview, Channel Manager and form submissions) are passed down the chain
+ * as they are (see {@link PageCacheService#getCacheKey(HttpServletRequest)}).</p>
+ */
+public class PageCacheFilter implements Filter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageCacheFilter.class);
+
+    static final String CACHE_STATUS_HEADER = "X-Page-Cache";
+    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        // Nothing to initialise as the services are looked up from the HST container
+    }
+
+    @Override
+    public void doFilter(
+            final ServletRequest servletRequest,
+            final ServletResponse servletResponse,
+            final FilterChain chain) throws IOException, ServletException {
+        final PageCacheService pageCacheService = getPageCacheService();
+        if (pageCacheService == null
+                || !(servletRequest instanceof HttpServletRequest)
+                || !(servletResponse instanceof HttpServletResponse)) {
+            chain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+
+        final HttpServletRequest request = (HttpServletRequest) servletRequest;
+        final HttpServletResponse response = (HttpServletResponse) servletResponse;
+        final String cacheKey = pageCacheService.getCacheKey(request);
+        final VirtualHosts virtualHosts = cacheKey == null ? null : getVirtualHosts();
+        if (virtualHosts == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final CachedPage cachedPage = pageCacheService.getPage(virtualHosts, cacheKey);
+        if (cachedPage != null) {
+            writePage(request, response, cachedPage);
+            return;
+        }
+
+        final long renderGeneration = pageCacheService.getGeneration();
+        final PageCaptureResponseWrapper responseWrapper =
+                new PageCaptureResponseWrapper(response, pageCacheService.getMaximumPageSize());
+        response.setHeader(CACHE_STATUS_HEADER, "MISS");
+        chain.doFilter(request, responseWrapper);
+        responseWrapper.finish();
+
+        // Doesn't cache the page rendered for a new session or with a rebuilt HST model
+        if (responseWrapper.isCacheable()
+                && request.getSession(false) == null
+                && virtualHosts == getVirtualHosts()) {
+            final CachedPage page = new CachedPage(
+                    responseWrapper.getContentType(),
+                    responseWrapper.getCapturedContent(),
+                    responseWrapper.getHeaders(),
+                    responseWrapper.getCacheControl(),
+                    responseWrapper.getValidator(),
+                    System.currentTimeMillis());
+            if (pageCacheService.putPage(virtualHosts, cacheKey, request, page, renderGeneration)) {
+                LOGGER.debug("Cached the page '{}' ({} bytes)", cacheKey, page.getContent().length);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to destroy
+    }
+
+    /**
+     * Writes the given {@code cachedPage} (along with its headers, {@code Cache-Control} policy and validators)
+     * to the given {@code response} or answers the given (conditional) {@code request} with
+     * {@code 304 Not Modified} if the client already holds the page.
+     *
+     * @param request    the {@link HttpServletRequest} instance.
+     * @param response   the {@link HttpServletResponse} instance.
+     * @param cachedPage the cached page.
+     * @throws IOException thrown when an error occurs while writing the page.
+     */
+    private void writePage(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            final CachedPage cachedPage) throws IOException {
+        cachedPage.getHeaders().forEach((name, values) -> {
+            response.setHeader(name, values.get(0));
+            values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+        });
+
+        response.setHeader(CACHE_STATUS_HEADER, "HIT");
+        if (cachedPage.getCacheControl() != null) {
+            response.setHeader(CACHE_CONTROL_HEADER, cachedPage.getCacheControl());
+        }
+
+        final PageValidator validator = cachedPage.getValidator();
+        if (validator != null) {
+            response.setHeader(ETAG_HEADER, validator.getETag());
+            response.setDateHeader(LAST_MODIFIED_HEADER, validator.getLastModified());
+            if (validator.isNotModified(request)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cachedPage.getContentType());
+        response.setContentLength(cachedPage.getContent().length);
+        response.getOutputStream().write(cachedPage.getContent());
+    }
+
+    /**
+     * Returns the {@link VirtualHosts} (i.e. the HST model) serving the requests
+     * or {@code null} if it can't be loaded.
+     *
+     * @return the {@link VirtualHosts} serving the requests or {@code null} if it can't be loaded.
+     */
+    private VirtualHosts getVirtualHosts() {
+        try {
+            final HstManager hstManager = HstServices.getComponentManager().getComponent(HstManager.class.getName());
+            return hstManager == null ? null : hstManager.getVirtualHosts();
+        } catch (final ContainerException e) {
+            LOGGER.warn("Caught error '{}' while loading the HST model. Bypassing page cache", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns {@link PageCacheService} instance or {@code null} if the HST container isn't available (yet).
+     *
+     * @return {@link PageCacheService} instance or {@code null} if the HST container isn't available (yet).
+     */
+    private PageCacheService getPageCacheService() {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+
+        return HstServices.getComponentManager().getComponent(PageCacheService.class.getName());
+    }
+}
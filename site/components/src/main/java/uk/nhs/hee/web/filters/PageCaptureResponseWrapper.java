@@ -0,0 +1,465 @@
+package uk.nhs.hee.web.filters;
+
+import uk.nhs.hee.web.services.PageValidator;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * <p>{@link HttpServletResponseWrapper} that captures (i.e. buffers) the body of the response, so that the rendered
+ * page could be cached (see {@link PageCacheFilter}). The captured body is written to the wrapped response once
+ * the page has been built (see {@link #finish()}), which lets the pipeline set the headers depending on the built
+ * page (e.g. its {@code Cache-Control} policy and validators) until then.</p>
+ *
+ * <p>The capturing stops once the body exceeds the given maximum size or an error/redirect is sent, from which point
+ * the response is written through to the wrapped response. The status, cookies and
+ * {@code Cache-Control} header of the response are tracked to determine whether the captured page could be
+ * cached (see {@link #isCacheable()}). The end-to-end headers of the response (e.g. the ones configured via
+ * {@code hst:responseheaders}) are captured as well (see {@link #getHeaders()}), so that they could be replayed
+ * along with the cached page.</p>
+ */
+class PageCaptureResponseWrapper extends HttpServletResponseWrapper {
+    private static final String SET_COOKIE_HEADER = "Set-Cookie";
+    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final String HTML_CONTENT_TYPE = "text/html";
+    private static final DateTimeFormatter HTTP_DATE_FORMATTER =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    // The hop-by-hop headers and the ones (re)written by the page cache filter itself
+    private static final Set<String> UNCAPTURED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        UNCAPTURED_HEADERS.addAll(Arrays.asList(
+                "Connection", "Keep-Alive", "Proxy-Authenticate", "Proxy-Authorization", "TE", "Trailer",
+                "Transfer-Encoding", "Upgrade", "Date", "Content-Length", "Content-Type", SET_COOKIE_HEADER,
+                CACHE_CONTROL_HEADER, ETAG_HEADER, LAST_MODIFIED_HEADER, PageCacheFilter.CACHE_STATUS_HEADER));
+    }
+
+    private final int maximumSize;
+    private final ByteArrayOutputStream capture = new ByteArrayOutputStream();
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private boolean overflow;
+    private boolean buffering = true;
+    private int status = SC_OK;
+    private boolean cookieSet;
+    private boolean cacheControlPrivate;
+    private String cacheControl;
+    private String etag;
+    private long lastModified = -1;
+    private CapturingOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * Creates {@link PageCaptureResponseWrapper} instance.
+     *
+     * @param response    the {@link HttpServletResponse} to be wrapped.
+     * @param maximumSize the maximum size (in bytes) of the body to be captured.
+     */
+    PageCaptureResponseWrapper(final HttpServletResponse response, final int maximumSize) {
+        super(response);
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called on this response");
+        }
+
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called on this response");
+            }
+
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        // The captured body is only written to the wrapped response once the page has been built
+        if (!buffering) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        capture.reset();
+        status = SC_OK;
+        cookieSet = false;
+        cacheControlPrivate = false;
+        cacheControl = null;
+        etag = null;
+        lastModified = -1;
+        headers.clear();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        capture.reset();
+    }
+
+    @Override
+    public void setStatus(final int sc) {
+        super.setStatus(sc);
+        status = sc;
+    }
+
+    @Override
+    public void sendError(final int sc) throws IOException {
+        stopBuffering();
+        super.sendError(sc);
+        status = sc;
+    }
+
+    @Override
+    public void sendError(final int sc, final String msg) throws IOException {
+        stopBuffering();
+        super.sendError(sc, msg);
+        status = sc;
+    }
+
+    @Override
+    public void sendRedirect(final String location) throws IOException {
+        stopBuffering();
+        super.sendRedirect(location);
+        status = SC_FOUND;
+    }
+
+    @Override
+    public void addCookie(final Cookie cookie) {
+        super.addCookie(cookie);
+        cookieSet = true;
+    }
+
+    @Override
+    public void setHeader(final String name, final String value) {
+        super.setHeader(name, value);
+        trackHeader(name, value);
+        captureHeader(name, value, true);
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        super.addHeader(name, value);
+        trackHeader(name, value);
+        captureHeader(name, value, false);
+    }
+
+    @Override
+    public void setDateHeader(final String name, final long date) {
+        super.setDateHeader(name, date);
+        trackDateHeader(name, date);
+        captureHeader(name, HTTP_DATE_FORMATTER.format(Instant.ofEpochMilli(date)), true);
+    }
+
+    @Override
+    public void addDateHeader(final String name, final long date) {
+        super.addDateHeader(name, date);
+        trackDateHeader(name, date);
+        captureHeader(name, HTTP_DATE_FORMATTER.format(Instant.ofEpochMilli(date)), false);
+    }
+
+    @Override
+    public void setIntHeader(final String name, final int value) {
+        super.setIntHeader(name, value);
+        captureHeader(name, String.valueOf(value), true);
+    }
+
+    @Override
+    public void addIntHeader(final String name, final int value) {
+        super.addIntHeader(name, value);
+        captureHeader(name, String.valueOf(value), false);
+    }
+
+    /**
+     * Writes the captured body to the wrapped response once the page has been built. The body written afterwards
+     * is written through to the wrapped response.
+     *
+     * @throws IOException thrown when an error occurs while writing the captured body.
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        if (buffering && outputStream != null) {
+            outputStream.writeCapture();
+        }
+
+        buffering = false;
+    }
+
+    /**
+     * Returns whether the captured page could be cached i.e. it's a successfully rendered HTML page
+     * which neither sets any cookie nor is marked as private and doesn't exceed the maximum size.
+     *
+     * @return {@code true} if the captured page could be cached. Otherwise, {@code false}.
+     */
+    boolean isCacheable() {
+        final String contentType = getContentType();
+        return status == SC_OK
+                && !overflow
+                && !cookieSet
+                && !cacheControlPrivate
+                && hasBody()
+                && contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith(HTML_CONTENT_TYPE);
+    }
+
+    /**
+     * Returns the captured (encoded) body of the response.
+     *
+     * @return the captured (encoded) body of the response.
+     */
+    byte[] getCapturedContent() {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        return capture.toByteArray();
+    }
+
+    /**
+     * Returns the {@code Cache-Control} header of the response or {@code null} if it hasn't been set.
+     *
+     * @return the {@code Cache-Control} header of the response or {@code null} if it hasn't been set.
+     */
+    String getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns (a copy of) the captured end-to-end headers of the response i.e. the headers other than
+     * the hop-by-hop ones, {@code Set-Cookie}, the content headers, {@code Cache-Control} and validators.
+     *
+     * @return the captured headers ({@code {name} -> {values}}) of the response.
+     */
+    Map<String, List<String>> getHeaders() {
+        final Map<String, List<String>> capturedHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.forEach((name, values) -> capturedHeaders.put(name, Collections.unmodifiableList(values)));
+        return capturedHeaders;
+    }
+
+    /**
+     * Returns the validators ({@code ETag} and {@code Last-Modified} headers) of the response
+     * or {@code null} if they haven't been set.
+     *
+     * @return the validators of the response or {@code null} if they haven't been set.
+     */
+    PageValidator getValidator() {
+        return etag == null || lastModified == -1 ? null : new PageValidator(etag, lastModified);
+    }
+
+    /**
+     * Returns whether anything has been written to the response body.
+     *
+     * @return {@code true} if anything has been written to the response body. Otherwise, {@code false}.
+     */
+    private boolean hasBody() {
+        if (writer != null) {
+            writer.flush();
+        }
+
+        return capture.size() > 0;
+    }
+
+    /**
+     * Discards the captured body (e.g. when an error/redirect is sent in place of the page) and writes the rest of
+     * the response through to the wrapped response.
+     */
+    private void stopBuffering() {
+        if (buffering) {
+            buffering = false;
+            overflow = true;
+            capture.reset();
+        }
+    }
+
+    /**
+     * Tracks the cookies set via the {@code Set-Cookie} header, the {@code Cache-Control} policy
+     * (and its {@code private}/{@code no-store} directives) and the {@code ETag} validator.
+     *
+     * @param name  the name of the header.
+     * @param value the value of the header.
+     */
+    private void trackHeader(final String name, final String value) {
+        if (SET_COOKIE_HEADER.equalsIgnoreCase(name)) {
+            cookieSet = true;
+        } else if (CACHE_CONTROL_HEADER.equalsIgnoreCase(name) && value != null) {
+            final String directives = value.toLowerCase(Locale.ROOT);
+            cacheControl = value;
+            cacheControlPrivate = directives.contains("private") || directives.contains("no-store");
+        } else if (ETAG_HEADER.equalsIgnoreCase(name)) {
+            etag = value;
+        }
+    }
+
+    /**
+     * Captures the given (end-to-end) header unless it's one of the uncaptured headers.
+     *
+     * @param name    the name of the header.
+     * @param value   the value of the header.
+     * @param replace {@code true} if the header replaces the previous values of the same name (i.e. it has been
+     *                set rather than added). Otherwise, {@code false}.
+     */
+    private void captureHeader(final String name, final String value, final boolean replace) {
+        if (name == null || UNCAPTURED_HEADERS.contains(name)) {
+            return;
+        }
+
+        if (replace) {
+            headers.remove(name);
+        }
+
+        if (value != null) {
+            headers.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+    }
+
+    /**
+     * Tracks the {@code Last-Modified} validator.
+     *
+     * @param name the name of the header.
+     * @param date the value (in milliseconds) of the header.
+     */
+    private void trackDateHeader(final String name, final long date) {
+        if (LAST_MODIFIED_HEADER.equalsIgnoreCase(name)) {
+            lastModified = date;
+        }
+    }
+
+    /**
+     * {@link ServletOutputStream} that captures the written bytes up to the maximum size. Once the maximum size is
+     * exceeded (or the capturing has been stopped), the captured bytes and the ones written afterwards are written
+     * through to the (wrapped) response output stream.
+     */
+    private final class CapturingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        /**
+         * Creates {@link CapturingOutputStream} instance.
+         *
+         * @param delegate the (wrapped) response output stream.
+         */
+        private CapturingOutputStream(final ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (canCapture(1)) {
+                capture.write(b);
+            } else {
+                delegate.write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (canCapture(len)) {
+                capture.write(b, off, len);
+            } else {
+                delegate.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!buffering) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The wrapped response output stream is closed (by the container) once the captured body is written
+            if (!buffering) {
+                delegate.close();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+
+        /**
+         * Writes the captured bytes to the (wrapped) response output stream.
+         *
+         * @throws IOException thrown when an error occurs while writing the captured bytes.
+         */
+        private void writeCapture() throws IOException {
+            capture.writeTo(delegate);
+        }
+
+        /**
+         * Returns whether the given number of bytes could be captured without exceeding the maximum size.
+         * Otherwise, the capturing is stopped and the bytes captured so far are written through.
+         *
+         * @param len the number of bytes to be captured.
+         * @return {@code true} if the given number of bytes could be captured. Otherwise, {@code false}.
+         * @throws IOException thrown when an error occurs while writing the captured bytes.
+         */
+        private boolean canCapture(final int len) throws IOException {
+            if (!buffering) {
+                return false;
+            }
+
+            if (capture.size() + len <= maximumSize) {
+                return true;
+            }
+
+            buffering = false;
+            overflow = true;
+            writeCapture();
+            capture.reset();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package uk.nhs.hee.web.listeners;
+
+import java.util.Set;
+
+/**
+ * Callback interface for services which needs to be notified when documents they depend on
+ * have been changed (e.g. published, depublished or deleted) in the repository.
+ *
+ * <p>Instances are registered against a {@link DocumentEventListener} which translates
+ * JCR observation events into the corresponding document handle paths.</p>
+ */
+public interface DocumentChangeHandler {
+
+    /**
+     * Invoked when one or more documents have been changed in the repository.
+     *
+     * @param handlePaths the (canonical) paths of the document handles ({@code hippo:handle}) that have been changed.
+     */
+    void onDocumentsChanged(Set<String> handlePaths);
+}
@@ -0,0 +1,215 @@
+package uk.nhs.hee.web.listeners;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JCR observation {@link EventListener} which translates the events received into the paths
+ * of the document handles ({@code hippo:handle}) they belong to and notifies the configured
+ * {@link DocumentChangeHandler}s.
+ *
+ * <p>This listener is meant to be registered to {@code jcrObservationEventListenerItems}
+ * (see {@code META-INF/hst-assembly/overrides}) with {@code nodeTypeNames} set to the document types
+ * (e.g. {@code hee:MiniHub}) the handlers are interested in, so that only the events
+ * on the document variants of those types are delivered.</p>
+ *
+ * <p>If a {@link Repository} and {@link Credentials} (able to read all the document variants) are set, the events
+ * on the non-published document variants (e.g. draft autosaves and unpublished changes) are ignored. The variants
+ * which can't be read (e.g. the removed ones) are always considered as changed.</p>
+ */
+public class DocumentEventListener implements EventListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentEventListener.class);
+
+    private List<DocumentChangeHandler> documentChangeHandlers = Collections.emptyList();
+    private Repository repository;
+    private Credentials credentials;
+
+    /**
+     * Sets the {@link DocumentChangeHandler}s which needs to be notified on document changes.
+     *
+     * @param documentChangeHandlers the {@link DocumentChangeHandler}s which needs to be notified on document changes.
+     */
+    public void setDocumentChangeHandlers(final List<DocumentChangeHandler> documentChangeHandlers) {
+        this.documentChangeHandlers = documentChangeHandlers;
+    }
+
+    /**
+     * Sets the {@link Repository} with which the changed document variants needs to be read
+     * in order to ignore the events on the non-published variants.
+     *
+     * @param repository the {@link Repository} with which the changed document variants needs to be read.
+     */
+    public void setRepository(final Repository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Sets the {@link Credentials} (able to read all the document variants) with which the changed
+     * document variants needs to be read in order to ignore the events on the non-published variants.
+     *
+     * @param credentials the {@link Credentials} with which the changed document variants needs to be read.
+     */
+    public void setCredentials(final Credentials credentials) {
+        this.credentials = credentials;
+    }
+
+    @Override
+    public void onEvent(final EventIterator events) {
+        // {document_variant_path} -> {document_handle_path}
+        final Map<String, String> variantPaths = new HashMap<>();
+
+        while (events.hasNext()) {
+            final Event event = events.nextEvent();
+            try {
+                final String itemPath = event.getPath();
+                final String handlePath = getHandlePath(itemPath);
+                if (StringUtils.isNotEmpty(handlePath)) {
+                    variantPaths.put(getVariantPath(itemPath, handlePath), handlePath);
+                }
+            } catch (final RepositoryException e) {
+                LOGGER.warn("Caught error '{}' while reading the path of the event {}", e.getMessage(), event, e);
+            }
+        }
+
+        final Set<String> handlePaths = getChangedHandlePaths(variantPaths);
+
+        if (handlePaths.isEmpty()) {
+            return;
+        }
+
+        LOGGER.debug("Documents changed = {}", handlePaths);
+
+        for (final DocumentChangeHandler documentChangeHandler : documentChangeHandlers) {
+            try {
+                documentChangeHandler.onDocumentsChanged(handlePaths);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Caught error '{}' while notifying {} of the changed documents {}",
+                        e.getMessage(), documentChangeHandler.getClass().getName(), handlePaths, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the paths of the document handles of the given changed document variants excluding
+     * the non-published variants (if a {@link Repository} and {@link Credentials} have been set).
+     *
+     * @param variantPaths the paths of the changed document variants mapped to the paths of their handles.
+     * @return the paths of the document handles of the given (published) document variants.
+     */
+    private Set<String> getChangedHandlePaths(final Map<String, String> variantPaths) {
+        if (repository == null || credentials == null || variantPaths.isEmpty()) {
+            return new HashSet<>(variantPaths.values());
+        }
+
+        final Set<String> handlePaths = new HashSet<>();
+        Session session = null;
+        try {
+            session = repository.login(credentials);
+            for (final Map.Entry<String, String> variantPath : variantPaths.entrySet()) {
+                if (!isNonPublishedVariant(session, variantPath.getKey())) {
+                    handlePaths.add(variantPath.getValue());
+                }
+            }
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while reading the changed document variants {}. "
+                    + "Considering all of them as changed", e.getMessage(), variantPaths.keySet(), e);
+            handlePaths.addAll(variantPaths.values());
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+        }
+
+        return handlePaths;
+    }
+
+    /**
+     * Returns whether the given document variant exists and isn't the published one
+     * (i.e. its {@code hippostd:state} is {@code draft} or {@code unpublished}).
+     *
+     * @param session     the JCR {@link Session} instance.
+     * @param variantPath the path of the document variant.
+     * @return {@code true} if the given document variant exists and isn't the published one.
+     * Otherwise, {@code false}.
+     * @throws RepositoryException thrown when an error occurs while reading the document variant.
+     */
+    private static boolean isNonPublishedVariant(final Session session, final String variantPath)
+            throws RepositoryException {
+        if (!session.nodeExists(variantPath)) {
+            return false;
+        }
+
+        final Node variant = session.getNode(variantPath);
+        return variant.hasProperty(HippoStdNodeType.HIPPOSTD_STATE)
+                && !HippoStdNodeType.PUBLISHED.equals(variant.getProperty(HippoStdNodeType.HIPPOSTD_STATE).getString());
+    }
+
+    /**
+     * Returns the path of the document variant (i.e. the child of the given document handle)
+     * to which the given {@code itemPath} belongs to.
+     *
+     * @param itemPath   the path of the (node or property) item.
+     * @param handlePath the path of the document handle to which the given {@code itemPath} belongs to
+     *                   (see {@link #getHandlePath(String)}).
+     * @return the path of the document variant to which the given {@code itemPath} belongs to.
+     */
+    private static String getVariantPath(final String itemPath, final String handlePath) {
+        final int variantEnd = itemPath.indexOf('/', handlePath.length() + 1);
+        return variantEnd == -1 ? itemPath : itemPath.substring(0, variantEnd);
+    }
+
+    /**
+     * <p>Returns the path of the document handle ({@code hippo:handle}) to which the given {@code itemPath} belongs to.
+     * Otherwise, returns {@code null} if the given {@code itemPath} doesn't belong to a document.</p>
+     *
+     * <p>It relies on the convention that a document variant node is named after its handle node
+     * (i.e. {@code {handle_path}/{handle_name}[n]}) and compound/property names below the variant
+     * are always namespaced (e.g. {@code hee:guidancePages}) and so, never repeats the handle name.</p>
+     *
+     * @param itemPath the path of the (node or property) item.
+     * @return the path of the document handle ({@code hippo:handle}) to which the given {@code itemPath} belongs to.
+     * Otherwise, returns {@code null} if the given {@code itemPath} doesn't belong to a document.
+     */
+    public static String getHandlePath(final String itemPath) {
+        if (StringUtils.isEmpty(itemPath)) {
+            return null;
+        }
+
+        final String[] segments = itemPath.split("/");
+        for (int i = segments.length - 2; i > 0; i--) {
+            if (StringUtils.isNotEmpty(segments[i]) && segments[i].equals(stripIndex(segments[i + 1]))) {
+                return StringUtils.join(segments, '/', 0, i + 1);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the given {@code segment} without its same-name-sibling index (e.g. {@code name[2]}) if any.
+     *
+     * @param segment the path segment.
+     * @return the given {@code segment} without its same-name-sibling index (e.g. {@code name[2]}) if any.
+     */
+    private static String stripIndex(final String segment) {
+        final int indexStart = segment.indexOf('[');
+        return indexStart == -1 ? segment : segment.substring(0, indexStart);
+    }
+}
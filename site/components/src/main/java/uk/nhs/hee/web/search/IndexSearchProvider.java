@@ -0,0 +1,543 @@
+package uk.nhs.hee.web.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hippoecm.hst.content.beans.ObjectBeanManager;
+import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.repository.HippoStdPubWfNodeType;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.repository.HEEField;
+import uk.nhs.hee.web.utils.DocumentUtils;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.query.Query;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * <p>{@link SearchProvider} which serves the (live) search results from a {@link SearchIndex} of the published
+ * HEE ({@code hee:*}) documents, ranked by relevance (BM25 with title boost).</p>
+ *
+ * <p>The index is built from the repository on the first search served by this provider (so that it isn't built
+ * unless this provider is selected), kept up to date via the repository (observation) events
+ * (see {@link #onDocumentsChanged(Set)}) and periodically exported (as JSON lines, see {@link SearchIndex.Entry})
+ * to the configured local directory. The exported documents are only used to skip re-reading the documents
+ * which haven't been modified since, while rebuilding the index. Hence, the index is never served before it
+ * has been (re)built from the repository. All the index updates are serialised on a single background thread
+ * so that the events received during a rebuild are applied after it.</p>
+ *
+ * <p>The results come with {@link SearchSnippet}s built from the title and summary stored in the index
+ * so that the search listing doesn't need to read them from the documents.</p>
+ *
+ * <p>Searches are scoped to the scope bean of the {@link SearchQuery} (like {@link JcrSearchProvider}).
+ * Preview requests, empty search texts and the requests received before the index is available
+ * are served by the fallback {@link SearchProvider} (i.e. {@link JcrSearchProvider}).</p>
+ */
+public class IndexSearchProvider implements SearchProvider, DocumentChangeHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexSearchProvider.class);
+
+    /**
+     * Name of the provider.
+     */
+    public static final String NAME = "index";
+
+    private static final String INDEX_FILE_NAME = "search-index.jsonl";
+    private static final String HEE_NAMESPACE_PREFIX = "hee:";
+    private static final String LIVE_DOCUMENTS_QUERY = String.format(
+            "SELECT * FROM [%s] WHERE [%s] = 'live' AND ISDESCENDANTNODE('/content/documents')",
+            HippoNodeType.NT_DOCUMENT, HippoNodeType.HIPPO_AVAILABILITY);
+    private static final String RICH_TEXT_CONTENT = "hippostd:content";
+    // Fields (in the order of preference) from which the summary of search results is stored
+    private static final String[] SUMMARY_FIELDS = {"hee:summary", "hee:description", "hee:overview"};
+    private static final int SNIPPET_SUMMARY_MAX_LENGTH = 300;
+    private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]*>");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Repository repository;
+    private final Credentials credentials;
+    private final File indexFile;
+    private final SearchProvider fallbackProvider;
+    private final double titleBoost;
+    private final long persistIntervalMinutes;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, IndexSearchProvider.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile SearchIndex index;
+    private volatile boolean dirty;
+
+    /**
+     * Creates {@link IndexSearchProvider} instance.
+     *
+     * @param repository             the JCR {@link Repository}.
+     * @param credentials            the {@link Credentials} with which the live documents needs to be read.
+     * @param indexDirectory         the local (non-temporary) directory to which the index needs to be exported.
+     * @param fallbackProvider       the {@link SearchProvider} to which the searches the index can't serve
+     *                               are delegated.
+     * @param titleBoost             the factor by which the scores of title matches are boosted.
+     * @param persistIntervalMinutes the interval (in minutes) in which the changed index is persisted.
+     */
+    public IndexSearchProvider(
+            final Repository repository,
+            final Credentials credentials,
+            final String indexDirectory,
+            final SearchProvider fallbackProvider,
+            final double titleBoost,
+            final long persistIntervalMinutes) {
+        this.repository = repository;
+        this.credentials = credentials;
+        this.indexFile = new File(indexDirectory, INDEX_FILE_NAME);
+        this.fallbackProvider = fallbackProvider;
+        this.titleBoost = titleBoost;
+        this.persistIntervalMinutes = persistIntervalMinutes;
+    }
+
+    /**
+     * Schedules the build & periodic persistence of the index unless they have already been scheduled.
+     */
+    private void ensureStarted() {
+        if (started.compareAndSet(false, true)) {
+            executor.execute(this::rebuild);
+            executor.scheduleWithFixedDelay(
+                    this::persistIfDirty, persistIntervalMinutes, persistIntervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Persists the index (if changed) and stops the background thread.
+     */
+    public void destroy() {
+        executor.shutdownNow();
+        persistIfDirty();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public SearchResults search(final SearchQuery searchQuery) throws QueryException {
+        ensureStarted();
+
+        final SearchIndex currentIndex = index;
+        if (currentIndex == null
+                || searchQuery.getRequestContext().isPreview()
+                || StringUtils.isBlank(searchQuery.getText())) {
+            return fallbackProvider.search(searchQuery);
+        }
+
+        final List<String> handlePaths = currentIndex.search(searchQuery.getText(),
+                searchQuery.getScope() == null ? null : searchQuery.getScope().getPath(),
+                searchQuery.getDocumentTypes());
+
+        final ObjectBeanManager objectBeanManager = searchQuery.getRequestContext().getObjectBeanManager();
+        final SearchHighlighter highlighter = new SearchHighlighter(searchQuery.getText());
+        final int end = Math.min(handlePaths.size(), searchQuery.getOffset() + searchQuery.getLimit());
+        final List<HippoBean> items = new ArrayList<>();
+        final Map<String, SearchSnippet> snippets = new HashMap<>();
+
+        for (int i = searchQuery.getOffset(); i < end; i++) {
+            final String handlePath = handlePaths.get(i);
+
+            try {
+                final Object bean = objectBeanManager.getObject(handlePath);
+                if (bean instanceof HippoBean) {
+                    items.add((HippoBean) bean);
+                    snippets.put(handlePath, new SearchSnippet(
+                            highlighter.highlight(currentIndex.getStoredTitle(handlePath), 0),
+                            highlighter.highlight(
+                                    currentIndex.getStoredSummary(handlePath), SNIPPET_SUMMARY_MAX_LENGTH)));
+                }
+            } catch (final ObjectBeanManagerException e) {
+                LOGGER.warn("Caught error '{}' while getting the bean of the search result '{}'",
+                        e.getMessage(), handlePath, e);
+            }
+        }
+
+        return new SearchResults(items, handlePaths.size(), snippets);
+    }
+
+    /**
+     * Schedules the (re)indexing of the changed documents.
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        if (!started.get()) {
+            // Changes will be covered by the (pending) build
+            return;
+        }
+
+        executor.execute(() -> update(handlePaths));
+    }
+
+    /**
+     * Rebuilds the index from the live documents in the repository and swaps it with the current one.
+     * The documents which haven't been modified since they have been exported (see {@link #persistIfDirty()})
+     * are re-indexed from their exported entries instead of being re-read.
+     */
+    private void rebuild() {
+        final long startTime = System.currentTimeMillis();
+        final SearchIndex newIndex = new SearchIndex(titleBoost);
+        final Map<String, SearchIndex.Entry> exportedEntries = index == null ? load() : Collections.emptyMap();
+        int reusedEntries = 0;
+
+        Session session = null;
+        try {
+            session = repository.login(credentials);
+
+            final Query query =
+                    session.getWorkspace().getQueryManager().createQuery(LIVE_DOCUMENTS_QUERY, Query.JCR_SQL2);
+            final NodeIterator variantIterator = query.execute().getNodes();
+
+            while (variantIterator.hasNext()) {
+                final Node variant = variantIterator.nextNode();
+                if (!isIndexable(variant)) {
+                    continue;
+                }
+
+                final String handlePath = variant.getParent().getPath();
+                final SearchIndex.Entry exportedEntry = exportedEntries.get(handlePath);
+                if (exportedEntry != null
+                        && exportedEntry.getLastModified() != -1
+                        && exportedEntry.getLastModified() == getLastModified(variant)
+                        && exportedEntry.getDocumentType().equals(variant.getPrimaryNodeType().getName())) {
+                    newIndex.put(exportedEntry);
+                    reusedEntries++;
+                } else {
+                    put(newIndex, handlePath, variant);
+                }
+            }
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while building search index. " +
+                    "Searches will be served by the {} provider", e.getMessage(), fallbackProvider.getName(), e);
+            return;
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+        }
+
+        index = newIndex;
+        dirty = true;
+        persistIfDirty();
+
+        LOGGER.info("Built search index of {} documents ({} unmodified since exported) in {} ms",
+                newIndex.size(), reusedEntries, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * (Re)indexes the documents with the given {@code handlePaths}.
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    private void update(final Set<String> handlePaths) {
+        final SearchIndex currentIndex = index;
+        if (currentIndex == null) {
+            // Changes will be covered by the (pending) rebuild
+            return;
+        }
+
+        Session session = null;
+        try {
+            session = repository.login(credentials);
+
+            for (final String handlePath : handlePaths) {
+                final Node variant = session.nodeExists(handlePath)
+                        ? DocumentUtils.getLiveVariant(session.getNode(handlePath))
+                        : null;
+
+                if (variant != null && isIndexable(variant)) {
+                    put(currentIndex, handlePath, variant);
+                } else {
+                    currentIndex.remove(handlePath);
+                }
+            }
+
+            dirty = true;
+            LOGGER.debug("Updated search index for the changed documents {}", handlePaths);
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while updating search index for the changed documents {}. " +
+                    "Rebuilding the index", e.getMessage(), handlePaths, e);
+            executor.execute(this::rebuild);
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given document {@code variant} is a HEE ({@code hee:*}) document.
+     * Otherwise, returns {@code false}.
+     *
+     * @param variant the document variant node.
+     * @return {@code true} if the given document {@code variant} is a HEE ({@code hee:*}) document.
+     * Otherwise, returns {@code false}.
+     * @throws RepositoryException thrown when an error occurs while reading the document variant.
+     */
+    private boolean isIndexable(final Node variant) throws RepositoryException {
+        return variant.getPrimaryNodeType().getName().startsWith(HEE_NAMESPACE_PREFIX);
+    }
+
+    /**
+     * Adds the given document {@code variant} to the given {@code searchIndex}.
+     *
+     * @param searchIndex the {@link SearchIndex} instance.
+     * @param handlePath  the path of the document handle.
+     * @param variant     the (live) document variant node.
+     * @throws RepositoryException thrown when an error occurs while reading the document variant.
+     */
+    private void put(final SearchIndex searchIndex, final String handlePath, final Node variant)
+            throws RepositoryException {
+        final String title = variant.hasProperty(HEEField.DOCUMENT_TITLE.getName())
+                ? variant.getProperty(HEEField.DOCUMENT_TITLE.getName()).getString()
+                : variant.getName();
+
+        final StringBuilder content = new StringBuilder();
+        appendText(variant, content);
+
+        searchIndex.put(
+                handlePath,
+                variant.getPrimaryNodeType().getName(),
+                getLastModified(variant),
+                title,
+                getSummary(variant),
+                content.toString());
+    }
+
+    /**
+     * Returns the last modification time (i.e. {@code hippostdpubwf:lastModificationDate}) of the given document
+     * {@code variant}. Otherwise, returns {@code -1} if it isn't available.
+     *
+     * @param variant the document variant node.
+     * @return the last modification time (in milliseconds) of the given document {@code variant}.
+     * Otherwise, returns {@code -1} if it isn't available.
+     * @throws RepositoryException thrown when an error occurs while reading the document variant.
+     */
+    private long getLastModified(final Node variant) throws RepositoryException {
+        if (!variant.hasProperty(HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE)) {
+            return -1;
+        }
+
+        return variant.getProperty(HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE).getDate()
+                .getTimeInMillis();
+    }
+
+    /**
+     * Returns the summary of the given document {@code variant} from the first available {@link #SUMMARY_FIELDS}.
+     * Otherwise, returns {@code null} if the document has no summary.
+     *
+     * @param variant the document variant node.
+     * @return the summary of the given document {@code variant}.
+     * Otherwise, returns {@code null} if the document has no summary.
+     * @throws RepositoryException thrown when an error occurs while reading the document variant.
+     */
+    private String getSummary(final Node variant) throws RepositoryException {
+        for (final String summaryField : SUMMARY_FIELDS) {
+            if (variant.hasProperty(summaryField) && !variant.getProperty(summaryField).isMultiple()) {
+                final String summary = variant.getProperty(summaryField).getString();
+                if (StringUtils.isNotBlank(summary)) {
+                    return summary;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Appends the text of the HEE ({@code hee:*}) string fields and rich text ({@code hippostd:content}) fields
+     * (other than the title) of the given {@code node} and its descendant (compound) nodes to {@code text}.
+     *
+     * @param node the node whose text needs to be appended.
+     * @param text the {@link StringBuilder} to which the text needs to be appended.
+     * @throws RepositoryException thrown when an error occurs while reading the node.
+     */
+    private void appendText(final Node node, final StringBuilder text) throws RepositoryException {
+        final PropertyIterator propertyIterator = node.getProperties();
+        while (propertyIterator.hasNext()) {
+            final Property property = propertyIterator.nextProperty();
+            final String name = property.getName();
+
+            if (property.getType() != PropertyType.STRING
+                    || name.equals(HEEField.DOCUMENT_TITLE.getName())
+                    || !(name.startsWith(HEE_NAMESPACE_PREFIX) || name.equals(RICH_TEXT_CONTENT))) {
+                continue;
+            }
+
+            final Value[] values = property.isMultiple() ? property.getValues() : new Value[]{property.getValue()};
+            for (final Value value : values) {
+                text.append(' ')
+                        .append(name.equals(RICH_TEXT_CONTENT) ? toPlainText(value.getString()) : value.getString());
+            }
+        }
+
+        final NodeIterator childNodeIterator = node.getNodes();
+        while (childNodeIterator.hasNext()) {
+            appendText(childNodeIterator.nextNode(), text);
+        }
+    }
+
+    /**
+     * Returns the plain text of the given {@code html}.
+     *
+     * @param html the HTML text.
+     * @return the plain text of the given {@code html}.
+     */
+    private static String toPlainText(final String html) {
+        return StringEscapeUtils.unescapeHtml(HTML_TAG_PATTERN.matcher(html).replaceAll(" "));
+    }
+
+    /**
+     * Loads the exported index entries (by handle path). Otherwise, returns an empty map if there are no (valid)
+     * exported entries.
+     *
+     * @return the exported {@link SearchIndex.Entry}s by handle path. Otherwise, returns an empty map
+     * if there are no (valid) exported entries.
+     */
+    private Map<String, SearchIndex.Entry> load() {
+        if (!indexFile.isFile()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, SearchIndex.Entry> entries = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final SearchIndex.Entry entry = toEntry(OBJECT_MAPPER.readTree(line));
+                entries.put(entry.getHandlePath(), entry);
+            }
+
+            LOGGER.info("Loaded {} exported search index entries from '{}'", entries.size(), indexFile);
+            return entries;
+        } catch (final IOException | RuntimeException e) {
+            LOGGER.warn("Caught error '{}' while loading search index entries from '{}'. " +
+                    "All documents will be re-read", e.getMessage(), indexFile, e);
+        }
+
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Exports the index entries (as JSON lines) to the local directory if the index has been changed
+     * since it has been exported last. The directory & the file are only accessible by the owner
+     * (on POSIX file systems).
+     */
+    private synchronized void persistIfDirty() {
+        final SearchIndex currentIndex = index;
+        if (!dirty || currentIndex == null) {
+            return;
+        }
+
+        dirty = false;
+
+        try {
+            final boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+            if (posix) {
+                Files.createDirectories(indexFile.getParentFile().toPath(),
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(indexFile.getParentFile().toPath());
+            }
+
+            final File tempFile = new File(indexFile.getParentFile(), INDEX_FILE_NAME + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+                for (final SearchIndex.Entry entry : currentIndex.getEntries()) {
+                    writer.write(OBJECT_MAPPER.writeValueAsString(toJson(entry)));
+                    writer.newLine();
+                }
+            }
+
+            if (posix) {
+                Files.setPosixFilePermissions(tempFile.toPath(), PosixFilePermissions.fromString("rw-------"));
+            }
+
+            Files.move(tempFile.toPath(), indexFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.debug("Exported search index to '{}'", indexFile);
+        } catch (final IOException e) {
+            LOGGER.error("Caught error '{}' while exporting search index to '{}'", e.getMessage(), indexFile, e);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Returns JSON representation of the given {@code entry}.
+     *
+     * @param entry the {@link SearchIndex.Entry} instance.
+     * @return the JSON representation of the given {@code entry}.
+     */
+    private static ObjectNode toJson(final SearchIndex.Entry entry) {
+        final ObjectNode json = OBJECT_MAPPER.createObjectNode();
+        json.put("handlePath", entry.getHandlePath());
+        json.put("documentType", entry.getDocumentType());
+        json.put("lastModified", entry.getLastModified());
+        json.put("title", entry.getTitle());
+        json.put("summary", entry.getSummary());
+        json.put("content", entry.getContent());
+        return json;
+    }
+
+    /**
+     * Returns {@link SearchIndex.Entry} of the given {@code json} representation.
+     *
+     * @param json the JSON representation of the entry.
+     * @return the {@link SearchIndex.Entry} of the given {@code json} representation.
+     * @throws IOException thrown when the given {@code json} isn't a valid entry.
+     */
+    private static SearchIndex.Entry toEntry(final JsonNode json) throws IOException {
+        if (json == null || !json.hasNonNull("handlePath") || !json.hasNonNull("documentType")) {
+            throw new IOException("Invalid search index entry");
+        }
+
+        return new SearchIndex.Entry(
+                json.get("handlePath").asText(),
+                json.get("documentType").asText(),
+                json.path("lastModified").asLong(-1),
+                json.path("title").asText(null),
+                json.path("summary").asText(null),
+                json.path("content").asText(StringUtils.EMPTY));
+    }
+}
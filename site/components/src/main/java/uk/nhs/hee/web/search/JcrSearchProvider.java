@@ -0,0 +1,122 @@
+package uk.nhs.hee.web.search;
+
+import org.hippoecm.hst.content.beans.query.HstQuery;
+import org.hippoecm.hst.content.beans.query.HstQueryResult;
+import org.hippoecm.hst.content.beans.query.builder.HstQueryBuilder;
+import org.hippoecm.hst.content.beans.query.exceptions.FilterException;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+import org.hippoecm.hst.content.beans.query.filter.Filter;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+
+/**
+ * {@link SearchProvider} which searches the documents via JCR (HST) queries with {@code contains} filters
+ * on {@code hee:title} and (all) document fields. The results are listed in the repository (query) order.
+ *
+ * <p>This is the fallback provider of {@link IndexSearchProvider} and can be selected explicitly
+ * (e.g. in order to compare the results and performance of the providers).</p>
+ */
+public class JcrSearchProvider implements SearchProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JcrSearchProvider.class);
+
+    /**
+     * Name of the provider.
+     */
+    public static final String NAME = "jcr";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public SearchResults search(final SearchQuery searchQuery) throws QueryException {
+        final HstQuery query = HstQueryBuilder.create(searchQuery.getScope())
+                .ofTypes(searchQuery.getDocumentTypes())
+                .build();
+        query.setOffset(searchQuery.getOffset());
+        query.setLimit(searchQuery.getLimit());
+        query.setFilter(createSearchFilter(query, searchQuery.getText()));
+
+        LOGGER.debug("Execute query: {}", query.getQueryAsString(false));
+        final HstQueryResult result = query.execute();
+
+        final List<HippoBean> items = new ArrayList<>();
+        final HippoBeanIterator beans = result.getHippoBeans();
+        while (beans.hasNext()) {
+            final HippoBean bean = beans.nextHippoBean();
+            if (bean != null) {
+                items.add(bean);
+            }
+        }
+
+        return new SearchResults(items, result.getTotalSize());
+    }
+
+    /**
+     * Returns the search {@link Filter} for the given {@code searchText}.
+     *
+     * <p>A text enclosed in double quotes is searched as a phrase. Otherwise, the documents matching
+     * any of the space delimited words/terms are searched.</p>
+     *
+     * @param query      the {@link HstQuery} instance.
+     * @param searchText the search text.
+     * @return the search {@link Filter} for the given {@code searchText}.
+     * @throws FilterException thrown when an error occurs during Query Filter build.
+     */
+    public static Filter createSearchFilter(final HstQuery query, final String searchText) throws FilterException {
+        final Filter baseFilter = query.createFilter();
+
+        if (isNotEmpty(searchText)) {
+            final String trimmedSearchText = searchText.trim();
+
+            if (trimmedSearchText.startsWith("\"") && trimmedSearchText.endsWith("\"")) {
+                // Phrase search
+                baseFilter.addAndFilter(buildSearchFilter(query, trimmedSearchText));
+            } else {
+                // Performs search based on the space delimited words/terms
+                Filter searchTermFilters = null;
+                for (final String searchTerm : trimmedSearchText.split("\\s+")) {
+                    if (searchTermFilters == null) {
+                        searchTermFilters = buildSearchFilter(query, searchTerm);
+                    } else {
+                        searchTermFilters = searchTermFilters.addOrFilter(buildSearchFilter(query, searchTerm));
+                    }
+                }
+
+                baseFilter.addAndFilter(searchTermFilters);
+            }
+        }
+
+        return baseFilter;
+    }
+
+    /**
+     * Builds {@code OR} search {@link Filter} on {@code hee:title} and (all) document fields
+     * using the given {@code searchTerm}.
+     *
+     * @param query      the {@link HstQuery} instance.
+     * @param searchTerm the search term/word with which Filter needs to be build.
+     * @return {@code OR} search {@link Filter} on {@code hee:title} and (all) document fields
+     * using the given {@code searchTerm}.
+     * @throws FilterException thrown when an error occurs during Query Filter build.
+     */
+    private static Filter buildSearchFilter(final HstQuery query, final String searchTerm) throws FilterException {
+        // Filter that searches the 'searchText' on Title field.
+        final Filter titleFilter = query.createFilter();
+        titleFilter.addContains("hee:title", searchTerm);
+
+        // Filter that searches the 'searchText' on all document fields.
+        final Filter documentFilter = query.createFilter();
+        documentFilter.addContains(".", searchTerm);
+
+        return titleFilter.addOrFilter(documentFilter);
+    }
+}
@@ -0,0 +1,144 @@
+package uk.nhs.hee.web.search;
+
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Highlights the terms of a search query (as parsed by {@link SearchIndex}) in (plain) texts.
+ *
+ * <p>The texts are HTML escaped and the matching words are wrapped in {@code <mark>} elements.
+ * Texts longer than the given maximum length are cut down to a fragment around the first match.</p>
+ */
+public class SearchHighlighter {
+    private static final Pattern WORD_PATTERN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final String ELLIPSIS = "…";
+    private static final String HIGHLIGHT_START = "<mark>";
+    private static final String HIGHLIGHT_END = "</mark>";
+
+    private final Set<String> terms = new HashSet<>();
+    private final List<String> prefixes = new ArrayList<>();
+
+    /**
+     * Creates {@link SearchHighlighter} instance for the given {@code queryText}.
+     *
+     * @param queryText the search query text.
+     */
+    public SearchHighlighter(final String queryText) {
+        final List<List<String>> clauses = new ArrayList<>();
+        SearchIndex.parse(queryText, clauses, prefixes);
+        clauses.forEach(terms::addAll);
+    }
+
+    /**
+     * Returns the HTML escaped {@code text} (or its fragment around the first match if it's longer
+     * than {@code maxLength}) with the query terms highlighted. Otherwise, returns {@code null}
+     * if the given {@code text} is blank.
+     *
+     * @param text      the plain text to be highlighted.
+     * @param maxLength the maximum length of the text (excluding the highlight markup) to be returned
+     *                  or {@code 0} to return the whole text.
+     * @return the HTML escaped {@code text} (or its fragment) with the query terms highlighted.
+     * Otherwise, returns {@code null} if the given {@code text} is blank.
+     */
+    public String highlight(final String text, final int maxLength) {
+        if (StringUtils.isBlank(text)) {
+            return null;
+        }
+
+        final List<int[]> matches = new ArrayList<>();
+        final Matcher wordMatcher = WORD_PATTERN.matcher(text);
+        while (wordMatcher.find()) {
+            if (matches(wordMatcher.group())) {
+                matches.add(new int[]{wordMatcher.start(), wordMatcher.end()});
+            }
+        }
+
+        int start = 0;
+        int end = text.length();
+        if (maxLength > 0 && text.length() > maxLength) {
+            final int firstMatchStart = matches.isEmpty() ? 0 : matches.get(0)[0];
+            start = firstMatchStart <= maxLength / 4 ? 0 : wordStart(text, firstMatchStart - maxLength / 4);
+            end = wordEnd(text, start, Math.min(text.length(), start + maxLength));
+        }
+
+        final StringBuilder html = new StringBuilder();
+        if (start > 0) {
+            html.append(ELLIPSIS);
+        }
+
+        int position = start;
+        for (final int[] match : matches) {
+            if (match[0] < start || match[1] > end) {
+                continue;
+            }
+
+            html.append(StringEscapeUtils.escapeHtml(text.substring(position, match[0])))
+                    .append(HIGHLIGHT_START)
+                    .append(StringEscapeUtils.escapeHtml(text.substring(match[0], match[1])))
+                    .append(HIGHLIGHT_END);
+            position = match[1];
+        }
+
+        html.append(StringEscapeUtils.escapeHtml(text.substring(position, end)));
+        if (end < text.length()) {
+            html.append(ELLIPSIS);
+        }
+
+        return html.toString().trim();
+    }
+
+    /**
+     * Returns {@code true} if the given {@code word} matches any of the query terms or prefixes.
+     * Otherwise, returns {@code false}.
+     *
+     * @param word the word.
+     * @return {@code true} if the given {@code word} matches any of the query terms or prefixes.
+     * Otherwise, returns {@code false}.
+     */
+    private boolean matches(final String word) {
+        for (final String token : SearchIndex.tokenize(word)) {
+            if (terms.contains(token) || prefixes.stream().anyMatch(token::startsWith)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the start of the word following the given {@code index} (i.e. the index after the next whitespace).
+     *
+     * @param text  the text.
+     * @param index the index.
+     * @return the start of the word following the given {@code index}.
+     */
+    private static int wordStart(final String text, final int index) {
+        final int whitespace = StringUtils.indexOfAny(text.substring(index), ' ', '\n', '\t');
+        return whitespace == -1 ? index : index + whitespace + 1;
+    }
+
+    /**
+     * Returns the end of the word preceding the given {@code index} (i.e. the index of the previous whitespace
+     * after {@code from}) or the given {@code index} if it's the end of the text or there is no such whitespace.
+     *
+     * @param text  the text.
+     * @param from  the index before which the word end mustn't be.
+     * @param index the index.
+     * @return the end of the word preceding the given {@code index}.
+     */
+    private static int wordEnd(final String text, final int from, final int index) {
+        if (index >= text.length()) {
+            return text.length();
+        }
+
+        final int whitespace = text.lastIndexOf(' ', index);
+        return whitespace <= from ? index : whitespace;
+    }
+}
@@ -0,0 +1,642 @@
+package uk.nhs.hee.web.search;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>In-memory inverted index of (published) documents with positional postings on title and content fields,
+ * ranked by BM25 (with a configurable boost on title matches).</p>
+ *
+ * <p>Supports the following query syntax (clauses are {@code OR}ed and the scores of the matching clauses summed):
+ * <ul>
+ *     <li>{@code term} - matches the documents containing the term.</li>
+ *     <li>{@code term*} - (prefix) matches the documents containing terms starting with {@code term}.</li>
+ *     <li>{@code "some phrase"} - matches the documents containing the terms in the given order.</li>
+ * </ul>
+ * Terms are lowercased and accent folded but not stemmed, so that the matches stay predictable.</p>
+ *
+ * <p>The title and summary of the documents are stored as well so that the search results
+ * can be rendered (highlighted) without reading the documents (see {@link SearchHighlighter}).</p>
+ *
+ * <p>The indexed documents can be exported as (and re-imported from) {@link Entry}s along with their last
+ * modification time, so that a rebuild could skip re-reading the documents which haven't been changed since
+ * they have been exported (see {@link IndexSearchProvider}).</p>
+ */
+public class SearchIndex {
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern PHRASE_PATTERN = Pattern.compile("\"([^\"]*)\"");
+    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{M}+");
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Maximum number of terms a prefix expands to
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final double titleBoost;
+
+    // Handle path -> Indexed document
+    private final Map<String, IndexedDocument> documents = new HashMap<>();
+    private final Field title = new Field();
+    private final Field content = new Field();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Creates {@link SearchIndex} instance.
+     *
+     * @param titleBoost the factor by which the scores of title matches are boosted.
+     */
+    public SearchIndex(final double titleBoost) {
+        this.titleBoost = titleBoost;
+    }
+
+    /**
+     * Adds (or replaces) the document with the given {@code handlePath}.
+     *
+     * @param handlePath   the path of the document handle.
+     * @param documentType the document type (e.g. {@code hee:guidance}).
+     * @param lastModified the last modification time (in milliseconds) of the document or {@code -1} if unknown.
+     * @param titleText    the title of the document.
+     * @param summaryText  the summary of the document (stored only).
+     * @param contentText  the (plain text) content of the document.
+     */
+    public void put(
+            final String handlePath,
+            final String documentType,
+            final long lastModified,
+            final String titleText,
+            final String summaryText,
+            final String contentText) {
+        final List<String> titleTokens = tokenize(titleText);
+        final List<String> contentTokens = tokenize(contentText);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(handlePath);
+
+            documents.put(handlePath,
+                    new IndexedDocument(documentType, lastModified, titleText, summaryText,
+                            titleTokens.size(), contentTokens.size()));
+            title.add(handlePath, titleTokens);
+            content.add(handlePath, contentTokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the document with the given {@code handlePath} and the documents below it (if any).
+     *
+     * @param handlePath the path of the document handle (or its ancestor folder).
+     */
+    public void remove(final String handlePath) {
+        lock.writeLock().lock();
+        try {
+            final List<String> handlePaths = new ArrayList<>();
+            for (final String indexedHandlePath : documents.keySet()) {
+                if (indexedHandlePath.equals(handlePath) || indexedHandlePath.startsWith(handlePath + "/")) {
+                    handlePaths.add(indexedHandlePath);
+                }
+            }
+
+            handlePaths.forEach(this::removeDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of documents in the index.
+     *
+     * @return the number of documents in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the stored title of the document with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the document isn't indexed.
+     *
+     * @param handlePath the path of the document handle.
+     * @return the stored title of the document with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the document isn't indexed.
+     */
+    public String getStoredTitle(final String handlePath) {
+        lock.readLock().lock();
+        try {
+            final IndexedDocument document = documents.get(handlePath);
+            return document == null ? null : document.title;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the stored summary of the document with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the document isn't indexed or has no summary.
+     *
+     * @param handlePath the path of the document handle.
+     * @return the stored summary of the document with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the document isn't indexed or has no summary.
+     */
+    public String getStoredSummary(final String handlePath) {
+        lock.readLock().lock();
+        try {
+            final IndexedDocument document = documents.get(handlePath);
+            return document == null ? null : document.summary;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds (or replaces) the document of the given (exported) {@code entry}.
+     *
+     * @param entry the {@link Entry} of the document.
+     */
+    public void put(final Entry entry) {
+        put(entry.getHandlePath(), entry.getDocumentType(), entry.getLastModified(),
+                entry.getTitle(), entry.getSummary(), entry.getContent());
+    }
+
+    /**
+     * Returns the (exported) {@link Entry}s of all the indexed documents. The content of the entries is
+     * the (space separated) terms of the indexed content, which are indexed the same on re-import.
+     *
+     * @return the {@link Entry}s of all the indexed documents.
+     */
+    public List<Entry> getEntries() {
+        lock.readLock().lock();
+        try {
+            final List<Entry> entries = new ArrayList<>(documents.size());
+            documents.forEach((handlePath, document) -> entries.add(new Entry(
+                    handlePath,
+                    document.documentType,
+                    document.lastModified,
+                    document.title,
+                    document.summary,
+                    String.join(" ", content.getTerms(handlePath, document.contentLength)))));
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the paths of the document handles matching the given {@code queryText}
+     * ordered by their relevance (most relevant first).
+     *
+     * @param queryText     the query text.
+     * @param scopePath     the path of the (folder) scope to which the search needs to be scoped
+     *                      or {@code null} to search all documents.
+     * @param documentTypes the document types to which the search needs to be scoped
+     *                      or an empty array to search all document types.
+     * @return the paths of the document handles matching the given {@code queryText}
+     * ordered by their relevance (most relevant first).
+     */
+    public List<String> search(final String queryText, final String scopePath, final String[] documentTypes) {
+        final List<List<String>> clauses = new ArrayList<>();
+        final List<String> prefixes = new ArrayList<>();
+        parse(queryText, clauses, prefixes);
+
+        final Map<String, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (final List<String> clause : clauses) {
+                if (clause.size() == 1) {
+                    scoreTerm(clause.get(0), scores);
+                } else {
+                    scorePhrase(clause, scores);
+                }
+            }
+
+            for (final String prefix : prefixes) {
+                for (final String term : title.expand(prefix)) {
+                    scoreTerm(title, term, titleBoost, scores);
+                }
+
+                for (final String term : content.expand(prefix)) {
+                    scoreTerm(content, term, 1.0, scores);
+                }
+            }
+
+            scores.keySet().removeIf(handlePath ->
+                    !matches(handlePath, documents.get(handlePath), scopePath, documentTypes));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        final List<String> handlePaths = new ArrayList<>(scores.keySet());
+        handlePaths.sort(Comparator.<String, Double>comparing(scores::get).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return handlePaths;
+    }
+
+    /**
+     * Splits the given {@code text} into lowercased and accent folded terms.
+     *
+     * @param text the text to be tokenized.
+     * @return the list of terms in the given {@code text} (in the order of their occurrence).
+     */
+    public static List<String> tokenize(final String text) {
+        if (StringUtils.isBlank(text)) {
+            return new ArrayList<>();
+        }
+
+        final String normalizedText = DIACRITICS_PATTERN
+                .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll(StringUtils.EMPTY)
+                .toLowerCase(Locale.ROOT);
+
+        final List<String> tokens = new ArrayList<>();
+        final Matcher tokenMatcher = TOKEN_PATTERN.matcher(normalizedText);
+        while (tokenMatcher.find()) {
+            tokens.add(tokenMatcher.group());
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Parses the given {@code queryText} into term/phrase {@code clauses} and {@code prefixes}.
+     *
+     * @param queryText the query text.
+     * @param clauses   the list to which the term (single token) and phrase (multiple tokens) clauses are added.
+     * @param prefixes  the list to which the prefixes are added.
+     */
+    static void parse(final String queryText, final List<List<String>> clauses, final List<String> prefixes) {
+        if (StringUtils.isBlank(queryText)) {
+            return;
+        }
+
+        final Matcher phraseMatcher = PHRASE_PATTERN.matcher(queryText);
+        while (phraseMatcher.find()) {
+            final List<String> phraseTokens = tokenize(phraseMatcher.group(1));
+            if (!phraseTokens.isEmpty()) {
+                clauses.add(phraseTokens);
+            }
+        }
+
+        for (final String word : phraseMatcher.replaceAll(" ").split("\\s+")) {
+            final List<String> wordTokens = tokenize(word);
+            if (wordTokens.isEmpty()) {
+                continue;
+            }
+
+            if (word.endsWith("*") && wordTokens.size() == 1) {
+                prefixes.add(wordTokens.get(0));
+            } else {
+                wordTokens.forEach(token -> clauses.add(Collections.singletonList(token)));
+            }
+        }
+    }
+
+    /**
+     * Adds the (title boosted) BM25 scores of the documents containing the given {@code term} to {@code scores}.
+     *
+     * @param term   the term.
+     * @param scores the map of handle paths and its scores.
+     */
+    private void scoreTerm(final String term, final Map<String, Double> scores) {
+        scoreTerm(title, term, titleBoost, scores);
+        scoreTerm(content, term, 1.0, scores);
+    }
+
+    /**
+     * Adds the BM25 scores of the documents containing the given {@code term}
+     * in the given {@code field} to {@code scores}.
+     *
+     * @param field  the indexed field.
+     * @param term   the term.
+     * @param boost  the factor by which the scores needs to be boosted.
+     * @param scores the map of handle paths and its scores.
+     */
+    private void scoreTerm(final Field field, final String term, final double boost, final Map<String, Double> scores) {
+        final Map<String, int[]> postings = field.postings.get(term);
+        if (postings == null) {
+            return;
+        }
+
+        final double idf = idf(postings.size());
+        postings.forEach((handlePath, positions) ->
+                scores.merge(handlePath, boost * bm25(field, handlePath, positions.length, idf), Double::sum));
+    }
+
+    /**
+     * Adds the (title boosted) BM25 scores of the documents containing the given {@code phrase} to {@code scores}.
+     *
+     * @param phrase the terms of the phrase.
+     * @param scores the map of handle paths and its scores.
+     */
+    private void scorePhrase(final List<String> phrase, final Map<String, Double> scores) {
+        scorePhrase(title, phrase, titleBoost, scores);
+        scorePhrase(content, phrase, 1.0, scores);
+    }
+
+    /**
+     * Adds the BM25 scores of the documents containing the given {@code phrase}
+     * in the given {@code field} to {@code scores}. The phrase frequency is used as the term frequency
+     * and the sum of the IDFs of the phrase terms as its IDF.
+     *
+     * @param field  the indexed field.
+     * @param phrase the terms of the phrase.
+     * @param boost  the factor by which the scores needs to be boosted.
+     * @param scores the map of handle paths and its scores.
+     */
+    private void scorePhrase(
+            final Field field,
+            final List<String> phrase,
+            final double boost,
+            final Map<String, Double> scores) {
+        final List<Map<String, int[]>> phrasePostings = new ArrayList<>();
+        double idf = 0;
+        for (final String term : phrase) {
+            final Map<String, int[]> postings = field.postings.get(term);
+            if (postings == null) {
+                return;
+            }
+
+            phrasePostings.add(postings);
+            idf += idf(postings.size());
+        }
+
+        for (final Map.Entry<String, int[]> firstTermPosting : phrasePostings.get(0).entrySet()) {
+            final String handlePath = firstTermPosting.getKey();
+
+            int phraseFrequency = 0;
+            for (final int position : firstTermPosting.getValue()) {
+                if (isPhraseAt(phrasePostings, handlePath, position)) {
+                    phraseFrequency++;
+                }
+            }
+
+            if (phraseFrequency > 0) {
+                scores.merge(handlePath, boost * bm25(field, handlePath, phraseFrequency, idf), Double::sum);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the phrase (whose first term occurs at the given {@code position}) occurs
+     * in the document with the given {@code handlePath}. Otherwise, returns {@code false}.
+     *
+     * @param phrasePostings the postings of the phrase terms.
+     * @param handlePath     the path of the document handle.
+     * @param position       the position of the first phrase term.
+     * @return {@code true} if the phrase occurs at the given {@code position}. Otherwise, returns {@code false}.
+     */
+    private static boolean isPhraseAt(
+            final List<Map<String, int[]>> phrasePostings,
+            final String handlePath,
+            final int position) {
+        for (int i = 1; i < phrasePostings.size(); i++) {
+            final int[] positions = phrasePostings.get(i).get(handlePath);
+            if (positions == null || Arrays.binarySearch(positions, position + i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the BM25 inverse document frequency of a term occurring in {@code documentFrequency} documents.
+     *
+     * @param documentFrequency the number of documents in which the term occurs.
+     * @return the BM25 inverse document frequency.
+     */
+    private double idf(final int documentFrequency) {
+        return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Returns the BM25 score of a term in the given {@code field} of the document with the given {@code handlePath}.
+     *
+     * @param field         the indexed field.
+     * @param handlePath    the path of the document handle.
+     * @param termFrequency the number of occurrences of the term in the field.
+     * @param idf           the inverse document frequency of the term.
+     * @return the BM25 score.
+     */
+    private double bm25(final Field field, final String handlePath, final int termFrequency, final double idf) {
+        final IndexedDocument document = documents.get(handlePath);
+        final int fieldLength = field == title ? document.titleLength : document.contentLength;
+        final double averageFieldLength = Math.max(1.0, (double) field.totalLength / documents.size());
+
+        return idf * termFrequency * (K1 + 1)
+                / (termFrequency + K1 * (1 - B + B * fieldLength / averageFieldLength));
+    }
+
+    /**
+     * Returns {@code true} if the given {@code document} is below the given {@code scopePath}
+     * and is of one of the given {@code documentTypes}. Otherwise, returns {@code false}.
+     *
+     * @param handlePath    the path of the document handle.
+     * @param document      the indexed document.
+     * @param scopePath     the path of the (folder) scope or {@code null}/empty to match any document.
+     * @param documentTypes the document types or an empty array to match any document type.
+     * @return {@code true} if the given {@code document} matches the scope. Otherwise, returns {@code false}.
+     */
+    private static boolean matches(
+            final String handlePath,
+            final IndexedDocument document,
+            final String scopePath,
+            final String[] documentTypes) {
+        return (StringUtils.isEmpty(scopePath) || handlePath.startsWith(StringUtils.appendIfMissing(scopePath, "/")))
+                && (ArrayUtils.isEmpty(documentTypes) || ArrayUtils.contains(documentTypes, document.documentType));
+    }
+
+    /**
+     * Removes the document with the given {@code handlePath} from the index.
+     *
+     * @param handlePath the path of the document handle.
+     */
+    private void removeDocument(final String handlePath) {
+        if (documents.remove(handlePath) != null) {
+            title.remove(handlePath);
+            content.remove(handlePath);
+        }
+    }
+
+    /**
+     * Indexed document metadata.
+     */
+    private static final class IndexedDocument {
+        private final String documentType;
+        private final long lastModified;
+        private final String title;
+        private final String summary;
+        private final int titleLength;
+        private final int contentLength;
+
+        private IndexedDocument(
+                final String documentType,
+                final long lastModified,
+                final String title,
+                final String summary,
+                final int titleLength,
+                final int contentLength) {
+            this.documentType = documentType;
+            this.lastModified = lastModified;
+            this.title = title;
+            this.summary = summary;
+            this.titleLength = titleLength;
+            this.contentLength = contentLength;
+        }
+    }
+
+    /**
+     * Positional postings of an indexed field.
+     */
+    private static final class Field {
+        // Term -> (Handle path -> Term positions)
+        private final NavigableMap<String, Map<String, int[]>> postings = new TreeMap<>();
+        // Handle path -> Terms
+        private final Map<String, Set<String>> documentTerms = new HashMap<>();
+        private long totalLength;
+
+        private void add(final String handlePath, final List<String> tokens) {
+            final Map<String, List<Integer>> termPositions = new HashMap<>();
+            for (int position = 0; position < tokens.size(); position++) {
+                termPositions.computeIfAbsent(tokens.get(position), term -> new ArrayList<>()).add(position);
+            }
+
+            termPositions.forEach((term, positions) -> postings
+                    .computeIfAbsent(term, key -> new HashMap<>())
+                    .put(handlePath, positions.stream().mapToInt(Integer::intValue).toArray()));
+
+            documentTerms.put(handlePath, new HashSet<>(termPositions.keySet()));
+            totalLength += tokens.size();
+        }
+
+        private void remove(final String handlePath) {
+            final Set<String> terms = documentTerms.remove(handlePath);
+            if (terms == null) {
+                return;
+            }
+
+            for (final String term : terms) {
+                final Map<String, int[]> termPostings = postings.get(term);
+                final int[] positions = termPostings.remove(handlePath);
+                totalLength -= positions == null ? 0 : positions.length;
+
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        private List<String> getTerms(final String handlePath, final int length) {
+            final String[] terms = new String[length];
+            for (final String term : documentTerms.getOrDefault(handlePath, Collections.emptySet())) {
+                for (final int position : postings.get(term).get(handlePath)) {
+                    terms[position] = term;
+                }
+            }
+
+            return Arrays.asList(terms);
+        }
+
+        private List<String> expand(final String prefix) {
+            final List<String> terms = new ArrayList<>();
+            for (final String term : postings.tailMap(prefix, true).keySet()) {
+                if (!term.startsWith(prefix) || terms.size() == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+
+                terms.add(term);
+            }
+
+            return terms;
+        }
+    }
+
+    /**
+     * (Immutable) exported document of the index.
+     */
+    public static final class Entry {
+        private final String handlePath;
+        private final String documentType;
+        private final long lastModified;
+        private final String title;
+        private final String summary;
+        private final String content;
+
+        /**
+         * Creates {@link Entry} instance.
+         *
+         * @param handlePath   the path of the document handle.
+         * @param documentType the document type (e.g. {@code hee:guidance}).
+         * @param lastModified the last modification time (in milliseconds) of the document or {@code -1}
+         *                     if unknown.
+         * @param title        the title of the document.
+         * @param summary      the summary of the document.
+         * @param content      the (plain text) content of the document.
+         */
+        public Entry(
+                final String handlePath,
+                final String documentType,
+                final long lastModified,
+                final String title,
+                final String summary,
+                final String content) {
+            this.handlePath = handlePath;
+            this.documentType = documentType;
+            this.lastModified = lastModified;
+            this.title = title;
+            this.summary = summary;
+            this.content = content;
+        }
+
+        public String getHandlePath() {
+            return handlePath;
+        }
+
+        public String getDocumentType() {
+            return documentType;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        public String getContent() {
+            return content;
+        }
+    }
+}
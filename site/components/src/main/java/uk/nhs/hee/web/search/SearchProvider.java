@@ -0,0 +1,29 @@
+package uk.nhs.hee.web.search;
+
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+
+/**
+ * Provider of the (full-text) search results listed by the Search Listing Page.
+ *
+ * <p>Providers are registered as Spring beans (see {@code META-INF/hst-assembly/overrides/search-services.xml})
+ * and selected by their {@link #getName() name} through the {@code searchProvider} parameter
+ * of the Search Results component.</p>
+ */
+public interface SearchProvider {
+
+    /**
+     * Returns the name of the provider (e.g. {@code jcr}).
+     *
+     * @return the name of the provider.
+     */
+    String getName();
+
+    /**
+     * Returns the requested page of the results matching the given {@code searchQuery}.
+     *
+     * @param searchQuery the {@link SearchQuery} instance.
+     * @return the requested page of the results matching the given {@code searchQuery}.
+     * @throws QueryException thrown when an error occurs while executing the search.
+     */
+    SearchResults search(SearchQuery searchQuery) throws QueryException;
+}
@@ -0,0 +1,65 @@
+package uk.nhs.hee.web.search;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.request.HstRequestContext;
+
+/**
+ * Search request to be served by a {@link SearchProvider}.
+ */
+public class SearchQuery {
+    private final HstRequestContext requestContext;
+    private final HippoBean scope;
+    private final String text;
+    private final String[] documentTypes;
+    private final int offset;
+    private final int limit;
+
+    /**
+     * Creates {@link SearchQuery} instance.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param scope          the scope {@link HippoBean} under which the documents needs to be searched.
+     * @param text           the search text.
+     * @param documentTypes  the document types which needs to be searched or an empty array to search all types.
+     * @param offset         the offset of the first result to be returned.
+     * @param limit          the maximum number of results to be returned.
+     */
+    public SearchQuery(
+            final HstRequestContext requestContext,
+            final HippoBean scope,
+            final String text,
+            final String[] documentTypes,
+            final int offset,
+            final int limit) {
+        this.requestContext = requestContext;
+        this.scope = scope;
+        this.text = text;
+        this.documentTypes = documentTypes;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    public HstRequestContext getRequestContext() {
+        return requestContext;
+    }
+
+    public HippoBean getScope() {
+        return scope;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String[] getDocumentTypes() {
+        return documentTypes;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
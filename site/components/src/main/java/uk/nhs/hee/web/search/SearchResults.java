@@ -0,0 +1,54 @@
+package uk.nhs.hee.web.search;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of results returned by a {@link SearchProvider}.
+ */
+public class SearchResults {
+    private final List<HippoBean> items;
+    private final int totalSize;
+    private final Map<String, SearchSnippet> snippets;
+
+    /**
+     * Creates {@link SearchResults} instance without snippets.
+     *
+     * @param items     the results of the requested page (in the order they needs to be listed).
+     * @param totalSize the total number of results matching the search.
+     */
+    public SearchResults(final List<HippoBean> items, final int totalSize) {
+        this(items, totalSize, Collections.emptyMap());
+    }
+
+    /**
+     * Creates {@link SearchResults} instance.
+     *
+     * @param items     the results of the requested page (in the order they needs to be listed).
+     * @param totalSize the total number of results matching the search.
+     * @param snippets  the map of the (canonical) handle paths of the results and its {@link SearchSnippet}s.
+     */
+    public SearchResults(
+            final List<HippoBean> items,
+            final int totalSize,
+            final Map<String, SearchSnippet> snippets) {
+        this.items = items;
+        this.totalSize = totalSize;
+        this.snippets = snippets;
+    }
+
+    public List<HippoBean> getItems() {
+        return items;
+    }
+
+    public int getTotalSize() {
+        return totalSize;
+    }
+
+    public Map<String, SearchSnippet> getSnippets() {
+        return snippets;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.nhs.hee.web.search;
+
+/**
+ * Precomputed (HTML escaped) title and summary of a search result with the query terms highlighted.
+ */
+public class SearchSnippet {
+    private final String title;
+    private final String summary;
+
+    /**
+     * Creates {@link SearchSnippet} instance.
+     *
+     * @param title   the highlighted title HTML.
+     * @param summary the highlighted summary HTML or {@code null} if the result has no summary.
+     */
+    public SearchSnippet(final String title, final String summary) {
+        this.title = title;
+        this.summary = summary;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+}
@@ -0,0 +1,260 @@
+package uk.nhs.hee.web.search;
+
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.repository.HEEField;
+import uk.nhs.hee.web.utils.DocumentUtils;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Service serving typo-tolerant (as-you-type) title suggestions for the site search box
+ * from an in-memory {@link TitleSuggestionTrie} of the live document titles ({@code hee:title}) per channel.</p>
+ *
+ * <p>The tries are built for all channels at startup (see {@link #init()}) and then, kept up to date
+ * incrementally by re-reading only the documents reported as changed (published/depublished/deleted)
+ * via {@link #onDocumentsChanged(Set)}. Suggestions are therefore served without touching the repository.
+ * A (full) build is done into new tries which are then, swapped in place of the current ones, so that lookups
+ * never see partially built tries. Changes reported while the tries aren't built trigger a rebuild.</p>
+ */
+public class TitleSuggestionService implements DocumentChangeHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TitleSuggestionService.class);
+
+    private static final String AVAILABILITY_LIVE = "live";
+    private static final int MAXIMUM_BUILD_ATTEMPTS = 3;
+    private static final String LIVE_DOCUMENTS_QUERY = String.format(
+            "SELECT [%s] FROM [hippo:document] WHERE [%s] = '%s' AND ISDESCENDANTNODE('/content/documents')",
+            HEEField.DOCUMENT_TITLE.getName(), HippoNodeType.HIPPO_AVAILABILITY, AVAILABILITY_LIVE);
+
+    private final Repository repository;
+    private final Credentials credentials;
+    private final Set<String> documentTypes;
+
+    // Channel -> Title suggestion trie
+    private volatile Map<String, TitleSuggestionTrie> tries = new ConcurrentHashMap<>();
+
+    // Guards the built & dirty flags, so that the changes reported during a build aren't lost
+    private final Object buildLock = new Object();
+    private volatile boolean built;
+    private boolean dirty;
+
+    /**
+     * Creates {@link TitleSuggestionService} instance.
+     *
+     * @param repository    the JCR {@link Repository}.
+     * @param credentials   the {@link Credentials} with which the live documents needs to be read.
+     * @param documentTypes the (searchable) document types whose titles needs to be suggested.
+     */
+    public TitleSuggestionService(
+            final Repository repository,
+            final Credentials credentials,
+            final List<String> documentTypes) {
+        this.repository = repository;
+        this.credentials = credentials;
+        this.documentTypes = Collections.unmodifiableSet(new HashSet<>(documentTypes));
+    }
+
+    /**
+     * Builds the title suggestion tries of all channels. In case of failure (e.g. repository isn't available yet),
+     * the tries will be built on the first lookup.
+     */
+    public void init() {
+        try {
+            build();
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while building title suggestions at startup. " +
+                    "Suggestions will be built on the first lookup instead.", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns (at most {@code limit}) titles of the live documents of the given {@code channel}
+     * matching the given (partially typed) {@code query}, tolerating typos.
+     *
+     * @param channel the channel whose document titles needs to be suggested.
+     * @param query   the (partially typed) query.
+     * @param limit   the maximum number of titles to be returned.
+     * @return the titles of the live documents of the given {@code channel} matching the given {@code query}.
+     */
+    public List<String> suggest(final String channel, final String query, final int limit) {
+        ensureBuilt();
+
+        final TitleSuggestionTrie trie = tries.get(channel);
+        return trie == null ? Collections.emptyList() : trie.suggest(query, limit);
+    }
+
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        synchronized (buildLock) {
+            if (!built) {
+                // Changes will be covered by the (pending or running) full build
+                dirty = true;
+                return;
+            }
+        }
+
+        Session session = null;
+        try {
+            session = repository.login(credentials);
+
+            for (final String handlePath : handlePaths) {
+                final String title = getLiveTitle(session, handlePath);
+                final String channel = DocumentUtils.getChannel(handlePath);
+
+                if (title == null) {
+                    final TitleSuggestionTrie trie = tries.get(channel);
+                    if (trie != null) {
+                        trie.remove(handlePath);
+                    }
+                } else {
+                    tries.computeIfAbsent(channel, key -> new TitleSuggestionTrie()).put(handlePath, title);
+                }
+            }
+
+            LOGGER.debug("Updated title suggestions for the changed documents {}", handlePaths);
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while updating title suggestions for the changed documents {}. " +
+                    "Suggestions will be rebuilt on the next lookup.", e.getMessage(), handlePaths, e);
+            synchronized (buildLock) {
+                built = false;
+            }
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+        }
+    }
+
+    /**
+     * Builds the title suggestion tries if they haven't been built (successfully) yet.
+     */
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+
+        try {
+            build();
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while building title suggestions", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the title suggestion tries of all channels and swaps them in place of the current ones. The tries are
+     * rebuilt (up to {@link #MAXIMUM_BUILD_ATTEMPTS} times) if any document has been changed during the build.
+     * If they keep changing, the tries will be rebuilt on the next lookup.
+     *
+     * @throws RepositoryException thrown when an error occurs while querying the documents.
+     */
+    private synchronized void build() throws RepositoryException {
+        if (built) {
+            return;
+        }
+
+        for (int attempt = 1; attempt <= MAXIMUM_BUILD_ATTEMPTS; attempt++) {
+            synchronized (buildLock) {
+                dirty = false;
+            }
+
+            final Map<String, TitleSuggestionTrie> builtTries = loadTries();
+            synchronized (buildLock) {
+                tries = builtTries;
+                if (!dirty) {
+                    built = true;
+                    LOGGER.info("Built title suggestions for channels {}", builtTries.keySet());
+                    return;
+                }
+            }
+
+            LOGGER.debug("Documents have been changed while building title suggestions. Rebuilding them");
+        }
+
+        LOGGER.warn("Documents kept changing while building title suggestions. " +
+                "Suggestions will be rebuilt on the next lookup.");
+    }
+
+    /**
+     * Loads the title suggestion tries of all channels by querying all live documents.
+     *
+     * @return the (new) map of channels and their title suggestion tries.
+     * @throws RepositoryException thrown when an error occurs while querying the documents.
+     */
+    private Map<String, TitleSuggestionTrie> loadTries() throws RepositoryException {
+        final Map<String, TitleSuggestionTrie> triesByChannel = new ConcurrentHashMap<>();
+
+        final Session session = repository.login(credentials);
+        try {
+            final Query query = session.getWorkspace().getQueryManager()
+                    .createQuery(LIVE_DOCUMENTS_QUERY, Query.JCR_SQL2);
+            final NodeIterator documentNodeIterator = query.execute().getNodes();
+
+            while (documentNodeIterator.hasNext()) {
+                final Node documentNode = documentNodeIterator.nextNode();
+                if (!isSuggestible(documentNode)) {
+                    continue;
+                }
+
+                final String handlePath = documentNode.getParent().getPath();
+                triesByChannel
+                        .computeIfAbsent(DocumentUtils.getChannel(handlePath), channel -> new TitleSuggestionTrie())
+                        .put(handlePath, documentNode.getProperty(HEEField.DOCUMENT_TITLE.getName()).getString());
+            }
+        } finally {
+            session.logout();
+        }
+
+        return triesByChannel;
+    }
+
+    /**
+     * Returns the title of the live variant of the document handle with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the document doesn't exist, isn't live or isn't of a suggestible type.
+     *
+     * @param session    the JCR {@link Session} instance.
+     * @param handlePath the path of the document handle.
+     * @return the title of the live variant of the document handle with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the document doesn't exist, isn't live or isn't of a suggestible type.
+     * @throws RepositoryException thrown when an error occurs while reading the document.
+     */
+    private String getLiveTitle(final Session session, final String handlePath) throws RepositoryException {
+        if (!session.nodeExists(handlePath)) {
+            return null;
+        }
+
+        final Node liveVariant = DocumentUtils.getLiveVariant(session.getNode(handlePath));
+        if (liveVariant == null || !isSuggestible(liveVariant)) {
+            return null;
+        }
+
+        return liveVariant.getProperty(HEEField.DOCUMENT_TITLE.getName()).getString();
+    }
+
+    /**
+     * Returns {@code true} if the given document {@code variant} is of a suggestible type and has a title.
+     * Otherwise, returns {@code false}.
+     *
+     * @param variant the document variant node.
+     * @return {@code true} if the given document {@code variant} is of a suggestible type and has a title.
+     * Otherwise, returns {@code false}.
+     * @throws RepositoryException thrown when an error occurs while reading the document.
+     */
+    private boolean isSuggestible(final Node variant) throws RepositoryException {
+        return documentTypes.contains(variant.getPrimaryNodeType().getName())
+                && variant.hasProperty(HEEField.DOCUMENT_TITLE.getName());
+    }
+}
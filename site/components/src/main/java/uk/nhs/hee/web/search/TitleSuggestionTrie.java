@@ -0,0 +1,272 @@
+package uk.nhs.hee.web.search;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>In-memory trie of document titles serving (as-you-type) title suggestions.</p>
+ *
+ * <p>Titles are normalised (lowercased, accent folded & punctuation removed, see {@link SearchIndex#tokenize(String)})
+ * and indexed from the start of each of their words, so that a query matches the titles containing a word
+ * starting with it (e.g. {@code fund} suggests {@code Library funding}). If there aren't enough such suggestions,
+ * the titles within a small edit distance of the query (1, or 2 for queries of 6 characters or more)
+ * are suggested as well, so that typos are tolerated.</p>
+ */
+public class TitleSuggestionTrie {
+    // Minimum query length from which typos are tolerated
+    private static final int MIN_FUZZY_QUERY_LENGTH = 3;
+    // Query length from which 2 edits (instead of 1) are tolerated
+    private static final int TWO_EDITS_QUERY_LENGTH = 6;
+    // Maximum length of the indexed keys (i.e. the title from a word start)
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final TrieNode root = new TrieNode();
+    // Handle path -> Title
+    private final Map<String, String> titles = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds (or replaces) the title of the document with the given {@code handlePath}.
+     *
+     * @param handlePath the path of the document handle.
+     * @param title      the title of the document.
+     */
+    public void put(final String handlePath, final String title) {
+        lock.writeLock().lock();
+        try {
+            removeTitle(handlePath);
+
+            if (StringUtils.isNotBlank(title)) {
+                titles.put(handlePath, title.trim());
+                getKeys(title).forEach(key -> root.insert(key, handlePath));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the title of the document with the given {@code handlePath}.
+     *
+     * @param handlePath the path of the document handle.
+     */
+    public void remove(final String handlePath) {
+        lock.writeLock().lock();
+        try {
+            removeTitle(handlePath);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns (at most {@code limit}) distinct titles matching the given {@code query}. The titles
+     * containing a word starting with the query are returned first (in alphabetical order of the matched keys)
+     * followed by the ones matching with typos (in the order of their edit distance).
+     *
+     * @param query the (partially typed) query.
+     * @param limit the maximum number of titles to be returned.
+     * @return the distinct titles matching the given {@code query}.
+     */
+    public List<String> suggest(final String query, final int limit) {
+        final String normalizedQuery = String.join(" ", SearchIndex.tokenize(query));
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        final Set<String> handlePaths = new LinkedHashSet<>();
+        final Set<String> suggestions = new LinkedHashSet<>();
+
+        lock.readLock().lock();
+        try {
+            final TrieNode prefixNode = root.find(normalizedQuery);
+            if (prefixNode != null) {
+                prefixNode.collect(handlePaths, titles, suggestions, limit);
+            }
+
+            if (suggestions.size() < limit && normalizedQuery.length() >= MIN_FUZZY_QUERY_LENGTH) {
+                final int maxEdits = normalizedQuery.length() >= TWO_EDITS_QUERY_LENGTH ? 2 : 1;
+
+                final Map<Integer, List<TrieNode>> fuzzyNodes = new TreeMap<>();
+                final int[] initialRow = new int[normalizedQuery.length() + 1];
+                for (int i = 0; i < initialRow.length; i++) {
+                    initialRow[i] = i;
+                }
+
+                root.children.forEach((character, child) ->
+                        child.searchFuzzy(character, normalizedQuery, initialRow, maxEdits, fuzzyNodes));
+
+                for (final List<TrieNode> nodes : fuzzyNodes.values()) {
+                    for (final TrieNode node : nodes) {
+                        node.collect(handlePaths, titles, suggestions, limit);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new ArrayList<>(suggestions);
+    }
+
+    /**
+     * Returns the number of titles in the trie.
+     *
+     * @return the number of titles in the trie.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return titles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the title of the document with the given {@code handlePath} (if any) from the trie.
+     *
+     * @param handlePath the path of the document handle.
+     */
+    private void removeTitle(final String handlePath) {
+        final String title = titles.remove(handlePath);
+        if (title != null) {
+            getKeys(title).forEach(key -> root.remove(key, 0, handlePath));
+        }
+    }
+
+    /**
+     * Returns the keys of the given {@code title} (i.e. the normalised title from each of its words).
+     *
+     * @param title the title.
+     * @return the keys of the given {@code title}.
+     */
+    private static Set<String> getKeys(final String title) {
+        final List<String> tokens = SearchIndex.tokenize(title);
+        final Set<String> keys = new LinkedHashSet<>();
+
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(StringUtils.left(String.join(" ", tokens.subList(i, tokens.size())), MAX_KEY_LENGTH));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Trie node.
+     */
+    private static final class TrieNode {
+        private final TreeMap<Character, TrieNode> children = new TreeMap<>();
+        // Handle paths of the titles whose key ends at this node
+        private final Set<String> handlePaths = new TreeSet<>();
+
+        private void insert(final String key, final String handlePath) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), character -> new TrieNode());
+            }
+
+            node.handlePaths.add(handlePath);
+        }
+
+        /**
+         * Removes the given {@code handlePath} from the node of the given {@code key}
+         * and prunes the nodes left empty.
+         *
+         * @return {@code true} if this node has been left empty. Otherwise, returns {@code false}.
+         */
+        private boolean remove(final String key, final int index, final String handlePath) {
+            if (index == key.length()) {
+                handlePaths.remove(handlePath);
+            } else {
+                final TrieNode child = children.get(key.charAt(index));
+                if (child != null && child.remove(key, index + 1, handlePath)) {
+                    children.remove(key.charAt(index));
+                }
+            }
+
+            return handlePaths.isEmpty() && children.isEmpty();
+        }
+
+        private TrieNode find(final String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+
+            return node;
+        }
+
+        /**
+         * Collects the titles of this node and its descendants (in key order) until {@code limit} is reached.
+         */
+        private boolean collect(
+                final Set<String> collectedHandlePaths,
+                final Map<String, String> titles,
+                final Set<String> suggestions,
+                final int limit) {
+            for (final String handlePath : handlePaths) {
+                if (suggestions.size() == limit) {
+                    return false;
+                }
+
+                if (collectedHandlePaths.add(handlePath)) {
+                    suggestions.add(titles.get(handlePath));
+                }
+            }
+
+            for (final TrieNode child : children.values()) {
+                if (!child.collect(collectedHandlePaths, titles, suggestions, limit)) {
+                    return false;
+                }
+            }
+
+            return suggestions.size() < limit;
+        }
+
+        /**
+         * Finds the nodes whose key prefix is within {@code maxEdits} (Levenshtein) edits of the given {@code query}
+         * by computing the edit distance rows along the trie paths (and pruning the paths exceeding
+         * {@code maxEdits}), and adds them to {@code matches} by their edit distance.
+         */
+        private void searchFuzzy(
+                final char character,
+                final String query,
+                final int[] previousRow,
+                final int maxEdits,
+                final Map<Integer, List<TrieNode>> matches) {
+            final int[] row = new int[previousRow.length];
+            row[0] = previousRow[0] + 1;
+
+            int minDistance = row[0];
+            for (int i = 1; i < row.length; i++) {
+                final int substitutionCost = query.charAt(i - 1) == character ? 0 : 1;
+                row[i] = Math.min(Math.min(row[i - 1] + 1, previousRow[i] + 1), previousRow[i - 1] + substitutionCost);
+                minDistance = Math.min(minDistance, row[i]);
+            }
+
+            final int distance = row[row.length - 1];
+            if (distance <= maxEdits) {
+                // The whole subtree matches the query (as a prefix)
+                matches.computeIfAbsent(distance, key -> new ArrayList<>()).add(this);
+                return;
+            }
+
+            if (minDistance <= maxEdits) {
+                children.forEach((childCharacter, child) ->
+                        child.searchFuzzy(childCharacter, query, row, maxEdits, matches));
+            }
+        }
+    }
+}
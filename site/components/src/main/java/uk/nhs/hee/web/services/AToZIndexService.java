@@ -0,0 +1,234 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.utils.DocumentUtils;
+
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Service that materializes the A to Z index (letter -> title & URL pairs of the pages added to A to Z)
+ * rendered by A to Z Listing Pages.</p>
+ *
+ * <p>The index is cached per channel, A to Z Listing Page scope, Mount and availability (preview/live)
+ * until an A to Z eligible document of the channel gets changed (see {@link #onDocumentsChanged(Set)}).</p>
+ *
+ * <p>An index is only cached if the indexes of its channel haven't been evicted since its build started,
+ * so that an eviction during the build isn't overwritten by its stale index.</p>
+ */
+public class AToZIndexService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AToZIndexService.class);
+
+    /**
+     * The letter (bucket) of the pages whose title doesn't start with an A to Z letter
+     * (e.g. digits, symbols and non-latin letters).
+     */
+    public static final String OTHER_LETTER = "#";
+
+    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{M}+");
+    private static final String CACHE_KEY_SEPARATOR = "|";
+
+    // {channel}|{cache_key} -> A to Z index
+    private final Cache<String, Map<String, List<Pair<String, String>>>> indexes =
+            CacheBuilder.newBuilder().recordStats().build();
+
+    // {channel} -> Number of evictions of its indexes so far
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Returns (immutable) A to Z index of the given {@code channel} cached against the given {@code cacheKey}.
+     * Builds it from the pages loaded via the given {@code pagesLoader} on cache miss and caches it unless
+     * the indexes of the given {@code channel} have been evicted in the meantime.
+     *
+     * @param channel     the channel whose A to Z index needs to be returned.
+     * @param cacheKey    the key identifying the A to Z Listing Page scope, Mount and availability (preview/live).
+     * @param locale      the {@link Locale} with which the page titles needs to be collated.
+     * @param pagesLoader the loader returning the title & URL pairs of the pages added to A to Z on cache miss.
+     * @return the (immutable) A to Z index of the given {@code channel} (see {@link #buildIndex(List, Locale)}).
+     * Otherwise, an empty map if the index couldn't be built.
+     */
+    public Map<String, List<Pair<String, String>>> getIndex(
+            final String channel,
+            final String cacheKey,
+            final Locale locale,
+            final Callable<List<Pair<String, String>>> pagesLoader) {
+        final String key = channel + CACHE_KEY_SEPARATOR + cacheKey;
+        final Map<String, List<Pair<String, String>>> cachedIndex = indexes.getIfPresent(key);
+        if (cachedIndex != null) {
+            return cachedIndex;
+        }
+
+        final AtomicLong generation = getGeneration(channel);
+        final long buildGeneration = generation.get();
+        final Map<String, List<Pair<String, String>>> index;
+        try {
+            index = buildIndex(pagesLoader.call(), locale);
+        } catch (final Exception e) {
+            LOGGER.error("Caught error '{}' while building A to Z index for '{}'", e.getMessage(), cacheKey, e);
+            return Collections.emptyMap();
+        }
+
+        putIndex(generation, key, index, buildGeneration);
+        return index;
+    }
+
+    /**
+     * <p>Builds (immutable) A to Z index of the given {@code pages} i.e. map of letters {@code A}..{@code Z}
+     * and the pages whose title starts with the letter (or {@code null} if there are none), followed by
+     * {@link #OTHER_LETTER} and the pages whose title doesn't start with an A to Z letter (if there are any).</p>
+     *
+     * <p>The letter of a page is the first letter or digit of its title ignoring its accent
+     * (e.g. {@code Évaluation} is indexed under {@code E}) and the pages of a letter are sorted
+     * by their title collated as per the given {@code locale}.</p>
+     *
+     * @param pages  the title & URL pairs of the pages added to A to Z.
+     * @param locale the {@link Locale} with which the page titles needs to be collated.
+     * @return the (immutable) A to Z index of the given {@code pages}.
+     */
+    public static Map<String, List<Pair<String, String>>> buildIndex(
+            final List<Pair<String, String>> pages,
+            final Locale locale) {
+        final Map<String, List<Pair<String, String>>> pagesByLetter = new LinkedHashMap<>();
+        for (char letter = 'A'; letter <= 'Z'; letter++) {
+            pagesByLetter.put(String.valueOf(letter), null);
+        }
+
+        final Collator collator = Collator.getInstance(locale);
+        final List<Pair<String, String>> sortedPages = new ArrayList<>(pages);
+        sortedPages.sort(Comparator.comparing(Pair::getKey, collator));
+
+        for (final Pair<String, String> page : sortedPages) {
+            final String letter = getLetter(page.getKey());
+            if (pagesByLetter.get(letter) == null) {
+                pagesByLetter.put(letter, new ArrayList<>());
+            }
+
+            pagesByLetter.get(letter).add(page);
+        }
+
+        pagesByLetter.replaceAll((letter, letterPages) ->
+                letterPages == null ? null : Collections.unmodifiableList(letterPages));
+        return Collections.unmodifiableMap(pagesByLetter);
+    }
+
+    /**
+     * Evicts the cached A to Z indexes of the channels of the changed A to Z eligible documents.
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    @Override
+    public synchronized void onDocumentsChanged(final Set<String> handlePaths) {
+        for (final String handlePath : handlePaths) {
+            final String channel = DocumentUtils.getChannel(handlePath);
+            final String channelKeyPrefix = channel + CACHE_KEY_SEPARATOR;
+
+            // Prevents caching the indexes being built with the changed documents
+            getGeneration(channel).incrementAndGet();
+            indexes.asMap().keySet().removeIf(key -> key.startsWith(channelKeyPrefix));
+        }
+
+        LOGGER.debug("A to Z eligible documents {} have been changed. Evicted their channel A to Z indexes",
+                handlePaths);
+    }
+
+    @Override
+    public long getHitCount() {
+        return indexes.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return indexes.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return indexes.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return indexes.size();
+    }
+
+    @Override
+    public void clear() {
+        indexes.invalidateAll();
+    }
+
+    /**
+     * Returns the eviction generation of the given {@code channel} i.e. the number of evictions
+     * of its indexes so far.
+     *
+     * @param channel the channel.
+     * @return the eviction generation of the given {@code channel}.
+     */
+    private AtomicLong getGeneration(final String channel) {
+        return generations.computeIfAbsent(channel, key -> new AtomicLong());
+    }
+
+    /**
+     * Caches the given A to Z {@code index} unless the indexes of its channel have been evicted
+     * since the given {@code buildGeneration}.
+     *
+     * @param generation      the eviction generation of the channel.
+     * @param key             the cache key of the index.
+     * @param index           the built A to Z index.
+     * @param buildGeneration the generation at which the build started.
+     */
+    private synchronized void putIndex(
+            final AtomicLong generation,
+            final String key,
+            final Map<String, List<Pair<String, String>>> index,
+            final long buildGeneration) {
+        if (generation.get() != buildGeneration) {
+            LOGGER.debug("Documents have been changed while building the A to Z index '{}'. Not caching it", key);
+            return;
+        }
+
+        indexes.put(key, index);
+    }
+
+    /**
+     * Returns the A to Z letter of the given {@code title} i.e. its first letter or digit (ignoring its accent)
+     * in upper case if it is an A to Z letter. Otherwise, returns {@link #OTHER_LETTER}.
+     *
+     * @param title the page title.
+     * @return the A to Z letter of the given {@code title}.
+     */
+    private static String getLetter(final String title) {
+        final String normalizedTitle = DIACRITICS_PATTERN
+                .matcher(Normalizer.normalize(StringUtils.defaultString(title), Normalizer.Form.NFD))
+                .replaceAll(StringUtils.EMPTY);
+
+        for (int i = 0; i < normalizedTitle.length(); i++) {
+            final char character = normalizedTitle.charAt(i);
+            if (!Character.isLetterOrDigit(character)) {
+                continue;
+            }
+
+            final char letter = Character.toUpperCase(character);
+            return letter >= 'A' && letter <= 'Z' ? String.valueOf(letter) : OTHER_LETTER;
+        }
+
+        return OTHER_LETTER;
+    }
+}
@@ -0,0 +1,157 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.utils.HstUtils;
+
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * <p>Service that caches the rewritten copy (RichText) of Banner ({@code hee:banner}) documents
+ * (see {@link uk.nhs.hee.web.content.rewriter.impl.BannerContentRewriter}) per banner copy version
+ * (i.e. the copy HTML node and its HTML), target Mount and Mount (and availability) of the request,
+ * as the same site-wide banner is rewritten on every page view.</p>
+ *
+ * <p>As the rewritten copy contains the URLs of the linked documents, the cached copies are discarded
+ * when a request is served by a rebuilt HST model (i.e. a different {@link VirtualHosts} instance)
+ * or when any document gets published/depublished/deleted (see {@link #onDocumentsChanged(Set)}).</p>
+ */
+public class BannerCopyCacheService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BannerCopyCacheService.class);
+
+    private final long maximumSize;
+
+    // The rewritten copy cache of the HST model serving the requests
+    private volatile ModelBannerCopies modelBannerCopies;
+
+    /**
+     * Creates {@link BannerCopyCacheService} instance.
+     *
+     * @param maximumSize the maximum number of rewritten banner copies to be cached.
+     */
+    public BannerCopyCacheService(final long maximumSize) {
+        this.maximumSize = maximumSize;
+        this.modelBannerCopies = new ModelBannerCopies(null, maximumSize);
+    }
+
+    /**
+     * Returns the rewritten banner copy from the cache or (on cache miss) rewritten by the given {@code rewriter}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param targetMount    the target {@link Mount} of the links (or {@code null} for the request Mount).
+     * @param htmlNodeId     the identifier of the copy ({@code hippostd:html}) node.
+     * @param html           the (raw) HTML of the copy.
+     * @param rewriter       the rewriter of the given {@code html}.
+     * @return the rewritten banner copy.
+     */
+    public String getRewrittenCopy(
+            final HstRequestContext requestContext,
+            final Mount targetMount,
+            final String htmlNodeId,
+            final String html,
+            final Supplier<String> rewriter) {
+        final Cache<String, String> bannerCopies = getBannerCopiesCache(
+                requestContext.getResolvedMount().getMount().getVirtualHost().getVirtualHosts());
+        final String cacheKey = HstUtils.getMountCacheKey(requestContext) + "|" +
+                (targetMount == null ? "" : targetMount.getIdentifier()) + "|" + htmlNodeId + "|" + html;
+
+        try {
+            return bannerCopies.get(cacheKey, rewriter::get);
+        } catch (final ExecutionException e) {
+            LOGGER.error("Caught error '{}' while rewriting the banner copy '{}'", e.getMessage(), htmlNodeId, e);
+            return rewriter.get();
+        }
+    }
+
+    /**
+     * Discards all the cached banner copies as they may link to any of the given changed documents.
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        LOGGER.debug("Documents {} have been changed. Discarding all cached banner copies", handlePaths);
+        modelBannerCopies.bannerCopies.invalidateAll();
+    }
+
+    @Override
+    public long getHitCount() {
+        return modelBannerCopies.bannerCopies.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return modelBannerCopies.bannerCopies.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return modelBannerCopies.bannerCopies.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return modelBannerCopies.bannerCopies.size();
+    }
+
+    @Override
+    public void clear() {
+        modelBannerCopies.bannerCopies.invalidateAll();
+    }
+
+    /**
+     * Returns the banner copy cache of the given {@code virtualHosts} (i.e. the HST model serving
+     * the current request). The cache (of the previous HST model) is discarded if the given {@code virtualHosts}
+     * isn't the one the cached banner copies have been rewritten with.
+     *
+     * @param virtualHosts the {@link VirtualHosts} of the current request.
+     * @return the banner copy cache of the given {@code virtualHosts}.
+     */
+    private Cache<String, String> getBannerCopiesCache(final VirtualHosts virtualHosts) {
+        ModelBannerCopies current = modelBannerCopies;
+        if (current.virtualHosts == virtualHosts) {
+            return current.bannerCopies;
+        }
+
+        synchronized (this) {
+            current = modelBannerCopies;
+            if (current.virtualHosts != virtualHosts) {
+                LOGGER.debug("HST model has been rebuilt. Discarding {} cached banner copies",
+                        current.bannerCopies.size());
+                current = new ModelBannerCopies(virtualHosts, maximumSize);
+                modelBannerCopies = current;
+            }
+
+            return current.bannerCopies;
+        }
+    }
+
+    /**
+     * Rewritten banner copy cache of a single HST model.
+     */
+    private static final class ModelBannerCopies {
+        private final VirtualHosts virtualHosts;
+
+        // {mount_cache_key}|{target_mount_id}|{html_node_id}|{html} -> Rewritten banner copy
+        private final Cache<String, String> bannerCopies;
+
+        /**
+         * Creates {@link ModelBannerCopies} instance.
+         *
+         * @param virtualHosts the {@link VirtualHosts} (i.e. the HST model) the banner copies are rewritten with.
+         * @param maximumSize  the maximum number of rewritten banner copies to be cached.
+         */
+        private ModelBannerCopies(final VirtualHosts virtualHosts, final long maximumSize) {
+            this.virtualHosts = virtualHosts;
+            this.bannerCopies = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package uk.nhs.hee.web.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.hippoecm.repository.api.HippoWorkspace;
+import org.hippoecm.repository.api.WorkflowException;
+import org.onehippo.repository.documentworkflow.DocumentWorkflow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.rmi.RemoteException;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that queues the blog comments submitted by the site visitors (see {@link #enqueue(PendingBlogComment)})
+ * on the local disk and adds them ({@code hee:blogComment}) to their blog post ({@code hee:blogPost}) documents
+ * in the background, so that the comment submission doesn't wait for the document workflow.</p>
+ *
+ * <p>The pending comments of a blog post are added in a single obtain/commit editable instance cycle. If the blog
+ * post is being edited (locked) or the workflow fails, the comments of the blog post are retried after the configured
+ * delay, up to the configured number of attempts after which they are moved to the {@code failed} sub-directory
+ * (to be added manually). The pending comments survive restarts as they are only removed from the local disk once
+ * they have been added to their blog post. As the comments are added along with their comment ID
+ * ({@code hee:commentId}), a comment whose file couldn't be removed isn't added again.</p>
+ *
+ * <p>The pending comments are stored as JSON files in a directory (which needs to be outside of the shared
+ * temporary directory) only accessible by the owner (on POSIX file systems).</p>
+ */
+public class BlogCommentQueueService implements QueueStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlogCommentQueueService.class);
+
+    private static final String COMMENT_FILE_SUFFIX = ".json";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String FAILED_DIRECTORY_NAME = "failed";
+    private static final String COMMENTS_NODE_NAME = "hee:comments";
+    private static final String COMMENT_ID_PROPERTY = "hee:commentId";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Repository repository;
+    private final Credentials credentials;
+    private final File queueDirectory;
+    private final long retryDelayMillis;
+    private final int maximumAttempts;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, BlogCommentQueueService.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // {comment_file_name} -> Pending comment (ordered by the submission time as the file names are prefixed with it)
+    private final ConcurrentSkipListMap<String, PendingBlogComment> pendingComments = new ConcurrentSkipListMap<>();
+    // {blog_post_handle_path} -> Time (in milliseconds) before which the comments of the blog post aren't retried
+    private final Map<String, Long> retryTimes = new ConcurrentHashMap<>();
+    // {blog_post_handle_path} -> Number of failed attempts to add the comments of the blog post
+    private final Map<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final AtomicBoolean retryScheduled = new AtomicBoolean();
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    /**
+     * Creates {@link BlogCommentQueueService} instance.
+     *
+     * @param repository       the JCR {@link Repository}.
+     * @param credentials      the {@link Credentials} with which the blog post documents needs to be updated.
+     * @param queueDirectory   the local directory in which the pending comments needs to be stored.
+     * @param retryDelayMillis the delay (in milliseconds) after which the comments of a blog post are retried
+     *                         if they couldn't be added.
+     * @param maximumAttempts  the maximum number of attempts to add the comments of a blog post after which
+     *                         they are moved to the {@code failed} sub-directory.
+     */
+    public BlogCommentQueueService(
+            final Repository repository,
+            final Credentials credentials,
+            final String queueDirectory,
+            final long retryDelayMillis,
+            final int maximumAttempts) {
+        this.repository = repository;
+        this.credentials = credentials;
+        this.queueDirectory = new File(queueDirectory);
+        this.retryDelayMillis = retryDelayMillis;
+        this.maximumAttempts = maximumAttempts;
+    }
+
+    /**
+     * Loads the pending comments (if any) stored on the local disk and schedules adding them to their blog posts.
+     */
+    public void init() {
+        load();
+        executor.execute(this::writePendingComments);
+    }
+
+    /**
+     * Stops the background thread. The comments that are still pending remain on the local disk
+     * and get added to their blog posts after the next startup.
+     */
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stores the given {@code comment} on the local disk and schedules adding it to its blog post.
+     *
+     * @param comment the {@link PendingBlogComment} instance.
+     * @throws IOException thrown when an error occurs while storing the comment on the local disk.
+     */
+    public void enqueue(final PendingBlogComment comment) throws IOException {
+        final String fileName = String.format(
+                "%013d-%s%s", comment.getSubmittedTime(), comment.getCommentId(), COMMENT_FILE_SUFFIX);
+        persist(fileName, comment);
+        pendingComments.put(fileName, comment);
+        executor.execute(this::writePendingComments);
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return pendingComments.size();
+    }
+
+    @Override
+    public long getOldestItemAgeMillis() {
+        final Map.Entry<String, PendingBlogComment> oldest = pendingComments.firstEntry();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.getValue().getSubmittedTime();
+    }
+
+    @Override
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    @Override
+    public long getFailedAttemptCount() {
+        return failedAttemptCount.get();
+    }
+
+    @Override
+    public double getAverageLatencyMillis() {
+        final long count = processedCount.get();
+        return count == 0 ? 0 : (double) totalLatencyMillis.get() / count;
+    }
+
+    @Override
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+
+    /**
+     * Adds the pending comments, grouped by their blog posts, to their blog posts (except the blog posts
+     * whose retry delay hasn't elapsed yet) and schedules a retry if there are comments still pending.
+     *
+     * <p>Runs on the background thread only.</p>
+     */
+    private void writePendingComments() {
+        if (pendingComments.isEmpty()) {
+            return;
+        }
+
+        // {blog_post_handle_path} -> ({comment_file_name} -> Pending comment)
+        final Map<String, Map<String, PendingBlogComment>> commentsByBlogPost = new LinkedHashMap<>();
+        pendingComments.forEach((fileName, comment) -> commentsByBlogPost
+                .computeIfAbsent(comment.getBlogPostHandlePath(), key -> new LinkedHashMap<>())
+                .put(fileName, comment));
+
+        final long now = System.currentTimeMillis();
+        Session session = null;
+
+        try {
+            session = repository.login(credentials);
+
+            for (final Map.Entry<String, Map<String, PendingBlogComment>> entry : commentsByBlogPost.entrySet()) {
+                if (retryTimes.getOrDefault(entry.getKey(), 0L) > now) {
+                    continue;
+                }
+
+                if (write(session, entry.getKey(), entry.getValue())) {
+                    retryTimes.remove(entry.getKey());
+                    failedAttempts.remove(entry.getKey());
+                } else {
+                    failedAttemptCount.incrementAndGet();
+                    if (failedAttempts.merge(entry.getKey(), 1, Integer::sum) >= maximumAttempts) {
+                        LOGGER.error("Giving up adding {} pending comment(s) to the blog post '{}' " +
+                                        "after {} attempts. Moving them to '{}'",
+                                entry.getValue().size(), entry.getKey(), maximumAttempts, getFailedDirectory());
+                        moveToFailed(entry.getValue());
+                        retryTimes.remove(entry.getKey());
+                        failedAttempts.remove(entry.getKey());
+                    } else {
+                        retryTimes.put(entry.getKey(), now + retryDelayMillis);
+                    }
+                }
+            }
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while logging in to add the pending blog comments. Retrying in {} ms",
+                    e.getMessage(), retryDelayMillis, e);
+            failedAttemptCount.incrementAndGet();
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+        }
+
+        scheduleRetry();
+    }
+
+    /**
+     * Adds the given {@code comments} to the blog post at the given {@code blogPostHandlePath}
+     * in a single obtain/commit editable instance cycle and publishes the blog post (if allowed).
+     * The comments which have already been added to the blog post (i.e. whose file couldn't be removed
+     * after they have been added) are skipped.
+     *
+     * @param session            the (writable) {@link Session} instance.
+     * @param blogPostHandlePath the (canonical) handle path of the blog post document.
+     * @param comments           the pending comments ({comment_file_name} -> Pending comment) of the blog post.
+     * @return {@code true} if the comments have been added (or dropped as the blog post doesn't exist anymore).
+     * Otherwise, {@code false} if the comments needs to be retried.
+     */
+    private boolean write(
+            final Session session,
+            final String blogPostHandlePath,
+            final Map<String, PendingBlogComment> comments) {
+        DocumentWorkflow documentWorkflow = null;
+
+        try {
+            if (!session.nodeExists(blogPostHandlePath)) {
+                LOGGER.error("Blog post '{}' doesn't exist anymore. Dropping its {} pending comment(s)",
+                        blogPostHandlePath, comments.size());
+                remove(comments, false);
+                return true;
+            }
+
+            documentWorkflow = (DocumentWorkflow) ((HippoWorkspace) session.getWorkspace()).getWorkflowManager()
+                    .getWorkflow("default", session.getNode(blogPostHandlePath));
+            if (!Boolean.TRUE.equals(documentWorkflow.hints().get("obtainEditableInstance"))) {
+                LOGGER.info("Blog post '{}' is being edited. Retrying its {} pending comment(s) in {} ms",
+                        blogPostHandlePath, comments.size(), retryDelayMillis);
+                return false;
+            }
+
+            final Node editingNode = documentWorkflow.obtainEditableInstance().getNode(session);
+            final Set<String> addedCommentIds = getCommentIds(editingNode);
+            for (final PendingBlogComment comment : comments.values()) {
+                if (addedCommentIds.contains(comment.getCommentId())) {
+                    LOGGER.info("Comment '{}' has already been added to the blog post '{}'. Skipping it",
+                            comment.getCommentId(), blogPostHandlePath);
+                    continue;
+                }
+
+                addBlogCommentNode(editingNode, comment);
+            }
+
+            session.save();
+            documentWorkflow.commitEditableInstance();
+        } catch (final RepositoryException | WorkflowException | RemoteException e) {
+            LOGGER.error(
+                    "Caught error '{}' while adding {} pending comment(s) to the blog post '{}'. Retrying in {} ms",
+                    e.getMessage(), comments.size(), blogPostHandlePath, retryDelayMillis, e);
+            discardChanges(session, documentWorkflow);
+            return false;
+        }
+
+        // The comments have been committed by now and hence, they aren't retried even if the publication fails
+        remove(comments, true);
+        publish(blogPostHandlePath, documentWorkflow);
+        return true;
+    }
+
+    /**
+     * Publishes the blog post via the given {@code documentWorkflow} (if allowed).
+     *
+     * @param blogPostHandlePath the (canonical) handle path of the blog post document.
+     * @param documentWorkflow   the {@link DocumentWorkflow} of the blog post.
+     */
+    private void publish(final String blogPostHandlePath, final DocumentWorkflow documentWorkflow) {
+        try {
+            if (Boolean.TRUE.equals(documentWorkflow.hints().get("publish"))) {
+                documentWorkflow.publish();
+            }
+        } catch (final RepositoryException | WorkflowException | RemoteException e) {
+            LOGGER.error("Caught error '{}' while publishing the blog post '{}' after adding its pending comment(s)",
+                    e.getMessage(), blogPostHandlePath, e);
+        }
+    }
+
+    /**
+     * Discards the unsaved changes of the given {@code session} and the editable instance (if any)
+     * obtained via the given {@code documentWorkflow}, so that the comments can be retried afresh.
+     *
+     * @param session          the (writable) {@link Session} instance.
+     * @param documentWorkflow the {@link DocumentWorkflow} of the blog post (may be {@code null}).
+     */
+    private void discardChanges(final Session session, final DocumentWorkflow documentWorkflow) {
+        try {
+            session.refresh(false);
+            if (documentWorkflow != null
+                    && Boolean.TRUE.equals(documentWorkflow.hints().get("disposeEditableInstance"))) {
+                documentWorkflow.disposeEditableInstance();
+            }
+        } catch (final RepositoryException | WorkflowException | RemoteException e) {
+            LOGGER.warn("Caught error '{}' while discarding the changes of the failed blog comment attempt",
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the comment IDs of the comments ({@code hee:comments}) of the given {@code editingNode}.
+     *
+     * @param editingNode the editing blog post node.
+     * @return the comment IDs of the comments of the given {@code editingNode}.
+     * @throws RepositoryException thrown when an error occurs while reading the comments.
+     */
+    private Set<String> getCommentIds(final Node editingNode) throws RepositoryException {
+        final Set<String> commentIds = new HashSet<>();
+        final NodeIterator commentNodes = editingNode.getNodes(COMMENTS_NODE_NAME);
+        while (commentNodes.hasNext()) {
+            final Node commentNode = commentNodes.nextNode();
+            if (commentNode.hasProperty(COMMENT_ID_PROPERTY)) {
+                commentIds.add(commentNode.getProperty(COMMENT_ID_PROPERTY).getString());
+            }
+        }
+
+        return commentIds;
+    }
+
+    /**
+     * Adds a {@code hee:comments} node for the given {@code comment} to the {@code editingNode}.
+     *
+     * @param editingNode the editing blog post node.
+     * @param comment     the {@link PendingBlogComment} instance.
+     * @throws RepositoryException thrown when an error occurs during adding blog comment node
+     *                             to the editing node instance.
+     */
+    private void addBlogCommentNode(final Node editingNode, final PendingBlogComment comment)
+            throws RepositoryException {
+        final Calendar postedDate = Calendar.getInstance();
+        postedDate.setTimeInMillis(comment.getSubmittedTime());
+
+        final Node commentNode = editingNode.addNode(COMMENTS_NODE_NAME, "hee:blogComment");
+        commentNode.setProperty(COMMENT_ID_PROPERTY, comment.getCommentId());
+        commentNode.setProperty("hee:message", comment.getMessage());
+        commentNode.setProperty("hee:postedDate", postedDate);
+        commentNode.setProperty("hee:moderated", Boolean.FALSE);
+        final Node authorNode = commentNode.addNode("hee:author", "hee:blogCommentAuthor");
+        authorNode.setProperty("hee:firstName", comment.getFirstName());
+        authorNode.setProperty("hee:lastName", comment.getLastName());
+        authorNode.setProperty("hee:email", comment.getEmail());
+    }
+
+    /**
+     * Removes the given {@code comments} from the queue & local disk and records their latency (if added).
+     *
+     * @param comments the comments ({comment_file_name} -> Pending comment) to be removed.
+     * @param added    {@code true} if the comments have been added to their blog post.
+     *                 Otherwise, {@code false} if they have been dropped.
+     */
+    private void remove(final Map<String, PendingBlogComment> comments, final boolean added) {
+        final long now = System.currentTimeMillis();
+
+        for (final Map.Entry<String, PendingBlogComment> entry : comments.entrySet()) {
+            pendingComments.remove(entry.getKey());
+
+            try {
+                Files.deleteIfExists(new File(queueDirectory, entry.getKey()).toPath());
+            } catch (final IOException e) {
+                LOGGER.error("Caught error '{}' while deleting the processed blog comment file '{}'",
+                        e.getMessage(), entry.getKey(), e);
+            }
+
+            if (added) {
+                final long latencyMillis = now - entry.getValue().getSubmittedTime();
+                processedCount.incrementAndGet();
+                totalLatencyMillis.addAndGet(latencyMillis);
+                maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Moves the given {@code comments} (which couldn't be added to their blog post) from the queue
+     * to the {@code failed} sub-directory.
+     *
+     * @param comments the comments ({comment_file_name} -> Pending comment) to be moved.
+     */
+    private void moveToFailed(final Map<String, PendingBlogComment> comments) {
+        final File failedDirectory = getFailedDirectory();
+        for (final String fileName : comments.keySet()) {
+            pendingComments.remove(fileName);
+
+            try {
+                createPrivateDirectory(failedDirectory);
+                Files.move(new File(queueDirectory, fileName).toPath(), new File(failedDirectory, fileName).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (final IOException e) {
+                LOGGER.error("Caught error '{}' while moving the failed blog comment file '{}' to '{}'",
+                        e.getMessage(), fileName, failedDirectory, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the directory to which the comments which couldn't be added are moved.
+     *
+     * @return the directory to which the comments which couldn't be added are moved.
+     */
+    private File getFailedDirectory() {
+        return new File(queueDirectory, FAILED_DIRECTORY_NAME);
+    }
+
+    /**
+     * Schedules a retry of the pending comments after the configured delay
+     * (unless there are no pending comments or a retry is already scheduled).
+     */
+    private void scheduleRetry() {
+        if (pendingComments.isEmpty() || !retryScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        executor.schedule(() -> {
+            retryScheduled.set(false);
+            writePendingComments();
+        }, retryDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stores the given {@code comment} (as JSON) on the local disk under the given {@code fileName}.
+     * The file is only accessible by the owner (on POSIX file systems).
+     *
+     * @param fileName the name of the comment file.
+     * @param comment  the {@link PendingBlogComment} instance.
+     * @throws IOException thrown when an error occurs while storing the comment on the local disk.
+     */
+    private void persist(final String fileName, final PendingBlogComment comment) throws IOException {
+        createPrivateDirectory(queueDirectory);
+        final File commentFile = new File(queueDirectory, fileName);
+        final File tempFile = new File(queueDirectory, fileName + TEMP_FILE_SUFFIX);
+
+        Files.write(tempFile.toPath(), OBJECT_MAPPER.writeValueAsBytes(toJson(comment)));
+        if (isPosix()) {
+            Files.setPosixFilePermissions(tempFile.toPath(), PosixFilePermissions.fromString("rw-------"));
+        }
+
+        Files.move(tempFile.toPath(), commentFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads the pending comments (i.e. the JSON comment files) stored on the local disk into the queue.
+     */
+    private void load() {
+        if (!queueDirectory.isDirectory()) {
+            return;
+        }
+
+        try (DirectoryStream<Path> commentFiles =
+                     Files.newDirectoryStream(queueDirectory.toPath(), "*" + COMMENT_FILE_SUFFIX)) {
+            for (final Path commentFile : commentFiles) {
+                try {
+                    pendingComments.put(commentFile.getFileName().toString(),
+                            toPendingBlogComment(OBJECT_MAPPER.readTree(commentFile.toFile())));
+                } catch (final IOException | RuntimeException e) {
+                    LOGGER.error("Caught error '{}' while loading the pending blog comment from '{}'",
+                            e.getMessage(), commentFile, e);
+                }
+            }
+        } catch (final IOException e) {
+            LOGGER.error("Caught error '{}' while loading the pending blog comments from '{}'",
+                    e.getMessage(), queueDirectory, e);
+        }
+
+        LOGGER.info("Loaded {} pending blog comment(s) from '{}'", pendingComments.size(), queueDirectory);
+    }
+
+    /**
+     * Returns JSON representation of the given {@code comment}.
+     *
+     * @param comment the {@link PendingBlogComment} instance.
+     * @return the JSON representation of the given {@code comment}.
+     */
+    private static ObjectNode toJson(final PendingBlogComment comment) {
+        final ObjectNode json = OBJECT_MAPPER.createObjectNode();
+        json.put("commentId", comment.getCommentId());
+        json.put("blogPostHandlePath", comment.getBlogPostHandlePath());
+        json.put("message", comment.getMessage());
+        json.put("firstName", comment.getFirstName());
+        json.put("lastName", comment.getLastName());
+        json.put("email", comment.getEmail());
+        json.put("submittedTime", comment.getSubmittedTime());
+        return json;
+    }
+
+    /**
+     * Returns {@link PendingBlogComment} of the given {@code json} representation.
+     *
+     * @param json the JSON representation of the comment.
+     * @return the {@link PendingBlogComment} of the given {@code json} representation.
+     * @throws IOException thrown when the given {@code json} isn't a valid comment.
+     */
+    private static PendingBlogComment toPendingBlogComment(final JsonNode json) throws IOException {
+        if (json == null
+                || !json.hasNonNull("commentId")
+                || !json.hasNonNull("blogPostHandlePath")
+                || !json.hasNonNull("submittedTime")) {
+            throw new IOException("Invalid pending blog comment");
+        }
+
+        return new PendingBlogComment(
+                json.get("commentId").asText(),
+                json.get("blogPostHandlePath").asText(),
+                json.path("message").asText(null),
+                json.path("firstName").asText(null),
+                json.path("lastName").asText(null),
+                json.path("email").asText(null),
+                json.get("submittedTime").asLong());
+    }
+
+    /**
+     * Creates the given {@code directory} (if it doesn't exist) only accessible by the owner
+     * (on POSIX file systems).
+     *
+     * @param directory the directory to be created.
+     * @throws IOException thrown when an error occurs while creating the directory.
+     */
+    private static void createPrivateDirectory(final File directory) throws IOException {
+        if (isPosix()) {
+            Files.createDirectories(directory.toPath(),
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(directory.toPath());
+        }
+    }
+
+    /**
+     * Returns {@code true} if the default file system supports POSIX file permissions.
+     *
+     * @return {@code true} if the default file system supports POSIX file permissions.
+     */
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+}
@@ -0,0 +1,130 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.configuration.sitemap.HstSiteMapItem;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.components.beans.BreadcrumbLink;
+import uk.nhs.hee.web.utils.HstUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * <p>Service that caches (immutable) Breadcrumb Links per Mount (and availability) and sitemap item.</p>
+ *
+ * <p>Breadcrumb Links only depend on the (immutable) HST model i.e. the sitemap item, its ancestors and the Mount.
+ * So, the cached Breadcrumb Links are discarded (along with their statistics) as soon as a request is served
+ * by a rebuilt HST model (i.e. a different {@link VirtualHosts} instance).</p>
+ */
+public class BreadcrumbService implements CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BreadcrumbService.class);
+
+    // The Breadcrumb Links cache of the HST model serving the requests
+    private volatile ModelBreadcrumbLinks modelBreadcrumbLinks = new ModelBreadcrumbLinks(null);
+
+    /**
+     * Returns the (immutable) Breadcrumb Links of the given {@code siteMapItem} from the cache or
+     * (on cache miss) built by the given {@code builder}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param siteMapItem    the {@link HstSiteMapItem} whose Breadcrumb Links needs to be returned.
+     * @param builder        the builder of the Breadcrumb Links of the given {@code siteMapItem}.
+     * @return the (immutable) Breadcrumb Links of the given {@code siteMapItem}.
+     */
+    public List<BreadcrumbLink> getBreadcrumbLinks(
+            final HstRequestContext requestContext,
+            final HstSiteMapItem siteMapItem,
+            final Supplier<List<BreadcrumbLink>> builder) {
+        final Cache<String, List<BreadcrumbLink>> breadcrumbLinks = getBreadcrumbLinksCache(
+                requestContext.getResolvedMount().getMount().getVirtualHost().getVirtualHosts());
+
+        try {
+            return breadcrumbLinks.get(
+                    HstUtils.getMountCacheKey(requestContext) + "|" + siteMapItem.getId(),
+                    () -> Collections.unmodifiableList(new ArrayList<>(builder.get())));
+        } catch (final ExecutionException e) {
+            LOGGER.error("Caught error '{}' while building Breadcrumb Links for the sitemap item '{}'",
+                    e.getMessage(), siteMapItem.getId(), e);
+            return builder.get();
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return modelBreadcrumbLinks.breadcrumbLinks.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return modelBreadcrumbLinks.breadcrumbLinks.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return modelBreadcrumbLinks.breadcrumbLinks.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return modelBreadcrumbLinks.breadcrumbLinks.size();
+    }
+
+    @Override
+    public void clear() {
+        modelBreadcrumbLinks.breadcrumbLinks.invalidateAll();
+    }
+
+    /**
+     * Returns the Breadcrumb Links cache of the given {@code virtualHosts} (i.e. the HST model serving
+     * the current request). The cache (of the previous HST model) is discarded if the given {@code virtualHosts}
+     * isn't the one the cached Breadcrumb Links have been built from.
+     *
+     * @param virtualHosts the {@link VirtualHosts} of the current request.
+     * @return the Breadcrumb Links cache of the given {@code virtualHosts}.
+     */
+    private Cache<String, List<BreadcrumbLink>> getBreadcrumbLinksCache(final VirtualHosts virtualHosts) {
+        ModelBreadcrumbLinks current = modelBreadcrumbLinks;
+        if (current.virtualHosts == virtualHosts) {
+            return current.breadcrumbLinks;
+        }
+
+        synchronized (this) {
+            current = modelBreadcrumbLinks;
+            if (current.virtualHosts != virtualHosts) {
+                LOGGER.debug("HST model has been rebuilt. Discarding {} cached Breadcrumb Links",
+                        current.breadcrumbLinks.size());
+                current = new ModelBreadcrumbLinks(virtualHosts);
+                modelBreadcrumbLinks = current;
+            }
+
+            return current.breadcrumbLinks;
+        }
+    }
+
+    /**
+     * Breadcrumb Links cache of a single HST model.
+     */
+    private static final class ModelBreadcrumbLinks {
+        private final VirtualHosts virtualHosts;
+
+        // {mount_cache_key}|{sitemap_item_id} -> Breadcrumb Links
+        private final Cache<String, List<BreadcrumbLink>> breadcrumbLinks =
+                CacheBuilder.newBuilder().recordStats().build();
+
+        /**
+         * Creates {@link ModelBreadcrumbLinks} instance.
+         *
+         * @param virtualHosts the {@link VirtualHosts} (i.e. the HST model) the Breadcrumb Links are built from.
+         */
+        private ModelBreadcrumbLinks(final VirtualHosts virtualHosts) {
+            this.virtualHosts = virtualHosts;
+        }
+    }
+}
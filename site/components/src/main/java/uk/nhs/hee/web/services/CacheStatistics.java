@@ -0,0 +1,41 @@
+package uk.nhs.hee.web.services;
+
+/**
+ * Statistics of a cache maintained by a service, exposed via JMX
+ * (see {@code META-INF/hst-assembly/overrides/cache-statistics.xml}).
+ */
+public interface CacheStatistics {
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return the number of lookups served from the cache.
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of lookups that weren't served from the cache.
+     *
+     * @return the number of lookups that weren't served from the cache.
+     */
+    long getMissCount();
+
+    /**
+     * Returns the ratio of lookups served from the cache or {@code 1.0} if there were no lookups yet.
+     *
+     * @return the ratio of lookups served from the cache or {@code 1.0} if there were no lookups yet.
+     */
+    double getHitRatio();
+
+    /**
+     * Returns the (approximate) number of entries in the cache.
+     *
+     * @return the (approximate) number of entries in the cache.
+     */
+    long getSize();
+
+    /**
+     * Discards all entries in the cache.
+     */
+    void clear();
+}
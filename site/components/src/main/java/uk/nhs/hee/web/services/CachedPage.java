@@ -0,0 +1,102 @@
+package uk.nhs.hee.web.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * (Immutable) rendered page cached by {@link PageCacheService} i.e. the (encoded) bytes of the response body
+ * along with its content type, response headers (e.g. {@code Content-Security-Policy} and
+ * {@code X-Frame-Options}), {@code Cache-Control} policy and validators, so that the page could be served
+ * without being rendered again.
+ */
+public class CachedPage {
+    private final String contentType;
+    private final byte[] content;
+    private final Map<String, List<String>> headers;
+    private final String cacheControl;
+    private final PageValidator validator;
+    private final long cachedTime;
+
+    /**
+     * Creates {@link CachedPage} instance.
+     *
+     * @param contentType  the content type (including the character encoding) of the page.
+     * @param content      the (encoded) bytes of the page.
+     * @param headers      the (end-to-end) response headers of the page other than its content type,
+     *                     {@code Cache-Control} policy and validators.
+     * @param cacheControl the {@code Cache-Control} policy of the page or {@code null} if it doesn't have any.
+     * @param validator    the validators of the page or {@code null} if it doesn't have any.
+     * @param cachedTime   the time (in milliseconds) at which the page has been cached.
+     */
+    public CachedPage(
+            final String contentType,
+            final byte[] content,
+            final Map<String, List<String>> headers,
+            final String cacheControl,
+            final PageValidator validator,
+            final long cachedTime) {
+        this.contentType = contentType;
+        this.content = content;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.cacheControl = cacheControl;
+        this.validator = validator;
+        this.cachedTime = cachedTime;
+    }
+
+    /**
+     * Returns the content type (including the character encoding) of the page.
+     *
+     * @return the content type (including the character encoding) of the page.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns the (encoded) bytes of the page. The returned array must not be modified.
+     *
+     * @return the (encoded) bytes of the page.
+     */
+    public byte[] getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the (end-to-end) response headers of the page other than its content type,
+     * {@code Cache-Control} policy and validators.
+     *
+     * @return the response headers ({@code {name} -> {values}}) of the page.
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the {@code Cache-Control} policy of the page or {@code null} if it doesn't have any.
+     *
+     * @return the {@code Cache-Control} policy of the page or {@code null} if it doesn't have any.
+     */
+    public String getCacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Returns the validators ({@code ETag} and {@code Last-Modified}) of the page
+     * or {@code null} if it doesn't have any.
+     *
+     * @return the validators of the page or {@code null} if it doesn't have any.
+     */
+    public PageValidator getValidator() {
+        return validator;
+    }
+
+    /**
+     * Returns the time (in milliseconds) at which the page has been cached.
+     *
+     * @return the time (in milliseconds) at which the page has been cached.
+     */
+    public long getCachedTime() {
+        return cachedTime;
+    }
+}
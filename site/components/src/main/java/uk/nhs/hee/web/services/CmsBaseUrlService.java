@@ -0,0 +1,202 @@
+package uk.nhs.hee.web.services;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.platform.model.HstModel;
+import org.hippoecm.hst.platform.model.HstModelRegistry;
+import org.hippoecm.hst.util.HstRequestUtils;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Service that resolves the CMS/Platform base URL (e.g. {@code https://cms-prod.hee.bloomreach.cloud/cms})
+ * and the CMS document URLs for the site requests, so that cross-webapp (site to CMS) links can be constructed
+ * (e.g. in the blog comment moderation notifications).</p>
+ *
+ * <p>The CMS base URLs resolved via the Platform Mount (see {@link #getCmsBaseURL(String)}) are cached
+ * per HostGroup and evicted as soon as the CMS/Platform HST model reloads.</p>
+ */
+public class CmsBaseUrlService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CmsBaseUrlService.class);
+
+    /**
+     * CMS context path.
+     */
+    public static final String CMS_CONTEXT_PATH = "/cms";
+
+    /**
+     * Alias for CMS mounts.
+     */
+    public static final String CMS_MOUNT_ALIAS = "cms-mount";
+
+    // CMS base URLs of the CMS/Platform HST model version for which they've been resolved
+    private volatile CmsBaseURLs cmsBaseURLs;
+
+    /**
+     * <p>Returns CMS document URL of the given {@code documentPath}</p>.
+     *
+     * <p>It constructs the CMS document URL using {@code [CMS_URL]/content/path/[JCR_DOCUMENT_PATH]} pattern.</p>
+     *
+     * <p>In case if the current request (site) host isn't a CMS/Platform host
+     * (which is the case for production channel specific domains), then it would construct the CMS/Platform base URL
+     * based on the given {@code hostGroupName} (e.g. prd-brcloud) and {@code cms_mount} alias.</p>
+     *
+     * @param request       the (site) {@link HttpServletRequest} instance.
+     * @param hostGroupName the HostGroupName (of the virtual host) of the current request.
+     * @param documentPath  the canonical (JCR) document path.
+     * @return the CMS document URL of the given {@code documentPath}
+     * or an empty string if the CMS base URL can't be resolved.
+     */
+    public String getDocumentURL(
+            final HttpServletRequest request,
+            final String hostGroupName,
+            final String documentPath) {
+        String cmsBaseURL = StringUtils.EMPTY;
+        try {
+            cmsBaseURL = HstRequestUtils.getCmsBaseURL(request);
+        } catch (final Exception e) {
+            // Fails silently as it bound to happen especially on production
+            // wherein channels will have channel specific domains (e.g. dental.hee.nhs.uk for Dental, etc.)
+            // which is different from the CMS domain (e.g. cms-prod.hee.bloomreach.cloud).
+        }
+
+        if (StringUtils.isEmpty(cmsBaseURL)) {
+            LOGGER.debug("Failed to get CMS base URL based on the current request [{}]. " +
+                            "Going to resolve CMS base URL via the Platform Mount " +
+                            "corresponding to the current request HostGroup = {} and Alias (hst:alias) = {}",
+                    request.getRequestURL(), hostGroupName, CMS_MOUNT_ALIAS);
+
+            cmsBaseURL = getCmsBaseURL(hostGroupName);
+        }
+
+        LOGGER.debug("CMS base URL = {}", cmsBaseURL);
+
+        if (StringUtils.isEmpty(cmsBaseURL)) {
+            LOGGER.warn("Can't construct CMS base URL for the HostGroup = {} and Alias (hst:alias) = {}. " +
+                            "Perhaps Alias '{}' hasn't been added to the corresponding Platform Mount.",
+                    hostGroupName, CMS_MOUNT_ALIAS, CMS_MOUNT_ALIAS);
+            return cmsBaseURL;
+        }
+
+        return cmsBaseURL + "/content/path" + documentPath;
+    }
+
+    /**
+     * Returns (cached) CMS/Platform base URL for the given {@code hostGroupName} and the mount alias
+     * {@code cms-mount}.
+     *
+     * @param hostGroupName the (virtual) HostGroupName whose CMS/Platform base URL needs to be returned.
+     * @return the CMS/Platform base URL for the given {@code hostGroupName} and the mount alias {@code cms-mount}
+     * or an empty string if there is no such Platform Mount.
+     */
+    public String getCmsBaseURL(final String hostGroupName) {
+        final HstModel cmsModel = getCmsModel();
+        if (cmsModel == null || hostGroupName == null) {
+            return StringUtils.EMPTY;
+        }
+
+        final VirtualHosts virtualHosts = cmsModel.getVirtualHosts();
+        CmsBaseURLs currentCmsBaseURLs = cmsBaseURLs;
+        if (currentCmsBaseURLs == null || currentCmsBaseURLs.virtualHosts != virtualHosts) {
+            LOGGER.debug("CMS/Platform HST model has been (re)loaded. Evicting the cached CMS base URLs");
+            currentCmsBaseURLs = new CmsBaseURLs(virtualHosts);
+            cmsBaseURLs = currentCmsBaseURLs;
+        }
+
+        final String cmsBaseURL = currentCmsBaseURLs.urls.computeIfAbsent(
+                hostGroupName, key -> resolveCmsBaseURL(virtualHosts, key));
+        return StringUtils.defaultString(cmsBaseURL);
+    }
+
+    /**
+     * Returns the CMS/Platform {@link HstModel} (i.e. the HST model of the {@code /cms} context).
+     *
+     * @return the CMS/Platform {@link HstModel} or {@code null} if it isn't available.
+     */
+    private HstModel getCmsModel() {
+        final HstModelRegistry hstModelRegistry = getHstModelRegistry();
+        if (hstModelRegistry == null) {
+            return null;
+        }
+
+        for (final HstModel hstModel : hstModelRegistry.getHstModels()) {
+            try {
+                if (CMS_CONTEXT_PATH.equals(hstModel.getVirtualHosts().getContextPath())) {
+                    return hstModel;
+                }
+            } catch (final Exception e) {
+                LOGGER.error("Caught error '{}' while looking up the CMS/Platform HST model", e.getMessage(), e);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Resolves CMS/Platform base URL for the given {@code hostGroupName} and the mount alias {@code cms-mount}
+     * from the given CMS/Platform {@code virtualHosts}.
+     *
+     * @param virtualHosts  the {@link VirtualHosts} of the CMS/Platform HST model.
+     * @param hostGroupName the (virtual) HostGroupName whose CMS/Platform base URL needs to be resolved.
+     * @return the CMS/Platform base URL for the given {@code hostGroupName} and the mount alias {@code cms-mount},
+     * an empty string if there is no such Platform Mount or {@code null} (i.e. not to be cached)
+     * if the resolution fails.
+     */
+    private String resolveCmsBaseURL(final VirtualHosts virtualHosts, final String hostGroupName) {
+        try {
+            final Mount platformMount =
+                    virtualHosts.getMountByGroupAliasAndType(hostGroupName, CMS_MOUNT_ALIAS, Mount.LIVE_NAME);
+            if (platformMount == null) {
+                return StringUtils.EMPTY;
+            }
+
+            final String cmsBaseURL = platformMount.getScheme() +
+                    "://" +
+                    platformMount.getVirtualHost().getHostName() +
+                    (platformMount.isPortInUrl() ? ":" + platformMount.getPort() : StringUtils.EMPTY) +
+                    CMS_CONTEXT_PATH;
+
+            LOGGER.debug("CMS base URL for the HostGroup '{}' and Alias (hst:alias) '{}' = {}",
+                    hostGroupName, CMS_MOUNT_ALIAS, cmsBaseURL);
+            return cmsBaseURL;
+        } catch (final Exception e) {
+            LOGGER.error("Caught error '{}' while constructing CMS base URL " +
+                            "based on the HostGroup = {} and Alias (hst:alias) = {}",
+                    e.getMessage(), hostGroupName, CMS_MOUNT_ALIAS, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns {@link HstModelRegistry} instance.
+     *
+     * @return the {@link HstModelRegistry} instance.
+     */
+    protected HstModelRegistry getHstModelRegistry() {
+        return HippoServiceRegistry.getService(HstModelRegistry.class);
+    }
+
+    /**
+     * CMS base URLs resolved for a version (i.e. {@link VirtualHosts} instance) of the CMS/Platform HST model.
+     */
+    private static class CmsBaseURLs {
+        private final VirtualHosts virtualHosts;
+        // {host_group_name} -> CMS base URL (or an empty string if there is no Platform Mount)
+        private final Map<String, String> urls = new ConcurrentHashMap<>();
+
+        /**
+         * Creates {@link CmsBaseURLs} instance.
+         *
+         * @param virtualHosts the {@link VirtualHosts} of the CMS/Platform HST model.
+         */
+        CmsBaseURLs(final VirtualHosts virtualHosts) {
+            this.virtualHosts = virtualHosts;
+        }
+    }
+}
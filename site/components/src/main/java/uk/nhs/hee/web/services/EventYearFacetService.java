@@ -0,0 +1,315 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.repository.HEEField;
+import uk.nhs.hee.web.utils.DocumentUtils;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Service that maintains the distinct years (and the number of events per year) of the live
+ * Event ({@code hee:event}) documents per channel, so that Event Listing Pages can render
+ * the year filter without querying all events on each request.</p>
+ *
+ * <p>The facet is built for all channels at startup (see {@link #init()}) and then, kept up to date
+ * incrementally by re-reading only the Event documents reported as changed
+ * (published/depublished/deleted) via {@link #onDocumentsChanged(Set)}. A (full) build is done into new facets
+ * which are then, swapped in place of the current ones, so that lookups never see partially built facets.
+ * Changes reported while the facets aren't built trigger a rebuild.</p>
+ */
+public class EventYearFacetService implements DocumentChangeHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventYearFacetService.class);
+
+    private static final String EVENT_DOCUMENT_TYPE = "hee:event";
+    private static final String AVAILABILITY_LIVE = "live";
+    private static final int MAXIMUM_BUILD_ATTEMPTS = 3;
+    private static final String LIVE_EVENTS_QUERY = String.format(
+            "SELECT [%s] FROM [%s] WHERE [%s] = '%s' AND ISDESCENDANTNODE('/content/documents')",
+            HEEField.DATE.getName(), EVENT_DOCUMENT_TYPE, HippoNodeType.HIPPO_AVAILABILITY, AVAILABILITY_LIVE);
+
+    private final Repository repository;
+    private final Credentials credentials;
+
+    // Channel -> Event year facet
+    private volatile Map<String, EventYearFacet> facets = new ConcurrentHashMap<>();
+
+    // Guards the built & dirty flags, so that the changes reported during a build aren't lost
+    private final Object buildLock = new Object();
+    private volatile boolean built;
+    private boolean dirty;
+
+    /**
+     * Creates {@link EventYearFacetService} instance.
+     *
+     * @param repository  the JCR {@link Repository}.
+     * @param credentials the {@link Credentials} with which the live Event documents needs to be read.
+     */
+    public EventYearFacetService(final Repository repository, final Credentials credentials) {
+        this.repository = repository;
+        this.credentials = credentials;
+    }
+
+    /**
+     * Builds the facets of all channels. In case of failure (e.g. repository isn't available yet),
+     * the facets will be built on the first lookup.
+     */
+    public void init() {
+        try {
+            build();
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while building event year facets at startup. " +
+                    "Facets will be built on the first lookup instead.", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns (immutable) sorted list of distinct years of the live Event documents of the given {@code channel}.
+     *
+     * @param channel the channel whose Event years needs to be returned.
+     * @return the (immutable) sorted list of distinct years of the live Event documents of the given {@code channel}.
+     */
+    public List<Integer> getYears(final String channel) {
+        ensureBuilt();
+
+        final EventYearFacet facet = facets.get(channel);
+        return facet == null ? Collections.emptyList() : facet.getYears();
+    }
+
+    /**
+     * Returns (immutable) map of years sorted in ascending order and the number of live Event documents
+     * in each year of the given {@code channel}.
+     *
+     * @param channel the channel whose Event year counts needs to be returned.
+     * @return the (immutable) map of years sorted in ascending order and the number of live Event documents
+     * in each year of the given {@code channel}.
+     */
+    public SortedMap<Integer, Integer> getYearCounts(final String channel) {
+        ensureBuilt();
+
+        final EventYearFacet facet = facets.get(channel);
+        return facet == null ? Collections.emptySortedMap() : facet.getYearCounts();
+    }
+
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        synchronized (buildLock) {
+            if (!built) {
+                // Changes will be covered by the (pending or running) full build
+                dirty = true;
+                return;
+            }
+        }
+
+        Session session = null;
+        try {
+            session = repository.login(credentials);
+
+            for (final String handlePath : handlePaths) {
+                final Integer year = getLiveEventYear(session, handlePath);
+                final String channel = DocumentUtils.getChannel(handlePath);
+
+                if (year == null) {
+                    final EventYearFacet facet = facets.get(channel);
+                    if (facet != null) {
+                        facet.remove(handlePath);
+                    }
+                } else {
+                    facets.computeIfAbsent(channel, key -> new EventYearFacet()).put(handlePath, year);
+                }
+            }
+
+            LOGGER.debug("Updated event year facets for the changed Event documents {}", handlePaths);
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while updating event year facets for the changed Event documents {}. " +
+                    "Facets will be rebuilt on the next lookup.", e.getMessage(), handlePaths, e);
+            synchronized (buildLock) {
+                built = false;
+            }
+        } finally {
+            if (session != null) {
+                session.logout();
+            }
+        }
+    }
+
+    /**
+     * Builds the facets if they haven't been built (successfully) yet.
+     */
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+
+        try {
+            build();
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while building event year facets", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the facets of all channels and swaps them in place of the current ones. The facets are rebuilt
+     * (up to {@link #MAXIMUM_BUILD_ATTEMPTS} times) if any Event document has been changed during the build.
+     * If they keep changing, the facets will be rebuilt on the next lookup.
+     *
+     * @throws RepositoryException thrown when an error occurs while querying the Event documents.
+     */
+    private synchronized void build() throws RepositoryException {
+        if (built) {
+            return;
+        }
+
+        for (int attempt = 1; attempt <= MAXIMUM_BUILD_ATTEMPTS; attempt++) {
+            synchronized (buildLock) {
+                dirty = false;
+            }
+
+            final Map<String, EventYearFacet> builtFacets = loadFacets();
+            synchronized (buildLock) {
+                facets = builtFacets;
+                if (!dirty) {
+                    built = true;
+                    LOGGER.info("Built event year facets for channels {}", builtFacets.keySet());
+                    return;
+                }
+            }
+
+            LOGGER.debug("Event documents have been changed while building event year facets. Rebuilding them");
+        }
+
+        LOGGER.warn("Event documents kept changing while building event year facets. " +
+                "Facets will be rebuilt on the next lookup.");
+    }
+
+    /**
+     * Loads the facets of all channels by querying all live Event documents.
+     *
+     * @return the (new) map of channels and their Event year facets.
+     * @throws RepositoryException thrown when an error occurs while querying the Event documents.
+     */
+    private Map<String, EventYearFacet> loadFacets() throws RepositoryException {
+        final Map<String, Map<String, Integer>> eventYearsByChannel = new HashMap<>();
+
+        final Session session = repository.login(credentials);
+        try {
+            final Query query = session.getWorkspace().getQueryManager().createQuery(LIVE_EVENTS_QUERY, Query.JCR_SQL2);
+            final NodeIterator eventNodeIterator = query.execute().getNodes();
+
+            while (eventNodeIterator.hasNext()) {
+                final Node eventNode = eventNodeIterator.nextNode();
+                if (!eventNode.hasProperty(HEEField.DATE.getName())) {
+                    continue;
+                }
+
+                final String handlePath = eventNode.getParent().getPath();
+                eventYearsByChannel
+                        .computeIfAbsent(DocumentUtils.getChannel(handlePath), channel -> new HashMap<>())
+                        .put(handlePath, eventNode.getProperty(HEEField.DATE.getName()).getDate().get(Calendar.YEAR));
+            }
+        } finally {
+            session.logout();
+        }
+
+        final Map<String, EventYearFacet> builtFacets = new ConcurrentHashMap<>();
+        eventYearsByChannel.forEach((channel, eventYears) -> builtFacets.put(channel, new EventYearFacet(eventYears)));
+        return builtFacets;
+    }
+
+    /**
+     * Returns the year of the live variant of the Event document handle with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the Event document doesn't exist or isn't live.
+     *
+     * @param session    the JCR {@link Session} instance.
+     * @param handlePath the path of the Event document handle.
+     * @return the year of the live variant of the Event document handle with the given {@code handlePath}.
+     * Otherwise, returns {@code null} if the Event document doesn't exist or isn't live.
+     * @throws RepositoryException thrown when an error occurs while reading the Event document.
+     */
+    private Integer getLiveEventYear(final Session session, final String handlePath) throws RepositoryException {
+        if (!session.nodeExists(handlePath)) {
+            return null;
+        }
+
+        final NodeIterator variantIterator = session.getNode(handlePath).getNodes();
+        while (variantIterator.hasNext()) {
+            final Node variant = variantIterator.nextNode();
+
+            if (variant.isNodeType(EVENT_DOCUMENT_TYPE)
+                    && DocumentUtils.isLive(variant)
+                    && variant.hasProperty(HEEField.DATE.getName())) {
+                return variant.getProperty(HEEField.DATE.getName()).getDate().get(Calendar.YEAR);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Event year facet of a single channel.
+     */
+    private static class EventYearFacet {
+        // Event handle path -> Event year
+        private final Map<String, Integer> eventYears;
+        private volatile SortedMap<Integer, Integer> yearCounts;
+        private volatile List<Integer> years;
+
+        EventYearFacet() {
+            this(new HashMap<>());
+        }
+
+        EventYearFacet(final Map<String, Integer> eventYears) {
+            this.eventYears = eventYears;
+            refresh();
+        }
+
+        SortedMap<Integer, Integer> getYearCounts() {
+            return yearCounts;
+        }
+
+        List<Integer> getYears() {
+            return years;
+        }
+
+        synchronized void put(final String handlePath, final int year) {
+            eventYears.put(handlePath, year);
+            refresh();
+        }
+
+        synchronized void remove(final String handlePath) {
+            if (eventYears.remove(handlePath) != null) {
+                refresh();
+            }
+        }
+
+        private void refresh() {
+            final SortedMap<Integer, Integer> counts = countYears(eventYears);
+            years = Collections.unmodifiableList(new ArrayList<>(counts.keySet()));
+            yearCounts = counts;
+        }
+
+        private static SortedMap<Integer, Integer> countYears(final Map<String, Integer> eventYears) {
+            final SortedMap<Integer, Integer> counts = new TreeMap<>();
+            eventYears.values().forEach(year -> counts.merge(year, 1, Integer::sum));
+            return Collections.unmodifiableSortedMap(counts);
+        }
+    }
+}
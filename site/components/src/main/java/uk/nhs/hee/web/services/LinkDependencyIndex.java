@@ -0,0 +1,118 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>Reverse index from the (canonical) paths of the document handles ({@code hippo:handle}) to the keys
+ * of the cached (rendered) items which depend on them (e.g. the rendered rich text fragments
+ * linking to those documents).</p>
+ *
+ * <p>Both the forward (key to handle paths) and the reverse (handle path to keys) edges are maintained,
+ * so that an item could be removed from the index (e.g. on cache eviction) without scanning the whole index.
+ * Handle paths without any dependants are dropped, so that the index only grows with the cached items,
+ * and the handle paths are interned, so that a path depended on by many items (e.g. a value-list or a folder)
+ * is held only once.</p>
+ */
+public class LinkDependencyIndex {
+    private static final Interner<String> HANDLE_PATHS = Interners.newWeakInterner();
+
+    // {key} -> Paths of the document handles the key depends on
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+
+    // {handle_path} -> Keys depending on the document handle
+    private final Map<String, Set<String>> dependants = new HashMap<>();
+
+    /**
+     * Registers (or replaces) the paths of the document handles the given {@code key} depends on.
+     *
+     * @param key         the key of the (cached) item.
+     * @param handlePaths the paths of the document handles the given {@code key} depends on.
+     */
+    public synchronized void register(final String key, final Collection<String> handlePaths) {
+        remove(key);
+
+        final Set<String> keyDependencies = new HashSet<>(handlePaths.size());
+        for (final String path : handlePaths) {
+            final String handlePath = HANDLE_PATHS.intern(path);
+            keyDependencies.add(handlePath);
+            dependants.computeIfAbsent(handlePath, dependantKeys -> new HashSet<>(2)).add(key);
+        }
+
+        dependencies.put(key, keyDependencies);
+    }
+
+    /**
+     * Removes the given {@code key} (and its dependencies) from the index.
+     *
+     * @param key the key of the (cached) item.
+     */
+    public synchronized void remove(final String key) {
+        final Set<String> keyDependencies = dependencies.remove(key);
+        if (keyDependencies == null) {
+            return;
+        }
+
+        for (final String handlePath : keyDependencies) {
+            final Set<String> handleDependants = dependants.get(handlePath);
+            if (handleDependants != null) {
+                handleDependants.remove(key);
+                if (handleDependants.isEmpty()) {
+                    dependants.remove(handlePath);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the keys depending on any of the given {@code handlePaths}.
+     *
+     * @param handlePaths the paths of the document handles.
+     * @return the keys depending on any of the given {@code handlePaths}.
+     */
+    public synchronized Set<String> getDependants(final Collection<String> handlePaths) {
+        final Set<String> keys = new HashSet<>();
+        for (final String handlePath : handlePaths) {
+            keys.addAll(dependants.getOrDefault(handlePath, Collections.emptySet()));
+        }
+
+        return keys;
+    }
+
+    /**
+     * Returns the paths of the document handles the given {@code key} depends on.
+     *
+     * @param key the key of the (cached) item.
+     * @return the paths of the document handles the given {@code key} depends on
+     * or an empty set if the key isn't in the index.
+     */
+    public synchronized Set<String> getDependencies(final String key) {
+        final Set<String> keyDependencies = dependencies.get(key);
+        return keyDependencies == null
+                ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(keyDependencies));
+    }
+
+    /**
+     * Returns the number of keys in the index.
+     *
+     * @return the number of keys in the index.
+     */
+    public synchronized int size() {
+        return dependencies.size();
+    }
+
+    /**
+     * Removes all the keys from the index.
+     */
+    public synchronized void clear() {
+        dependencies.clear();
+        dependants.clear();
+    }
+}
@@ -0,0 +1,172 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that counts the documents per filter (facet) value of Listing Pages
+ * (e.g. number of News documents per {@code hee:categories} value).</p>
+ *
+ * <p>The counts are computed in a single pass over the (scoped) listing results and cached per
+ * Listing Page and (other) active filter combination until a listed document gets
+ * published/depublished/deleted (see {@link #onDocumentsChanged(Set)}).</p>
+ *
+ * <p>The counts are only cached if no listed document has been changed since their computation started,
+ * so that an eviction during the computation isn't overwritten by its stale counts.</p>
+ */
+public class ListingFacetService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListingFacetService.class);
+
+    // {facet_cache_key} -> (facet value -> document count)
+    private final Cache<String, Map<String, Long>> facetCounts;
+
+    // Incremented on every eviction triggered by the changed documents
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates {@link ListingFacetService} instance.
+     *
+     * @param maximumSize             the maximum number of facet counts to be cached.
+     * @param expireAfterWriteMinutes the number of minutes after which the cached facet counts expire.
+     */
+    public ListingFacetService(final long maximumSize, final long expireAfterWriteMinutes) {
+        facetCounts = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns (immutable) map of facet values and its document counts cached against the given {@code cacheKey}.
+     * Loads them via the given {@code loader} on cache miss and caches them unless any listed document
+     * has been changed in the meantime.
+     *
+     * @param cacheKey the key identifying the Listing Page, facet field and (other) active filters.
+     * @param loader   the loader computing the facet counts on cache miss.
+     * @return the (immutable) map of facet values and its document counts. Otherwise, an empty map
+     * if the facet counts couldn't be computed.
+     */
+    public Map<String, Long> getFacetCounts(final String cacheKey, final Callable<Map<String, Long>> loader) {
+        final Map<String, Long> cachedCounts = facetCounts.getIfPresent(cacheKey);
+        if (cachedCounts != null) {
+            return cachedCounts;
+        }
+
+        final long loadGeneration = generation.get();
+        final Map<String, Long> counts;
+        try {
+            counts = Collections.unmodifiableMap(loader.call());
+        } catch (final Exception e) {
+            LOGGER.error("Caught error '{}' while computing facet counts for '{}'", e.getMessage(), cacheKey, e);
+            return Collections.emptyMap();
+        }
+
+        putFacetCounts(cacheKey, counts, loadGeneration);
+        return counts;
+    }
+
+    /**
+     * Counts the documents per value of the given {@code facetField} in a single pass
+     * over the given {@code beans}. Supports both single and multi valued fields.
+     *
+     * @param beans      the {@link HippoBean}s whose facet values needs to be counted.
+     * @param facetField the facet field name (e.g. {@code hee:categories}).
+     * @return the map of facet values and its document counts (in the order they have been encountered).
+     */
+    public static Map<String, Long> countFacetValues(final Iterator<HippoBean> beans, final String facetField) {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+
+        while (beans.hasNext()) {
+            final HippoBean bean = beans.next();
+            if (bean == null) {
+                continue;
+            }
+
+            final Object value = bean.getProperties().get(facetField);
+            if (value instanceof String[]) {
+                for (final String facetValue : (String[]) value) {
+                    counts.merge(facetValue, 1L, Long::sum);
+                }
+            } else if (value instanceof String) {
+                counts.merge((String) value, 1L, Long::sum);
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Evicts all the cached facet counts as the changed documents may be listed
+     * by any of the (cached) Listing Pages.
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    @Override
+    public synchronized void onDocumentsChanged(final Set<String> handlePaths) {
+        LOGGER.debug("Listed documents {} have been changed. Evicting all cached facet counts", handlePaths);
+
+        // Prevents caching the facet counts being computed with the changed documents
+        generation.incrementAndGet();
+        facetCounts.invalidateAll();
+    }
+
+    /**
+     * Caches the given facet {@code counts} unless any listed document has been changed
+     * since the given {@code loadGeneration}.
+     *
+     * @param cacheKey       the key identifying the Listing Page, facet field and (other) active filters.
+     * @param counts         the computed facet counts.
+     * @param loadGeneration the generation at which the computation started.
+     */
+    private synchronized void putFacetCounts(
+            final String cacheKey,
+            final Map<String, Long> counts,
+            final long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            LOGGER.debug("Listed documents have been changed while computing facet counts for '{}'. Not caching them",
+                    cacheKey);
+            return;
+        }
+
+        facetCounts.put(cacheKey, counts);
+    }
+
+    @Override
+    public long getHitCount() {
+        return facetCounts.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return facetCounts.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return facetCounts.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return facetCounts.size();
+    }
+
+    @Override
+    public void clear() {
+        facetCounts.invalidateAll();
+    }
+}
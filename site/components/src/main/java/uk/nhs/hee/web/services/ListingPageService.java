@@ -0,0 +1,238 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.utils.HstUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that resolves Listing Pages ({@code hee:listingPage}) by their Listing Page Type
+ * (e.g. the News Listing Page to link back to from News documents).</p>
+ *
+ * <p>The resolved Listing Page paths and URLs are memoized per request (so that repeated lookups
+ * within a single aggregation don't re-resolve them) and cached per Mount and availability (preview/live)
+ * across requests until a {@code hee:listingPage} document gets published/depublished/deleted
+ * (see {@link #onDocumentsChanged(Set)}).</p>
+ *
+ * <p>A resolved Listing Page is only cached if no {@code hee:listingPage} document has been changed since
+ * its resolution started, so that an eviction during the resolution isn't overwritten by its stale result.</p>
+ */
+public class ListingPageService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListingPageService.class);
+
+    private static final String REQUEST_MEMO_ATTRIBUTE = ListingPageService.class.getName() + ".memo";
+
+    // {mount_cache_key}|{listing_page_type} -> Listing Page reference
+    private final Cache<String, ListingPageReference> listingPageReferences =
+            CacheBuilder.newBuilder().recordStats().build();
+
+    // Incremented on every eviction triggered by the changed Listing Page documents
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the {@link HippoBean} of the Listing Page corresponding to the given {@code listingType}.
+     * Otherwise, returns {@code null} if there is no such Listing Page.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param listingType    the Listing Page Type.
+     * @return the {@link HippoBean} of the Listing Page corresponding to the given {@code listingType}.
+     * Otherwise, returns {@code null} if there is no such Listing Page.
+     */
+    public HippoBean getListingPageBean(final HstRequestContext requestContext, final String listingType) {
+        final ListingPageReference listingPageReference = getListingPageReference(requestContext, listingType);
+        if (listingPageReference.getPath() == null) {
+            return null;
+        }
+
+        try {
+            return (HippoBean) requestContext.getObjectBeanManager().getObject(listingPageReference.getPath());
+        } catch (final ObjectBeanManagerException e) {
+            LOGGER.error("Caught error '{}' while getting '{}' type Listing Page bean for the path '{}'",
+                    e.getMessage(), listingType, listingPageReference.getPath(), e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the URL of the Listing Page corresponding to the given {@code listingType}.
+     * Otherwise, returns {@code null} if there is no such Listing Page.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param listingType    the Listing Page Type.
+     * @return the URL of the Listing Page corresponding to the given {@code listingType}.
+     * Otherwise, returns {@code null} if there is no such Listing Page.
+     */
+    public String getListingPageURL(final HstRequestContext requestContext, final String listingType) {
+        return getListingPageReference(requestContext, listingType).getUrl();
+    }
+
+    /**
+     * Evicts all the cached Listing Pages as the changed {@code hee:listingPage} documents
+     * may have changed their Listing Page Type or availability.
+     *
+     * @param handlePaths the paths of the changed Listing Page document handles.
+     */
+    @Override
+    public synchronized void onDocumentsChanged(final Set<String> handlePaths) {
+        LOGGER.debug("Listing Page documents {} have been changed. Evicting all cached Listing Pages", handlePaths);
+
+        // Prevents caching the Listing Pages being resolved with the changed documents
+        generation.incrementAndGet();
+        listingPageReferences.invalidateAll();
+    }
+
+    @Override
+    public long getHitCount() {
+        return listingPageReferences.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return listingPageReferences.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return listingPageReferences.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return listingPageReferences.size();
+    }
+
+    @Override
+    public void clear() {
+        listingPageReferences.invalidateAll();
+    }
+
+    /**
+     * Returns the {@link ListingPageReference} corresponding to the given {@code listingType}
+     * from the request memo, the cache or (on cache miss) by querying the repository.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param listingType    the Listing Page Type.
+     * @return the {@link ListingPageReference} corresponding to the given {@code listingType}.
+     */
+    private ListingPageReference getListingPageReference(
+            final HstRequestContext requestContext,
+            final String listingType) {
+        final Map<String, ListingPageReference> requestMemo = getRequestMemo(requestContext);
+        final ListingPageReference memoizedReference = requestMemo.get(listingType);
+        if (memoizedReference != null) {
+            return memoizedReference;
+        }
+
+        final String cacheKey = HstUtils.getMountCacheKey(requestContext) + "|" + listingType;
+        ListingPageReference listingPageReference = listingPageReferences.getIfPresent(cacheKey);
+        if (listingPageReference == null) {
+            final long loadGeneration = generation.get();
+            try {
+                listingPageReference = loadListingPageReference(requestContext, listingType);
+                putListingPageReference(cacheKey, listingPageReference, loadGeneration);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Caught error '{}' while resolving '{}' type Listing Page",
+                        e.getMessage(), listingType, e);
+                listingPageReference = ListingPageReference.NONE;
+            }
+        }
+
+        requestMemo.put(listingType, listingPageReference);
+        return listingPageReference;
+    }
+
+    /**
+     * Caches the given {@code listingPageReference} unless any Listing Page document has been changed
+     * since the given {@code loadGeneration}.
+     *
+     * @param cacheKey             the cache key of the Listing Page reference.
+     * @param listingPageReference the resolved {@link ListingPageReference}.
+     * @param loadGeneration       the generation at which the resolution started.
+     */
+    private synchronized void putListingPageReference(
+            final String cacheKey,
+            final ListingPageReference listingPageReference,
+            final long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            LOGGER.debug("Listing Page documents have been changed while resolving '{}'. Not caching it", cacheKey);
+            return;
+        }
+
+        listingPageReferences.put(cacheKey, listingPageReference);
+    }
+
+    /**
+     * Queries the repository for the Listing Page corresponding to the given {@code listingType}
+     * and returns its {@link ListingPageReference}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param listingType    the Listing Page Type.
+     * @return the {@link ListingPageReference} of the Listing Page corresponding to the given {@code listingType}
+     * or {@link ListingPageReference#NONE} if there is no such Listing Page.
+     */
+    private ListingPageReference loadListingPageReference(
+            final HstRequestContext requestContext,
+            final String listingType) {
+        final HippoBean listingPageBean = HstUtils.getListingPageBeanByType(requestContext, listingType);
+
+        if (listingPageBean == null) {
+            return ListingPageReference.NONE;
+        }
+
+        return new ListingPageReference(
+                listingPageBean.getPath(), HstUtils.getURLByBean(requestContext, listingPageBean, false));
+    }
+
+    /**
+     * Returns the Listing Page reference memo of the current request.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the Listing Page reference memo of the current request.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, ListingPageReference> getRequestMemo(final HstRequestContext requestContext) {
+        Map<String, ListingPageReference> requestMemo =
+                (Map<String, ListingPageReference>) requestContext.getAttribute(REQUEST_MEMO_ATTRIBUTE);
+
+        if (requestMemo == null) {
+            requestMemo = new HashMap<>();
+            requestContext.setAttribute(REQUEST_MEMO_ATTRIBUTE, requestMemo);
+        }
+
+        return requestMemo;
+    }
+
+    /**
+     * Immutable reference (path and URL) to a Listing Page.
+     */
+    private static final class ListingPageReference {
+        private static final ListingPageReference NONE = new ListingPageReference(null, null);
+
+        private final String path;
+        private final String url;
+
+        private ListingPageReference(final String path, final String url) {
+            this.path = path;
+            this.url = url;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getUrl() {
+            return url;
+        }
+    }
+}
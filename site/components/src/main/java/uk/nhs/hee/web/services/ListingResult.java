@@ -0,0 +1,59 @@
+package uk.nhs.hee.web.services;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * (Immutable) result of a Listing Page query cached by {@link ListingResultService} i.e. the (canonical) handle
+ * UUIDs of the listed page of documents, the total number of documents matching the query and the document types
+ * present in the listed page.
+ */
+public class ListingResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> handleIds;
+    private final int totalSize;
+    private final Set<String> documentTypes;
+
+    /**
+     * Creates {@link ListingResult} instance.
+     *
+     * @param handleIds     the (canonical) handle UUIDs of the listed page of documents.
+     * @param totalSize     the total number of documents matching the query.
+     * @param documentTypes the document types present in the listed page.
+     */
+    public ListingResult(final List<String> handleIds, final int totalSize, final Set<String> documentTypes) {
+        this.handleIds = Collections.unmodifiableList(handleIds);
+        this.totalSize = totalSize;
+        this.documentTypes = Collections.unmodifiableSet(documentTypes);
+    }
+
+    /**
+     * Returns (immutable) list of (canonical) handle UUIDs of the listed page of documents.
+     *
+     * @return the (immutable) list of (canonical) handle UUIDs of the listed page of documents.
+     */
+    public List<String> getHandleIds() {
+        return handleIds;
+    }
+
+    /**
+     * Returns the total number of documents matching the query.
+     *
+     * @return the total number of documents matching the query.
+     */
+    public int getTotalSize() {
+        return totalSize;
+    }
+
+    /**
+     * Returns (immutable) set of document types present in the listed page.
+     *
+     * @return the (immutable) set of document types present in the listed page.
+     */
+    public Set<String> getDocumentTypes() {
+        return documentTypes;
+    }
+}
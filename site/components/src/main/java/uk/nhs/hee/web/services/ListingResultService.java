@@ -0,0 +1,201 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.hippoecm.hst.core.jcr.EventListenerItem;
+import org.hippoecm.hst.core.jcr.EventListenerItemImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.components.ListingPageType;
+import uk.nhs.hee.web.listeners.DocumentEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that caches the results of Listing Page queries (see {@link ListingResult}) so that paging through
+ * the listings (and their filter & sort combinations) doesn't query the repository on each request.</p>
+ *
+ * <p>The results are cached per Listing Page Type in a size bounded (least recently used evicted) cache
+ * until a document of one of the types listed by the Listing Page Type (see {@link ListingPageType#getDocumentTypes()})
+ * gets published/depublished/deleted (see {@link #createEventListenerItems()}).</p>
+ *
+ * <p>A result is only cached if the results of its Listing Page Type haven't been evicted since its query started,
+ * so that an eviction during the query isn't overwritten by its stale result.</p>
+ */
+public class ListingResultService implements CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ListingResultService.class);
+
+    private static final String CACHE_KEY_SEPARATOR = "|";
+
+    // {listing_page_type}|{cache_key} -> Listing result
+    private final Cache<String, ListingResult> listingResults;
+
+    // {listing_page_type} -> Number of evictions of its results so far
+    private final Map<ListingPageType, AtomicLong> generations = new EnumMap<>(ListingPageType.class);
+
+    /**
+     * Creates {@link ListingResultService} instance.
+     *
+     * @param maximumSize the maximum number of listing results to be cached.
+     */
+    public ListingResultService(final long maximumSize) {
+        listingResults = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        for (final ListingPageType listingPageType : ListingPageType.values()) {
+            generations.put(listingPageType, new AtomicLong());
+        }
+    }
+
+    /**
+     * Returns {@link ListingResult} of the given {@code listingPageType} cached against the given {@code cacheKey}.
+     * Loads it via the given {@code loader} on cache miss and caches it unless the results of the given
+     * {@code listingPageType} have been evicted in the meantime.
+     *
+     * @param listingPageType the {@link ListingPageType} of the Listing Page.
+     * @param cacheKey        the key identifying the Listing Page, its filters, sort order and page.
+     * @param loader          the loader executing the Listing Page query on cache miss.
+     * @return the {@link ListingResult} of the given {@code listingPageType} cached against the given {@code cacheKey}.
+     * @throws ExecutionException thrown when an error occurs while loading the {@link ListingResult}.
+     */
+    public ListingResult getListingResult(
+            final ListingPageType listingPageType,
+            final String cacheKey,
+            final Callable<ListingResult> loader) throws ExecutionException {
+        final String key = listingPageType.getType() + CACHE_KEY_SEPARATOR + cacheKey;
+        final ListingResult cachedResult = listingResults.getIfPresent(key);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+
+        final AtomicLong generation = generations.get(listingPageType);
+        final long loadGeneration = generation.get();
+        final ListingResult listingResult;
+        try {
+            listingResult = loader.call();
+        } catch (final RuntimeException e) {
+            throw new UncheckedExecutionException(e.getMessage(), e);
+        } catch (final Exception e) {
+            throw new ExecutionException(e.getMessage(), e);
+        }
+
+        if (listingResult != null) {
+            putListingResult(generation, key, listingResult, loadGeneration);
+        }
+
+        return listingResult;
+    }
+
+    /**
+     * Evicts the cached results of the given {@code listingPageType}.
+     *
+     * @param listingPageType the {@link ListingPageType} whose cached results needs to be evicted.
+     */
+    public void evict(final ListingPageType listingPageType) {
+        final String keyPrefix = listingPageType.getType() + CACHE_KEY_SEPARATOR;
+        synchronized (this) {
+            // Prevents caching the results being loaded with the changed documents
+            generations.get(listingPageType).incrementAndGet();
+            listingResults.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+        }
+
+        LOGGER.debug("Documents of '{}' Listing Page Type have been changed. Evicted its cached listing results",
+                listingPageType.getType());
+    }
+
+    /**
+     * <p>Returns JCR observation event listener items (to be registered to {@code jcrObservationEventListenerItems})
+     * which evict the cached results of a Listing Page Type on publication/depublication/deletion
+     * of the documents of its types (see {@link ListingPageType#getDocumentTypes()}).</p>
+     *
+     * <p>Listing Page Types without document types of their own (i.e. listing the types configured
+     * on the Listing Page document) are excluded as their results aren't cached.</p>
+     *
+     * @return the JCR observation event listener items evicting the cached results of the Listing Page Types.
+     */
+    public List<EventListenerItem> createEventListenerItems() {
+        final List<EventListenerItem> eventListenerItems = new ArrayList<>();
+
+        for (final ListingPageType listingPageType : ListingPageType.values()) {
+            if (listingPageType.getDocumentTypes().length == 0) {
+                continue;
+            }
+
+            final DocumentEventListener documentEventListener = new DocumentEventListener();
+            documentEventListener.setDocumentChangeHandlers(
+                    Collections.singletonList(handlePaths -> evict(listingPageType)));
+
+            final EventListenerItemImpl eventListenerItem = new EventListenerItemImpl();
+            eventListenerItem.setNodeAddedEnabled(true);
+            eventListenerItem.setNodeRemovedEnabled(true);
+            eventListenerItem.setPropertyAddedEnabled(true);
+            eventListenerItem.setPropertyChangedEnabled(true);
+            eventListenerItem.setPropertyRemovedEnabled(true);
+            eventListenerItem.setAbsolutePath("/content/documents");
+            eventListenerItem.setDeep(true);
+            eventListenerItem.setNodeTypeNames(listingPageType.getDocumentTypes());
+            eventListenerItem.setEventListener(documentEventListener);
+
+            eventListenerItems.add(eventListenerItem);
+        }
+
+        return eventListenerItems;
+    }
+
+    /**
+     * Caches the given {@code listingResult} unless the results of its Listing Page Type have been evicted
+     * since the given {@code loadGeneration}.
+     *
+     * @param generation     the eviction generation of the Listing Page Type.
+     * @param key            the cache key of the result.
+     * @param listingResult  the loaded {@link ListingResult}.
+     * @param loadGeneration the generation at which the query started.
+     */
+    private synchronized void putListingResult(
+            final AtomicLong generation,
+            final String key,
+            final ListingResult listingResult,
+            final long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            LOGGER.debug("Documents have been changed while loading the listing result '{}'. Not caching it", key);
+            return;
+        }
+
+        listingResults.put(key, listingResult);
+    }
+
+    @Override
+    public long getHitCount() {
+        return listingResults.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return listingResults.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return listingResults.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return listingResults.size();
+    }
+
+    @Override
+    public void clear() {
+        listingResults.invalidateAll();
+    }
+}
@@ -0,0 +1,392 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that sends the queued mails (see {@link #enqueue(OutboundMail)}) on a pool of threads,
+ * so that the SMTP latency doesn't add up to the response time of the (form submission) requests.</p>
+ *
+ * <ul>
+ *     <li>The number of mails waiting to be sent is bounded. The mails are rejected once the queue is full.</li>
+ *     <li>The mails with the same batch key and recipients queued within the batch window are sent
+ *     as a single mail (see {@link OutboundMail#combine(List)}).</li>
+ *     <li>The mails that couldn't be sent are retried with an exponential backoff up to the configured
+ *     number of attempts.</li>
+ * </ul>
+ *
+ * <p>Note that the queued mails are kept in memory only i.e. the mails still waiting to be sent
+ * at shutdown are lost.</p>
+ */
+public class MailDispatchService implements QueueStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailDispatchService.class);
+
+    private final Session mailSession;
+    private final String fromAddress;
+    private final long batchWindowMillis;
+    private final int maxAttempts;
+    private final long retryInitialDelayMillis;
+    private final ThreadPoolExecutor workers;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("hee-mail-dispatch-scheduler").setDaemon(true).build());
+
+    // Permits of the mails that could be queued (i.e. the free capacity of the queue)
+    private final Semaphore queueSlots;
+    private final AtomicLong mailSequence = new AtomicLong();
+    // {mail_sequence} -> Time (in milliseconds) at which the mail has been queued
+    private final ConcurrentSkipListMap<Long, Long> queuedTimes = new ConcurrentSkipListMap<>();
+    // {batch_key}|{recipients} -> Mails of the batch that is waiting for its batch window to elapse
+    private final Map<String, List<QueuedMail>> batches = new HashMap<>();
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong failedAttemptCount = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    /**
+     * Creates {@link MailDispatchService} instance.
+     *
+     * @param mailSession             the JavaMail {@link Session} via which the mails needs to be sent.
+     * @param fromAddress             the sender address of the mails or an empty string if the default sender
+     *                                ({@code mail.from}) of the given {@code mailSession} needs to be used.
+     * @param poolSize                the number of threads sending the mails.
+     * @param queueCapacity           the maximum number of mails waiting to be sent.
+     * @param batchWindowMillis       the time window (in milliseconds) in which the mails of the same batch
+     *                                are combined.
+     * @param maxAttempts             the maximum number of attempts to send a mail.
+     * @param retryInitialDelayMillis the delay (in milliseconds) before the first retry which gets doubled
+     *                                for every subsequent retry.
+     */
+    public MailDispatchService(
+            final Session mailSession,
+            final String fromAddress,
+            final int poolSize,
+            final int queueCapacity,
+            final long batchWindowMillis,
+            final int maxAttempts,
+            final long retryInitialDelayMillis) {
+        this.mailSession = mailSession;
+        this.fromAddress = fromAddress;
+        this.queueSlots = new Semaphore(queueCapacity);
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryInitialDelayMillis = retryInitialDelayMillis;
+        this.workers = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("hee-mail-dispatch-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Queues the given {@code mail} to be sent in the background (after the batch window if it has a batch key).
+     *
+     * @param mail the {@link OutboundMail} to be sent.
+     * @return {@code true} if the given {@code mail} has been queued. Otherwise, {@code false}
+     * if it has been rejected as the queue is full.
+     */
+    public boolean enqueue(final OutboundMail mail) {
+        if (!queueSlots.tryAcquire()) {
+            LOGGER.error("Mail dispatch queue is full ({} mails). Rejecting the mail '{}'",
+                    queuedTimes.size(), mail.getSubject());
+            return false;
+        }
+
+        final QueuedMail queuedMail = new QueuedMail(mailSequence.incrementAndGet(), mail);
+        queuedTimes.put(queuedMail.sequence, System.currentTimeMillis());
+
+        try {
+            if (mail.getBatchKey() == null) {
+                submit(new Delivery(Collections.singletonList(queuedMail)));
+                return true;
+            }
+
+            // Only the mails addressed to the same recipients are combined
+            final String batchId = getBatchId(mail);
+            synchronized (batches) {
+                final List<QueuedMail> batch = batches.get(batchId);
+                if (batch != null) {
+                    batch.add(queuedMail);
+                    return true;
+                }
+
+                final List<QueuedMail> newBatch = new ArrayList<>();
+                newBatch.add(queuedMail);
+                batches.put(batchId, newBatch);
+            }
+
+            scheduler.schedule(() -> flush(batchId), batchWindowMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (final RejectedExecutionException e) {
+            // The service has been shut down
+            LOGGER.error("Caught error '{}' while queueing the mail '{}'", e.getMessage(), mail.getSubject(), e);
+            complete(Collections.singletonList(queuedMail), false);
+            return false;
+        }
+    }
+
+    /**
+     * Stops the background threads. The mails still waiting to be sent are discarded.
+     */
+    public void destroy() {
+        LOGGER.debug("Shutting down the mail dispatch threads with {} mails waiting to be sent", queuedTimes.size());
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return queuedTimes.size();
+    }
+
+    @Override
+    public long getOldestItemAgeMillis() {
+        final Map.Entry<Long, Long> oldest = queuedTimes.firstEntry();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.getValue();
+    }
+
+    @Override
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    @Override
+    public long getFailedAttemptCount() {
+        return failedAttemptCount.get();
+    }
+
+    @Override
+    public double getAverageLatencyMillis() {
+        final long count = processedCount.get();
+        return count == 0 ? 0 : (double) totalLatencyMillis.get() / count;
+    }
+
+    @Override
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+
+    /**
+     * Returns the ID of the batch (i.e. the batch key along with the recipients) of the given {@code mail}.
+     *
+     * @param mail the {@link OutboundMail} (with a batch key).
+     * @return the ID of the batch of the given {@code mail}.
+     */
+    private static String getBatchId(final OutboundMail mail) {
+        return String.join("|", mail.getBatchKey(), mail.getRecipients().toString(),
+                mail.getCcRecipients().toString(), mail.getBccRecipients().toString());
+    }
+
+    /**
+     * Submits the mails of the batch with the given {@code batchId} (as a single mail) to be sent
+     * as its batch window has elapsed.
+     *
+     * @param batchId the batch ID (see {@link #getBatchId(OutboundMail)}).
+     */
+    private void flush(final String batchId) {
+        final List<QueuedMail> batch;
+        synchronized (batches) {
+            batch = batches.remove(batchId);
+        }
+
+        if (batch != null) {
+            submit(new Delivery(batch));
+        }
+    }
+
+    /**
+     * Submits the given {@code delivery} to be sent by the worker threads.
+     *
+     * @param delivery the {@link Delivery} to be sent.
+     */
+    private void submit(final Delivery delivery) {
+        workers.execute(() -> send(delivery));
+    }
+
+    /**
+     * Sends the given {@code delivery} and schedules a retry (with an exponential backoff) if it can't be sent
+     * unless it has reached the maximum number of attempts. The deliveries failing with an unexpected
+     * (i.e. non-messaging) error aren't retried.
+     *
+     * @param delivery the {@link Delivery} to be sent.
+     */
+    private void send(final Delivery delivery) {
+        try {
+            Transport.send(toMessage(delivery.mail));
+            complete(delivery.queuedMails, true);
+        } catch (final MessagingException e) {
+            delivery.attempts++;
+            failedAttemptCount.incrementAndGet();
+
+            if (delivery.attempts >= maxAttempts) {
+                LOGGER.error("Caught error '{}' while sending the mail '{}'. Giving up after {} attempts",
+                        e.getMessage(), delivery.mail.getSubject(), delivery.attempts, e);
+                complete(delivery.queuedMails, false);
+                return;
+            }
+
+            final long retryDelayMillis = retryInitialDelayMillis << (delivery.attempts - 1);
+            LOGGER.warn("Caught error '{}' while sending the mail '{}'. Retrying in {} ms",
+                    e.getMessage(), delivery.mail.getSubject(), retryDelayMillis, e);
+            scheduleRetry(delivery, retryDelayMillis);
+        } catch (final RuntimeException e) {
+            failedAttemptCount.incrementAndGet();
+            LOGGER.error("Caught error '{}' while sending the mail '{}'. Discarding it",
+                    e.getMessage(), delivery.mail.getSubject(), e);
+            complete(delivery.queuedMails, false);
+        }
+    }
+
+    /**
+     * Schedules a retry of the given {@code delivery} after the given {@code retryDelayMillis}
+     * or discards it if the service has been shut down.
+     *
+     * @param delivery         the {@link Delivery} to be retried.
+     * @param retryDelayMillis the delay (in milliseconds) after which the delivery needs to be retried.
+     */
+    private void scheduleRetry(final Delivery delivery, final long retryDelayMillis) {
+        try {
+            scheduler.schedule(() -> submit(delivery), retryDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            LOGGER.warn("Caught error '{}' while scheduling a retry of the mail '{}'. Discarding it",
+                    e.getMessage(), delivery.mail.getSubject(), e);
+            complete(delivery.queuedMails, false);
+        }
+    }
+
+    /**
+     * Returns the {@link MimeMessage} (with both HTML & plain text alternatives) of the given {@code mail}.
+     *
+     * @param mail the {@link OutboundMail} instance.
+     * @return the {@link MimeMessage} of the given {@code mail}.
+     * @throws MessagingException thrown when the message can't be constructed.
+     */
+    private MimeMessage toMessage(final OutboundMail mail) throws MessagingException {
+        final MimeMessage message = new MimeMessage(mailSession);
+        if (StringUtils.isEmpty(fromAddress)) {
+            message.setFrom();
+        } else {
+            message.setFrom(new InternetAddress(fromAddress));
+        }
+
+        message.setRecipients(Message.RecipientType.TO, mail.getRecipients().toArray(new Address[0]));
+        message.setRecipients(Message.RecipientType.CC, mail.getCcRecipients().toArray(new Address[0]));
+        message.setRecipients(Message.RecipientType.BCC, mail.getBccRecipients().toArray(new Address[0]));
+        message.setSubject(mail.getSubject(), StandardCharsets.UTF_8.name());
+        message.setSentDate(new Date());
+
+        final MimeBodyPart plainTextPart = new MimeBodyPart();
+        plainTextPart.setText(StringUtils.defaultString(mail.getPlainText()), StandardCharsets.UTF_8.name());
+        final MimeMultipart content = new MimeMultipart("alternative");
+        content.addBodyPart(plainTextPart);
+
+        if (StringUtils.isNotEmpty(mail.getHtml())) {
+            final MimeBodyPart htmlPart = new MimeBodyPart();
+            htmlPart.setContent(mail.getHtml(), "text/html; charset=" + StandardCharsets.UTF_8.name());
+            content.addBodyPart(htmlPart);
+        }
+
+        message.setContent(content);
+        return message;
+    }
+
+    /**
+     * Removes the given {@code queuedMails} from the queue (freeing their queue slots)
+     * and records their latency (if sent).
+     *
+     * @param queuedMails the {@link QueuedMail}s to be removed.
+     * @param sent        {@code true} if the mails have been sent. Otherwise, {@code false} if they have been
+     *                    discarded.
+     */
+    private void complete(final List<QueuedMail> queuedMails, final boolean sent) {
+        final long now = System.currentTimeMillis();
+
+        for (final QueuedMail queuedMail : queuedMails) {
+            final Long queuedTime = queuedTimes.remove(queuedMail.sequence);
+            if (queuedTime == null) {
+                continue;
+            }
+
+            queueSlots.release();
+            if (sent) {
+                final long latencyMillis = now - queuedTime;
+                processedCount.incrementAndGet();
+                totalLatencyMillis.addAndGet(latencyMillis);
+                maxLatencyMillis.accumulateAndGet(latencyMillis, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Mail queued along with its sequence (i.e. the order in which it has been queued).
+     */
+    private static class QueuedMail {
+        private final long sequence;
+        private final OutboundMail mail;
+
+        /**
+         * Creates {@link QueuedMail} instance.
+         *
+         * @param sequence the sequence of the mail.
+         * @param mail     the {@link OutboundMail} instance.
+         */
+        QueuedMail(final long sequence, final OutboundMail mail) {
+            this.sequence = sequence;
+            this.mail = mail;
+        }
+    }
+
+    /**
+     * (Single) mail to be sent for one or more (batched) queued mails along with its number of attempts.
+     */
+    private static class Delivery {
+        private final List<QueuedMail> queuedMails;
+        private final OutboundMail mail;
+        private int attempts;
+
+        /**
+         * Creates {@link Delivery} instance.
+         *
+         * @param queuedMails the queued mails (of the same batch) to be sent as a single mail.
+         */
+        Delivery(final List<QueuedMail> queuedMails) {
+            this.queuedMails = queuedMails;
+            final List<OutboundMail> mails = new ArrayList<>();
+            for (final QueuedMail queuedMail : queuedMails) {
+                mails.add(queuedMail.mail);
+            }
+            this.mail = OutboundMail.combine(mails);
+        }
+    }
+}
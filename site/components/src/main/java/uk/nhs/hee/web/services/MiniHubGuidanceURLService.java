@@ -0,0 +1,386 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
+import org.hippoecm.hst.content.beans.query.HstQuery;
+import org.hippoecm.hst.content.beans.query.HstQueryResult;
+import org.hippoecm.hst.content.beans.query.builder.HstQueryBuilder;
+import org.hippoecm.hst.content.beans.query.exceptions.QueryException;
+import org.hippoecm.hst.content.beans.standard.HippoBeanIterator;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.beans.Guidance;
+import uk.nhs.hee.web.beans.MiniHub;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.utils.HstUtils;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Service that maintains an index of MiniHub Guidance document paths and their URLs
+ * (i.e. {@code {mini-hub_URL}/{guidance_node_name}}) per Mount and availability (preview/live).</p>
+ *
+ * <p>The index of a Mount is built (by querying all {@code hee:MiniHub} documents under its site content base)
+ * on the first request served by the Mount and then, kept up to date incrementally
+ * i.e. only the MiniHub documents reported as changed (published/depublished/deleted/renamed)
+ * via {@link #onDocumentsChanged(Set)} are re-resolved on the subsequent request. A changed Guidance document
+ * (e.g. published or renamed after its MiniHub) gets the MiniHub documents associating it (via
+ * {@code hee:guidancePages}) re-resolved.</p>
+ *
+ * <p>Note that the URLs are resolved lazily (on request) as they can only be created
+ * in the context of a request i.e. against the Mount being requested. So, the indexes are discarded
+ * as soon as a request is served by a rebuilt HST model (i.e. a different {@link VirtualHosts} instance).</p>
+ */
+public class MiniHubGuidanceURLService implements DocumentChangeHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MiniHubGuidanceURLService.class);
+
+    private static final String GUIDANCE_PAGES = "hee:guidancePages";
+
+    // The indexes of the HST model serving the requests
+    private volatile ModelIndexes modelIndexes = new ModelIndexes(null);
+
+    /**
+     * Returns an (unmodifiable) map of all MiniHub Guidance document paths and their URLs
+     * available for the Mount of the given {@code requestContext}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the (unmodifiable) map of all MiniHub Guidance document paths and their URLs
+     * available for the Mount of the given {@code requestContext}.
+     */
+    public Map<String, String> getGuidancePathToURLMap(final HstRequestContext requestContext) {
+        return getIndex(requestContext).getGuidancePathToURLMap();
+    }
+
+    /**
+     * Returns the URL of the first Guidance document of the given {@code miniHub}
+     * (i.e. the MiniHub landing page URL). Otherwise, returns {@code null} if the given {@code miniHub}
+     * has no Guidance documents or isn't available for the Mount of the given {@code requestContext}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param miniHub        the {@link MiniHub} instance.
+     * @return the URL of the first Guidance document of the given {@code miniHub}. Otherwise, returns {@code null}
+     * if the given {@code miniHub} has no Guidance documents or isn't available for the Mount
+     * of the given {@code requestContext}.
+     */
+    public String getFirstGuidanceURL(final HstRequestContext requestContext, final MiniHub miniHub) {
+        return getIndex(requestContext).getFirstGuidanceURL(miniHub.getCanonicalHandlePath());
+    }
+
+    /**
+     * Marks the given changed MiniHub documents and the MiniHub documents associating the given changed
+     * Guidance documents to be re-indexed on the next request.
+     *
+     * @param handlePaths the paths of the changed MiniHub and Guidance document handles.
+     */
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        LOGGER.debug("MiniHub/Guidance documents {} have been changed and will be re-indexed on the next request",
+                handlePaths);
+        modelIndexes.indexes.values().forEach(index -> index.markChanged(handlePaths));
+    }
+
+    /**
+     * Returns the up to date {@link MiniHubGuidanceURLIndex} of the Mount of the given {@code requestContext}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the up to date {@link MiniHubGuidanceURLIndex} of the Mount of the given {@code requestContext}.
+     */
+    private MiniHubGuidanceURLIndex getIndex(final HstRequestContext requestContext) {
+        final Map<String, MiniHubGuidanceURLIndex> indexes = getModelIndexes(
+                requestContext.getResolvedMount().getMount().getVirtualHost().getVirtualHosts());
+        final MiniHubGuidanceURLIndex index = indexes.computeIfAbsent(
+                HstUtils.getMountCacheKey(requestContext), key -> new MiniHubGuidanceURLIndex());
+        index.refresh(requestContext);
+        return index;
+    }
+
+    /**
+     * Returns the indexes of the given {@code virtualHosts} (i.e. the HST model serving the current request).
+     * The indexes (of the previous HST model) are discarded if the given {@code virtualHosts} isn't the one
+     * the indexed URLs have been created with.
+     *
+     * @param virtualHosts the {@link VirtualHosts} of the current request.
+     * @return the indexes ({@code {mount_cache_key} -> index}) of the given {@code virtualHosts}.
+     */
+    private Map<String, MiniHubGuidanceURLIndex> getModelIndexes(final VirtualHosts virtualHosts) {
+        ModelIndexes current = modelIndexes;
+        if (current.virtualHosts == virtualHosts) {
+            return current.indexes;
+        }
+
+        synchronized (this) {
+            current = modelIndexes;
+            if (current.virtualHosts != virtualHosts) {
+                LOGGER.debug("HST model has been rebuilt. Discarding {} MiniHub Guidance URL indexes",
+                        current.indexes.size());
+                current = new ModelIndexes(virtualHosts);
+                modelIndexes = current;
+            }
+
+            return current.indexes;
+        }
+    }
+
+    /**
+     * MiniHub Guidance URL indexes of a single HST model.
+     */
+    private static final class ModelIndexes {
+        private final VirtualHosts virtualHosts;
+
+        // {mount_cache_key} -> MiniHub Guidance URL index
+        private final Map<String, MiniHubGuidanceURLIndex> indexes = new ConcurrentHashMap<>();
+
+        /**
+         * Creates {@link ModelIndexes} instance.
+         *
+         * @param virtualHosts the {@link VirtualHosts} (i.e. the HST model) the URLs are created with.
+         */
+        private ModelIndexes(final VirtualHosts virtualHosts) {
+            this.virtualHosts = virtualHosts;
+        }
+    }
+
+    /**
+     * Index of MiniHub Guidance document paths and their URLs for a single Mount and availability.
+     */
+    private static class MiniHubGuidanceURLIndex {
+        // MiniHub handle path -> (Guidance path -> Guidance URL) in the order of MiniHub Guidance pages
+        private final Map<String, Map<String, String>> miniHubGuidanceURLs = new HashMap<>();
+        // MiniHub handle path -> UUIDs of the associated Guidance handles (including the unavailable ones)
+        private final Map<String, Set<String>> miniHubGuidanceUUIDs = new HashMap<>();
+        private final Set<String> changedHandlePaths = ConcurrentHashMap.newKeySet();
+        private volatile Map<String, String> guidancePathToURLMap;
+
+        /**
+         * Marks the given MiniHub {@code handlePaths} (or the MiniHub handles associating the given Guidance
+         * {@code handlePaths}) to be re-indexed on the next refresh.
+         *
+         * @param handlePaths the paths of the changed MiniHub and Guidance handles.
+         */
+        void markChanged(final Set<String> handlePaths) {
+            changedHandlePaths.addAll(handlePaths);
+        }
+
+        Map<String, String> getGuidancePathToURLMap() {
+            return guidancePathToURLMap;
+        }
+
+        synchronized String getFirstGuidanceURL(final String miniHubHandlePath) {
+            final Map<String, String> guidanceURLs = miniHubGuidanceURLs.get(miniHubHandlePath);
+            if (guidanceURLs == null || guidanceURLs.isEmpty()) {
+                return null;
+            }
+
+            return guidanceURLs.values().iterator().next();
+        }
+
+        /**
+         * Builds the index if it hasn't been built yet. Otherwise, re-indexes the MiniHub documents
+         * which have been changed since the last refresh.
+         *
+         * @param requestContext the {@link HstRequestContext} instance.
+         */
+        void refresh(final HstRequestContext requestContext) {
+            if (guidancePathToURLMap != null && changedHandlePaths.isEmpty()) {
+                return;
+            }
+
+            synchronized (this) {
+                if (guidancePathToURLMap == null) {
+                    build(requestContext);
+                } else if (!changedHandlePaths.isEmpty()) {
+                    update(requestContext);
+                } else {
+                    return;
+                }
+
+                final Map<String, String> pathToURLMap = new HashMap<>();
+                miniHubGuidanceURLs.values().forEach(pathToURLMap::putAll);
+                guidancePathToURLMap = Collections.unmodifiableMap(pathToURLMap);
+            }
+        }
+
+        /**
+         * Indexes all MiniHub documents available under the site content base of the given {@code requestContext}.
+         *
+         * @param requestContext the {@link HstRequestContext} instance.
+         */
+        private void build(final HstRequestContext requestContext) {
+            // Changes reported until now will be covered by the full build
+            changedHandlePaths.clear();
+
+            final HstQuery query = HstQueryBuilder
+                    .create(requestContext.getSiteContentBaseBean())
+                    .ofTypes(MiniHub.class).build();
+
+            try {
+                final HstQueryResult result = query.execute();
+                final HippoBeanIterator beanIterator = result.getHippoBeans();
+
+                while (beanIterator.hasNext()) {
+                    final MiniHub miniHub = (MiniHub) beanIterator.next();
+                    put(requestContext, miniHub.getCanonicalHandlePath(), miniHub);
+                }
+            } catch (final QueryException e) {
+                LOGGER.error("Caught error '{}' while indexing MiniHub (hee:MiniHub) Guidance URLs",
+                        e.getMessage(), e);
+            }
+
+            LOGGER.debug("Indexed Guidance URLs of {} MiniHub documents for {}",
+                    miniHubGuidanceURLs.size(), HstUtils.getMountCacheKey(requestContext));
+        }
+
+        /**
+         * Re-indexes the MiniHub documents which have been changed since the last refresh along with the ones
+         * associating the Guidance documents which have been changed since the last refresh.
+         *
+         * @param requestContext the {@link HstRequestContext} instance.
+         */
+        private void update(final HstRequestContext requestContext) {
+            final String siteContentBasePath = "/" + requestContext.getSiteContentBasePath() + "/";
+            final Set<String> miniHubHandlePaths = new HashSet<>();
+
+            for (final String handlePath : changedHandlePaths) {
+                changedHandlePaths.remove(handlePath);
+                miniHubHandlePaths.add(handlePath);
+                miniHubHandlePaths.addAll(getAssociatingMiniHubHandlePaths(requestContext, handlePath));
+            }
+
+            for (final String handlePath : miniHubHandlePaths) {
+                miniHubGuidanceURLs.remove(handlePath);
+                miniHubGuidanceUUIDs.remove(handlePath);
+
+                if (!handlePath.startsWith(siteContentBasePath)) {
+                    continue;
+                }
+
+                try {
+                    final Object bean = requestContext.getObjectBeanManager().getObject(handlePath);
+                    if (bean instanceof MiniHub) {
+                        put(requestContext, handlePath, (MiniHub) bean);
+                    }
+                } catch (final ObjectBeanManagerException e) {
+                    LOGGER.error("Caught error '{}' while re-indexing MiniHub (hee:MiniHub) document '{}'",
+                            e.getMessage(), handlePath, e);
+                }
+            }
+        }
+
+        /**
+         * Indexes the Guidance URLs of the given {@code miniHub}.
+         *
+         * @param requestContext    the {@link HstRequestContext} instance.
+         * @param miniHubHandlePath the path of the MiniHub handle.
+         * @param miniHub           the {@link MiniHub} instance.
+         */
+        private void put(
+                final HstRequestContext requestContext,
+                final String miniHubHandlePath,
+                final MiniHub miniHub) {
+            miniHubGuidanceURLs.put(miniHubHandlePath, getGuidanceURLs(requestContext, miniHub));
+            miniHubGuidanceUUIDs.put(miniHubHandlePath, getGuidanceUUIDs(miniHub));
+        }
+
+        /**
+         * Returns the paths of the indexed MiniHub handles associating the given (changed) Guidance handle
+         * i.e. the MiniHub documents linking to its (current) handle UUID or indexed with its (previous) path.
+         *
+         * @param requestContext the {@link HstRequestContext} instance.
+         * @param handlePath     the path of the changed Guidance handle.
+         * @return the paths of the indexed MiniHub handles associating the given Guidance handle.
+         */
+        private Set<String> getAssociatingMiniHubHandlePaths(
+                final HstRequestContext requestContext,
+                final String handlePath) {
+            final String handleUUID = getHandleUUID(requestContext, handlePath);
+            final String guidancePathPrefix = handlePath + "/";
+            final Set<String> miniHubHandlePaths = new HashSet<>();
+
+            miniHubGuidanceURLs.forEach((miniHubHandlePath, guidanceURLs) -> {
+                if (guidanceURLs.keySet().stream().anyMatch(path -> path.startsWith(guidancePathPrefix))
+                        || (handleUUID != null
+                        && miniHubGuidanceUUIDs.getOrDefault(miniHubHandlePath, Collections.emptySet())
+                        .contains(handleUUID))) {
+                    miniHubHandlePaths.add(miniHubHandlePath);
+                }
+            });
+
+            return miniHubHandlePaths;
+        }
+
+        /**
+         * Returns the UUID of the given handle or {@code null} if it doesn't exist (e.g. has been deleted).
+         *
+         * @param requestContext the {@link HstRequestContext} instance.
+         * @param handlePath     the path of the handle.
+         * @return the UUID of the given handle or {@code null} if it doesn't exist.
+         */
+        private String getHandleUUID(final HstRequestContext requestContext, final String handlePath) {
+            try {
+                final Session session = requestContext.getSession();
+                return session.nodeExists(handlePath) ? session.getNode(handlePath).getIdentifier() : null;
+            } catch (final RepositoryException e) {
+                LOGGER.error("Caught error '{}' while reading the handle '{}'", e.getMessage(), handlePath, e);
+                return null;
+            }
+        }
+
+        /**
+         * Returns the UUIDs of the Guidance handles associated to the given {@code miniHub}
+         * (via {@code hee:guidancePages}) including the ones which aren't available (e.g. not published yet).
+         *
+         * @param miniHub the {@link MiniHub} instance.
+         * @return the UUIDs of the Guidance handles associated to the given {@code miniHub}.
+         */
+        private Set<String> getGuidanceUUIDs(final MiniHub miniHub) {
+            final Set<String> guidanceUUIDs = new HashSet<>();
+
+            try {
+                final NodeIterator mirrors = miniHub.getNode().getNodes(GUIDANCE_PAGES);
+                while (mirrors.hasNext()) {
+                    final Node mirror = mirrors.nextNode();
+                    if (mirror.hasProperty(HippoNodeType.HIPPO_DOCBASE)) {
+                        guidanceUUIDs.add(mirror.getProperty(HippoNodeType.HIPPO_DOCBASE).getString());
+                    }
+                }
+            } catch (final RepositoryException e) {
+                LOGGER.error("Caught error '{}' while reading the Guidance pages of the MiniHub '{}'",
+                        e.getMessage(), miniHub.getPath(), e);
+            }
+
+            return guidanceUUIDs;
+        }
+
+        /**
+         * Returns Guidance document paths and their URLs (in the order of MiniHub Guidance pages)
+         * of the given {@code miniHub}.
+         *
+         * @param requestContext the {@link HstRequestContext} instance.
+         * @param miniHub        the {@link MiniHub} instance.
+         * @return the Guidance document paths and their URLs (in the order of MiniHub Guidance pages)
+         * of the given {@code miniHub}.
+         */
+        private Map<String, String> getGuidanceURLs(final HstRequestContext requestContext, final MiniHub miniHub) {
+            final Map<String, String> guidanceURLs = new LinkedHashMap<>();
+            final String miniHubURL = HstUtils.getURLByBean(requestContext, miniHub, false);
+
+            for (final Guidance guidance : miniHub.getGuidancePages()) {
+                guidanceURLs.put(guidance.getPath(), miniHubURL + "/" + guidance.getName());
+            }
+
+            return guidanceURLs;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package uk.nhs.hee.web.services;
+
+import uk.nhs.hee.web.beans.Guidance;
+import uk.nhs.hee.web.beans.MiniHub;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>(Immutable) navigation structure of a MiniHub ({@code hee:MiniHub}) document i.e. the name, title and
+ * (canonical) handle path of its Guidance pages in the MiniHub order along with the (case insensitive)
+ * Guidance name to index map.</p>
+ *
+ * <p>Allows rendering the MiniHub contents and looking up the current, previous and next Guidance pages
+ * without loading all the Guidance beans of the MiniHub (see {@link MiniHubNavigationService}).</p>
+ */
+public class MiniHubNavigation {
+    private final List<GuidancePage> guidancePages;
+    // Guidance name (in lower case) -> Index of the Guidance page
+    private final Map<String, Integer> guidanceIndexes;
+
+    /**
+     * Creates {@link MiniHubNavigation} instance.
+     *
+     * @param guidancePages   the Guidance pages in the MiniHub order.
+     * @param guidanceIndexes the Guidance name (in lower case) to index map.
+     */
+    private MiniHubNavigation(final List<GuidancePage> guidancePages, final Map<String, Integer> guidanceIndexes) {
+        this.guidancePages = Collections.unmodifiableList(guidancePages);
+        this.guidanceIndexes = Collections.unmodifiableMap(guidanceIndexes);
+    }
+
+    /**
+     * Builds and returns {@link MiniHubNavigation} of the given {@code miniHub}
+     * (by loading all its Guidance pages once).
+     *
+     * @param miniHub the {@link MiniHub} instance.
+     * @return the {@link MiniHubNavigation} of the given {@code miniHub}.
+     */
+    public static MiniHubNavigation of(final MiniHub miniHub) {
+        final List<GuidancePage> guidancePages = new ArrayList<>();
+        final Map<String, Integer> guidanceIndexes = new HashMap<>();
+
+        for (final Guidance guidance : miniHub.getGuidancePages()) {
+            // The first Guidance page wins in case if there are Guidance pages with the same name
+            guidanceIndexes.putIfAbsent(toKey(guidance.getName()), guidancePages.size());
+            guidancePages.add(new GuidancePage(
+                    guidance.getName(), guidance.getTitle(), guidance.getCanonicalHandlePath()));
+        }
+
+        return new MiniHubNavigation(guidancePages, guidanceIndexes);
+    }
+
+    /**
+     * Returns the index of the Guidance page with the given {@code guidanceName} (case insensitive).
+     *
+     * @param guidanceName the Guidance (document) name.
+     * @return the index of the Guidance page with the given {@code guidanceName}
+     * or {@code -1} if there is no such Guidance page.
+     */
+    public int indexOf(final String guidanceName) {
+        if (guidanceName == null) {
+            return -1;
+        }
+
+        return guidanceIndexes.getOrDefault(toKey(guidanceName), -1);
+    }
+
+    /**
+     * Returns (immutable) list of the Guidance pages in the MiniHub order.
+     *
+     * @return the (immutable) list of the Guidance pages in the MiniHub order.
+     */
+    public List<GuidancePage> getGuidancePages() {
+        return guidancePages;
+    }
+
+    /**
+     * Returns the (canonical) handle path of the Guidance page at the given {@code index}.
+     *
+     * @param index the index of the Guidance page.
+     * @return the (canonical) handle path of the Guidance page at the given {@code index}
+     * or {@code null} if there is no Guidance page at the given {@code index}.
+     */
+    public String getGuidanceHandlePath(final int index) {
+        if (index < 0 || index >= guidancePages.size()) {
+            return null;
+        }
+
+        return guidancePages.get(index).getHandlePath();
+    }
+
+    /**
+     * Returns the (case insensitive) lookup key of the given {@code guidanceName}.
+     *
+     * @param guidanceName the Guidance (document) name.
+     * @return the (case insensitive) lookup key of the given {@code guidanceName}.
+     */
+    private static String toKey(final String guidanceName) {
+        return guidanceName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * (Immutable) Guidance page of a MiniHub navigation.
+     */
+    public static class GuidancePage {
+        private final String name;
+        private final String title;
+        private final String handlePath;
+
+        /**
+         * Creates {@link GuidancePage} instance.
+         *
+         * @param name       the Guidance (document) name.
+         * @param title      the Guidance title.
+         * @param handlePath the (canonical) Guidance handle path.
+         */
+        GuidancePage(final String name, final String title, final String handlePath) {
+            this.name = name;
+            this.title = title;
+            this.handlePath = handlePath;
+        }
+
+        /**
+         * Returns the Guidance (document) name.
+         *
+         * @return the Guidance (document) name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the Guidance title.
+         *
+         * @return the Guidance title.
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * Returns the (canonical) Guidance handle path.
+         *
+         * @return the (canonical) Guidance handle path.
+         */
+        public String getHandlePath() {
+            return handlePath;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.beans.Guidance;
+import uk.nhs.hee.web.beans.MiniHub;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.utils.HstUtils;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that caches the navigation structure ({@link MiniHubNavigation}) of MiniHub ({@code hee:MiniHub})
+ * documents per availability (preview/live), so that rendering a MiniHub Guidance page only loads the current,
+ * previous and next Guidance beans (see {@link #getGuidance(HstRequestContext, MiniHubNavigation, int)}).</p>
+ *
+ * <p>The navigations are evicted when a MiniHub or a Guidance document gets published/depublished/deleted
+ * (see {@link #onDocumentsChanged(Set)}).</p>
+ *
+ * <p>A navigation is only cached if no MiniHub or Guidance document has been changed since its build started,
+ * so that an eviction during the build isn't overwritten by its stale navigation.</p>
+ */
+public class MiniHubNavigationService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MiniHubNavigationService.class);
+
+    // {availability}|{mini-hub_handle_path} -> MiniHub navigation
+    private final Cache<String, MiniHubNavigation> navigations = CacheBuilder.newBuilder().recordStats().build();
+
+    // Incremented on every eviction triggered by the changed MiniHub/Guidance documents
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the {@link MiniHubNavigation} of the given {@code miniHub}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param miniHub        the {@link MiniHub} instance.
+     * @return the {@link MiniHubNavigation} of the given {@code miniHub}.
+     */
+    public MiniHubNavigation getNavigation(final HstRequestContext requestContext, final MiniHub miniHub) {
+        final String cacheKey = HstUtils.getAvailability(requestContext) + "|" + miniHub.getCanonicalHandlePath();
+        final MiniHubNavigation cachedNavigation = navigations.getIfPresent(cacheKey);
+        if (cachedNavigation != null) {
+            return cachedNavigation;
+        }
+
+        final long buildGeneration = generation.get();
+        final MiniHubNavigation navigation = MiniHubNavigation.of(miniHub);
+        putNavigation(cacheKey, navigation, buildGeneration);
+        return navigation;
+    }
+
+    /**
+     * Returns (loads) the Guidance bean at the given {@code index} of the given {@code navigation}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param navigation     the {@link MiniHubNavigation} instance.
+     * @param index          the index of the Guidance page.
+     * @return the Guidance bean at the given {@code index} of the given {@code navigation}
+     * or {@code null} if there is no such Guidance page (or it can't be loaded).
+     */
+    public Guidance getGuidance(
+            final HstRequestContext requestContext,
+            final MiniHubNavigation navigation,
+            final int index) {
+        final String guidanceHandlePath = navigation.getGuidanceHandlePath(index);
+        if (guidanceHandlePath == null) {
+            return null;
+        }
+
+        try {
+            final Object bean = requestContext.getObjectBeanManager().getObject(guidanceHandlePath);
+            return bean instanceof Guidance ? (Guidance) bean : null;
+        } catch (final ObjectBeanManagerException e) {
+            LOGGER.error("Caught error '{}' while loading MiniHub Guidance page '{}'",
+                    e.getMessage(), guidanceHandlePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Evicts all the cached MiniHub navigations as a changed Guidance document may be linked from a MiniHub
+     * even if it isn't part of its navigation (e.g. a newly published Guidance document isn't part of
+     * the live navigation built before its publication).
+     *
+     * @param handlePaths the paths of the changed MiniHub and Guidance document handles.
+     */
+    @Override
+    public synchronized void onDocumentsChanged(final Set<String> handlePaths) {
+        LOGGER.debug("MiniHub/Guidance documents {} have been changed. Evicting all MiniHub navigations", handlePaths);
+
+        // Prevents caching the navigations being built with the changed documents
+        generation.incrementAndGet();
+        navigations.invalidateAll();
+    }
+
+    /**
+     * Caches the given {@code navigation} unless any MiniHub or Guidance document has been changed
+     * since the given {@code buildGeneration}.
+     *
+     * @param cacheKey        the cache key of the navigation.
+     * @param navigation      the built {@link MiniHubNavigation}.
+     * @param buildGeneration the generation at which the build started.
+     */
+    private synchronized void putNavigation(
+            final String cacheKey,
+            final MiniHubNavigation navigation,
+            final long buildGeneration) {
+        if (generation.get() != buildGeneration) {
+            LOGGER.debug("MiniHub/Guidance documents have been changed while building the navigation '{}'. "
+                    + "Not caching it", cacheKey);
+            return;
+        }
+
+        navigations.put(cacheKey, navigation);
+    }
+
+    @Override
+    public long getHitCount() {
+        return navigations.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return navigations.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return navigations.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return navigations.size();
+    }
+
+    @Override
+    public void clear() {
+        navigations.invalidateAll();
+    }
+}
@@ -0,0 +1,139 @@
+package uk.nhs.hee.web.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that caches the reverse references from Guidance ({@code hee:guidance}) documents
+ * to the MiniHub ({@code hee:MiniHub}) documents they have been associated to
+ * (via {@code hee:guidancePages}), separately for each (channel) content path and availability (preview/live).</p>
+ *
+ * <p>Both positive (Guidance UUID to MiniHub document node path) and negative (Guidance not associated
+ * to any MiniHub) lookups are cached. The cached lookups affected by the changed (published/depublished/deleted)
+ * MiniHub documents are evicted via {@link #onDocumentsChanged(Set)}.</p>
+ *
+ * <p>A lookup is only cached if no MiniHub document has been changed since it started
+ * (see {@link #getGeneration()}), so that an eviction during the lookup isn't overwritten by its stale result.</p>
+ */
+public class MiniHubReferenceService implements DocumentChangeHandler {
+    /**
+     * Cached value indicating that the Guidance document hasn't been associated to any MiniHub document.
+     */
+    public static final String NOT_REFERENCED = "";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MiniHubReferenceService.class);
+
+    // {content_path}:{availability} -> (Guidance handle UUID -> MiniHub document node path or NOT_REFERENCED)
+    private final Map<String, Map<String, String>> miniHubPathsByScope = new ConcurrentHashMap<>();
+
+    // Incremented on every eviction triggered by the changed MiniHub documents
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cached path of the MiniHub document node to which the given Guidance document
+     * has been associated, {@link #NOT_REFERENCED} if it is known that the Guidance document hasn't been
+     * associated to any MiniHub document or {@code null} if the lookup hasn't been cached yet.
+     *
+     * @param contentPath  the (channel) content path under which the MiniHub document is looked up.
+     * @param availability the availability ({@code preview} or {@code live}) of the MiniHub document.
+     * @param guidanceUUID the UUID of the Guidance Handle node.
+     * @return the cached path of the MiniHub document node to which the given Guidance document
+     * has been associated, {@link #NOT_REFERENCED} if it is known that the Guidance document hasn't been
+     * associated to any MiniHub document or {@code null} if the lookup hasn't been cached yet.
+     */
+    public String getMiniHubPath(final String contentPath, final String availability, final String guidanceUUID) {
+        final Map<String, String> miniHubPaths = miniHubPathsByScope.get(getScope(contentPath, availability));
+        return miniHubPaths == null ? null : miniHubPaths.get(guidanceUUID);
+    }
+
+    /**
+     * Returns the current generation of the cache i.e. the number of evictions triggered by the changed MiniHub
+     * documents so far. The generation needs to be read before looking up the MiniHub document to be cached
+     * (see {@link #putMiniHubPath(String, String, String, String, long)}).
+     *
+     * @return the current generation of the cache.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the path of the MiniHub document node to which the given Guidance document has been associated
+     * unless any MiniHub document has been changed since the given {@code lookupGeneration}.
+     *
+     * @param contentPath      the (channel) content path under which the MiniHub document has been looked up.
+     * @param availability     the availability ({@code preview} or {@code live}) of the MiniHub document.
+     * @param guidanceUUID     the UUID of the Guidance Handle node.
+     * @param miniHubPath      the path of the MiniHub document node or {@code null} if the Guidance document
+     *                         hasn't been associated to any MiniHub document.
+     * @param lookupGeneration the generation (see {@link #getGeneration()}) at which the lookup started.
+     * @return {@code true} if the lookup has been cached. Otherwise, {@code false}.
+     */
+    public synchronized boolean putMiniHubPath(
+            final String contentPath,
+            final String availability,
+            final String guidanceUUID,
+            final String miniHubPath,
+            final long lookupGeneration) {
+        if (generation.get() != lookupGeneration) {
+            LOGGER.debug("MiniHub documents have been changed while looking up the Guidance '{}'. Not caching it",
+                    guidanceUUID);
+            return false;
+        }
+
+        miniHubPathsByScope
+                .computeIfAbsent(getScope(contentPath, availability), scope -> new ConcurrentHashMap<>())
+                .put(guidanceUUID, miniHubPath == null ? NOT_REFERENCED : miniHubPath);
+        return true;
+    }
+
+    /**
+     * Evicts the cached lookup of the given Guidance document.
+     *
+     * @param contentPath  the (channel) content path under which the MiniHub document has been looked up.
+     * @param availability the availability ({@code preview} or {@code live}) of the MiniHub document.
+     * @param guidanceUUID the UUID of the Guidance Handle node.
+     */
+    public void evict(final String contentPath, final String availability, final String guidanceUUID) {
+        final Map<String, String> miniHubPaths = miniHubPathsByScope.get(getScope(contentPath, availability));
+        if (miniHubPaths != null) {
+            miniHubPaths.remove(guidanceUUID);
+        }
+    }
+
+    /**
+     * Evicts the negative lookups (as the changed MiniHub documents may now reference them)
+     * and the lookups resolved to the changed MiniHub documents.
+     *
+     * @param handlePaths the paths of the changed MiniHub document handles.
+     */
+    @Override
+    public synchronized void onDocumentsChanged(final Set<String> handlePaths) {
+        generation.incrementAndGet();
+        for (final Map<String, String> miniHubPaths : miniHubPathsByScope.values()) {
+            miniHubPaths.values().removeIf(miniHubPath ->
+                    NOT_REFERENCED.equals(miniHubPath) ||
+                            handlePaths.stream().anyMatch(handlePath -> miniHubPath.startsWith(handlePath + "/")));
+        }
+
+        LOGGER.debug("Evicted cached Guidance to MiniHub references affected by the changed MiniHub documents {}",
+                handlePaths);
+    }
+
+    /**
+     * Returns the cache scope for the given {@code contentPath} and {@code availability}.
+     *
+     * @param contentPath  the (channel) content path.
+     * @param availability the availability ({@code preview} or {@code live}).
+     * @return the cache scope for the given {@code contentPath} and {@code availability}.
+     */
+    private String getScope(final String contentPath, final String availability) {
+        return contentPath + ":" + availability;
+    }
+}
@@ -0,0 +1,104 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.components.ModelLookup;
+
+import javax.jcr.Credentials;
+import javax.jcr.Repository;
+import javax.jcr.Session;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Service that runs the (independent) model lookups of the components (see {@link ModelLookup})
+ * concurrently on a bounded pool of threads.</p>
+ *
+ * <p>Each lookup borrows its own JCR session (with the live or the preview credentials, depending on the
+ * request availability) for the duration of the lookup, as the request session isn't thread-safe.
+ * Once all the threads are busy and the queue is full, the lookups are run on the submitting
+ * (request) thread itself, so that a saturated pool degrades to the sequential rendering.</p>
+ */
+public class ModelLookupService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelLookupService.class);
+
+    private final Repository repository;
+    private final Credentials liveCredentials;
+    private final Credentials previewCredentials;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates {@link ModelLookupService} instance.
+     *
+     * @param repository         the JCR {@link Repository}.
+     * @param liveCredentials    the {@link Credentials} with which the live lookups needs to read the repository.
+     * @param previewCredentials the {@link Credentials} with which the preview lookups needs to read the repository.
+     * @param poolSize           the number of threads running the lookups.
+     * @param queueCapacity      the maximum number of lookups waiting for a thread.
+     * @param timeoutMillis      the maximum time (in milliseconds) a component waits for its lookups.
+     */
+    public ModelLookupService(
+            final Repository repository,
+            final Credentials liveCredentials,
+            final Credentials previewCredentials,
+            final int poolSize,
+            final int queueCapacity,
+            final long timeoutMillis) {
+        this.repository = repository;
+        this.liveCredentials = liveCredentials;
+        this.previewCredentials = previewCredentials;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("hee-model-lookup-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Submits the given {@code lookup} to be run with a JCR session of its own.
+     *
+     * @param preview {@code true} if the lookup needs to read the preview content or {@code false}
+     *                if it needs to read the live content.
+     * @param lookup  the {@link ModelLookup} to be run.
+     * @param <T>     the type of the model produced by the lookup.
+     * @return the {@link Future} of the model produced by the given {@code lookup}.
+     */
+    public <T> Future<T> submit(final boolean preview, final ModelLookup<T> lookup) {
+        return executor.submit(() -> {
+            Session session = null;
+            try {
+                session = repository.login(preview ? previewCredentials : liveCredentials);
+                return lookup.lookup(session);
+            } finally {
+                if (session != null) {
+                    session.logout();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the maximum time (in milliseconds) a component waits for its lookups.
+     *
+     * @return the maximum time (in milliseconds) a component waits for its lookups.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Shuts down the lookup threads (cancelling the pending lookups).
+     */
+    public void destroy() {
+        LOGGER.debug("Shutting down the model lookup threads with {} pending lookups", executor.getQueue().size());
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,218 @@
+package uk.nhs.hee.web.services;
+
+import javax.mail.Address;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * (Immutable) mail queued to be sent in the background (see {@link MailDispatchService}).
+ *
+ * <p>Mails with the same (non-null) batch key and recipients that are queued within the batch window of
+ * {@link MailDispatchService} are combined (see {@link #combine(List)}) and sent as a single mail.</p>
+ */
+public class OutboundMail {
+    // Separators between the contents of the combined mails
+    private static final String HTML_SEPARATOR = "<hr/>";
+    private static final String PLAIN_TEXT_SEPARATOR = "\n\n----------------------------------------\n\n";
+    // Body (content) of an HTML document
+    private static final Pattern HTML_BODY_PATTERN =
+            Pattern.compile("(<body[^>]*>)(.*)(</body>)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final String batchKey;
+    private final List<Address> recipients;
+    private final List<Address> ccRecipients;
+    private final List<Address> bccRecipients;
+    private final String subject;
+    private final String html;
+    private final String plainText;
+
+    /**
+     * Creates {@link OutboundMail} instance.
+     *
+     * @param batchKey      the key (e.g. blog post path) of the batch to which the mail belongs
+     *                      or {@code null} if the mail needs to be sent on its own.
+     * @param recipients    the recipients.
+     * @param ccRecipients  the CC recipients.
+     * @param bccRecipients the BCC recipients.
+     * @param subject       the subject.
+     * @param html          the HTML content.
+     * @param plainText     the plain text content.
+     */
+    public OutboundMail(
+            final String batchKey,
+            final List<Address> recipients,
+            final List<Address> ccRecipients,
+            final List<Address> bccRecipients,
+            final String subject,
+            final String html,
+            final String plainText) {
+        this.batchKey = batchKey;
+        this.recipients = unmodifiableList(recipients);
+        this.ccRecipients = unmodifiableList(ccRecipients);
+        this.bccRecipients = unmodifiableList(bccRecipients);
+        this.subject = subject;
+        this.html = html;
+        this.plainText = plainText;
+    }
+
+    /**
+     * Combines the given {@code mails} (of the same batch and recipients) into a single mail which contains
+     * the contents of all the mails in the given order. The HTML content is the HTML document of the first mail
+     * whose body is replaced by the bodies of all the mails.
+     *
+     * @param mails the mails (of the same batch and recipients) to be combined.
+     * @return the combined {@link OutboundMail} or the only mail if there is just one mail.
+     * @throws IllegalArgumentException thrown when the given {@code mails} aren't addressed to the same recipients.
+     */
+    public static OutboundMail combine(final List<OutboundMail> mails) {
+        final OutboundMail first = mails.get(0);
+        if (mails.size() == 1) {
+            return first;
+        }
+
+        if (!mails.stream().allMatch(first::hasSameRecipients)) {
+            throw new IllegalArgumentException("Mails addressed to different recipients can't be combined");
+        }
+
+        return new OutboundMail(
+                first.batchKey,
+                first.recipients,
+                first.ccRecipients,
+                first.bccRecipients,
+                first.subject + " (" + mails.size() + ")",
+                combineHtml(mails),
+                mails.stream().map(OutboundMail::getPlainText).collect(Collectors.joining(PLAIN_TEXT_SEPARATOR)));
+    }
+
+    /**
+     * Returns {@code true} if the given {@code mail} is addressed to the same (TO, CC & BCC) recipients
+     * as this mail.
+     *
+     * @param mail the {@link OutboundMail} instance.
+     * @return {@code true} if the given {@code mail} is addressed to the same recipients as this mail.
+     */
+    public boolean hasSameRecipients(final OutboundMail mail) {
+        return recipients.equals(mail.recipients)
+                && ccRecipients.equals(mail.ccRecipients)
+                && bccRecipients.equals(mail.bccRecipients);
+    }
+
+    /**
+     * Returns the key of the batch to which the mail belongs or {@code null} if the mail needs to be sent on its own.
+     *
+     * @return the key of the batch to which the mail belongs or {@code null} if the mail needs to be sent on its own.
+     */
+    public String getBatchKey() {
+        return batchKey;
+    }
+
+    /**
+     * Returns the recipients.
+     *
+     * @return the recipients.
+     */
+    public List<Address> getRecipients() {
+        return recipients;
+    }
+
+    /**
+     * Returns the CC recipients.
+     *
+     * @return the CC recipients.
+     */
+    public List<Address> getCcRecipients() {
+        return ccRecipients;
+    }
+
+    /**
+     * Returns the BCC recipients.
+     *
+     * @return the BCC recipients.
+     */
+    public List<Address> getBccRecipients() {
+        return bccRecipients;
+    }
+
+    /**
+     * Returns the subject.
+     *
+     * @return the subject.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Returns the HTML content.
+     *
+     * @return the HTML content.
+     */
+    public String getHtml() {
+        return html;
+    }
+
+    /**
+     * Returns the plain text content.
+     *
+     * @return the plain text content.
+     */
+    public String getPlainText() {
+        return plainText;
+    }
+
+    /**
+     * Returns the HTML document of the first of the given {@code mails} whose body is replaced by the bodies
+     * (i.e. the HTML fragments) of all the given {@code mails}.
+     *
+     * @param mails the mails to be combined.
+     * @return the HTML document of the first mail whose body is replaced by the bodies of all the given
+     * {@code mails} or {@code null} if none of the mails has HTML content.
+     */
+    private static String combineHtml(final List<OutboundMail> mails) {
+        if (mails.stream().allMatch(mail -> mail.html == null)) {
+            return null;
+        }
+
+        final String bodies = mails.stream()
+                .map(mail -> getHtmlBody(mail.html))
+                .collect(Collectors.joining(HTML_SEPARATOR));
+
+        final String firstHtml = mails.get(0).html;
+        final Matcher matcher = firstHtml == null ? null : HTML_BODY_PATTERN.matcher(firstHtml);
+        if (matcher == null || !matcher.find()) {
+            return bodies;
+        }
+
+        return firstHtml.substring(0, matcher.end(1)) + bodies + firstHtml.substring(matcher.start(3));
+    }
+
+    /**
+     * Returns the body (content) of the given {@code html} document or the given {@code html} itself
+     * if it's a fragment.
+     *
+     * @param html the HTML document or fragment.
+     * @return the body (content) of the given {@code html} document or the given {@code html} itself
+     * if it's a fragment (or an empty string if {@code null}).
+     */
+    private static String getHtmlBody(final String html) {
+        if (html == null) {
+            return "";
+        }
+
+        final Matcher matcher = HTML_BODY_PATTERN.matcher(html);
+        return matcher.find() ? matcher.group(2) : html;
+    }
+
+    /**
+     * Returns an unmodifiable copy of the given {@code addresses} (or an empty list if {@code null}).
+     *
+     * @param addresses the addresses.
+     * @return the unmodifiable copy of the given {@code addresses} (or an empty list if {@code null}).
+     */
+    private static List<Address> unmodifiableList(final List<Address> addresses) {
+        return addresses == null ? Collections.emptyList() : Collections.unmodifiableList(addresses);
+    }
+}
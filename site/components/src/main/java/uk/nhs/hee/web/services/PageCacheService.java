@@ -0,0 +1,407 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * <p>Service that caches the rendered pages served to the anonymous live visitors
+ * (see {@link uk.nhs.hee.web.filters.PageCacheFilter}), so that they could be served without running
+ * the HST request processing (i.e. the component aggregation and rendering) again.</p>
+ *
+ * <p>The pages are cached per host, normalised path, whitelisted query parameters and the state of the
+ * {@value #ANALYTICS_COOKIE_NAME} cookie (which changes the markup of the pages i.e. the cookies banner and the
+ * analytics scripts). The requests which aren't cacheable (e.g. preview, Channel Manager, non-{@code GET},
+ * authenticated requests and the requests having any other query parameters) bypass the cache
+ * (see {@link #getCacheKey(HttpServletRequest)}).</p>
+ *
+ * <p>The documents a page depends on are recorded (see {@link PageDependencyService}) while it is being built
+ * and registered against its cache key, so that only the pages affected by the published/depublished/deleted
+ * documents are evicted (see {@link #onDocumentsChanged(Set)}). The cache is discarded as a whole
+ * when the HST model gets rebuilt, bounded by the total size of the cached pages and, as a safety net for
+ * the dependencies that aren't recorded, the pages expire after the configured number of minutes.</p>
+ */
+public class PageCacheService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageCacheService.class);
+
+    private static final String ANALYTICS_COOKIE_NAME = "analyticsCookie";
+    private static final String GET_METHOD = "GET";
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String RESERVED_PATH_SEGMENT_PREFIX = "/_";
+    private static final Pattern PATH_PARAMETERS = Pattern.compile(";[^/]*");
+    private static final Pattern DUPLICATE_SLASHES = Pattern.compile("/{2,}");
+    private static final long MAXIMUM_CHANGED_PATHS = 10000;
+
+    private final PageDependencyService pageDependencyService;
+    private final long maximumWeight;
+    private final long expireAfterWriteMinutes;
+    private final int maximumPageSize;
+    private final Set<String> queryParameters;
+
+    // Incremented on every invalidation, so that the pages rendered before an invalidation aren't cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    // The generation of the last invalidation of all the pages (or of the oldest forgotten changed path)
+    private final AtomicLong invalidatedGeneration = new AtomicLong();
+
+    // {changed_document_handle_path_or_ancestor_folder_path} -> Generation at which it has been changed
+    private final Cache<String, Long> changedPaths = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_CHANGED_PATHS)
+            .removalListener((RemovalNotification<String, Long> notification) -> {
+                if (notification.wasEvicted()) {
+                    invalidatedGeneration.accumulateAndGet(notification.getValue(), Math::max);
+                }
+            })
+            .build();
+
+    // The page cache of the HST model serving the requests
+    private volatile ModelPages modelPages;
+
+    /**
+     * Creates {@link PageCacheService} instance.
+     *
+     * @param pageDependencyService   the {@link PageDependencyService} instance.
+     * @param maximumWeight           the maximum total size (in bytes) of the pages to be cached.
+     * @param expireAfterWriteMinutes the number of minutes after which the cached pages expire.
+     * @param maximumPageSize         the maximum size (in bytes) of a page to be cached.
+     * @param queryParameters         the comma separated names of the query parameters the pages could be
+     *                                cached with (e.g. pagination and listing filters).
+     */
+    public PageCacheService(
+            final PageDependencyService pageDependencyService,
+            final long maximumWeight,
+            final long expireAfterWriteMinutes,
+            final int maximumPageSize,
+            final String queryParameters) {
+        this.pageDependencyService = pageDependencyService;
+        this.maximumWeight = maximumWeight;
+        this.expireAfterWriteMinutes = expireAfterWriteMinutes;
+        this.maximumPageSize = maximumPageSize;
+        this.queryParameters = Collections.unmodifiableSet(Arrays.stream(queryParameters.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet()));
+        this.modelPages = new ModelPages(null);
+    }
+
+    /**
+     * <p>Returns the cache key of the page requested by the given {@code request} i.e.
+     * {@code {scheme}://{host}:{port}{normalised_path}?{sorted_query_parameters}|analyticsCookie={state}}
+     * or {@code null} if the request needs to bypass the cache.</p>
+     *
+     * <p>The following requests bypass the cache:</p>
+     * <ul>
+     *     <li>Non-{@code GET} requests (e.g. form submissions)</li>
+     *     <li>Authenticated requests and the requests of the visitors having a session</li>
+     *     <li>The requests of the CMS (e.g. preview, Channel Manager and REST) and HST reserved paths
+     *     (i.e. the path segments starting with {@code _})</li>
+     *     <li>The requests having any query parameter other than the whitelisted ones (including the HST
+     *     component rendering/resource URLs and the Channel Manager {@code render_host} parameter)</li>
+     * </ul>
+     *
+     * @param request the {@link HttpServletRequest} instance.
+     * @return the cache key of the requested page or {@code null} if the request needs to bypass the cache.
+     */
+    public String getCacheKey(final HttpServletRequest request) {
+        if (!GET_METHOD.equals(request.getMethod())
+                || request.getUserPrincipal() != null
+                || request.getHeader(AUTHORIZATION_HEADER) != null
+                || request.getSession(false) != null) {
+            return null;
+        }
+
+        final String path = normalizePath(request.getRequestURI());
+        if (path.contains(RESERVED_PATH_SEGMENT_PREFIX)) {
+            return null;
+        }
+
+        final StringBuilder cacheKey = new StringBuilder()
+                .append(request.getScheme()).append("://")
+                .append(request.getServerName().toLowerCase(Locale.ROOT)).append(':')
+                .append(request.getServerPort())
+                .append(path);
+
+        char separator = '?';
+        for (final Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            if (!queryParameters.contains(parameter.getKey())) {
+                LOGGER.debug("Request '{}' has the query parameter '{}' which isn't whitelisted. Bypassing page cache",
+                        path, parameter.getKey());
+                return null;
+            }
+
+            for (final String value : parameter.getValue()) {
+                cacheKey.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+
+        return cacheKey.append('|').append(ANALYTICS_COOKIE_NAME).append('=')
+                .append(getAnalyticsCookieState(request)).toString();
+    }
+
+    /**
+     * Returns the cached page of the given {@code cacheKey} or {@code null} if the page isn't cached.
+     *
+     * @param virtualHosts the {@link VirtualHosts} (i.e. the HST model) serving the request.
+     * @param cacheKey     the cache key of the page (see {@link #getCacheKey(HttpServletRequest)}).
+     * @return the cached page of the given {@code cacheKey} or {@code null} if the page isn't cached.
+     */
+    public CachedPage getPage(final VirtualHosts virtualHosts, final String cacheKey) {
+        return getModelPages(virtualHosts).pages.getIfPresent(cacheKey);
+    }
+
+    /**
+     * Caches the given {@code page} rendered for the given {@code request} and registers its recorded dependencies
+     * (see {@link PageDependencyService#getRecordedDependencies(javax.servlet.ServletRequest)}).
+     *
+     * <p>The page isn't cached if it isn't cacheable (see
+     * {@link PageDependencyService#isCacheable(javax.servlet.ServletRequest)}), if any document it depends on
+     * has been changed since the given {@code renderGeneration} (see {@link #getGeneration()}) or if it exceeds
+     * the maximum page size.</p>
+     *
+     * @param virtualHosts     the {@link VirtualHosts} (i.e. the HST model) the page has been rendered with.
+     * @param cacheKey         the cache key of the page (see {@link #getCacheKey(HttpServletRequest)}).
+     * @param request          the {@link HttpServletRequest} the page has been rendered for.
+     * @param page             the rendered page.
+     * @param renderGeneration the generation (see {@link #getGeneration()}) at which the page rendering started.
+     * @return {@code true} if the page has been cached. Otherwise, {@code false}.
+     */
+    public boolean putPage(
+            final VirtualHosts virtualHosts,
+            final String cacheKey,
+            final HttpServletRequest request,
+            final CachedPage page,
+            final long renderGeneration) {
+        if (page.getContent().length > maximumPageSize || !pageDependencyService.isCacheable(request)) {
+            return false;
+        }
+
+        final Set<String> dependencies = pageDependencyService.getRecordedDependencies(request);
+        final ModelPages pages = getModelPages(virtualHosts);
+        synchronized (pages) {
+            // Prevents caching a page rendered with the documents changed in the meantime
+            if (isChangedSince(dependencies, renderGeneration)) {
+                LOGGER.debug("Documents have been changed while rendering the page '{}'. Not caching it", cacheKey);
+                return false;
+            }
+
+            pageDependencyService.registerPage(cacheKey, request.getRequestURL().toString(), dependencies);
+            pages.pages.put(cacheKey, page);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the current generation of the cache i.e. the number of invalidations so far. The generation needs
+     * to be read before rendering a page to be cached (see {@link #putPage}), so that the page isn't cached
+     * if any document it depends on gets changed while it's being rendered.
+     *
+     * @return the current generation of the cache.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the maximum size (in bytes) of a page to be cached.
+     *
+     * @return the maximum size (in bytes) of a page to be cached.
+     */
+    public int getMaximumPageSize() {
+        return maximumPageSize;
+    }
+
+    /**
+     * Evicts the cached pages depending on any of the given changed documents (or on their ancestor folders).
+     * The pages being rendered with the given documents (or their ancestor folders) aren't cached afterwards.
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        final ModelPages pages = modelPages;
+        synchronized (pages) {
+            final long changeGeneration = generation.incrementAndGet();
+            PageDependencyService.getAffectingPaths(handlePaths)
+                    .forEach(path -> changedPaths.put(path, changeGeneration));
+
+            final Set<String> cacheKeys = pageDependencyService.getAffectedPages(handlePaths).keySet();
+            LOGGER.debug("Documents {} have been changed. Evicting {} cached pages", handlePaths, cacheKeys.size());
+
+            pages.pages.invalidateAll(cacheKeys);
+            cacheKeys.forEach(pageDependencyService::removePage);
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return modelPages.pages.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return modelPages.pages.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return modelPages.pages.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return modelPages.pages.size();
+    }
+
+    @Override
+    public void clear() {
+        final ModelPages pages = modelPages;
+        synchronized (pages) {
+            invalidatedGeneration.accumulateAndGet(generation.incrementAndGet(), Math::max);
+            pages.pages.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns whether any of the given dependencies of a page have been changed (or all the pages have been
+     * invalidated) since the given {@code renderGeneration}.
+     *
+     * @param dependencies     the recorded dependencies of the page.
+     * @param renderGeneration the generation (see {@link #getGeneration()}) at which the page rendering started.
+     * @return {@code true} if any of the given dependencies have been changed since the given
+     * {@code renderGeneration}. Otherwise, {@code false}.
+     */
+    private boolean isChangedSince(final Set<String> dependencies, final long renderGeneration) {
+        if (invalidatedGeneration.get() > renderGeneration) {
+            return true;
+        }
+
+        for (final String dependency : dependencies) {
+            final Long changeGeneration = changedPaths.getIfPresent(dependency);
+            if (changeGeneration != null && changeGeneration > renderGeneration) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the given {@code requestURI} without the path parameters (e.g. {@code ;jsessionid=}),
+     * duplicate slashes and trailing slash.
+     *
+     * @param requestURI the request URI.
+     * @return the normalised request URI.
+     */
+    private static String normalizePath(final String requestURI) {
+        final String path = DUPLICATE_SLASHES.matcher(PATH_PARAMETERS.matcher(requestURI).replaceAll(""))
+                .replaceAll("/");
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    /**
+     * Returns the state of the {@value #ANALYTICS_COOKIE_NAME} cookie of the given {@code request} as seen by
+     * {@link uk.nhs.hee.web.components.CookiesBannerComponent} i.e. {@code none}, {@code true} or {@code false}.
+     *
+     * @param request the {@link HttpServletRequest} instance.
+     * @return the state of the {@value #ANALYTICS_COOKIE_NAME} cookie of the given {@code request}.
+     */
+    private static String getAnalyticsCookieState(final HttpServletRequest request) {
+        final Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (final Cookie cookie : cookies) {
+                if (ANALYTICS_COOKIE_NAME.equals(cookie.getName())) {
+                    return String.valueOf(Boolean.parseBoolean(cookie.getValue()));
+                }
+            }
+        }
+
+        return "none";
+    }
+
+    /**
+     * Returns the page cache of the given {@code virtualHosts} (i.e. the HST model serving the current request).
+     * The cache (of the previous HST model) is discarded if the given {@code virtualHosts} isn't the one
+     * the cached pages have been rendered with.
+     *
+     * @param virtualHosts the {@link VirtualHosts} of the current request.
+     * @return the page cache of the given {@code virtualHosts}.
+     */
+    private ModelPages getModelPages(final VirtualHosts virtualHosts) {
+        ModelPages current = modelPages;
+        if (current.virtualHosts == virtualHosts) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = modelPages;
+            if (current.virtualHosts != virtualHosts) {
+                LOGGER.debug("HST model has been rebuilt. Discarding {} cached pages", current.pages.size());
+                invalidatedGeneration.accumulateAndGet(generation.incrementAndGet(), Math::max);
+                current.pages.invalidateAll();
+                current = new ModelPages(virtualHosts);
+                modelPages = current;
+            }
+
+            return current;
+        }
+    }
+
+    /**
+     * Page cache of a single HST model.
+     */
+    private final class ModelPages {
+        private final VirtualHosts virtualHosts;
+
+        // {scheme}://{host}:{port}{path}?{query_parameters}|analyticsCookie={state} -> Cached page
+        private final Cache<String, CachedPage> pages;
+
+        /**
+         * Creates {@link ModelPages} instance.
+         *
+         * @param virtualHosts the {@link VirtualHosts} (i.e. the HST model) the pages are rendered with.
+         */
+        private ModelPages(final VirtualHosts virtualHosts) {
+            this.virtualHosts = virtualHosts;
+            this.pages = CacheBuilder.newBuilder()
+                    .maximumWeight(maximumWeight)
+                    .weigher((String key, CachedPage page) -> key.length() + page.getContent().length)
+                    .expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES)
+                    .removalListener(this::onRemoval)
+                    .recordStats()
+                    .build();
+        }
+
+        /**
+         * Removes the evicted/expired/invalidated page from the dependency graph
+         * (unless it has been replaced by or re-cached as a newer rendition).
+         *
+         * @param notification the {@link RemovalNotification} of the page.
+         */
+        private void onRemoval(final RemovalNotification<String, CachedPage> notification) {
+            if (notification.getCause() != RemovalCause.REPLACED
+                    && !pages.asMap().containsKey(notification.getKey())) {
+                pageDependencyService.removePage(notification.getKey());
+            }
+        }
+    }
+}
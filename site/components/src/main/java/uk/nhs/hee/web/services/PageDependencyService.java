@@ -0,0 +1,372 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.repository.HippoStdPubWfNodeType;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.servlet.ServletRequest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>Service that records the documents a page depends on while it is being built (i.e. during
+ * {@code doBeforeRender} of its components) and keeps the reverse dependency graph of the (cached) pages,
+ * so that the page (and fragment) caches could evict only the pages affected by a changed document
+ * instead of flushing everything.</p>
+ *
+ * <p>The following dependencies are recorded (against the current request) for a page:</p>
+ * <ul>
+ *     <li>The documents of its components (see {@link #recordDocument(HstRequestContext, HippoBean)}) along with
+ *     the documents they link to (e.g. {@code MiniHub.getGuidancePages}, {@code BlogPost.getLogoGroup}
+ *     and {@code *Reference} compounds), up to {@value #MAX_LINK_DEPTH} links away</li>
+ *     <li>The value-lists it has looked up (see {@link #recordDocument(HstRequestContext, String)})</li>
+ *     <li>The folders it has queried (see {@link #recordScope(HstRequestContext, String)}) i.e. any document
+ *     published under those folders affects the page (e.g. listing pages)</li>
+ * </ul>
+ *
+ * <p>The components rendered on every page (e.g. header, banner and breadcrumb) record their dependencies as well,
+ * so recording alone doesn't make a page cacheable. Instead, the main (content) component of the page marks the
+ * recorded dependencies as complete (see {@link #markComplete(HstRequestContext)}) once it knows everything it
+ * has been built from. The pages which haven't been marked (e.g. the ones built by components that don't record
+ * their dependencies) aren't cached.</p>
+ *
+ * <p>Once a page has been cached, its recorded dependencies (see {@link #getRecordedDependencies(ServletRequest)})
+ * are registered against its cache key and URL (see {@link #registerPage(String, String, Collection)}).
+ * The pages affected by the published documents could then be looked up via {@link #getAffectedPages(Collection)}.
+ * </p>
+ */
+public class PageDependencyService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageDependencyService.class);
+
+    private static final String RECORDED_DEPENDENCIES_ATTRIBUTE =
+            PageDependencyService.class.getName() + ".recordedDependencies";
+    private static final String PREVIEW_ATTRIBUTE = PageDependencyService.class.getName() + ".preview";
+    private static final String COMPLETE_ATTRIBUTE = PageDependencyService.class.getName() + ".complete";
+    private static final String CONTENT_ROOT_PATH = "/content/";
+    private static final int MAX_LINK_DEPTH = 2;
+
+    // {page_cache_key} -> Paths of the document handles (and folders) the page depends on
+    private final LinkDependencyIndex dependencyIndex = new LinkDependencyIndex();
+
+    // {page_cache_key} -> Page URL
+    private final Map<String, String> pageURLs = new ConcurrentHashMap<>();
+
+    // {document_variant_identifier}|{last_modification_date} -> Paths of the document handles it links to
+    private final Cache<String, Set<String>> linkedHandlePaths;
+
+    /**
+     * Creates {@link PageDependencyService} instance.
+     *
+     * @param linkedDocumentsCacheSize the maximum number of document variants whose links are to be cached.
+     */
+    public PageDependencyService(final long linkedDocumentsCacheSize) {
+        this.linkedHandlePaths = CacheBuilder.newBuilder().maximumSize(linkedDocumentsCacheSize).build();
+    }
+
+    /**
+     * Records the given {@code document} and the documents it links to (up to {@value #MAX_LINK_DEPTH} links away)
+     * as dependencies of the page being built for the given {@code requestContext}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param document       the document (bean) used to build the page.
+     */
+    public void recordDocument(final HstRequestContext requestContext, final HippoBean document) {
+        if (requestContext == null || document == null || document.getNode() == null) {
+            return;
+        }
+
+        final Set<String> dependencies = getDependencies(requestContext);
+        dependencies.add(document.getCanonicalHandlePath());
+
+        try {
+            addLinkedHandlePaths(document.getNode(), MAX_LINK_DEPTH, dependencies);
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while recording the documents linked from the document '{}'",
+                    e.getMessage(), document.getPath(), e);
+        }
+    }
+
+    /**
+     * Records the given document handle (e.g. of a value-list) as a dependency of the page being built
+     * for the given {@code requestContext}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param handlePath     the path of the document handle ({@code hippo:handle}).
+     */
+    public void recordDocument(final HstRequestContext requestContext, final String handlePath) {
+        if (requestContext != null && handlePath != null) {
+            getDependencies(requestContext).add(handlePath);
+        }
+    }
+
+    /**
+     * Records the given folder (e.g. the scope of a query) as a dependency of the page being built
+     * for the given {@code requestContext} i.e. the page gets affected by any document changed under the folder.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param scopePath      the path of the folder.
+     */
+    public void recordScope(final HstRequestContext requestContext, final String scopePath) {
+        if (requestContext != null && scopePath != null) {
+            getDependencies(requestContext).add(scopePath);
+        }
+    }
+
+    /**
+     * Marks the dependencies recorded for the page being built for the given {@code requestContext} as complete
+     * i.e. the main (content) component of the page has recorded everything the page has been built from,
+     * so that the page could be cached (see {@link #isCacheable(ServletRequest)}).
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     */
+    public void markComplete(final HstRequestContext requestContext) {
+        if (requestContext != null) {
+            getDependencies(requestContext);
+            requestContext.getServletRequest().setAttribute(COMPLETE_ATTRIBUTE, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Returns the dependencies recorded for the page built for the given {@code request}.
+     *
+     * @param request the (servlet) request of the page.
+     * @return the dependencies recorded for the page built for the given {@code request}
+     * or an empty set if nothing has been recorded.
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> getRecordedDependencies(final ServletRequest request) {
+        final Object dependencies = request.getAttribute(RECORDED_DEPENDENCIES_ATTRIBUTE);
+        return dependencies instanceof Set
+                ? Collections.unmodifiableSet((Set<String>) dependencies) : Collections.emptySet();
+    }
+
+    /**
+     * Returns whether the page built for the given {@code request} could be cached i.e. its dependencies
+     * have been marked as complete (see {@link #markComplete(HstRequestContext)}) and it hasn't been built for preview (or the Channel Manager).
+     *
+     * @param request the (servlet) request of the page.
+     * @return {@code true} if the page built for the given {@code request} could be cached.
+     * Otherwise, {@code false}.
+     */
+    public boolean isCacheable(final ServletRequest request) {
+        return request.getAttribute(COMPLETE_ATTRIBUTE) != null
+                && request.getAttribute(PREVIEW_ATTRIBUTE) == null;
+    }
+
+    /**
+     * Registers (or replaces) the given {@code dependencies} of the (cached) page.
+     *
+     * @param cacheKey     the cache key of the page.
+     * @param url          the URL of the page.
+     * @param dependencies the paths of the document handles (and folders) the page depends on.
+     */
+    public void registerPage(final String cacheKey, final String url, final Collection<String> dependencies) {
+        pageURLs.put(cacheKey, url);
+        dependencyIndex.register(cacheKey, dependencies);
+    }
+
+    /**
+     * Removes the given (evicted) page from the dependency graph.
+     *
+     * @param cacheKey the cache key of the page.
+     */
+    public void removePage(final String cacheKey) {
+        dependencyIndex.remove(cacheKey);
+        pageURLs.remove(cacheKey);
+    }
+
+    /**
+     * Returns the cache keys and the URLs of the pages affected by any of the given (published) documents
+     * i.e. the pages depending on the documents or on any of their ancestor folders.
+     *
+     * @param handlePaths the paths of the (published) document handles.
+     * @return the cache keys and the URLs ({@code {page_cache_key} -> {page_url}}) of the affected pages.
+     */
+    public Map<String, String> getAffectedPages(final Collection<String> handlePaths) {
+        final Map<String, String> affectedPages = new HashMap<>();
+        for (final String cacheKey : dependencyIndex.getDependants(getAffectingPaths(handlePaths))) {
+            final String url = pageURLs.get(cacheKey);
+            if (url != null) {
+                affectedPages.put(cacheKey, url);
+            }
+        }
+
+        return affectedPages;
+    }
+
+    /**
+     * Returns the paths the pages affected by the given (published) documents could have been recorded against
+     * i.e. the paths of the documents and their ancestor folders.
+     *
+     * @param handlePaths the paths of the (published) document handles.
+     * @return the paths of the given documents and their ancestor folders.
+     */
+    public static Set<String> getAffectingPaths(final Collection<String> handlePaths) {
+        final Set<String> paths = new LinkedHashSet<>();
+        for (final String handlePath : handlePaths) {
+            // The document itself and its ancestor folders
+            String path = handlePath;
+            while (path.lastIndexOf('/') > 0) {
+                paths.add(path);
+                path = path.substring(0, path.lastIndexOf('/'));
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * Returns the URLs of the pages affected by the given (published) document.
+     *
+     * @param handlePath the path of the (published) document handle.
+     * @return the URLs of the pages affected by the given (published) document.
+     */
+    public Set<String> getAffectedURLs(final String handlePath) {
+        return new LinkedHashSet<>(getAffectedPages(Collections.singleton(handlePath)).values());
+    }
+
+    /**
+     * Returns the cache keys of the pages affected by the given (published) document.
+     *
+     * @param handlePath the path of the (published) document handle.
+     * @return the cache keys of the pages affected by the given (published) document.
+     */
+    public Set<String> getAffectedCacheKeys(final String handlePath) {
+        return getAffectedPages(Collections.singleton(handlePath)).keySet();
+    }
+
+    /**
+     * Returns the number of pages in the dependency graph.
+     *
+     * @return the number of pages in the dependency graph.
+     */
+    public int getPageCount() {
+        return dependencyIndex.size();
+    }
+
+    /**
+     * Returns the (mutable) dependencies recorded for the page being built for the given {@code requestContext}.
+     * They're held by the servlet request, so that they're still available (e.g. to a page cache filter)
+     * once the HST request processing has finished.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the (mutable) dependencies recorded for the page being built for the given {@code requestContext}.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> getDependencies(final HstRequestContext requestContext) {
+        final ServletRequest request = requestContext.getServletRequest();
+        Set<String> dependencies = (Set<String>) request.getAttribute(RECORDED_DEPENDENCIES_ATTRIBUTE);
+        if (dependencies == null) {
+            dependencies = new LinkedHashSet<>();
+            request.setAttribute(RECORDED_DEPENDENCIES_ATTRIBUTE, dependencies);
+            if (requestContext.isPreview() || requestContext.isChannelManagerPreviewRequest()) {
+                request.setAttribute(PREVIEW_ATTRIBUTE, Boolean.TRUE);
+            }
+        }
+
+        return dependencies;
+    }
+
+    /**
+     * Adds the paths of the document handles linked from the given {@code documentNode}
+     * (and from the linked documents, up to the given {@code depth}) to the given {@code handlePaths}.
+     *
+     * @param documentNode the document (variant) node.
+     * @param depth        the number of links to be followed.
+     * @param handlePaths  the document handle paths to which the linked document handle paths need to be added.
+     * @throws RepositoryException thrown when an error occurs while reading the linked documents.
+     */
+    private void addLinkedHandlePaths(
+            final Node documentNode,
+            final int depth,
+            final Set<String> handlePaths) throws RepositoryException {
+        if (depth == 0) {
+            return;
+        }
+
+        for (final String linkedHandlePath : getLinkedHandlePaths(documentNode)) {
+            if (!handlePaths.add(linkedHandlePath) || depth == 1) {
+                continue;
+            }
+
+            final Node linkedHandleNode = documentNode.getSession().getNode(linkedHandlePath);
+            if (linkedHandleNode.isNodeType(HippoNodeType.NT_HANDLE)
+                    && linkedHandleNode.hasNode(linkedHandleNode.getName())) {
+                addLinkedHandlePaths(linkedHandleNode.getNode(linkedHandleNode.getName()), depth - 1, handlePaths);
+            }
+        }
+    }
+
+    /**
+     * Returns (cached) paths of the document handles linked from the given {@code documentNode}
+     * (i.e. the {@code hippo:docbase} of its {@code hippo:mirror}/{@code hippo:facetselect} descendants).
+     *
+     * @param documentNode the document (variant) node.
+     * @return the paths of the document handles linked from the given {@code documentNode}.
+     * @throws RepositoryException thrown when an error occurs while reading the document.
+     */
+    private Set<String> getLinkedHandlePaths(final Node documentNode) throws RepositoryException {
+        final String cacheKey = documentNode.getIdentifier() + "|" +
+                (documentNode.hasProperty(HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE)
+                        ? documentNode.getProperty(HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE)
+                        .getDate().getTimeInMillis()
+                        : documentNode.getPath());
+
+        try {
+            return linkedHandlePaths.get(cacheKey, () -> {
+                final Set<String> paths = new LinkedHashSet<>();
+                collectLinkedHandlePaths(documentNode, documentNode, paths);
+                return Collections.unmodifiableSet(paths);
+            });
+        } catch (final ExecutionException e) {
+            throw new RepositoryException(e.getCause());
+        }
+    }
+
+    /**
+     * Collects the paths of the document handles linked from the given {@code node} and its descendants.
+     *
+     * @param documentNode the document (variant) node.
+     * @param node         the (descendant) node of the document whose links need to be collected.
+     * @param handlePaths  the document handle paths to which the linked document handle paths need to be added.
+     * @throws RepositoryException thrown when an error occurs while reading the document.
+     */
+    private void collectLinkedHandlePaths(
+            final Node documentNode,
+            final Node node,
+            final Set<String> handlePaths) throws RepositoryException {
+        if (node.hasProperty(HippoNodeType.HIPPO_DOCBASE)) {
+            final String docbase = node.getProperty(HippoNodeType.HIPPO_DOCBASE).getString();
+            try {
+                final String linkedPath = documentNode.getSession().getNodeByIdentifier(docbase).getPath();
+                // Ignores the unselected links (i.e. the links to the root node)
+                if (linkedPath.startsWith(CONTENT_ROOT_PATH)) {
+                    handlePaths.add(linkedPath);
+                }
+            } catch (final ItemNotFoundException | IllegalArgumentException e) {
+                LOGGER.debug("Document '{}' linked from the document '{}' doesn't exist",
+                        docbase, documentNode.getPath());
+            }
+        }
+
+        final NodeIterator childNodes = node.getNodes();
+        while (childNodes.hasNext()) {
+            collectLinkedHandlePaths(documentNode, childNodes.nextNode(), handlePaths);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package uk.nhs.hee.web.services;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * (Immutable) HTTP validators ({@code ETag} and {@code Last-Modified}) of a rendered page
+ * (see {@link PageValidatorService}).
+ */
+public class PageValidator {
+    private static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+    private static final String ANY_ETAG = "*";
+
+    private final String etag;
+    private final long lastModified;
+
+    /**
+     * Creates {@link PageValidator} instance.
+     *
+     * @param etag         the (quoted) entity tag of the page.
+     * @param lastModified the last modification time (in milliseconds) of the page.
+     */
+    public PageValidator(final String etag, final long lastModified) {
+        this.etag = etag;
+        // HTTP dates don't have milliseconds
+        this.lastModified = lastModified - lastModified % 1000;
+    }
+
+    /**
+     * Returns the (quoted) entity tag of the page.
+     *
+     * @return the (quoted) entity tag of the page.
+     */
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * Returns the last modification time (in milliseconds, truncated to seconds) of the page.
+     *
+     * @return the last modification time (in milliseconds, truncated to seconds) of the page.
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * <p>Returns whether the page hasn't been modified since the version held by the client making the given
+     * (conditional) {@code request} i.e. the request could be answered with {@code 304 Not Modified}.</p>
+     *
+     * <p>As per RFC 7232, {@code If-None-Match} (weakly compared) takes precedence over {@code If-Modified-Since},
+     * which is evaluated only if the former isn't present.</p>
+     *
+     * @param request the {@link HttpServletRequest} instance.
+     * @return {@code true} if the page hasn't been modified since the version held by the client.
+     * Otherwise, {@code false}.
+     */
+    public boolean isNotModified(final HttpServletRequest request) {
+        final String ifNoneMatch = request.getHeader(IF_NONE_MATCH_HEADER);
+        if (ifNoneMatch != null) {
+            final String opaqueTag = getOpaqueTag(etag);
+            for (final String candidate : ifNoneMatch.split(",")) {
+                final String tag = candidate.trim();
+                if (ANY_ETAG.equals(tag) || getOpaqueTag(tag).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        try {
+            final long ifModifiedSince = request.getDateHeader(IF_MODIFIED_SINCE_HEADER);
+            return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+        } catch (final IllegalArgumentException e) {
+            // Malformed date
+            return false;
+        }
+    }
+
+    /**
+     * Returns the given {@code tag} without the weakness indicator (i.e. {@code W/}) for weak comparison.
+     *
+     * @param tag the (quoted) entity tag.
+     * @return the given {@code tag} without the weakness indicator.
+     */
+    private static String getOpaqueTag(final String tag) {
+        return tag.startsWith(WEAK_ETAG_PREFIX) ? tag.substring(WEAK_ETAG_PREFIX.length()) : tag;
+    }
+}
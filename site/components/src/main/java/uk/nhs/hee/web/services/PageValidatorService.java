@@ -0,0 +1,505 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.StringUtils;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.ServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Service that maintains the HTTP validators ({@code ETag} and {@code Last-Modified}) of the pages served to
+ * the anonymous live visitors (see {@link uk.nhs.hee.web.valves.ConditionalRequestValve}), so that the conditional
+ * requests of the browsers and CDNs could be answered with {@code 304 Not Modified} without building the page.</p>
+ *
+ * <p>A validator is created and registered for a page (see {@link #registerValidator}) once it has been built
+ * along with the documents the page has been built with (see {@link PageDependencyService}), provided that
+ * they have been marked as complete. Its entity tag is the (deterministic) hash of the page key, the
+ * {@code hippostdpubwf:lastModificationDate} of the (content) document of the page, the
+ * {@code hippostdpubwf:lastModificationDate}s of the (live) documents the page depends on and the
+ * {@value #HST_LAST_MODIFIED} of the HST configuration ({@value #HST_ROOT_PATH}). The queried folders
+ * (e.g. of listing pages) don't have a modification date of their own and so, they are represented by the
+ * {@code hippostdpubwf:lastModificationDate}s of the live documents under them. As the validators are only
+ * derived from the repository, a page gets the same entity tag on every cluster node and across restarts until
+ * any of its documents (or the HST configuration) changes, even if its validator has been discarded
+ * (e.g. expired) in the meantime.</p>
+ *
+ * <p>The validators of the pages affected by the published/depublished/deleted documents are discarded
+ * (see {@link #onDocumentsChanged(Set)}). The validators are discarded as a whole when the HST model gets
+ * rebuilt and, as a safety net for the dependencies that aren't recorded, they expire along with
+ * the cached pages.</p>
+ *
+ * <p>The {@code Cache-Control} policy of a page is taken from the {@value #CACHE_CONTROL_PARAMETER} parameter
+ * of its (inherited) sitemap item or the configured default policy (see {@link #getCacheControl}).</p>
+ */
+public class PageValidatorService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageValidatorService.class);
+
+    private static final String CACHE_CONTROL_PARAMETER = "cacheControl";
+    private static final String LAST_MODIFICATION_DATE = "hippostdpubwf:lastModificationDate";
+    private static final String HST_ROOT_PATH = "/hst:hst";
+    private static final String HST_LAST_MODIFIED = "hst:lastmodified";
+    private static final long MAXIMUM_FOLDER_STATES = 10000;
+
+    private final PageDependencyService pageDependencyService;
+    private final long maximumSize;
+    private final long expireAfterWriteMinutes;
+    private final String defaultCacheControl;
+
+    // Incremented on every invalidation, so that the validators created before an invalidation aren't registered
+    private final AtomicLong generation = new AtomicLong();
+
+    // {queried_folder_path} -> State of the live documents under the folder (read from the repository)
+    private final Cache<String, DependencyState> folderStates = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_FOLDER_STATES)
+            .build();
+
+    // The validators of the HST model serving the requests
+    private volatile ModelValidators modelValidators;
+
+    /**
+     * Creates {@link PageValidatorService} instance.
+     *
+     * @param pageDependencyService   the {@link PageDependencyService} instance.
+     * @param maximumSize             the maximum number of page validators to be kept.
+     * @param expireAfterWriteMinutes the number of minutes after which the page validators expire
+     *                                (i.e. the page cache expiry).
+     * @param defaultCacheControl     the {@code Cache-Control} policy of the pages whose sitemap items
+     *                                don't define one.
+     */
+    public PageValidatorService(
+            final PageDependencyService pageDependencyService,
+            final long maximumSize,
+            final long expireAfterWriteMinutes,
+            final String defaultCacheControl) {
+        this.pageDependencyService = pageDependencyService;
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteMinutes = expireAfterWriteMinutes;
+        this.defaultCacheControl = defaultCacheControl;
+        this.modelValidators = new ModelValidators(null);
+    }
+
+    /**
+     * Returns the (registered) validator of the given page or {@code null} if the page hasn't been built
+     * since its documents have been changed.
+     *
+     * @param virtualHosts the {@link VirtualHosts} (i.e. the HST model) serving the request.
+     * @param pageKey      the key of the page (see {@link PageCacheService#getCacheKey}).
+     * @return the (registered) validator of the given page or {@code null} if there isn't any.
+     */
+    public PageValidator getValidator(final VirtualHosts virtualHosts, final String pageKey) {
+        return getModelValidators(virtualHosts).validators.getIfPresent(pageKey);
+    }
+
+    /**
+     * Creates and registers the validator of the page built for the given {@code request} along with
+     * the dependencies recorded for it (see
+     * {@link PageDependencyService#getRecordedDependencies(ServletRequest)}).
+     *
+     * <p>The validator isn't registered if the dependencies of the page haven't been marked as complete (see
+     * {@link PageDependencyService#isCacheable(ServletRequest)}) or if any document has been changed
+     * since the given {@code renderGeneration} (see {@link #getGeneration()}).</p>
+     *
+     * @param virtualHosts         the {@link VirtualHosts} (i.e. the HST model) the page has been built with.
+     * @param pageKey              the key of the page (see {@link PageCacheService#getCacheKey}).
+     * @param documentLastModified the last modification time (in milliseconds) of the (content) document of the
+     *                             page or {@code 0} if the page doesn't have any.
+     * @param request              the (servlet) request the page has been built for.
+     * @param session              the (live) JCR {@link Session} with which the documents of the page needs
+     *                             to be read.
+     * @param renderGeneration     the generation (see {@link #getGeneration()}) at which the page building
+     *                             started.
+     * @return the registered validator of the page or {@code null} if it hasn't been registered.
+     */
+    public PageValidator registerValidator(
+            final VirtualHosts virtualHosts,
+            final String pageKey,
+            final long documentLastModified,
+            final ServletRequest request,
+            final Session session,
+            final long renderGeneration) {
+        if (!pageDependencyService.isCacheable(request)) {
+            return null;
+        }
+
+        final Set<String> dependencies = pageDependencyService.getRecordedDependencies(request);
+        final ModelValidators validators = getModelValidators(virtualHosts);
+        final Map<String, DependencyState> readFolderStates = new HashMap<>();
+        final PageValidator validator;
+        try {
+            validator = createValidator(
+                    validators, pageKey, documentLastModified, dependencies, session, readFolderStates);
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while reading the documents of the page '{}'. Not registering its validator",
+                    e.getMessage(), pageKey, e);
+            return null;
+        }
+
+        synchronized (validators) {
+            // Prevents registering a validator of the page built with the documents changed in the meantime
+            if (generation.get() != renderGeneration) {
+                LOGGER.debug("Documents have been changed while building the page '{}'. Not registering its validator",
+                        pageKey);
+                return null;
+            }
+
+            validators.dependencyIndex.register(pageKey, dependencies);
+            validators.validators.put(pageKey, validator);
+            folderStates.putAll(readFolderStates);
+        }
+
+        return validator;
+    }
+
+    /**
+     * Returns the current generation of the validators i.e. the number of invalidations so far.
+     * The generation needs to be read before building a page whose validator is to be registered
+     * (see {@link #registerValidator}).
+     *
+     * @return the current generation of the validators.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Returns the {@code Cache-Control} policy of the pages of the given {@code resolvedSiteMapItem}
+     * i.e. its (inherited) {@value #CACHE_CONTROL_PARAMETER} parameter or the default policy.
+     *
+     * @param resolvedSiteMapItem the {@link ResolvedSiteMapItem} of the page.
+     * @return the {@code Cache-Control} policy of the pages of the given {@code resolvedSiteMapItem}.
+     */
+    public String getCacheControl(final ResolvedSiteMapItem resolvedSiteMapItem) {
+        final String cacheControl = resolvedSiteMapItem.getParameter(CACHE_CONTROL_PARAMETER);
+        return StringUtils.isBlank(cacheControl) ? defaultCacheControl : cacheControl.trim();
+    }
+
+    /**
+     * Discards the validators of the pages depending on any of the given changed documents
+     * (or on their ancestor folders).
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        final ModelValidators validators = modelValidators;
+        synchronized (validators) {
+            generation.incrementAndGet();
+
+            final Set<String> affectingPaths = PageDependencyService.getAffectingPaths(handlePaths);
+            folderStates.invalidateAll(affectingPaths);
+
+            final Set<String> pageKeys = validators.dependencyIndex.getDependants(affectingPaths);
+            LOGGER.debug("Documents {} have been changed. Discarding {} page validators",
+                    handlePaths, pageKeys.size());
+            validators.validators.invalidateAll(pageKeys);
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return modelValidators.validators.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return modelValidators.validators.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return modelValidators.validators.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return modelValidators.validators.size();
+    }
+
+    @Override
+    public void clear() {
+        final ModelValidators validators = modelValidators;
+        synchronized (validators) {
+            generation.incrementAndGet();
+            validators.validators.invalidateAll();
+            folderStates.invalidateAll();
+        }
+    }
+
+    /**
+     * Creates the (deterministic) validator of the given page built with the given (content) document and
+     * dependencies by the given HST model.
+     *
+     * @param validators           the validators of the HST model the page has been built with.
+     * @param pageKey              the key of the page (see {@link PageCacheService#getCacheKey}).
+     * @param documentLastModified the last modification time (in milliseconds) of the (content) document of the
+     *                             page or {@code 0} if the page doesn't have any.
+     * @param dependencies         the dependencies recorded for the page.
+     * @param session              the (live) JCR {@link Session} with which the documents of the page needs
+     *                             to be read.
+     * @param readFolderStates     the map to which the states of the folders read from the repository (i.e. not
+     *                             served from the cache) are added, so that they could be cached along with
+     *                             the validator.
+     * @return the validator of the given page.
+     * @throws RepositoryException thrown when an error occurs while reading the documents of the page.
+     */
+    private PageValidator createValidator(
+            final ModelValidators validators,
+            final String pageKey,
+            final long documentLastModified,
+            final Set<String> dependencies,
+            final Session session,
+            final Map<String, DependencyState> readFolderStates) throws RepositoryException {
+        final long configurationLastModified = validators.getConfigurationLastModified(session);
+        final Hasher hasher = Hashing.murmur3_128().newHasher()
+                .putLong(configurationLastModified)
+                .putString(pageKey, StandardCharsets.UTF_8)
+                .putLong(documentLastModified);
+
+        long lastModified = Math.max(documentLastModified, configurationLastModified);
+        for (final String dependency : new TreeSet<>(dependencies)) {
+            final DependencyState dependencyState = getDependencyState(session, dependency, readFolderStates);
+            hasher.putString(dependency, StandardCharsets.UTF_8).putLong(dependencyState.fingerprint);
+            lastModified = Math.max(lastModified, dependencyState.lastModified);
+        }
+
+        return new PageValidator("W/\"" + hasher.hash().toString() + "\"", lastModified);
+    }
+
+    /**
+     * Returns the state of the given dependency i.e. the {@code hippostdpubwf:lastModificationDate} of the live
+     * variant of a document handle (or {@code 0} if it isn't live) or the state of the live documents under
+     * a (queried) folder (see {@link #readFolderState(Node)}).
+     *
+     * @param session          the (live) JCR {@link Session} instance.
+     * @param dependencyPath   the path of the document handle or folder.
+     * @param readFolderStates the map to which the states of the folders read from the repository are added.
+     * @return the state of the given dependency.
+     * @throws RepositoryException thrown when an error occurs while reading the dependency.
+     */
+    private DependencyState getDependencyState(
+            final Session session,
+            final String dependencyPath,
+            final Map<String, DependencyState> readFolderStates) throws RepositoryException {
+        if (!session.nodeExists(dependencyPath)) {
+            return DependencyState.NONE;
+        }
+
+        final Node node = session.getNode(dependencyPath);
+        if (node.isNodeType(HippoNodeType.NT_HANDLE)) {
+            final long lastModified = getLastModified(node);
+            return new DependencyState(lastModified, lastModified);
+        }
+
+        final DependencyState cachedState = folderStates.getIfPresent(dependencyPath);
+        if (cachedState != null) {
+            return cachedState;
+        }
+
+        final DependencyState folderState = readFolderState(node);
+        readFolderStates.put(dependencyPath, folderState);
+        return folderState;
+    }
+
+    /**
+     * Reads the state of the live documents under the given (queried) {@code folder} (and its sub-folders)
+     * i.e. the hash of their handle paths along with their {@code hippostdpubwf:lastModificationDate}s, which
+     * changes whenever a document under the folder gets published, depublished or deleted, and the latest of their
+     * {@code hippostdpubwf:lastModificationDate}s.
+     *
+     * @param folder the folder {@link Node}.
+     * @return the state of the live documents under the given {@code folder}.
+     * @throws RepositoryException thrown when an error occurs while reading the documents under the folder.
+     */
+    private static DependencyState readFolderState(final Node folder) throws RepositoryException {
+        // {live_document_handle_path} -> Its last modification time (in the deterministic order of the paths)
+        final Map<String, Long> lastModifiedByHandlePath = new TreeMap<>();
+        collectLastModified(folder, lastModifiedByHandlePath);
+
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        long lastModified = 0L;
+        for (final Map.Entry<String, Long> document : lastModifiedByHandlePath.entrySet()) {
+            hasher.putString(document.getKey(), StandardCharsets.UTF_8).putLong(document.getValue());
+            lastModified = Math.max(lastModified, document.getValue());
+        }
+
+        return new DependencyState(hasher.hash().asLong(), lastModified);
+    }
+
+    /**
+     * Collects the last modification times of the live documents under the given {@code folder}
+     * (and its sub-folders) into the given {@code lastModifiedByHandlePath} map.
+     *
+     * @param folder                   the folder {@link Node}.
+     * @param lastModifiedByHandlePath the map to which the last modification times of the live documents
+     *                                 (by their handle path) needs to be added.
+     * @throws RepositoryException thrown when an error occurs while reading the documents under the folder.
+     */
+    private static void collectLastModified(
+            final Node folder,
+            final Map<String, Long> lastModifiedByHandlePath) throws RepositoryException {
+        final NodeIterator childNodes = folder.getNodes();
+        while (childNodes.hasNext()) {
+            final Node childNode = childNodes.nextNode();
+            if (childNode.isNodeType(HippoNodeType.NT_HANDLE)) {
+                if (childNode.hasNode(childNode.getName())) {
+                    lastModifiedByHandlePath.put(childNode.getPath(), getLastModified(childNode));
+                }
+            } else if (childNode.isNodeType(HippoStdNodeType.NT_FOLDER)
+                    || childNode.isNodeType(HippoStdNodeType.NT_DIRECTORY)) {
+                collectLastModified(childNode, lastModifiedByHandlePath);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@code hippostdpubwf:lastModificationDate} of the live variant of the given document
+     * {@code handle} or {@code 0} if it isn't live.
+     *
+     * @param handle the document handle {@link Node}.
+     * @return the last modification time (in milliseconds) of the given document {@code handle}.
+     * @throws RepositoryException thrown when an error occurs while reading the document.
+     */
+    private static long getLastModified(final Node handle) throws RepositoryException {
+        if (!handle.hasNode(handle.getName())) {
+            return 0L;
+        }
+
+        final Node variant = handle.getNode(handle.getName());
+        return variant.hasProperty(LAST_MODIFICATION_DATE)
+                ? variant.getProperty(LAST_MODIFICATION_DATE).getDate().getTimeInMillis() : 0L;
+    }
+
+    /**
+     * Returns the validators of the given {@code virtualHosts} (i.e. the HST model serving the current request).
+     * The validators (of the previous HST model) are discarded if the given {@code virtualHosts} isn't the one
+     * the pages have been built with.
+     *
+     * @param virtualHosts the {@link VirtualHosts} of the current request.
+     * @return the validators of the given {@code virtualHosts}.
+     */
+    private ModelValidators getModelValidators(final VirtualHosts virtualHosts) {
+        ModelValidators current = modelValidators;
+        if (current.virtualHosts == virtualHosts) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = modelValidators;
+            if (current.virtualHosts != virtualHosts) {
+                LOGGER.debug("HST model has been rebuilt. Discarding {} page validators", current.validators.size());
+                generation.incrementAndGet();
+                current = new ModelValidators(virtualHosts);
+                modelValidators = current;
+            }
+
+            return current;
+        }
+    }
+
+    /**
+     * Page validators (and their dependency index) of a single HST model.
+     */
+    private final class ModelValidators {
+        private final VirtualHosts virtualHosts;
+        private final LinkDependencyIndex dependencyIndex = new LinkDependencyIndex();
+
+        // Last modification time of the HST configuration the model has been loaded from (or -1 until it is read)
+        private volatile long configurationLastModified = -1L;
+
+        // {page_key} -> Validator of the page
+        private final Cache<String, PageValidator> validators;
+
+        /**
+         * Creates {@link ModelValidators} instance.
+         *
+         * @param virtualHosts the {@link VirtualHosts} (i.e. the HST model) the pages are built with.
+         */
+        private ModelValidators(final VirtualHosts virtualHosts) {
+            this.virtualHosts = virtualHosts;
+            this.validators = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(expireAfterWriteMinutes, TimeUnit.MINUTES)
+                    .removalListener(this::onRemoval)
+                    .recordStats()
+                    .build();
+        }
+
+        /**
+         * Returns the {@code hst:lastmodified} (in milliseconds) of the HST configuration
+         * ({@code /hst:hst}) the model has been loaded from or {@code 0} if it doesn't have any.
+         * It is read on the first call, as the model doesn't change once it has been loaded.
+         *
+         * @param session the (live) JCR {@link Session} instance.
+         * @return the last modification time (in milliseconds) of the HST configuration.
+         * @throws RepositoryException thrown when an error occurs while reading the HST configuration.
+         */
+        private long getConfigurationLastModified(final Session session) throws RepositoryException {
+            if (configurationLastModified < 0L) {
+                final Node hstRoot = session.nodeExists(HST_ROOT_PATH) ? session.getNode(HST_ROOT_PATH) : null;
+                configurationLastModified = hstRoot != null && hstRoot.hasProperty(HST_LAST_MODIFIED)
+                        ? hstRoot.getProperty(HST_LAST_MODIFIED).getDate().getTimeInMillis() : 0L;
+            }
+
+            return configurationLastModified;
+        }
+
+        /**
+         * Removes the evicted/invalidated validator from the dependency index
+         * (unless it has been replaced by or re-registered as a newer validator).
+         *
+         * @param notification the {@link RemovalNotification} of the validator.
+         */
+        private void onRemoval(final RemovalNotification<String, PageValidator> notification) {
+            if (notification.getCause() != RemovalCause.REPLACED
+                    && !validators.asMap().containsKey(notification.getKey())) {
+                dependencyIndex.remove(notification.getKey());
+            }
+        }
+    }
+
+    /**
+     * (Immutable) state of a dependency of a page read from the repository.
+     */
+    private static final class DependencyState {
+        private static final DependencyState NONE = new DependencyState(0L, 0L);
+
+        // Changes whenever the dependency gets changed
+        private final long fingerprint;
+        private final long lastModified;
+
+        /**
+         * Creates {@link DependencyState} instance.
+         *
+         * @param fingerprint  the fingerprint of the dependency i.e. a value which changes whenever
+         *                     the dependency gets changed.
+         * @param lastModified the last modification time (in milliseconds) of the dependency.
+         */
+        private DependencyState(final long fingerprint, final long lastModified) {
+            this.fingerprint = fingerprint;
+            this.lastModified = lastModified;
+        }
+    }
+}
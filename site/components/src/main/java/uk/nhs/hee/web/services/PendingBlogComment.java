@@ -0,0 +1,107 @@
+package uk.nhs.hee.web.services;
+
+/**
+ * (Immutable) blog comment submitted by a site visitor and queued (see {@link BlogCommentQueueService})
+ * to be added ({@code hee:blogComment}) to its blog post ({@code hee:blogPost}) document. The comment is identified
+ * by its (unique) comment ID, so that it's added to its blog post only once.
+ */
+public class PendingBlogComment {
+    private final String commentId;
+    private final String blogPostHandlePath;
+    private final String message;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final long submittedTime;
+
+    /**
+     * Creates {@link PendingBlogComment} instance.
+     *
+     * @param commentId          the (unique) comment ID.
+     * @param blogPostHandlePath the (canonical) handle path of the blog post document.
+     * @param message            the comment message.
+     * @param firstName          the first name of the comment author.
+     * @param lastName           the last name of the comment author.
+     * @param email              the email address of the comment author.
+     * @param submittedTime      the time (in milliseconds) at which the comment has been submitted.
+     */
+    public PendingBlogComment(
+            final String commentId,
+            final String blogPostHandlePath,
+            final String message,
+            final String firstName,
+            final String lastName,
+            final String email,
+            final long submittedTime) {
+        this.commentId = commentId;
+        this.blogPostHandlePath = blogPostHandlePath;
+        this.message = message;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.submittedTime = submittedTime;
+    }
+
+    /**
+     * Returns the (unique) comment ID.
+     *
+     * @return the (unique) comment ID.
+     */
+    public String getCommentId() {
+        return commentId;
+    }
+
+    /**
+     * Returns the (canonical) handle path of the blog post document.
+     *
+     * @return the (canonical) handle path of the blog post document.
+     */
+    public String getBlogPostHandlePath() {
+        return blogPostHandlePath;
+    }
+
+    /**
+     * Returns the comment message.
+     *
+     * @return the comment message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the first name of the comment author.
+     *
+     * @return the first name of the comment author.
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Returns the last name of the comment author.
+     *
+     * @return the last name of the comment author.
+     */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Returns the email address of the comment author.
+     *
+     * @return the email address of the comment author.
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Returns the time (in milliseconds) at which the comment has been submitted.
+     *
+     * @return the time (in milliseconds) at which the comment has been submitted.
+     */
+    public long getSubmittedTime() {
+        return submittedTime;
+    }
+}
@@ -0,0 +1,56 @@
+package uk.nhs.hee.web.services;
+
+/**
+ * Statistics of a queue processed in the background by a service, exposed via JMX
+ * (see {@code META-INF/hst-assembly/overrides/queue-statistics.xml}).
+ */
+public interface QueueStatistics {
+
+    /**
+     * Returns the number of items waiting in the queue.
+     *
+     * @return the number of items waiting in the queue.
+     */
+    long getQueueDepth();
+
+    /**
+     * Returns the time (in milliseconds) the oldest item has been waiting in the queue
+     * or {@code 0} if the queue is empty.
+     *
+     * @return the time (in milliseconds) the oldest item has been waiting in the queue
+     * or {@code 0} if the queue is empty.
+     */
+    long getOldestItemAgeMillis();
+
+    /**
+     * Returns the number of items processed since startup.
+     *
+     * @return the number of items processed since startup.
+     */
+    long getProcessedCount();
+
+    /**
+     * Returns the number of failed (and hence, retried) processing attempts since startup.
+     *
+     * @return the number of failed (and hence, retried) processing attempts since startup.
+     */
+    long getFailedAttemptCount();
+
+    /**
+     * Returns the average time (in milliseconds) from queueing to processing of the items
+     * or {@code 0} if no items have been processed yet.
+     *
+     * @return the average time (in milliseconds) from queueing to processing of the items
+     * or {@code 0} if no items have been processed yet.
+     */
+    double getAverageLatencyMillis();
+
+    /**
+     * Returns the maximum time (in milliseconds) from queueing to processing of the items
+     * or {@code 0} if no items have been processed yet.
+     *
+     * @return the maximum time (in milliseconds) from queueing to processing of the items
+     * or {@code 0} if no items have been processed yet.
+     */
+    long getMaxLatencyMillis();
+}
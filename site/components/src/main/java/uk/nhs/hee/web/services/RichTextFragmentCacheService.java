@@ -0,0 +1,436 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.utils.HstUtils;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * <p>Service that caches the rendered (i.e. link rewritten) markup of rich text ({@code hippostd:html}) fields
+ * (see {@link uk.nhs.hee.web.content.rewriter.impl.MiniHubGuidanceLinkRewriter}) per HTML node,
+ * version of the document the field belongs to, target Mount and Mount (and availability) of the request.</p>
+ *
+ * <p>The documents a rendered fragment depends on (i.e. the document of the field, the documents it links to
+ * and the documents its links have been resolved through) are kept in a {@link LinkDependencyIndex},
+ * so that only the fragments affected by the changed (published/depublished/deleted) documents are evicted
+ * (see {@link #onDocumentsChanged(Set)}). The cache is bounded by the total length of the cached markup.
+ * The fragments rendered while any document has been changed aren't cached, so that a fragment rendered with
+ * a stale document (e.g. MiniHub) isn't cached after the eviction of that document.</p>
+ */
+public class RichTextFragmentCacheService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RichTextFragmentCacheService.class);
+
+    private static final String LAST_MODIFICATION_DATE = "hippostdpubwf:lastModificationDate";
+    private static final String RENDER_DEPENDENCIES_ATTRIBUTE =
+            RichTextFragmentCacheService.class.getName() + ".renderDependencies";
+
+    private final long maximumWeight;
+    // Number of document change notifications so far (see #onDocumentsChanged(Set))
+    private final AtomicLong generation = new AtomicLong();
+
+    // The rendered fragment cache of the HST model serving the requests
+    private volatile ModelFragments modelFragments;
+
+    /**
+     * Creates {@link RichTextFragmentCacheService} instance.
+     *
+     * @param maximumWeight the maximum total length (in characters) of the rendered fragments (and their keys)
+     *                      to be cached.
+     */
+    public RichTextFragmentCacheService(final long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        this.modelFragments = new ModelFragments(null, maximumWeight);
+    }
+
+    /**
+     * <p>Returns the rendered fragment of the given {@code htmlNode} from the cache or (on cache miss)
+     * rendered by the given {@code renderer}.</p>
+     *
+     * <p>The cache is looked up by the identifier of the {@code htmlNode} and the version of its document, and
+     * the documents linked from the {@code htmlNode} are only resolved on cache miss. The fragment isn't cached
+     * if the version of its document can't be determined (e.g. the {@code htmlNode} doesn't belong to a document),
+     * if it has been marked as uncacheable while rendering (see {@link #markUncacheable(HstRequestContext)})
+     * or if any document has been changed while rendering.</p>
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param targetMount    the target {@link Mount} of the links (or {@code null} for the request Mount).
+     * @param htmlNode       the rich text ({@code hippostd:html}) node.
+     * @param renderer       the renderer of the rich text.
+     * @return the rendered fragment of the given {@code htmlNode}.
+     */
+    public String getRenderedFragment(
+            final HstRequestContext requestContext,
+            final Mount targetMount,
+            final Node htmlNode,
+            final Supplier<String> renderer) {
+        final FragmentSource fragmentSource = getFragmentSource(htmlNode);
+        if (fragmentSource == null) {
+            return renderer.get();
+        }
+
+        final ModelFragments fragments = getModelFragments(
+                requestContext.getResolvedMount().getMount().getVirtualHost().getVirtualHosts());
+        final String cacheKey = HstUtils.getMountCacheKey(requestContext) + "|" +
+                (targetMount == null ? "" : targetMount.getIdentifier()) + "|" +
+                fragmentSource.htmlNodeId + "|" + fragmentSource.version;
+
+        final String cachedFragment = fragments.fragments.getIfPresent(cacheKey);
+        if (cachedFragment != null) {
+            return cachedFragment;
+        }
+
+        final long renderGeneration = generation.get();
+        final Set<String> handlePaths = getDependencies(htmlNode, fragmentSource);
+        if (handlePaths == null) {
+            return renderer.get();
+        }
+
+        final RenderDependencies renderDependencies = new RenderDependencies(handlePaths);
+        final Object outerRenderDependencies = requestContext.getAttribute(RENDER_DEPENDENCIES_ATTRIBUTE);
+        requestContext.setAttribute(RENDER_DEPENDENCIES_ATTRIBUTE, renderDependencies);
+
+        final String fragment;
+        try {
+            fragment = renderer.get();
+        } finally {
+            if (outerRenderDependencies == null) {
+                requestContext.removeAttribute(RENDER_DEPENDENCIES_ATTRIBUTE);
+            } else {
+                requestContext.setAttribute(RENDER_DEPENDENCIES_ATTRIBUTE, outerRenderDependencies);
+            }
+        }
+
+        if (fragment == null || !renderDependencies.cacheable) {
+            LOGGER.debug("Rendered fragment of the rich text node '{}' isn't cacheable", fragmentSource.htmlNodeId);
+            return fragment;
+        }
+
+        putFragment(fragments, cacheKey, renderDependencies.handlePaths, fragment, renderGeneration);
+        return fragment;
+    }
+
+    /**
+     * Records the given document handle as a dependency of the rich text fragment being rendered
+     * (e.g. a document through which a link has been resolved). Does nothing if no fragment is being rendered.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @param handlePath     the path of the document handle ({@code hippo:handle}).
+     */
+    public void addLinkDependency(final HstRequestContext requestContext, final String handlePath) {
+        final RenderDependencies renderDependencies = getRenderDependencies(requestContext);
+        if (renderDependencies != null && handlePath != null) {
+            renderDependencies.handlePaths.add(handlePath);
+        }
+    }
+
+    /**
+     * Marks the rich text fragment being rendered as uncacheable (e.g. it contains a link whose resolution
+     * may change without any of the recorded dependencies being changed).
+     * Does nothing if no fragment is being rendered.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     */
+    public void markUncacheable(final HstRequestContext requestContext) {
+        final RenderDependencies renderDependencies = getRenderDependencies(requestContext);
+        if (renderDependencies != null) {
+            renderDependencies.cacheable = false;
+        }
+    }
+
+    /**
+     * Evicts the rendered fragments depending on any of the given changed documents.
+     *
+     * @param handlePaths the paths of the changed document handles.
+     */
+    @Override
+    public synchronized void onDocumentsChanged(final Set<String> handlePaths) {
+        // Prevents caching the fragments being rendered with the changed documents
+        generation.incrementAndGet();
+
+        final ModelFragments fragments = modelFragments;
+        final Set<String> cacheKeys = fragments.dependencyIndex.getDependants(handlePaths);
+
+        LOGGER.debug("Documents {} have been changed. Evicting {} rendered rich text fragments",
+                handlePaths, cacheKeys.size());
+        fragments.fragments.invalidateAll(cacheKeys);
+    }
+
+    @Override
+    public long getHitCount() {
+        return modelFragments.fragments.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return modelFragments.fragments.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return modelFragments.fragments.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return modelFragments.fragments.size();
+    }
+
+    @Override
+    public void clear() {
+        modelFragments.fragments.invalidateAll();
+    }
+
+    /**
+     * Returns the {@link RenderDependencies} of the rich text fragment being rendered for the given
+     * {@code requestContext} or {@code null} if no fragment is being rendered.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the {@link RenderDependencies} of the rich text fragment being rendered
+     * or {@code null} if no fragment is being rendered.
+     */
+    private RenderDependencies getRenderDependencies(final HstRequestContext requestContext) {
+        if (requestContext == null) {
+            return null;
+        }
+
+        final Object renderDependencies = requestContext.getAttribute(RENDER_DEPENDENCIES_ATTRIBUTE);
+        return renderDependencies instanceof RenderDependencies ? (RenderDependencies) renderDependencies : null;
+    }
+
+    /**
+     * Caches the given rendered {@code fragment} (along with its dependencies) unless any document has been
+     * changed since the given {@code renderGeneration}.
+     *
+     * @param fragments        the rendered fragment cache of the HST model the fragment has been rendered with.
+     * @param cacheKey         the cache key of the fragment.
+     * @param handlePaths      the paths of the document handles the fragment depends on.
+     * @param fragment         the rendered fragment.
+     * @param renderGeneration the generation at which the fragment rendering started.
+     */
+    private synchronized void putFragment(
+            final ModelFragments fragments,
+            final String cacheKey,
+            final Set<String> handlePaths,
+            final String fragment,
+            final long renderGeneration) {
+        if (generation.get() != renderGeneration) {
+            LOGGER.debug("Documents have been changed while rendering the rich text fragment '{}'. Not caching it",
+                    cacheKey);
+            return;
+        }
+
+        fragments.dependencyIndex.register(cacheKey, handlePaths);
+        fragments.fragments.put(cacheKey, fragment);
+    }
+
+    /**
+     * Returns the {@link FragmentSource} (i.e. the identifier, document version and the document handle path)
+     * of the given {@code htmlNode}.
+     *
+     * @param htmlNode the rich text ({@code hippostd:html}) node.
+     * @return the {@link FragmentSource} of the given {@code htmlNode} or {@code null}
+     * if it doesn't belong to a document or can't be read.
+     */
+    private FragmentSource getFragmentSource(final Node htmlNode) {
+        try {
+            Node documentNode = htmlNode;
+            Node handleNode = null;
+            while (documentNode.getDepth() > 0) {
+                final Node parentNode = documentNode.getParent();
+                if (parentNode.isNodeType(HippoNodeType.NT_HANDLE)) {
+                    handleNode = parentNode;
+                    break;
+                }
+                documentNode = parentNode;
+            }
+
+            if (handleNode == null) {
+                LOGGER.debug("Rich text node '{}' doesn't belong to a document", htmlNode.getPath());
+                return null;
+            }
+
+            final long version = documentNode.hasProperty(LAST_MODIFICATION_DATE)
+                    ? documentNode.getProperty(LAST_MODIFICATION_DATE).getDate().getTimeInMillis() : 0L;
+
+            return new FragmentSource(htmlNode.getIdentifier(), version, handleNode.getPath());
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while reading the rich text node {}", e.getMessage(), htmlNode, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the paths of the document handles the given {@code htmlNode} is known to depend on
+     * (i.e. its own document and the documents it links to).
+     *
+     * @param htmlNode       the rich text ({@code hippostd:html}) node.
+     * @param fragmentSource the {@link FragmentSource} of the given {@code htmlNode}.
+     * @return the paths of the document handles the given {@code htmlNode} depends on or {@code null}
+     * if its links can't be read.
+     */
+    private Set<String> getDependencies(final Node htmlNode, final FragmentSource fragmentSource) {
+        final Set<String> handlePaths = new HashSet<>();
+        handlePaths.add(fragmentSource.handlePath);
+
+        try {
+            addLinkedHandlePaths(htmlNode, handlePaths);
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while reading the links of the rich text node '{}'",
+                    e.getMessage(), fragmentSource.htmlNodeId, e);
+            return null;
+        }
+
+        return handlePaths;
+    }
+
+    /**
+     * Adds the paths of the documents (handles) linked from the given {@code htmlNode}
+     * (i.e. the {@code hippo:docbase} of its {@code hippo:facetselect}/{@code hippo:mirror} child nodes)
+     * to the given {@code handlePaths}.
+     *
+     * @param htmlNode    the rich text ({@code hippostd:html}) node.
+     * @param handlePaths the document handle paths to which the linked document paths need to be added.
+     * @throws RepositoryException thrown when an error occurs while reading the link nodes.
+     */
+    private void addLinkedHandlePaths(final Node htmlNode, final Set<String> handlePaths) throws RepositoryException {
+        final NodeIterator linkNodes = htmlNode.getNodes();
+        while (linkNodes.hasNext()) {
+            final Node linkNode = linkNodes.nextNode();
+            if (!linkNode.hasProperty(HippoNodeType.HIPPO_DOCBASE)) {
+                continue;
+            }
+
+            final String docbase = linkNode.getProperty(HippoNodeType.HIPPO_DOCBASE).getString();
+            try {
+                handlePaths.add(htmlNode.getSession().getNodeByIdentifier(docbase).getPath());
+            } catch (final ItemNotFoundException | IllegalArgumentException e) {
+                LOGGER.debug("Document '{}' linked from the rich text node '{}' doesn't exist",
+                        docbase, htmlNode.getPath());
+            }
+        }
+    }
+
+    /**
+     * Returns the rendered fragment cache of the given {@code virtualHosts} (i.e. the HST model serving
+     * the current request). The cache (of the previous HST model) is discarded if the given {@code virtualHosts}
+     * isn't the one the cached fragments have been rendered with.
+     *
+     * @param virtualHosts the {@link VirtualHosts} of the current request.
+     * @return the rendered fragment cache of the given {@code virtualHosts}.
+     */
+    private ModelFragments getModelFragments(final VirtualHosts virtualHosts) {
+        ModelFragments current = modelFragments;
+        if (current.virtualHosts == virtualHosts) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = modelFragments;
+            if (current.virtualHosts != virtualHosts) {
+                LOGGER.debug("HST model has been rebuilt. Discarding {} rendered rich text fragments",
+                        current.fragments.size());
+                current = new ModelFragments(virtualHosts, maximumWeight);
+                modelFragments = current;
+            }
+
+            return current;
+        }
+    }
+
+    /**
+     * Identifier, document version and document handle path of a rich text ({@code hippostd:html}) node.
+     */
+    private static final class FragmentSource {
+        private final String htmlNodeId;
+        private final long version;
+        private final String handlePath;
+
+        /**
+         * Creates {@link FragmentSource} instance.
+         *
+         * @param htmlNodeId the identifier of the rich text node.
+         * @param version    the version (last modification time) of the document the rich text belongs to.
+         * @param handlePath the path of the document handle the rich text belongs to.
+         */
+        private FragmentSource(final String htmlNodeId, final long version, final String handlePath) {
+            this.htmlNodeId = htmlNodeId;
+            this.version = version;
+            this.handlePath = handlePath;
+        }
+    }
+
+    /**
+     * Document dependencies (and cacheability) of the rich text fragment being rendered.
+     */
+    private static final class RenderDependencies {
+        private final Set<String> handlePaths;
+        private volatile boolean cacheable = true;
+
+        /**
+         * Creates {@link RenderDependencies} instance.
+         *
+         * @param handlePaths the paths of the document handles the rich text is known to depend on.
+         */
+        private RenderDependencies(final Set<String> handlePaths) {
+            this.handlePaths = handlePaths;
+        }
+    }
+
+    /**
+     * Rendered fragment cache (and its dependency index) of a single HST model.
+     */
+    private static final class ModelFragments {
+        private final VirtualHosts virtualHosts;
+        private final LinkDependencyIndex dependencyIndex = new LinkDependencyIndex();
+
+        // {mount_cache_key}|{target_mount_id}|{html_node_id}|{document_version} -> Rendered fragment
+        private final Cache<String, String> fragments;
+
+        /**
+         * Creates {@link ModelFragments} instance.
+         *
+         * @param virtualHosts  the {@link VirtualHosts} (i.e. the HST model) the fragments are rendered with.
+         * @param maximumWeight the maximum total length (in characters) of the rendered fragments (and their keys)
+         *                      to be cached.
+         */
+        private ModelFragments(final VirtualHosts virtualHosts, final long maximumWeight) {
+            this.virtualHosts = virtualHosts;
+            this.fragments = CacheBuilder.newBuilder()
+                    .maximumWeight(maximumWeight)
+                    .weigher((String key, String fragment) -> key.length() + fragment.length())
+                    .removalListener(this::onRemoval)
+                    .recordStats()
+                    .build();
+        }
+
+        /**
+         * Removes the evicted/invalidated fragment from the dependency index
+         * (unless it has been replaced by or re-cached as a newer rendition).
+         *
+         * @param notification the {@link RemovalNotification} of the fragment.
+         */
+        private void onRemoval(final RemovalNotification<String, String> notification) {
+            if (notification.getCause() != RemovalCause.REPLACED
+                    && !fragments.asMap().containsKey(notification.getKey())) {
+                dependencyIndex.remove(notification.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package uk.nhs.hee.web.services;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * <p>Service that signs the (opaque) tokens exchanged with the clients (e.g. Listing Page cursors) with
+ * {@code HmacSHA256}, so that the tokens sent back by the clients could be trusted i.e. they have been issued
+ * by the site and haven't been tampered with.</p>
+ *
+ * <p>The tokens are signed with the configured secret or, if there isn't any, with a random key generated
+ * at startup. In the latter case, the tokens are only accepted by the node which has issued them (until it gets
+ * restarted).</p>
+ */
+public class TokenSigningService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenSigningService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SIGNATURE_SEPARATOR = ".";
+    private static final int RANDOM_KEY_LENGTH = 32;
+
+    private final SecretKeySpec key;
+
+    /**
+     * Creates {@link TokenSigningService} instance.
+     *
+     * @param secret the secret with which the tokens needs to be signed or an empty string to sign them with
+     *               a random (node local) key.
+     */
+    public TokenSigningService(final String secret) {
+        final byte[] keyBytes;
+        if (StringUtils.isBlank(secret)) {
+            LOGGER.info("No token signing secret has been configured. Signing tokens with a random (node local) key");
+            keyBytes = new byte[RANDOM_KEY_LENGTH];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * Returns the given (URL safe) {@code token} along with its signature.
+     *
+     * @param token the (URL safe) token to be signed.
+     * @return the given {@code token} along with its (URL safe Base64) signature.
+     */
+    public String sign(final String token) {
+        return token + SIGNATURE_SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(mac(token));
+    }
+
+    /**
+     * Returns the token of the given {@code signedToken} if its signature is valid. Otherwise, returns {@code null}.
+     *
+     * @param signedToken the signed token (see {@link #sign(String)}).
+     * @return the token of the given {@code signedToken} if its signature is valid. Otherwise, returns {@code null}.
+     */
+    public String verify(final String signedToken) {
+        if (StringUtils.isBlank(signedToken)) {
+            return null;
+        }
+
+        final int separatorIndex = signedToken.lastIndexOf(SIGNATURE_SEPARATOR);
+        if (separatorIndex <= 0) {
+            return null;
+        }
+
+        final String token = signedToken.substring(0, separatorIndex);
+        try {
+            final byte[] signature = Base64.getUrlDecoder().decode(signedToken.substring(separatorIndex + 1));
+            return MessageDigest.isEqual(signature, mac(token)) ? token : null;
+        } catch (final IllegalArgumentException e) {
+            // Invalid Base64 signature
+            return null;
+        }
+    }
+
+    /**
+     * Returns the {@code HmacSHA256} of the given {@code token}.
+     *
+     * @param token the token.
+     * @return the {@code HmacSHA256} of the given {@code token}.
+     */
+    private byte[] mac(final String token) {
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+        } catch (final GeneralSecurityException e) {
+            // HmacSHA256 is supported by every Java platform
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+}
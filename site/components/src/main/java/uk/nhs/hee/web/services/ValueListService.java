@@ -0,0 +1,312 @@
+package uk.nhs.hee.web.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.onehippo.forge.selection.hst.manager.ValueListManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.listeners.DocumentChangeHandler;
+import uk.nhs.hee.web.repository.ValueListIdentifier;
+import uk.nhs.hee.web.utils.DocumentUtils;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>Service that caches (immutable) maps of the value-lists ({@code selection:valuelist}) per (channel specific)
+ * identifier and availability (preview/live), so that rendering doesn't read the value-lists from the repository.</p>
+ *
+ * <p>All the value-lists mapped in {@code valueListManager.xml} (i.e. the {@link ValueListIdentifier} value-lists
+ * and their channel specific variants) are loaded at startup (see {@link #init()}) and the rest are loaded lazily.
+ * The maps of the value-lists changed under {@code /content/documents/administration/valuelists}
+ * are reloaded on their change (see {@link #onDocumentsChanged(Set)}). The cache is bounded, so that the lookups
+ * of arbitrary (e.g. unmapped) identifiers don't grow it indefinitely.</p>
+ */
+public class ValueListService implements DocumentChangeHandler, CacheStatistics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValueListService.class);
+
+    private static final String LIST_ITEM_NODE_NAME = "selection:listitem";
+    private static final String KEY_PROPERTY = "selection:key";
+    private static final String LABEL_PROPERTY = "selection:label";
+    private static final String LIVE_CACHE_KEY_PREFIX = "live|";
+    private static final String PREVIEW_CACHE_KEY_PREFIX = "preview|";
+
+    private final Repository repository;
+    private final Credentials liveCredentials;
+    private final Credentials previewCredentials;
+    private final ValueListManager valueListManager;
+
+    // {availability}|{value_list_identifier} -> Value-list map
+    private final Cache<String, Map<String, String>> valueListMaps;
+
+    /**
+     * Creates {@link ValueListService} instance.
+     *
+     * @param repository         the JCR {@link Repository}.
+     * @param liveCredentials    the {@link Credentials} with which the live value-lists needs to be read.
+     * @param previewCredentials the {@link Credentials} with which the preview value-lists needs to be read.
+     * @param valueListManager   the {@link ValueListManager} mapping the value-list identifiers to their paths.
+     * @param maximumSize        the maximum number of value-list maps to be cached.
+     */
+    public ValueListService(
+            final Repository repository,
+            final Credentials liveCredentials,
+            final Credentials previewCredentials,
+            final ValueListManager valueListManager,
+            final long maximumSize) {
+        this.repository = repository;
+        this.liveCredentials = liveCredentials;
+        this.previewCredentials = previewCredentials;
+        this.valueListManager = valueListManager;
+        this.valueListMaps = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    /**
+     * Loads the live and the preview maps of all the value-lists mapped in {@code valueListManager.xml}
+     * (i.e. all the {@link ValueListIdentifier} value-lists and their channel specific variants).
+     * In case of failure (e.g. repository isn't available yet), the value-lists will be loaded
+     * on their first lookup.
+     */
+    public void init() {
+        // Includes the (channel specific) identifiers of all ValueListIdentifier value-lists
+        final Set<String> valueListIdentifiers = new LinkedHashSet<>(valueListManager.getValueListIdentifiers());
+
+        try {
+            load(false, valueListIdentifiers);
+            load(true, valueListIdentifiers);
+
+            LOGGER.info("Loaded value-lists {}", valueListIdentifiers);
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while loading value-lists at startup. " +
+                    "Value-lists will be loaded on their first lookup instead.", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns (immutable) map of the given {@code valueListIdentifier}.
+     *
+     * @param valueListIdentifier the (channel specific) value-list identifier (as mapped in
+     *                            {@code valueListManager.xml}).
+     * @param preview             {@code true} if the map of the preview variant of the value-list needs to be
+     *                            returned or {@code false} if the map of the live variant needs to be returned.
+     * @return the (immutable) map of the given {@code valueListIdentifier} or an empty map if there is
+     * no such value-list.
+     */
+    public Map<String, String> getValueListMap(final String valueListIdentifier, final boolean preview) {
+        try {
+            return valueListMaps.get(getCacheKey(valueListIdentifier, preview), () -> {
+                final Session session = repository.login(preview ? previewCredentials : liveCredentials);
+                try {
+                    return readValueListMap(session, valueListIdentifier, preview);
+                } finally {
+                    session.logout();
+                }
+            });
+        } catch (final ExecutionException e) {
+            LOGGER.error("Caught error '{}' while loading '{}' value-list", e.getMessage(), valueListIdentifier, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * <p>Returns (immutable) map of the given {@code valueListIdentifier} reading it (on cache miss) through
+     * the given {@code session}.</p>
+     *
+     * <p>Unlike {@link #getValueListMap(String, boolean)}, this doesn't log in to the repository and hence,
+     * could be used by the lookups running with a borrowed session (see
+     * {@link uk.nhs.hee.web.components.ModelLookup}).</p>
+     *
+     * @param session             the JCR {@link Session} through which the value-list needs to be read
+     *                            on cache miss.
+     * @param valueListIdentifier the (channel specific) value-list identifier (as mapped in
+     *                            {@code valueListManager.xml}).
+     * @param preview             {@code true} if the map of the preview variant of the value-list needs to be
+     *                            returned or {@code false} if the map of the live variant needs to be returned.
+     * @return the (immutable) map of the given {@code valueListIdentifier} or an empty map if there is
+     * no such value-list.
+     */
+    public Map<String, String> getValueListMap(
+            final Session session,
+            final String valueListIdentifier,
+            final boolean preview) {
+        try {
+            return valueListMaps.get(getCacheKey(valueListIdentifier, preview),
+                    () -> readValueListMap(session, valueListIdentifier, preview));
+        } catch (final ExecutionException e) {
+            LOGGER.error("Caught error '{}' while loading '{}' value-list", e.getMessage(), valueListIdentifier, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Returns (immutable) map of the given {@code valueListIdentifier} if it is cached. Otherwise, returns
+     * {@code null}.
+     *
+     * @param valueListIdentifier the (channel specific) value-list identifier (as mapped in
+     *                            {@code valueListManager.xml}).
+     * @param preview             {@code true} if the map of the preview variant of the value-list needs to be
+     *                            returned or {@code false} if the map of the live variant needs to be returned.
+     * @return the (immutable) map of the given {@code valueListIdentifier} if it is cached or {@code null}.
+     */
+    public Map<String, String> getCachedValueListMap(final String valueListIdentifier, final boolean preview) {
+        return valueListMaps.getIfPresent(getCacheKey(valueListIdentifier, preview));
+    }
+
+    /**
+     * Returns the path of the document (handle) of the given {@code valueListIdentifier}.
+     *
+     * @param valueListIdentifier the (channel specific) value-list identifier (as mapped in
+     *                            {@code valueListManager.xml}).
+     * @return the path of the document (handle) of the given {@code valueListIdentifier}
+     * or {@code null} if there is no such value-list.
+     */
+    public String getValueListPath(final String valueListIdentifier) {
+        return valueListManager.getValueListPath(valueListIdentifier);
+    }
+
+    /**
+     * Reloads the live and the preview maps of the value-lists whose document handle is among
+     * the given {@code handlePaths}.
+     *
+     * @param handlePaths the paths of the changed value-list document handles.
+     */
+    @Override
+    public void onDocumentsChanged(final Set<String> handlePaths) {
+        final Set<String> changedValueListIdentifiers = new LinkedHashSet<>();
+        for (final String valueListIdentifier : valueListManager.getValueListIdentifiers()) {
+            if (handlePaths.contains(valueListManager.getValueListPath(valueListIdentifier))) {
+                changedValueListIdentifiers.add(valueListIdentifier);
+            }
+        }
+
+        if (changedValueListIdentifiers.isEmpty()) {
+            return;
+        }
+
+        try {
+            load(false, changedValueListIdentifiers);
+            load(true, changedValueListIdentifiers);
+
+            LOGGER.debug("Reloaded the changed value-lists {}", changedValueListIdentifiers);
+        } catch (final RepositoryException e) {
+            LOGGER.error("Caught error '{}' while reloading the changed value-lists {}. " +
+                            "Value-lists will be loaded on their next lookup instead.",
+                    e.getMessage(), changedValueListIdentifiers, e);
+
+            for (final String valueListIdentifier : changedValueListIdentifiers) {
+                valueListMaps.invalidate(getCacheKey(valueListIdentifier, false));
+                valueListMaps.invalidate(getCacheKey(valueListIdentifier, true));
+            }
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return valueListMaps.stats().hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return valueListMaps.stats().missCount();
+    }
+
+    @Override
+    public double getHitRatio() {
+        return valueListMaps.stats().hitRate();
+    }
+
+    @Override
+    public long getSize() {
+        return valueListMaps.size();
+    }
+
+    @Override
+    public void clear() {
+        valueListMaps.invalidateAll();
+    }
+
+    /**
+     * Reads (through a single session) and caches the live or the preview maps of the given
+     * {@code valueListIdentifiers}.
+     *
+     * @param preview              {@code true} if the maps of the preview variants needs to be loaded
+     *                             or {@code false} if the maps of the live variants needs to be loaded.
+     * @param valueListIdentifiers the value-list identifiers whose maps needs to be loaded.
+     * @throws RepositoryException thrown when an error occurs while reading the value-lists.
+     */
+    private void load(final boolean preview, final Set<String> valueListIdentifiers) throws RepositoryException {
+        final Session session = repository.login(preview ? previewCredentials : liveCredentials);
+        try {
+            for (final String valueListIdentifier : valueListIdentifiers) {
+                valueListMaps.put(getCacheKey(valueListIdentifier, preview),
+                        readValueListMap(session, valueListIdentifier, preview));
+            }
+        } finally {
+            session.logout();
+        }
+    }
+
+    /**
+     * Reads and returns (immutable) map of the given {@code valueListIdentifier} through the given {@code session}.
+     *
+     * @param session             the JCR {@link Session} through which the value-list needs to be read.
+     * @param valueListIdentifier the value-list identifier (as mapped in {@code valueListManager.xml}).
+     * @param preview             {@code true} if the preview variant of the value-list needs to be read
+     *                            or {@code false} if the live variant needs to be read.
+     * @return the (immutable) map of the given {@code valueListIdentifier} or an empty map if there is
+     * no such value-list.
+     * @throws RepositoryException thrown when an error occurs while reading the value-list.
+     */
+    private Map<String, String> readValueListMap(
+            final Session session,
+            final String valueListIdentifier,
+            final boolean preview) throws RepositoryException {
+        final String valueListPath = valueListManager.getValueListPath(valueListIdentifier);
+        if (valueListPath == null || !session.nodeExists(valueListPath)) {
+            return Collections.emptyMap();
+        }
+
+        final Node valueList = DocumentUtils.getVariant(session.getNode(valueListPath), preview);
+        if (valueList == null) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> valueListMap = new LinkedHashMap<>();
+        final NodeIterator listItemIterator = valueList.getNodes(LIST_ITEM_NODE_NAME);
+        while (listItemIterator.hasNext()) {
+            final Node listItem = listItemIterator.nextNode();
+            if (!listItem.hasProperty(KEY_PROPERTY)) {
+                LOGGER.warn("Skipping the list item '{}' without key", listItem.getPath());
+                continue;
+            }
+
+            // The items without label are labelled by their key
+            final String key = listItem.getProperty(KEY_PROPERTY).getString();
+            valueListMap.put(key,
+                    listItem.hasProperty(LABEL_PROPERTY) ? listItem.getProperty(LABEL_PROPERTY).getString() : key);
+        }
+
+        return Collections.unmodifiableMap(valueListMap);
+    }
+
+    /**
+     * Returns the cache key of the given {@code valueListIdentifier} and availability.
+     *
+     * @param valueListIdentifier the value-list identifier.
+     * @param preview             {@code true} for the preview availability or {@code false} for the live.
+     * @return the cache key of the given {@code valueListIdentifier} and availability.
+     */
+    private String getCacheKey(final String valueListIdentifier, final boolean preview) {
+        return (preview ? PREVIEW_CACHE_KEY_PREFIX : LIVE_CACHE_KEY_PREFIX) + valueListIdentifier;
+    }
+}
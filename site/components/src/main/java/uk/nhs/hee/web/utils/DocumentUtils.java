@@ -1,7 +1,12 @@
 package uk.nhs.hee.web.utils;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hippoecm.repository.api.HippoNodeType;
 
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -14,6 +19,16 @@ public class DocumentUtils {
      */
     private static final Pattern DOCUMENT_PATH_REGEX_PATTERN = Pattern.compile("/content/documents/(.*?)/.*");
 
+    /**
+     * Live availability
+     */
+    private static final String AVAILABILITY_LIVE = "live";
+
+    /**
+     * Preview availability
+     */
+    private static final String AVAILABILITY_PREVIEW = "preview";
+
     /**
      * Private constructor to hide the implicit public one.
      */
@@ -38,4 +53,80 @@ public class DocumentUtils {
 
         return StringUtils.EMPTY;
     }
+
+    /**
+     * Returns {@code true} if the given document {@code variant} is available on live.
+     * Otherwise, returns {@code false}.
+     *
+     * @param variant the document variant node.
+     * @return {@code true} if the given document {@code variant} is available on live.
+     * Otherwise, returns {@code false}.
+     * @throws RepositoryException thrown when an error occurs while reading the document variant.
+     */
+    public static boolean isLive(final Node variant) throws RepositoryException {
+        return isAvailable(variant, AVAILABILITY_LIVE);
+    }
+
+    /**
+     * Returns the live variant of the given document {@code handle}.
+     * Otherwise, returns {@code null} if the document isn't available on live.
+     *
+     * @param handle the document handle ({@code hippo:handle}) node.
+     * @return the live variant of the given document {@code handle}.
+     * Otherwise, returns {@code null} if the document isn't available on live.
+     * @throws RepositoryException thrown when an error occurs while reading the document variants.
+     */
+    public static Node getLiveVariant(final Node handle) throws RepositoryException {
+        return getVariant(handle, false);
+    }
+
+    /**
+     * Returns the preview (if {@code preview} is {@code true}) or the live variant of the given document
+     * {@code handle}. Otherwise, returns {@code null} if the document isn't available on preview/live.
+     *
+     * @param handle  the document handle ({@code hippo:handle}) node.
+     * @param preview {@code true} if the preview variant needs to be returned or {@code false}
+     *                if the live variant needs to be returned.
+     * @return the preview or the live variant of the given document {@code handle}.
+     * Otherwise, returns {@code null} if the document isn't available on preview/live.
+     * @throws RepositoryException thrown when an error occurs while reading the document variants.
+     */
+    public static Node getVariant(final Node handle, final boolean preview) throws RepositoryException {
+        final String availability = preview ? AVAILABILITY_PREVIEW : AVAILABILITY_LIVE;
+
+        final NodeIterator variantIterator = handle.getNodes(handle.getName());
+        while (variantIterator.hasNext()) {
+            final Node variant = variantIterator.nextNode();
+
+            if (isAvailable(variant, availability)) {
+                return variant;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if the given document {@code variant} is available on the given {@code availability}
+     * (i.e. {@code live} or {@code preview}). Otherwise, returns {@code false}.
+     *
+     * @param variant      the document variant node.
+     * @param availability the availability (i.e. {@code live} or {@code preview}).
+     * @return {@code true} if the given document {@code variant} is available on the given {@code availability}.
+     * Otherwise, returns {@code false}.
+     * @throws RepositoryException thrown when an error occurs while reading the document variant.
+     */
+    private static boolean isAvailable(final Node variant, final String availability) throws RepositoryException {
+        if (!variant.hasProperty(HippoNodeType.HIPPO_AVAILABILITY)) {
+            return false;
+        }
+
+        for (final Value value : variant.getProperty(HippoNodeType.HIPPO_AVAILABILITY).getValues()) {
+            if (availability.equals(value.getString())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
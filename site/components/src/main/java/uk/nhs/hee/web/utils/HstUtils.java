@@ -1,6 +1,7 @@
 package uk.nhs.hee.web.utils;
 
 import org.apache.commons.lang.StringUtils;
+import org.hippoecm.hst.configuration.hosting.Mount;
 import org.hippoecm.hst.content.beans.query.HstQuery;
 import org.hippoecm.hst.content.beans.query.HstQueryResult;
 import org.hippoecm.hst.content.beans.query.builder.HstQueryBuilder;
@@ -23,6 +24,9 @@ import static org.hippoecm.hst.content.beans.query.builder.ConstraintBuilder.con
 public class HstUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(HstUtils.class);
 
+    private static final String AVAILABILITY_PREVIEW = "preview";
+    private static final String AVAILABILITY_LIVE = "live";
+
     public static List<String> getQueryParameterValues(final HstRequest request, final String parameter) {
         final String[] parameterValues = request.getParameterValues(parameter);
         if (parameterValues == null) {
@@ -79,4 +83,38 @@ public class HstUtils {
 
         return null;
     }
+
+    /**
+     * Returns the availability ({@code preview} or {@code live}) of the content served for the given
+     * {@code requestContext}.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the availability ({@code preview} or {@code live}) of the content served for the given
+     * {@code requestContext}.
+     */
+    public static String getAvailability(final HstRequestContext requestContext) {
+        return requestContext.isPreview() ? AVAILABILITY_PREVIEW : AVAILABILITY_LIVE;
+    }
+
+    /**
+     * <p>Returns a key identifying the {@link Mount} and the availability (preview/live)
+     * of the given {@code requestContext}.</p>
+     *
+     * <p>Data cached across requests which depends on the Mount (e.g. URLs) or on the
+     * availability of documents should be scoped by this key.</p>
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the key identifying the {@link Mount} and the availability (preview/live)
+     * of the given {@code requestContext}.
+     */
+    public static String getMountCacheKey(final HstRequestContext requestContext) {
+        final Mount mount = requestContext.getResolvedMount().getMount();
+        final String mountCacheKey = mount.getIdentifier() + ":" + getAvailability(requestContext);
+
+        if (requestContext.isChannelManagerPreviewRequest()) {
+            return mountCacheKey + ":cm";
+        }
+
+        return mountCacheKey;
+    }
 }
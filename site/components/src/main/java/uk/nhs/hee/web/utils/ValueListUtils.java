@@ -1,9 +1,15 @@
 package uk.nhs.hee.web.utils;
 
 import org.hippoecm.hst.container.RequestContextProvider;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
 import org.onehippo.forge.selection.hst.contentbean.ValueList;
 import org.onehippo.forge.selection.hst.util.SelectionUtil;
+import uk.nhs.hee.web.components.ModelLookup;
+import uk.nhs.hee.web.services.PageDependencyService;
+import uk.nhs.hee.web.services.ValueListService;
 
+import javax.jcr.Session;
 import java.util.Collections;
 import java.util.Map;
 
@@ -28,19 +34,102 @@ public class ValueListUtils {
     }
 
     /**
-     * Returns {@link Map} of the given {@code valueListIdentifier}.
+     * <p>Returns {@link Map} of the given {@code valueListIdentifier} (of the current request availability i.e.
+     * preview/live).</p>
+     *
+     * <p>The maps are served by {@link ValueListService} which caches them across the requests.
+     * The value-list is also recorded as a dependency of the current page (see {@link PageDependencyService}).</p>
      *
      * @return the {@link Map} of the given {@code valueListIdentifier}.
      */
     public static Map<String, String> getValueListMap(final String valueListIdentifier) {
-        final ValueList valueList =
-                SelectionUtil.getValueListByIdentifier(valueListIdentifier, RequestContextProvider.get());
+        final HstRequestContext requestContext = RequestContextProvider.get();
 
-        if (valueList == null) {
-            return Collections.emptyMap();
+        if (!HstServices.isAvailable()) {
+            // E.g. outside of the HST container
+            final ValueList valueList = SelectionUtil.getValueListByIdentifier(valueListIdentifier, requestContext);
+            return valueList == null ? Collections.emptyMap() : SelectionUtil.valueListAsMap(valueList);
         }
 
-        return SelectionUtil.valueListAsMap(valueList);
+        recordValueList(requestContext, valueListIdentifier);
+
+        return getValueListMap(valueListIdentifier, requestContext != null && requestContext.isPreview());
+    }
+
+    /**
+     * <p>Returns {@link ModelLookup} of the map of the given {@code valueListIdentifier} (of the current request
+     * availability i.e. preview/live), so that it could be looked up concurrently with the other models
+     * of a component (see {@link uk.nhs.hee.web.components.ConcurrentModels}).</p>
+     *
+     * <p>The value-list is recorded as a dependency of the current page straight away (i.e. on the request thread).
+     * The map is served from the {@link ValueListService} cache on the request thread too (see
+     * {@link ModelLookup#getCachedModel()}), so that a session and a lookup thread are only borrowed
+     * to read it on cache miss.</p>
+     *
+     * @param valueListIdentifier the value-list identifier (as mapped in {@code valueListManager.xml}).
+     * @return the {@link ModelLookup} of the map of the given {@code valueListIdentifier}.
+     */
+    public static ModelLookup<Map<String, String>> lookupValueListMap(final String valueListIdentifier) {
+        if (!HstServices.isAvailable()) {
+            // E.g. outside of the HST container, in which case the lookups are run on the request thread
+            return session -> getValueListMap(valueListIdentifier);
+        }
+
+        final HstRequestContext requestContext = RequestContextProvider.get();
+        recordValueList(requestContext, valueListIdentifier);
+
+        final boolean preview = requestContext != null && requestContext.isPreview();
+        final ValueListService valueListService =
+                HstServices.getComponentManager().getComponent(ValueListService.class.getName());
+        return new ModelLookup<Map<String, String>>() {
+            @Override
+            public Map<String, String> lookup(final Session session) {
+                return valueListService.getValueListMap(session, valueListIdentifier, preview);
+            }
+
+            @Override
+            public Map<String, String> getCachedModel() {
+                return valueListService.getCachedValueListMap(valueListIdentifier, preview);
+            }
+        };
+    }
+
+    /**
+     * Records the given {@code valueListIdentifier} value-list as a dependency of the page being built
+     * for the given {@code requestContext}.
+     *
+     * @param requestContext      the {@link HstRequestContext} instance.
+     * @param valueListIdentifier the value-list identifier (as mapped in {@code valueListManager.xml}).
+     */
+    private static void recordValueList(final HstRequestContext requestContext, final String valueListIdentifier) {
+        final PageDependencyService pageDependencyService =
+                HstServices.getComponentManager().getComponent(PageDependencyService.class.getName());
+        final ValueListService valueListService =
+                HstServices.getComponentManager().getComponent(ValueListService.class.getName());
+
+        if (pageDependencyService != null && valueListService != null) {
+            pageDependencyService.recordDocument(
+                    requestContext, valueListService.getValueListPath(valueListIdentifier));
+        }
+    }
+
+    /**
+     * <p>Returns (immutable) {@link Map} of the given {@code valueListIdentifier} and availability.</p>
+     *
+     * <p>Unlike {@link #getValueListMap(String)}, this doesn't depend on the current request and hence,
+     * could be used outside of the request thread (e.g. by the background services). The lookups running with
+     * a borrowed session should use {@link #lookupValueListMap(String)} instead.</p>
+     *
+     * @param valueListIdentifier the value-list identifier (as mapped in {@code valueListManager.xml}).
+     * @param preview             {@code true} if the map of the preview variant of the value-list needs to be
+     *                            returned or {@code false} if the map of the live variant needs to be returned.
+     * @return the (immutable) {@link Map} of the given {@code valueListIdentifier} or an empty map
+     * if there is no such value-list.
+     */
+    public static Map<String, String> getValueListMap(final String valueListIdentifier, final boolean preview) {
+        final ValueListService valueListService =
+                HstServices.getComponentManager().getComponent(ValueListService.class.getName());
+        return valueListService.getValueListMap(valueListIdentifier, preview);
     }
 
     /**
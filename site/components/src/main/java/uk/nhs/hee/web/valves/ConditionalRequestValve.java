@@ -0,0 +1,193 @@
+package uk.nhs.hee.web.valves;
+
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.container.valves.AbstractOrderableValve;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.container.ContainerException;
+import org.hippoecm.hst.core.container.ValveContext;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+import org.hippoecm.hst.site.HstServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.nhs.hee.web.beans.BaseDocument;
+import uk.nhs.hee.web.services.PageCacheService;
+import uk.nhs.hee.web.services.PageValidator;
+import uk.nhs.hee.web.services.PageValidatorService;
+
+import javax.jcr.RepositoryException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Calendar;
+
+/**
+ * <p>Site pipeline valve emitting the {@code Cache-Control} policy and the HTTP validators ({@code ETag} and
+ * {@code Last-Modified}) of the pages served to the anonymous live visitors (see {@link PageValidatorService}).</p>
+ *
+ * <p>It's ordered before the component processing (i.e. {@code doBeforeRender}) and rendering valves,
+ * so that the conditional requests ({@code If-None-Match} and {@code If-Modified-Since}) for the pages which
+ * haven't been modified since are answered with {@code 304 Not Modified} without building the page.
+ * The requests bypassing the page cache (see {@link PageCacheService#getCacheKey(HttpServletRequest)}) and
+ * the pages with a {@code no-store} policy are passed down the pipeline as they are.</p>
+ *
+ * <p>Otherwise, the {@code Cache-Control} policy and the validators are only emitted once the page has been built
+ * and is known to be cacheable i.e. it has been built successfully (with complete dependencies, see
+ * {@link uk.nhs.hee.web.services.PageDependencyService#isCacheable}) without creating a session or setting
+ * a cookie. They're emitted as long as the response hasn't been committed yet, which is the case for the pages
+ * captured (i.e. buffered) by {@link uk.nhs.hee.web.filters.PageCacheFilter}.</p>
+ */
+public class ConditionalRequestValve extends AbstractOrderableValve {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConditionalRequestValve.class);
+
+    private static final String CACHE_CONTROL_HEADER = "Cache-Control";
+    private static final String SET_COOKIE_HEADER = "Set-Cookie";
+    private static final String ETAG_HEADER = "ETag";
+    private static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    private static final String NO_STORE_DIRECTIVE = "no-store";
+
+    @Override
+    public void invoke(final ValveContext context) throws ContainerException {
+        final HstRequestContext requestContext = context.getRequestContext();
+        final ResolvedSiteMapItem resolvedSiteMapItem = requestContext.getResolvedSiteMapItem();
+        final PageValidatorService pageValidatorService = getComponent(PageValidatorService.class);
+        final PageCacheService pageCacheService = getComponent(PageCacheService.class);
+        if (resolvedSiteMapItem == null
+                || pageValidatorService == null
+                || pageCacheService == null
+                || requestContext.isPreview()
+                || requestContext.isChannelManagerPreviewRequest()) {
+            context.invokeNext();
+            return;
+        }
+
+        final HttpServletRequest request = context.getServletRequest();
+        final HttpServletResponse response = context.getServletResponse();
+        final String cacheControl = pageValidatorService.getCacheControl(resolvedSiteMapItem);
+        final String pageKey = pageCacheService.getCacheKey(request);
+        if (pageKey == null || cacheControl.contains(NO_STORE_DIRECTIVE)) {
+            context.invokeNext();
+            return;
+        }
+
+        final VirtualHosts virtualHosts = requestContext.getVirtualHost().getVirtualHosts();
+        final PageValidator registeredValidator = pageValidatorService.getValidator(virtualHosts, pageKey);
+        if (registeredValidator != null && registeredValidator.isNotModified(request)) {
+            LOGGER.debug("Page '{}' hasn't been modified since {}", pageKey, registeredValidator.getETag());
+            setCacheHeaders(response, cacheControl, registeredValidator);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        final long renderGeneration = pageValidatorService.getGeneration();
+        context.invokeNext();
+
+        if (!isCacheable(request, response)) {
+            return;
+        }
+
+        final PageValidator validator = registeredValidator != null
+                ? registeredValidator
+                : registerValidator(pageValidatorService, virtualHosts, pageKey, requestContext, renderGeneration);
+        if (validator != null && !response.isCommitted()) {
+            setCacheHeaders(response, cacheControl, validator);
+        }
+    }
+
+    /**
+     * Returns whether the page built for the given {@code request} could be cached by the browsers and CDNs
+     * i.e. it has been built successfully without creating a session or setting a cookie.
+     *
+     * @param request  the {@link HttpServletRequest} instance.
+     * @param response the {@link HttpServletResponse} instance.
+     * @return {@code true} if the page built for the given {@code request} could be cached.
+     * Otherwise, {@code false}.
+     */
+    private boolean isCacheable(final HttpServletRequest request, final HttpServletResponse response) {
+        return response.getStatus() == HttpServletResponse.SC_OK
+                && request.getSession(false) == null
+                && !response.containsHeader(SET_COOKIE_HEADER);
+    }
+
+    /**
+     * Creates and registers the validator of the page built for the current request
+     * (see {@link PageValidatorService#registerValidator}).
+     *
+     * @param pageValidatorService the {@link PageValidatorService} instance.
+     * @param virtualHosts         the {@link VirtualHosts} (i.e. the HST model) the page has been built with.
+     * @param pageKey              the key of the page (see {@link PageCacheService#getCacheKey}).
+     * @param requestContext       the {@link HstRequestContext} instance.
+     * @param renderGeneration     the generation (see {@link PageValidatorService#getGeneration()}) at which
+     *                             the page building started.
+     * @return the registered validator of the page or {@code null} if it hasn't been registered.
+     */
+    private PageValidator registerValidator(
+            final PageValidatorService pageValidatorService,
+            final VirtualHosts virtualHosts,
+            final String pageKey,
+            final HstRequestContext requestContext,
+            final long renderGeneration) {
+        try {
+            return pageValidatorService.registerValidator(virtualHosts, pageKey,
+                    getDocumentLastModified(requestContext), requestContext.getServletRequest(),
+                    requestContext.getSession(), renderGeneration);
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Caught error '{}' while registering the validator of the page '{}'",
+                    e.getMessage(), pageKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Sets the {@code Cache-Control} header along with the {@code ETag} and {@code Last-Modified} headers
+     * of the given {@code validator}.
+     *
+     * @param response     the {@link HttpServletResponse} instance.
+     * @param cacheControl the {@code Cache-Control} policy of the page.
+     * @param validator    the validator of the page.
+     */
+    private void setCacheHeaders(
+            final HttpServletResponse response,
+            final String cacheControl,
+            final PageValidator validator) {
+        response.setHeader(CACHE_CONTROL_HEADER, cacheControl);
+        response.setHeader(ETAG_HEADER, validator.getETag());
+        response.setDateHeader(LAST_MODIFIED_HEADER, validator.getLastModified());
+    }
+
+    /**
+     * Returns the last modification time (i.e. {@code hippostdpubwf:lastModificationDate}) of the (content)
+     * document of the page or {@code 0} if the page doesn't have a content document.
+     *
+     * @param requestContext the {@link HstRequestContext} instance.
+     * @return the last modification time (in milliseconds) of the (content) document of the page
+     * or {@code 0} if the page doesn't have a content document.
+     */
+    private long getDocumentLastModified(final HstRequestContext requestContext) {
+        final HippoBean contentBean = requestContext.getContentBean();
+        if (contentBean instanceof BaseDocument) {
+            final Calendar lastModificationDate = ((BaseDocument) contentBean).getLastModificationDate();
+            if (lastModificationDate != null) {
+                return lastModificationDate.getTimeInMillis();
+            }
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Returns the (Spring) component of the given {@code type} or {@code null} if the HST container
+     * isn't available (yet).
+     *
+     * @param type the type of the component.
+     * @param <T>  the type of the component.
+     * @return the (Spring) component of the given {@code type} or {@code null} if the HST container
+     * isn't available (yet).
+     */
+    private <T> T getComponent(final Class<T> type) {
+        if (!HstServices.isAvailable()) {
+            return null;
+        }
+
+        return HstServices.getComponentManager().getComponent(type.getName());
+    }
+}
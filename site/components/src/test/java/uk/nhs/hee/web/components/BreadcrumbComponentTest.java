@@ -24,6 +24,7 @@ import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import uk.nhs.hee.web.components.beans.BreadcrumbLinkTest;
+import uk.nhs.hee.web.services.PageDependencyService;
 
 import java.util.List;
 
@@ -126,6 +127,37 @@ public class BreadcrumbComponentTest {
                 );
     }
 
+    @Test
+    public void doBeforeRender_WithNonHomePageRequest_RecordsAncestorDocuments() {
+        // Mocks & stubs
+        final PageDependencyService pageDependencyService = mock(PageDependencyService.class);
+        when(HstServices.isAvailable()).thenReturn(true);
+        when(componentManager.getComponent(PageDependencyService.class.getName())).thenReturn(pageDependencyService);
+        when(mount.getContentPath()).thenReturn("/content/documents/hee");
+        when(hstSiteMapItem.getRefId()).thenReturn("non-root");
+
+        final HstSiteMapItem wildcardHstSiteMapItem = getHstSiteMapItem("News", "/site/news/2021");
+        when(wildcardHstSiteMapItem.getRelativeContentPath()).thenReturn("news/${1}");
+        when(hstSiteMapItem.getParentItem()).thenReturn(wildcardHstSiteMapItem);
+
+        final HstSiteMapItem parentHstSiteMapItem = getHstSiteMapItem("News", "/site/news");
+        when(parentHstSiteMapItem.getRelativeContentPath()).thenReturn("news/news-listing");
+        when(wildcardHstSiteMapItem.getParentItem()).thenReturn(parentHstSiteMapItem);
+
+        final HstSiteMapItem grandParentHstSiteMapItem = getHstSiteMapItem("About us", "/site/about-us");
+        when(grandParentHstSiteMapItem.getRelativeContentPath()).thenReturn("about-us");
+        when(parentHstSiteMapItem.getParentItem()).thenReturn(grandParentHstSiteMapItem);
+
+        // Execute the method to be tested
+        systemUnderTest.doBeforeRender(hstRequest, hstResponse);
+
+        // Verify
+        verify(pageDependencyService).recordDocument(hstRequestContext, "/content/documents/hee/news/news-listing");
+        verify(pageDependencyService).recordDocument(hstRequestContext, "/content/documents/hee/about-us");
+        verify(pageDependencyService, never()).recordDocument(
+                eq(hstRequestContext), contains("${"));
+    }
+
     @Test
     public void doBeforeRender_WithNonHomePageRequest_AddsNoBreadcrumbLinksToModel() {
         // Mocks & stubs
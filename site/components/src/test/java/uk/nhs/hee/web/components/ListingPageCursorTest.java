@@ -0,0 +1,169 @@
+package uk.nhs.hee.web.components;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ListingPageCursorTest {
+    private static final String SORT_BY_DATE_VALUE = "sortByDate";
+    private static final long BOUNDARY_DATE = 1617235200000L;
+    private static final long OLDER_DATE = 1617148800000L;
+
+    @Test
+    public void fromToken_WithTokenOfCursor_ReturnsEqualCursor() {
+        // Mocks & stubs
+        final ListingPageCursor cursor = new ListingPageCursor(
+                false, "desc", 1617235200000L, new LinkedHashSet<>(Arrays.asList("uuid-1", "uuid-2")));
+
+        // Execute the method to be tested
+        final ListingPageCursor actual = ListingPageCursor.fromToken(cursor.toToken());
+
+        // Verify
+        assertThat(actual).isNotNull();
+        assertThat(actual.isNext()).isFalse();
+        assertThat(actual.getSortOrder()).isEqualTo("desc");
+        assertThat(actual.getDate()).isEqualTo(1617235200000L);
+        assertThat(actual.getListedHandleIds()).containsExactly("uuid-1", "uuid-2");
+    }
+
+    @Test
+    public void fromToken_WithoutListedHandleIds_ReturnsCursor() {
+        // Mocks & stubs
+        final String token = new ListingPageCursor(true, "asc", 0L, Collections.emptySet()).toToken();
+
+        // Execute the method to be tested
+        final ListingPageCursor actual = ListingPageCursor.fromToken(token);
+
+        // Verify
+        assertThat(actual).isNotNull();
+        assertThat(actual.isNext()).isTrue();
+        assertThat(actual.getListedHandleIds()).isEmpty();
+    }
+
+    @Test
+    public void fromToken_WithInvalidTokens_ReturnsNull() {
+        // Execute the method to be tested & verify
+        assertThat(ListingPageCursor.fromToken(null)).isNull();
+        assertThat(ListingPageCursor.fromToken("")).isNull();
+        assertThat(ListingPageCursor.fromToken("not base64!")).isNull();
+        assertThat(ListingPageCursor.fromToken(encode("2;x;desc;0;"))).isNull();
+        assertThat(ListingPageCursor.fromToken(encode("2;n;desc;date;"))).isNull();
+        assertThat(ListingPageCursor.fromToken(encode("1;n;desc;0;0;"))).isNull();
+    }
+
+    @Test
+    public void collectListedHandleIds_WithTiesSpanningPages9To11_ReturnsNull() {
+        // Mocks & stubs
+        final Map<Integer, ListingResults> pages = new HashMap<>();
+        pages.put(9, collect("news-1", OLDER_DATE, "tie-1", BOUNDARY_DATE, "tie-2", BOUNDARY_DATE));
+        final ListingResults page10 = collect(
+                "tie-3", BOUNDARY_DATE, "tie-4", BOUNDARY_DATE, "tie-5", BOUNDARY_DATE);
+        final List<Integer> loadedPages = new ArrayList<>();
+
+        // Execute the method to be tested
+        final Set<String> actual = ListingPageCursor.collectListedHandleIds(
+                SORT_BY_DATE_VALUE, BOUNDARY_DATE, true, 10, page10, 3, page -> {
+                    loadedPages.add(page);
+                    return pages.get(page);
+                });
+
+        // Verify
+        assertThat(actual).isNull();
+        assertThat(loadedPages).containsExactly(9);
+    }
+
+    @Test
+    public void collectListedHandleIds_WithTiesStartingOnPage10_ReturnsTiesOfPage10() {
+        // Mocks & stubs
+        final Map<Integer, ListingResults> pages = new HashMap<>();
+        pages.put(9, collect("news-1", OLDER_DATE, "news-2", OLDER_DATE, "news-3", OLDER_DATE));
+        final ListingResults page10 = collect(
+                "tie-1", BOUNDARY_DATE, "tie-2", BOUNDARY_DATE, "tie-3", BOUNDARY_DATE);
+        final List<Integer> loadedPages = new ArrayList<>();
+
+        // Execute the method to be tested
+        final Set<String> actual = ListingPageCursor.collectListedHandleIds(
+                SORT_BY_DATE_VALUE, BOUNDARY_DATE, true, 10, page10, 3, page -> {
+                    loadedPages.add(page);
+                    return pages.get(page);
+                });
+
+        // Verify
+        assertThat(actual).containsExactly("tie-1", "tie-2", "tie-3");
+        assertThat(loadedPages).containsExactly(9);
+    }
+
+    @Test
+    public void collectListedHandleIds_WithTiesWithinPage_DoesNotLoadAdjacentPages() {
+        // Mocks & stubs
+        final ListingResults page10 = collect(
+                "news-1", OLDER_DATE, "tie-1", BOUNDARY_DATE, "tie-2", BOUNDARY_DATE);
+        final List<Integer> loadedPages = new ArrayList<>();
+
+        // Execute the method to be tested
+        final Set<String> actual = ListingPageCursor.collectListedHandleIds(
+                SORT_BY_DATE_VALUE, BOUNDARY_DATE, true, 10, page10, 3, page -> {
+                    loadedPages.add(page);
+                    return null;
+                });
+
+        // Verify
+        assertThat(actual).containsExactly("tie-1", "tie-2");
+        assertThat(loadedPages).isEmpty();
+    }
+
+    @Test
+    public void collectListedHandleIds_WithAdjacentPageNotLoaded_ReturnsNull() {
+        // Mocks & stubs
+        final ListingResults page10 = collect("tie-1", BOUNDARY_DATE, "tie-2", BOUNDARY_DATE);
+
+        // Execute the method to be tested
+        final Set<String> actual = ListingPageCursor.collectListedHandleIds(
+                SORT_BY_DATE_VALUE, BOUNDARY_DATE, true, 10, page10, 3, page -> null);
+
+        // Verify
+        assertThat(actual).isNull();
+    }
+
+    /**
+     * Returns {@link ListingResults} of the documents with the given (alternating) handle UUIDs
+     * and sort by dates.
+     *
+     * @param handleIdsAndDates the (alternating) handle UUIDs and sort by dates of the documents.
+     * @return the {@link ListingResults} of the documents with the given handle UUIDs and sort by dates.
+     */
+    private static ListingResults collect(final Object... handleIdsAndDates) {
+        final List<HippoBean> beans = new ArrayList<>();
+        final Map<String, Object> dates = new HashMap<>();
+        for (int i = 0; i < handleIdsAndDates.length; i += 2) {
+            final HippoBean bean = mock(HippoBean.class);
+            when(bean.getCanonicalHandleUUID()).thenReturn((String) handleIdsAndDates[i]);
+            beans.add(bean);
+            dates.put((String) handleIdsAndDates[i], handleIdsAndDates[i + 1]);
+        }
+
+        return ListingResults.collect(
+                beans.iterator(),
+                Integer.MAX_VALUE,
+                Collections.emptySet(),
+                Collections.singletonMap(SORT_BY_DATE_VALUE, bean -> dates.get(bean.getCanonicalHandleUUID())));
+    }
+
+    private static String encode(final String token) {
+        return Base64.getUrlEncoder().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+}
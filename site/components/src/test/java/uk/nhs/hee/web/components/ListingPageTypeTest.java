@@ -19,6 +19,7 @@ public class ListingPageTypeTest {
         assertThat(blogListing.getSortByDateField()).isEqualTo(HEEField.PUBLICATION_DATE.getName());
         assertThat(blogListing.getFilterValueListIdentifier()).isEqualTo("blogCategories");
         assertThat(blogListing.isChannelSpecificValueListIdentifier()).isTrue();
+        assertThat(blogListing.isKeysetPaginationEnabled()).isTrue();
     }
 
     @Test
@@ -31,6 +32,7 @@ public class ListingPageTypeTest {
         assertThat(bulletinListing.getSortByDateField()).isEqualTo(HippoStdPubWfNodeType.HIPPOSTDPUBWF_PUBLICATION_DATE);
         assertThat(bulletinListing.getFilterValueListIdentifier()).isEqualTo("bulletinCategories");
         assertThat(bulletinListing.isChannelSpecificValueListIdentifier()).isFalse();
+        assertThat(bulletinListing.isKeysetPaginationEnabled()).isTrue();
     }
 
     @Test
@@ -43,6 +45,7 @@ public class ListingPageTypeTest {
         assertThat(caseStudyListing.getSortByDateField()).isEqualTo(HippoStdPubWfNodeType.HIPPOSTDPUBWF_CREATION_DATE);
         assertThat(caseStudyListing.getFilterValueListIdentifier()).isEqualTo("caseStudyImpactGroups");
         assertThat(caseStudyListing.isChannelSpecificValueListIdentifier()).isFalse();
+        assertThat(caseStudyListing.isKeysetPaginationEnabled()).isFalse();
     }
 
     @Test
@@ -55,6 +58,7 @@ public class ListingPageTypeTest {
         assertThat(eventListing.getSortByDateField()).isEqualTo(HEEField.DATE.getName());
         assertThat(eventListing.getFilterValueListIdentifier()).isEqualTo(StringUtils.EMPTY);
         assertThat(eventListing.isChannelSpecificValueListIdentifier()).isFalse();
+        assertThat(eventListing.isKeysetPaginationEnabled()).isFalse();
     }
 
     @Test
@@ -67,6 +71,7 @@ public class ListingPageTypeTest {
         assertThat(searchListing.getSortByDateField()).isEqualTo(HippoStdPubWfNodeType.HIPPOSTDPUBWF_PUBLICATION_DATE);
         assertThat(searchListing.getFilterValueListIdentifier()).isEqualTo(StringUtils.EMPTY);
         assertThat(searchListing.isChannelSpecificValueListIdentifier()).isFalse();
+        assertThat(searchListing.isKeysetPaginationEnabled()).isFalse();
     }
 
     @Test
@@ -80,6 +85,7 @@ public class ListingPageTypeTest {
                 .isEqualTo(HEEField.COMPLETED_DATE.getName());
         assertThat(searchBankListing.getFilterValueListIdentifier()).isEqualTo("searchBankTopics");
         assertThat(searchBankListing.isChannelSpecificValueListIdentifier()).isFalse();
+        assertThat(searchBankListing.isKeysetPaginationEnabled()).isFalse();
     }
 
     @Test
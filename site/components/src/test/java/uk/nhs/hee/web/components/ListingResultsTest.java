@@ -0,0 +1,77 @@
+package uk.nhs.hee.web.components;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ListingResultsTest {
+
+    @Test
+    public void collect_WithLimitAndSkippedHandleIds_CollectsResultsInSinglePass() {
+        // Mocks & stubs
+        final HippoBean news1 = mockBean("uuid-1", "hee:news");
+        final HippoBean skipped = mockBean("uuid-2", "hee:news");
+        final HippoBean guidance = mockBean("uuid-3", "hee:guidance");
+        final HippoBean news4 = mockBean("uuid-4", "hee:news");
+        final AtomicInteger deriveCount = new AtomicInteger();
+
+        // Execute the method to be tested
+        final ListingResults actual = ListingResults.collect(
+                Arrays.asList(news1, null, skipped, guidance, news4).iterator(),
+                2,
+                Collections.singleton("uuid-2"),
+                Collections.singletonMap("title", bean -> {
+                    deriveCount.incrementAndGet();
+                    return "Title of " + bean.getCanonicalHandleUUID();
+                }));
+
+        // Verify
+        assertThat(actual.getBeans()).containsExactly(news1, guidance);
+        assertThat(actual.getHandleIds()).containsExactly("uuid-1", "uuid-3");
+        assertThat(actual.getDocumentTypes()).containsExactlyInAnyOrder("hee:news", "hee:guidance");
+        assertThat(actual.hasDocumentType("hee:guidance")).isTrue();
+        assertThat(actual.getDerivedValue("title", guidance)).isEqualTo("Title of uuid-3");
+        assertThat(actual.getDerivedValue("unknown", guidance)).isNull();
+        assertThat(actual.getTotalSize()).isEqualTo(2);
+        assertThat(deriveCount).hasValue(2);
+    }
+
+    @Test
+    public void reverse_WithTotalSize_ReversesResultsKeepingTotalSizeAndDerivedValues() {
+        // Mocks & stubs
+        final HippoBean news1 = mockBean("uuid-1", "hee:news");
+        final HippoBean news2 = mockBean("uuid-2", "hee:news");
+        final ListingResults listingResults = ListingResults.collect(
+                Arrays.asList(news1, news2).iterator(),
+                Integer.MAX_VALUE,
+                Collections.emptySet(),
+                Collections.singletonMap("sortByDate", bean -> "uuid-1".equals(bean.getCanonicalHandleUUID())
+                        ? 1617235200000L : null)).withTotalSize(42);
+
+        // Execute the method to be tested
+        final ListingResults actual = listingResults.reverse();
+
+        // Verify
+        assertThat(actual.getBeans()).containsExactly(news2, news1);
+        assertThat(actual.getHandleIds()).containsExactly("uuid-2", "uuid-1");
+        assertThat(actual.getTotalSize()).isEqualTo(42);
+        assertThat(actual.getDerivedValue("sortByDate", news1)).isEqualTo(1617235200000L);
+        assertThat(actual.getDerivedValue("sortByDate", news2)).isNull();
+        assertThat(listingResults.getHandleIds()).containsExactly("uuid-1", "uuid-2");
+    }
+
+    private static HippoBean mockBean(final String handleId, final String documentType) {
+        final HippoBean bean = mock(HippoBean.class);
+        when(bean.getCanonicalHandleUUID()).thenReturn(handleId);
+        when(bean.getSingleProperty(JcrConstants.JCR_PRIMARYTYPE)).thenReturn(documentType);
+        return bean;
+    }
+}
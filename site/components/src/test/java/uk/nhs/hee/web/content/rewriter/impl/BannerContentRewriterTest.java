@@ -1,16 +1,22 @@
 package uk.nhs.hee.web.content.rewriter.impl;
 
 import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHost;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
 import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.core.request.ResolvedMount;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import uk.nhs.hee.web.services.BannerCopyCacheService;
 
 import javax.jcr.Node;
+import javax.jcr.RepositoryException;
 
 import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BannerContentRewriterTest {
@@ -39,4 +45,44 @@ public class BannerContentRewriterTest {
                 "target=\"_blank\">feedback</a> will help us to improve it.");
 
     }
+
+    @Test
+    public void rewrite_WithBannerCopyCacheService_ReturnsCachedRewrittenHtml() throws RepositoryException {
+        // Mocks and stubs
+        final String copy = "<p>Give us <a href=\"https://www.hee.nhs.uk\">feedback</a></p>";
+        final BannerCopyCacheService bannerCopyCacheService = new BannerCopyCacheService(10);
+        final ResolvedMount mockResolvedMount = mock(ResolvedMount.class);
+        final VirtualHost mockVirtualHost = mock(VirtualHost.class);
+
+        doReturn(bannerCopyCacheService).when(systemUnderTest).getBannerCopyCacheService();
+        when(mockHtmlNode.getIdentifier()).thenReturn("banner-copy-id");
+        when(mockHstRequestContext.getResolvedMount()).thenReturn(mockResolvedMount);
+        when(mockResolvedMount.getMount()).thenReturn(mockMount);
+        when(mockMount.getVirtualHost()).thenReturn(mockVirtualHost);
+        when(mockVirtualHost.getVirtualHosts()).thenReturn(mock(VirtualHosts.class));
+        when(mockMount.getIdentifier()).thenReturn("mount-id");
+
+        // Execute the method to be tested
+        final String rewrittenHtml = systemUnderTest.rewrite(copy, mockHtmlNode, mockHstRequestContext, mockMount);
+        final String cachedRewrittenHtml =
+                systemUnderTest.rewrite(copy, mockHtmlNode, mockHstRequestContext, mockMount);
+
+        // Verify
+        assertThat(rewrittenHtml)
+                .isEqualTo("Give us <a class=\"nhsuk-link\" href=\"https://www.hee.nhs.uk\">feedback</a>");
+        assertThat(cachedRewrittenHtml).isSameAs(rewrittenHtml);
+        assertThat(bannerCopyCacheService.getMissCount()).isEqualTo(1L);
+        assertThat(bannerCopyCacheService.getHitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void rewriteCopy_WithParagraphsSpanningLines_RemovesOnlySingleLineParagraphTags() {
+        // Execute the method to be tested
+        final String rewrittenHtml = BannerContentRewriter.rewriteCopy(
+                "<p>First <a href=\"/first\">link</a></p>\n<p>Second\nline</p><p><p>Nested</p></p>");
+
+        // Verify
+        assertThat(rewrittenHtml).isEqualTo("First <a class=\"nhsuk-link\" href=\"/first\">link</a>\n" +
+                "<p>Second\nline</p><p>Nested</p>");
+    }
 }
@@ -0,0 +1,176 @@
+package uk.nhs.hee.web.filters;
+
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.configuration.model.HstManager;
+import org.hippoecm.hst.core.container.ComponentManager;
+import org.hippoecm.hst.site.HstServices;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import uk.nhs.hee.web.services.CachedPage;
+import uk.nhs.hee.web.services.PageCacheService;
+import uk.nhs.hee.web.services.PageValidator;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+@RunWith(PowerMockRunner.class)
+@PowerMockIgnore({"javax.management.*", "javax.script.*"})
+@PrepareForTest(HstServices.class)
+public class PageCacheFilterTest {
+    private static final String CACHE_KEY = "https://www.hee.nhs.uk:443/site/news|analyticsCookie=none";
+    private static final String PAGE = "<html><body>News</body></html>";
+
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final FilterChain chain = mock(FilterChain.class);
+    private final PageCacheService pageCacheService = mock(PageCacheService.class);
+    private final VirtualHosts virtualHosts = mock(VirtualHosts.class);
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    private final PageCacheFilter systemUnderTest = new PageCacheFilter();
+
+    @Before
+    public void setUp() throws Exception {
+        final ComponentManager componentManager = mock(ComponentManager.class);
+        final HstManager hstManager = mock(HstManager.class);
+        mockStatic(HstServices.class);
+        when(HstServices.isAvailable()).thenReturn(true);
+        when(HstServices.getComponentManager()).thenReturn(componentManager);
+        when(componentManager.getComponent(PageCacheService.class.getName())).thenReturn(pageCacheService);
+        when(componentManager.getComponent(HstManager.class.getName())).thenReturn(hstManager);
+        when(hstManager.getVirtualHosts()).thenReturn(virtualHosts);
+
+        when(pageCacheService.getCacheKey(request)).thenReturn(CACHE_KEY);
+        when(pageCacheService.getMaximumPageSize()).thenReturn(1000);
+        when(response.getContentType()).thenReturn("text/html;charset=UTF-8");
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(final int b) {
+                written.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(final WriteListener writeListener) {
+                // Not needed
+            }
+        });
+    }
+
+    @Test
+    public void doFilter_WithCacheMiss_CachesPageAlongWithHeaders() throws Exception {
+        // Mocks & stubs
+        doAnswer(invocation -> {
+            final HttpServletResponse wrapper = invocation.getArgument(1);
+            wrapper.setHeader("X-Frame-Options", "SAMEORIGIN");
+            wrapper.setHeader("Cache-Control", "public, max-age=60");
+            wrapper.getWriter().write(PAGE);
+            return null;
+        }).when(chain).doFilter(eq(request), any());
+
+        // Execute the method to be tested
+        systemUnderTest.doFilter(request, response, chain);
+
+        // Verify
+        final ArgumentCaptor<CachedPage> page = ArgumentCaptor.forClass(CachedPage.class);
+        verify(pageCacheService).putPage(eq(virtualHosts), eq(CACHE_KEY), eq(request), page.capture(), anyLong());
+        assertThat(new String(page.getValue().getContent(), StandardCharsets.UTF_8)).isEqualTo(PAGE);
+        assertThat(page.getValue().getHeaders()).containsOnlyKeys("X-Frame-Options");
+        assertThat(page.getValue().getCacheControl()).isEqualTo("public, max-age=60");
+        assertThat(written.toString("UTF-8")).isEqualTo(PAGE);
+        verify(response).setHeader("X-Page-Cache", "MISS");
+    }
+
+    @Test
+    public void doFilter_WithCacheHit_ReplaysPageAndHeaders() throws Exception {
+        // Mocks & stubs
+        when(pageCacheService.getPage(virtualHosts, CACHE_KEY)).thenReturn(createPage());
+
+        // Execute the method to be tested
+        systemUnderTest.doFilter(request, response, chain);
+
+        // Verify
+        verify(chain, never()).doFilter(any(), any());
+        verify(response).setHeader("Content-Security-Policy", "default-src 'self'");
+        verify(response).setHeader("X-Robots-Tag", "noarchive");
+        verify(response).addHeader("X-Robots-Tag", "nosnippet");
+        verify(response).setHeader("X-Page-Cache", "HIT");
+        verify(response).setHeader("Cache-Control", "public, max-age=0, must-revalidate");
+        verify(response).setHeader("ETag", "W/\"1600000000\"");
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertThat(written.toString("UTF-8")).isEqualTo(PAGE);
+    }
+
+    @Test
+    public void doFilter_WithCacheHitAndMatchingETag_AnswersNotModified() throws Exception {
+        // Mocks & stubs
+        when(pageCacheService.getPage(virtualHosts, CACHE_KEY)).thenReturn(createPage());
+        when(request.getHeader("If-None-Match")).thenReturn("W/\"1600000000\"");
+
+        // Execute the method to be tested
+        systemUnderTest.doFilter(request, response, chain);
+
+        // Verify
+        verify(response).setHeader("X-Frame-Options", "SAMEORIGIN");
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(written.size()).isZero();
+    }
+
+    @Test
+    public void doFilter_WithRequestBypassingCache_PassesRequestDownChain() throws Exception {
+        // Mocks & stubs
+        when(pageCacheService.getCacheKey(request)).thenReturn(null);
+
+        // Execute the method to be tested
+        systemUnderTest.doFilter(request, response, chain);
+
+        // Verify
+        verify(chain).doFilter(request, response);
+        verify(pageCacheService, never()).getPage(any(), any());
+    }
+
+    /**
+     * Returns a cached page along with its headers and validators.
+     *
+     * @return a cached page along with its headers and validators.
+     */
+    private static CachedPage createPage() {
+        final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.put("Content-Security-Policy", Collections.singletonList("default-src 'self'"));
+        headers.put("X-Frame-Options", Collections.singletonList("SAMEORIGIN"));
+        headers.put("X-Robots-Tag", Arrays.asList("noarchive", "nosnippet"));
+
+        return new CachedPage("text/html;charset=UTF-8", PAGE.getBytes(StandardCharsets.UTF_8), headers,
+                "public, max-age=0, must-revalidate", new PageValidator("W/\"1600000000\"", 1_600_000_000_000L), 0L);
+    }
+}
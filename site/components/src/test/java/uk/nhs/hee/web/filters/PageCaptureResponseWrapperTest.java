@@ -0,0 +1,181 @@
+package uk.nhs.hee.web.filters;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PageCaptureResponseWrapperTest {
+    private static final String PAGE = "<html><body>News</body></html>";
+
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    private final PageCaptureResponseWrapper systemUnderTest = new PageCaptureResponseWrapper(response, 1000);
+
+    @Before
+    public void setUp() throws IOException {
+        when(response.getContentType()).thenReturn("text/html;charset=UTF-8");
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(final int b) {
+                written.write(b);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(final WriteListener writeListener) {
+                // Not needed
+            }
+        });
+    }
+
+    @Test
+    public void getCapturedContent_WithPageWrittenViaWriter_CapturesPageUntilFinished() throws IOException {
+        // Execute the method to be tested
+        systemUnderTest.getWriter().write(PAGE);
+        systemUnderTest.flushBuffer();
+        final byte[] actual = systemUnderTest.getCapturedContent();
+        final int writtenBeforeFinish = written.size();
+        systemUnderTest.finish();
+
+        // Verify
+        assertThat(new String(actual, StandardCharsets.UTF_8)).isEqualTo(PAGE);
+        assertThat(writtenBeforeFinish).isZero();
+        assertThat(written.toString("UTF-8")).isEqualTo(PAGE);
+        verify(response, never()).flushBuffer();
+        assertThat(systemUnderTest.isCacheable()).isTrue();
+        assertThatThrownBy(systemUnderTest::getOutputStream).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void getCapturedContent_WithPageWrittenViaStream_CapturesPage() throws IOException {
+        // Execute the method to be tested
+        systemUnderTest.getOutputStream().write(PAGE.getBytes(StandardCharsets.UTF_8));
+
+        // Verify
+        assertThat(new String(systemUnderTest.getCapturedContent(), StandardCharsets.UTF_8)).isEqualTo(PAGE);
+        assertThat(systemUnderTest.isCacheable()).isTrue();
+        assertThatThrownBy(systemUnderTest::getWriter).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void isCacheable_WithPageExceedingMaximumSize_ReturnsFalse() throws IOException {
+        // Mocks & stubs
+        final PageCaptureResponseWrapper wrapper = new PageCaptureResponseWrapper(response, 10);
+
+        // Execute the method to be tested
+        wrapper.getOutputStream().write(PAGE.getBytes(StandardCharsets.UTF_8));
+
+        // Verify
+        assertThat(wrapper.isCacheable()).isFalse();
+        assertThat(wrapper.getCapturedContent()).isEmpty();
+        assertThat(written.toString("UTF-8")).isEqualTo(PAGE);
+    }
+
+    @Test
+    public void finish_WithErrorSentAfterPageWritten_DiscardsCapturedPage() throws IOException {
+        // Execute the method to be tested
+        systemUnderTest.getOutputStream().write(PAGE.getBytes(StandardCharsets.UTF_8));
+        systemUnderTest.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        systemUnderTest.finish();
+
+        // Verify
+        assertThat(systemUnderTest.isCacheable()).isFalse();
+        assertThat(systemUnderTest.getCapturedContent()).isEmpty();
+        assertThat(written.size()).isZero();
+        verify(response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    public void isCacheable_WithErrorOrRedirect_ReturnsFalse() throws IOException {
+        // Error status
+        systemUnderTest.getWriter().write(PAGE);
+        systemUnderTest.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        assertThat(systemUnderTest.isCacheable()).isFalse();
+
+        // Error sent
+        systemUnderTest.setStatus(HttpServletResponse.SC_OK);
+        systemUnderTest.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        assertThat(systemUnderTest.isCacheable()).isFalse();
+
+        // Redirect
+        systemUnderTest.setStatus(HttpServletResponse.SC_OK);
+        systemUnderTest.sendRedirect("/site/news");
+        assertThat(systemUnderTest.isCacheable()).isFalse();
+        verify(response).sendRedirect("/site/news");
+    }
+
+    @Test
+    public void isCacheable_WithCookieSet_ReturnsFalse() throws IOException {
+        // Mocks & stubs
+        final PageCaptureResponseWrapper headerCookieWrapper = new PageCaptureResponseWrapper(response, 1000);
+
+        // Execute the method to be tested
+        systemUnderTest.getWriter().write(PAGE);
+        systemUnderTest.addCookie(new Cookie("JSESSIONID", "F00"));
+        headerCookieWrapper.getWriter().write(PAGE);
+        headerCookieWrapper.addHeader("Set-Cookie", "analyticsCookie=true");
+
+        // Verify
+        assertThat(systemUnderTest.isCacheable()).isFalse();
+        assertThat(headerCookieWrapper.isCacheable()).isFalse();
+        assertThat(headerCookieWrapper.getHeaders()).doesNotContainKey("Set-Cookie");
+    }
+
+    @Test
+    public void isCacheable_WithPrivateOrNoStoreCacheControl_ReturnsFalse() throws IOException {
+        // Private
+        systemUnderTest.getWriter().write(PAGE);
+        systemUnderTest.setHeader("Cache-Control", "private, max-age=60");
+        assertThat(systemUnderTest.isCacheable()).isFalse();
+
+        // No store
+        systemUnderTest.setHeader("Cache-Control", "No-Store");
+        assertThat(systemUnderTest.isCacheable()).isFalse();
+
+        // Public
+        systemUnderTest.setHeader("Cache-Control", "public, max-age=60");
+        assertThat(systemUnderTest.isCacheable()).isTrue();
+        assertThat(systemUnderTest.getCacheControl()).isEqualTo("public, max-age=60");
+    }
+
+    @Test
+    public void getHeaders_WithEndToEndAndHopByHopHeaders_CapturesEndToEndHeaders() {
+        // Execute the method to be tested
+        systemUnderTest.setHeader("Content-Security-Policy", "default-src 'self'");
+        systemUnderTest.setHeader("X-Frame-Options", "DENY");
+        systemUnderTest.setHeader("x-frame-options", "SAMEORIGIN");
+        systemUnderTest.addHeader("X-Robots-Tag", "noarchive");
+        systemUnderTest.addHeader("X-Robots-Tag", "nosnippet");
+        systemUnderTest.setDateHeader("Expires", 0L);
+        systemUnderTest.setHeader("Connection", "close");
+        systemUnderTest.setHeader("Transfer-Encoding", "chunked");
+        systemUnderTest.setHeader("ETag", "W/\"1\"");
+
+        // Verify
+        assertThat(systemUnderTest.getHeaders())
+                .containsOnlyKeys("Content-Security-Policy", "X-Frame-Options", "X-Robots-Tag", "Expires");
+        assertThat(systemUnderTest.getHeaders().get("X-Frame-Options")).containsExactly("SAMEORIGIN");
+        assertThat(systemUnderTest.getHeaders().get("X-Robots-Tag")).containsExactly("noarchive", "nosnippet");
+        assertThat(systemUnderTest.getHeaders().get("Expires")).containsExactly("Thu, 01 Jan 1970 00:00:00 GMT");
+        verify(response).setHeader("Content-Security-Policy", "default-src 'self'");
+    }
+}
@@ -0,0 +1,124 @@
+package uk.nhs.hee.web.listeners;
+
+import org.junit.Test;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DocumentEventListenerTest {
+    private static final String NEWS_HANDLE_PATH = "/content/documents/hee/news/covid-update";
+    private static final String EVENT_HANDLE_PATH = "/content/documents/hee/events/open-day";
+
+    @Test
+    public void getHandlePath_WithVariantPropertyPath_ReturnsHandlePath() {
+        // Execute the method to be tested
+        final String handlePath = DocumentEventListener.getHandlePath(
+                "/content/documents/lks/minihubs/library-services/library-services[2]/hippo:availability");
+
+        // Verify
+        assertThat(handlePath).isEqualTo("/content/documents/lks/minihubs/library-services");
+    }
+
+    @Test
+    public void getHandlePath_WithCompoundNodePathAndFolderNamedAsParent_ReturnsHandlePath() {
+        // Execute the method to be tested
+        final String handlePath = DocumentEventListener.getHandlePath(
+                "/content/documents/lks/news/news/article/article/hee:guidancePages");
+
+        // Verify
+        assertThat(handlePath).isEqualTo("/content/documents/lks/news/news/article");
+    }
+
+    @Test
+    public void getHandlePath_WithFolderPath_ReturnsNull() {
+        // Execute the method to be tested
+        final String handlePath = DocumentEventListener.getHandlePath("/content/documents/lks/minihubs");
+
+        // Verify
+        assertThat(handlePath).isNull();
+    }
+
+    @Test
+    public void onEvent_WithDraftAndPublishedVariantsChanged_NotifiesPublishedDocumentsOnly()
+            throws RepositoryException {
+        // Mocks & stubs
+        final Repository repository = mock(Repository.class);
+        final Credentials credentials = mock(Credentials.class);
+        final Session session = mock(Session.class);
+        final DocumentChangeHandler documentChangeHandler = mock(DocumentChangeHandler.class);
+        when(repository.login(credentials)).thenReturn(session);
+        mockVariant(session, NEWS_HANDLE_PATH + "/covid-update[3]", "draft");
+        mockVariant(session, EVENT_HANDLE_PATH + "/open-day[2]", "published");
+
+        final DocumentEventListener systemUnderTest = new DocumentEventListener();
+        systemUnderTest.setRepository(repository);
+        systemUnderTest.setCredentials(credentials);
+        systemUnderTest.setDocumentChangeHandlers(Collections.singletonList(documentChangeHandler));
+
+        // Execute the method to be tested
+        systemUnderTest.onEvent(mockEvents(
+                NEWS_HANDLE_PATH + "/covid-update[3]/hee:title",
+                EVENT_HANDLE_PATH + "/open-day[2]/hippo:availability",
+                "/content/documents/hee/news/deleted/deleted"));
+
+        // Verify
+        verify(documentChangeHandler).onDocumentsChanged(
+                new HashSet<>(Arrays.asList(EVENT_HANDLE_PATH, "/content/documents/hee/news/deleted")));
+        verify(session).logout();
+    }
+
+    /**
+     * Mocks the document variant of the given {@code variantPath} with the given {@code hippostd:state}.
+     *
+     * @param session     the JCR {@link Session} mock.
+     * @param variantPath the path of the document variant.
+     * @param state       the {@code hippostd:state} of the document variant.
+     * @throws RepositoryException never thrown by the mocks.
+     */
+    private static void mockVariant(final Session session, final String variantPath, final String state)
+            throws RepositoryException {
+        final Node variant = mock(Node.class);
+        final Property stateProperty = mock(Property.class);
+        when(session.nodeExists(variantPath)).thenReturn(true);
+        when(session.getNode(variantPath)).thenReturn(variant);
+        when(variant.hasProperty("hippostd:state")).thenReturn(true);
+        when(variant.getProperty("hippostd:state")).thenReturn(stateProperty);
+        when(stateProperty.getString()).thenReturn(state);
+    }
+
+    /**
+     * Returns the {@link EventIterator} mock of the events on the given item paths.
+     *
+     * @param itemPaths the paths of the changed items.
+     * @return the {@link EventIterator} mock of the events on the given item paths.
+     * @throws RepositoryException never thrown by the mocks.
+     */
+    private static EventIterator mockEvents(final String... itemPaths) throws RepositoryException {
+        final EventIterator events = mock(EventIterator.class);
+        final Event[] mockedEvents = new Event[itemPaths.length];
+        final Boolean[] hasNext = new Boolean[itemPaths.length];
+        for (int i = 0; i < itemPaths.length; i++) {
+            mockedEvents[i] = mock(Event.class);
+            when(mockedEvents[i].getPath()).thenReturn(itemPaths[i]);
+            hasNext[i] = i < itemPaths.length - 1;
+        }
+
+        when(events.hasNext()).thenReturn(true, hasNext);
+        when(events.nextEvent()).thenReturn(mockedEvents[0], Arrays.copyOfRange(mockedEvents, 1, itemPaths.length));
+        return events;
+    }
+}
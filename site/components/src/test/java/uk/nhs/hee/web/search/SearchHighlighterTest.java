@@ -0,0 +1,38 @@
+package uk.nhs.hee.web.search;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchHighlighterTest {
+
+    @Test
+    public void highlight_WithTermsPrefixAndPhrase_HighlightsMatchingWordsAndEscapesText() {
+        // Mocks & stubs
+        final SearchHighlighter systemUnderTest = new SearchHighlighter("\"library services\" fund* nhs");
+
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.highlight("NHS <Library> services are funded", 0)).isEqualTo(
+                "<mark>NHS</mark> &lt;<mark>Library</mark>&gt; <mark>services</mark> are <mark>funded</mark>");
+    }
+
+    @Test
+    public void highlight_WithTextLongerThanMaxLength_ReturnsFragmentAroundFirstMatch() {
+        // Mocks & stubs
+        final SearchHighlighter systemUnderTest = new SearchHighlighter("funding");
+
+        // Execute the method to be tested
+        final String actual = systemUnderTest.highlight(
+                "The regional teams have reviewed the plans and confirmed the funding of library services " +
+                        "across the regions for the next year", 40);
+
+        // Verify
+        assertThat(actual).startsWith("…").contains("<mark>funding</mark>").endsWith("…");
+    }
+
+    @Test
+    public void highlight_WithBlankText_ReturnsNull() {
+        // Execute the method to be tested & verify
+        assertThat(new SearchHighlighter("funding").highlight(" ", 0)).isNull();
+    }
+}
@@ -0,0 +1,91 @@
+package uk.nhs.hee.web.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchIndexTest {
+    private static final String[] ALL_DOCUMENT_TYPES = new String[]{};
+    private static final String LKS_SCOPE_PATH = "/content/documents/lks";
+
+    private final SearchIndex systemUnderTest = new SearchIndex(3.0);
+
+    @Before
+    public void setUp() {
+        systemUnderTest.put("/content/documents/lks/guidance/library-funding", "hee:guidance", 1L,
+                "Library funding", null, "How NHS library services are funded across the regions.");
+        systemUnderTest.put("/content/documents/lks/news/regional-update", "hee:news", 1L,
+                "Regional update", null, "Library services funding has been confirmed for the library network.");
+        systemUnderTest.put("/content/documents/lks/news/workforce-plan", "hee:news", 1L,
+                "Workforce plan", null, "The plan funds the workforce and services.");
+        systemUnderTest.put("/content/documents/nshcs/guidance/library-funding", "hee:guidance", 1L,
+                "Library funding", null, "Funding of the scientist training programme library.");
+    }
+
+    @Test
+    public void search_WithTermMatchingTitleAndContent_RanksTitleMatchFirst() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.search("funding", LKS_SCOPE_PATH, ALL_DOCUMENT_TYPES)).containsExactly(
+                "/content/documents/lks/guidance/library-funding",
+                "/content/documents/lks/news/regional-update");
+    }
+
+    @Test
+    public void search_WithPhrase_MatchesOnlyDocumentsContainingPhrase() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.search("\"services funding\"", LKS_SCOPE_PATH, ALL_DOCUMENT_TYPES))
+                .containsExactly("/content/documents/lks/news/regional-update");
+    }
+
+    @Test
+    public void search_WithPrefix_MatchesDocumentsContainingTermsStartingWithPrefix() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.search("fund*", LKS_SCOPE_PATH, ALL_DOCUMENT_TYPES)).containsExactlyInAnyOrder(
+                "/content/documents/lks/guidance/library-funding",
+                "/content/documents/lks/news/regional-update",
+                "/content/documents/lks/news/workforce-plan");
+    }
+
+    @Test
+    public void search_WithScopeAndDocumentTypes_ScopesResults() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.search("library", "/content/documents/nshcs", ALL_DOCUMENT_TYPES))
+                .containsExactly("/content/documents/nshcs/guidance/library-funding");
+        assertThat(systemUnderTest.search("library", LKS_SCOPE_PATH, new String[]{"hee:news"}))
+                .containsExactly("/content/documents/lks/news/regional-update");
+    }
+
+    @Test
+    public void remove_WithFolderPath_RemovesDocumentsBelowIt() {
+        // Execute the method to be tested
+        systemUnderTest.remove("/content/documents/lks/news");
+
+        // Verify
+        assertThat(systemUnderTest.size()).isEqualTo(2);
+        assertThat(systemUnderTest.search("library", LKS_SCOPE_PATH, ALL_DOCUMENT_TYPES))
+                .containsExactly("/content/documents/lks/guidance/library-funding");
+    }
+
+    @Test
+    public void tokenize_WithAccentsAndPunctuation_ReturnsLowercasedFoldedTerms() {
+        // Execute the method to be tested & verify
+        assertThat(SearchIndex.tokenize("Café, COVID-19 résumé")).containsExactly("cafe", "covid", "19", "resume");
+    }
+
+    @Test
+    public void put_WithExportedEntries_IndexesDocumentsTheSame() {
+        // Mocks & stubs
+        final SearchIndex importedIndex = new SearchIndex(3.0);
+
+        // Execute the method to be tested
+        systemUnderTest.getEntries().forEach(importedIndex::put);
+
+        // Verify
+        assertThat(importedIndex.size()).isEqualTo(systemUnderTest.size());
+        assertThat(importedIndex.search("\"services funding\"", LKS_SCOPE_PATH, ALL_DOCUMENT_TYPES))
+                .containsExactly("/content/documents/lks/news/regional-update");
+        assertThat(importedIndex.search("fund*", null, ALL_DOCUMENT_TYPES))
+                .isEqualTo(systemUnderTest.search("fund*", null, ALL_DOCUMENT_TYPES));
+    }
+}
@@ -0,0 +1,63 @@
+package uk.nhs.hee.web.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TitleSuggestionTrieTest {
+    private TitleSuggestionTrie systemUnderTest;
+
+    @Before
+    public void setUp() {
+        systemUnderTest = new TitleSuggestionTrie();
+        systemUnderTest.put("/content/documents/lks/guidance/funding", "Library Funding");
+        systemUnderTest.put("/content/documents/lks/news/fund-news", "New fund for libraries");
+        systemUnderTest.put("/content/documents/lks/guidance/knowledge", "Knowledge Mobilisation");
+        systemUnderTest.put("/content/documents/lks/guidance/cafe", "Café Résumé");
+    }
+
+    @Test
+    public void suggest_WithWordPrefix_ReturnsTitlesContainingWordsStartingWithPrefix() {
+        // Execute the method to be tested
+        final List<String> actual = systemUnderTest.suggest("fund", 10);
+
+        // Verify
+        assertThat(actual).containsExactly("New fund for libraries", "Library Funding");
+    }
+
+    @Test
+    public void suggest_WithMultiWordPrefix_ReturnsTitlesStartingWithPhrase() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.suggest("library fun", 10)).containsExactly("Library Funding");
+        assertThat(systemUnderTest.suggest("cafe res", 10)).containsExactly("Café Résumé");
+    }
+
+    @Test
+    public void suggest_WithTypos_ReturnsFuzzyMatchedTitles() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.suggest("knowlegde", 10)).containsExactly("Knowledge Mobilisation");
+        assertThat(systemUnderTest.suggest("libary", 10)).contains("Library Funding");
+        assertThat(systemUnderTest.suggest("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    public void suggest_WithLimit_ReturnsAtMostLimitTitles() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.suggest("l", 1)).hasSize(1);
+    }
+
+    @Test
+    public void put_WithChangedAndRemovedTitles_UpdatesSuggestions() {
+        // Execute the method to be tested
+        systemUnderTest.put("/content/documents/lks/guidance/funding", "Library Grants");
+        systemUnderTest.remove("/content/documents/lks/news/fund-news");
+
+        // Verify
+        assertThat(systemUnderTest.suggest("fund", 10)).isEmpty();
+        assertThat(systemUnderTest.suggest("grant", 10)).containsExactly("Library Grants");
+        assertThat(systemUnderTest.size()).isEqualTo(3);
+    }
+}
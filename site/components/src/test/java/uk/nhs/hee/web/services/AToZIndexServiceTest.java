@@ -0,0 +1,101 @@
+package uk.nhs.hee.web.services;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AToZIndexServiceTest {
+    private final AToZIndexService systemUnderTest = new AToZIndexService();
+
+    @Test
+    public void buildIndex_WithMixedTitles_BucketsAndCollatesPagesByLetter() {
+        // Mocks & stubs
+        final List<Pair<String, String>> pages = Arrays.asList(
+                page("zebra"),
+                page("Évaluation"),
+                page("apple"),
+                page("Apple pie"),
+                page("123 Guidance"),
+                page("'Quoted' title"),
+                page("Ωmega"));
+
+        // Execute the method to be tested
+        final Map<String, List<Pair<String, String>>> actual = AToZIndexService.buildIndex(pages, Locale.UK);
+
+        // Verify
+        assertThat(actual).hasSize(27);
+        assertThat(actual.keySet()).startsWith("A", "B", "C").endsWith("Z", AToZIndexService.OTHER_LETTER);
+        assertThat(actual.get("A")).extracting(Pair::getKey).containsExactly("apple", "Apple pie");
+        assertThat(actual.get("E")).extracting(Pair::getKey).containsExactly("Évaluation");
+        assertThat(actual.get("Q")).extracting(Pair::getKey).containsExactly("'Quoted' title");
+        assertThat(actual.get("Z")).extracting(Pair::getKey).containsExactly("zebra");
+        assertThat(actual.get(AToZIndexService.OTHER_LETTER)).extracting(Pair::getKey)
+                .containsExactly("123 Guidance", "Ωmega");
+        assertThat(actual.get("B")).isNull();
+    }
+
+    @Test
+    public void buildIndex_WithoutOtherTitles_OmitsOtherLetter() {
+        // Execute the method to be tested
+        final Map<String, List<Pair<String, String>>> actual =
+                AToZIndexService.buildIndex(Collections.singletonList(page("Apple")), Locale.UK);
+
+        // Verify
+        assertThat(actual).hasSize(26).doesNotContainKey(AToZIndexService.OTHER_LETTER);
+    }
+
+    @Test
+    public void getIndex_WithCachedIndex_LoadsOnlyUntilChannelDocumentsChange() {
+        // Mocks & stubs
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        // Execute the method to be tested
+        systemUnderTest.getIndex("lks", "key", Locale.UK, () -> {
+            loadCount.incrementAndGet();
+            return Collections.singletonList(page("Apple"));
+        });
+        systemUnderTest.getIndex("dental", "key", Locale.UK, Collections::emptyList);
+        final Map<String, List<Pair<String, String>>> actual =
+                systemUnderTest.getIndex("lks", "key", Locale.UK, () -> {
+                    loadCount.incrementAndGet();
+                    return Collections.emptyList();
+                });
+
+        // Verify
+        assertThat(actual.get("A")).extracting(Pair::getKey).containsExactly("Apple");
+        assertThat(loadCount).hasValue(1);
+
+        systemUnderTest.onDocumentsChanged(Collections.singleton("/content/documents/lks/guidance/apple"));
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+
+    @Test
+    public void getIndex_WithChannelDocumentsChangedWhileBuilding_DoesNotCacheIndex() {
+        // Execute the method to be tested
+        final Map<String, List<Pair<String, String>>> built = systemUnderTest.getIndex("lks", "key", Locale.UK, () -> {
+            systemUnderTest.onDocumentsChanged(Collections.singleton("/content/documents/lks/guidance/apple"));
+            return Collections.singletonList(page("Apple"));
+        });
+        final Map<String, List<Pair<String, String>>> actual = systemUnderTest.getIndex("lks", "key", Locale.UK,
+                () -> Collections.singletonList(page("Banana")));
+
+        // Verify
+        assertThat(built.get("A")).extracting(Pair::getKey).containsExactly("Apple");
+        assertThat(actual.get("A")).isNull();
+        assertThat(actual.get("B")).extracting(Pair::getKey).containsExactly("Banana");
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+
+    private static Pair<String, String> page(final String title) {
+        return new ImmutablePair<>(title, "/" + title);
+    }
+}
@@ -0,0 +1,210 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.repository.api.Document;
+import org.hippoecm.repository.api.HippoWorkspace;
+import org.hippoecm.repository.api.WorkflowManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.onehippo.repository.documentworkflow.DocumentWorkflow;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.File;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class BlogCommentQueueServiceTest {
+    private static final String BLOG_POST_PATH = "/content/documents/hee/blog/welcome";
+    private static final long VERIFY_TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public final TemporaryFolder queueDirectory = new TemporaryFolder();
+
+    private final Repository repository = mock(Repository.class);
+    private final Credentials credentials = mock(Credentials.class);
+    private final Session session = mock(Session.class);
+    private final DocumentWorkflow documentWorkflow = mock(DocumentWorkflow.class);
+    private final Node editingNode = mock(Node.class);
+
+    private BlogCommentQueueService systemUnderTest;
+
+    @Before
+    public void setUp() throws Exception {
+        final HippoWorkspace workspace = mock(HippoWorkspace.class);
+        final WorkflowManager workflowManager = mock(WorkflowManager.class);
+        final Node handle = mock(Node.class);
+        final Document document = mock(Document.class);
+        final Node commentNode = mock(Node.class);
+
+        when(repository.login(credentials)).thenReturn(session);
+        when(session.nodeExists(BLOG_POST_PATH)).thenReturn(true);
+        when(session.getNode(BLOG_POST_PATH)).thenReturn(handle);
+        when(session.getWorkspace()).thenReturn(workspace);
+        when(workspace.getWorkflowManager()).thenReturn(workflowManager);
+        when(workflowManager.getWorkflow("default", handle)).thenReturn(documentWorkflow);
+        when(documentWorkflow.hints()).thenReturn(hints(true));
+        when(documentWorkflow.obtainEditableInstance()).thenReturn(document);
+        when(document.getNode(session)).thenReturn(editingNode);
+        when(editingNode.getNodes("hee:comments")).thenAnswer(invocation -> mockNodeIterator());
+        when(editingNode.addNode(anyString(), anyString())).thenReturn(commentNode);
+        when(commentNode.addNode(anyString(), anyString())).thenReturn(mock(Node.class));
+    }
+
+    @After
+    public void tearDown() {
+        if (systemUnderTest != null) {
+            systemUnderTest.destroy();
+        }
+    }
+
+    @Test
+    public void init_WithCommentsQueuedBeforeRestart_AddsThemInSingleCommit() throws Exception {
+        // Mocks & stubs
+        final Repository unavailableRepository = mock(Repository.class);
+        when(unavailableRepository.login(any(Credentials.class))).thenThrow(new RepositoryException("unavailable"));
+        final BlogCommentQueueService previousService = new BlogCommentQueueService(
+                unavailableRepository, credentials, queueDirectory.getRoot().getPath(), 60000, 3);
+        previousService.enqueue(comment("comment-1", "First comment"));
+        previousService.enqueue(comment("comment-2", "Second comment"));
+        previousService.destroy();
+
+        systemUnderTest = new BlogCommentQueueService(
+                repository, credentials, queueDirectory.getRoot().getPath(), 60000, 3);
+
+        // Execute the method to be tested
+        systemUnderTest.init();
+
+        // Verify
+        verify(session, timeout(VERIFY_TIMEOUT_MILLIS)).logout();
+        verify(documentWorkflow, times(1)).obtainEditableInstance();
+        verify(editingNode, times(2)).addNode("hee:comments", "hee:blogComment");
+        verify(documentWorkflow, times(1)).commitEditableInstance();
+        verify(documentWorkflow).publish();
+        assertThat(queueDirectory.getRoot().list()).isEmpty();
+        assertThat(systemUnderTest.getQueueDepth()).isZero();
+        assertThat(systemUnderTest.getProcessedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void enqueue_WithBlogPostBeingEdited_RetriesAfterDelay() throws Exception {
+        // Mocks & stubs
+        when(documentWorkflow.hints()).thenReturn(hints(false), hints(true));
+        systemUnderTest = new BlogCommentQueueService(
+                repository, credentials, queueDirectory.getRoot().getPath(), 10, 3);
+
+        // Execute the method to be tested
+        systemUnderTest.enqueue(comment("comment-1", "Comment"));
+
+        // Verify
+        verify(session, timeout(VERIFY_TIMEOUT_MILLIS).times(2)).logout();
+        verify(documentWorkflow, times(1)).obtainEditableInstance();
+        verify(documentWorkflow, times(1)).commitEditableInstance();
+        assertThat(systemUnderTest.getFailedAttemptCount()).isEqualTo(1);
+        assertThat(systemUnderTest.getProcessedCount()).isEqualTo(1);
+        assertThat(systemUnderTest.getMaxLatencyMillis()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    public void enqueue_WithNonExistentBlogPost_DropsComment() throws Exception {
+        // Mocks & stubs
+        when(session.nodeExists(BLOG_POST_PATH)).thenReturn(false);
+        systemUnderTest = new BlogCommentQueueService(
+                repository, credentials, queueDirectory.getRoot().getPath(), 60000, 3);
+
+        // Execute the method to be tested
+        systemUnderTest.enqueue(comment("comment-1", "Comment"));
+
+        // Verify
+        verify(session, timeout(VERIFY_TIMEOUT_MILLIS)).logout();
+        verify(documentWorkflow, never()).obtainEditableInstance();
+        assertThat(queueDirectory.getRoot().list()).isEmpty();
+        assertThat(systemUnderTest.getQueueDepth()).isZero();
+        assertThat(systemUnderTest.getProcessedCount()).isZero();
+    }
+
+    @Test
+    public void init_WithCommentAlreadyAddedBeforeRestart_DoesNotAddItAgain() throws Exception {
+        // Mocks & stubs
+        final Node addedCommentNode = mock(Node.class);
+        final Property commentId = mock(Property.class);
+        when(addedCommentNode.hasProperty("hee:commentId")).thenReturn(true);
+        when(addedCommentNode.getProperty("hee:commentId")).thenReturn(commentId);
+        when(commentId.getString()).thenReturn("comment-1");
+        when(editingNode.getNodes("hee:comments")).thenAnswer(invocation -> mockNodeIterator(addedCommentNode));
+
+        final Repository unavailableRepository = mock(Repository.class);
+        when(unavailableRepository.login(any(Credentials.class))).thenThrow(new RepositoryException("unavailable"));
+        final BlogCommentQueueService previousService = new BlogCommentQueueService(
+                unavailableRepository, credentials, queueDirectory.getRoot().getPath(), 60000, 3);
+        previousService.enqueue(comment("comment-1", "Added comment"));
+        previousService.enqueue(comment("comment-2", "Pending comment"));
+        previousService.destroy();
+
+        systemUnderTest = new BlogCommentQueueService(
+                repository, credentials, queueDirectory.getRoot().getPath(), 60000, 3);
+
+        // Execute the method to be tested
+        systemUnderTest.init();
+
+        // Verify
+        verify(session, timeout(VERIFY_TIMEOUT_MILLIS)).logout();
+        verify(editingNode, times(1)).addNode("hee:comments", "hee:blogComment");
+        verify(documentWorkflow, times(1)).commitEditableInstance();
+        assertThat(queueDirectory.getRoot().list()).isEmpty();
+        assertThat(systemUnderTest.getProcessedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void enqueue_WithBlogPostBeingEditedBeyondMaximumAttempts_MovesCommentToFailedDirectory()
+            throws Exception {
+        // Mocks & stubs
+        when(documentWorkflow.hints()).thenReturn(hints(false));
+        systemUnderTest = new BlogCommentQueueService(
+                repository, credentials, queueDirectory.getRoot().getPath(), 10, 3);
+
+        // Execute the method to be tested
+        systemUnderTest.enqueue(comment("comment-1", "Comment"));
+
+        // Verify
+        verify(session, timeout(VERIFY_TIMEOUT_MILLIS).times(3)).logout();
+        verify(documentWorkflow, never()).obtainEditableInstance();
+        assertThat(queueDirectory.getRoot().list()).containsExactly("failed");
+        assertThat(new File(queueDirectory.getRoot(), "failed").list()).hasSize(1);
+        assertThat(systemUnderTest.getQueueDepth()).isZero();
+        assertThat(systemUnderTest.getFailedAttemptCount()).isEqualTo(3);
+    }
+
+    private static PendingBlogComment comment(final String commentId, final String message) {
+        return new PendingBlogComment(
+                commentId, BLOG_POST_PATH, message, "Jane", "Doe", "jane.doe@example.com", System.currentTimeMillis());
+    }
+
+    private static NodeIterator mockNodeIterator(final Node... nodes) {
+        final Iterator<Node> iterator = Arrays.asList(nodes).iterator();
+        final NodeIterator nodeIterator = mock(NodeIterator.class);
+        when(nodeIterator.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(nodeIterator.nextNode()).thenAnswer(invocation -> iterator.next());
+        return nodeIterator;
+    }
+
+    private static Map<String, Serializable> hints(final boolean editable) {
+        final Map<String, Serializable> hints = new HashMap<>();
+        hints.put("obtainEditableInstance", editable);
+        hints.put("publish", Boolean.TRUE);
+        return hints;
+    }
+}
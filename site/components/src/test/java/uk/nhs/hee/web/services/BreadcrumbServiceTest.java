@@ -0,0 +1,75 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHost;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.configuration.sitemap.HstSiteMapItem;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.junit.Before;
+import org.junit.Test;
+import uk.nhs.hee.web.components.beans.BreadcrumbLink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BreadcrumbServiceTest {
+    private final HstRequestContext requestContext = mock(HstRequestContext.class);
+    private final VirtualHost virtualHost = mock(VirtualHost.class);
+    private final HstSiteMapItem siteMapItem = mock(HstSiteMapItem.class);
+    private final AtomicInteger buildCount = new AtomicInteger();
+    private final Supplier<List<BreadcrumbLink>> builder = () -> {
+        buildCount.incrementAndGet();
+        return new ArrayList<>(Collections.singletonList(new BreadcrumbLink("Home", "/site")));
+    };
+    private final BreadcrumbService systemUnderTest = new BreadcrumbService();
+
+    @Before
+    public void setUp() {
+        final ResolvedMount resolvedMount = mock(ResolvedMount.class);
+        final Mount mount = mock(Mount.class);
+
+        when(requestContext.getResolvedMount()).thenReturn(resolvedMount);
+        when(resolvedMount.getMount()).thenReturn(mount);
+        when(mount.getIdentifier()).thenReturn("mount-id");
+        when(mount.getVirtualHost()).thenReturn(virtualHost);
+        when(virtualHost.getVirtualHosts()).thenReturn(mock(VirtualHosts.class));
+        when(siteMapItem.getId()).thenReturn("news/_default_");
+    }
+
+    @Test
+    public void getBreadcrumbLinks_WithSameSiteMapItemAndModel_BuildsBreadcrumbLinksOnce() {
+        // Execute the method to be tested
+        final List<BreadcrumbLink> actual = systemUnderTest.getBreadcrumbLinks(requestContext, siteMapItem, builder);
+
+        // Verify
+        assertThat(systemUnderTest.getBreadcrumbLinks(requestContext, siteMapItem, builder)).isSameAs(actual);
+        assertThat(actual).extracting(BreadcrumbLink::getText).containsExactly("Home");
+        assertThat(buildCount).hasValue(1);
+        assertThat(systemUnderTest.getHitCount()).isEqualTo(1L);
+        assertThatThrownBy(() -> actual.add(new BreadcrumbLink("News", "/site/news")))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void getBreadcrumbLinks_AfterModelRebuild_DiscardsCachedBreadcrumbLinks() {
+        // Mocks & stubs
+        systemUnderTest.getBreadcrumbLinks(requestContext, siteMapItem, builder);
+        when(virtualHost.getVirtualHosts()).thenReturn(mock(VirtualHosts.class));
+
+        // Execute the method to be tested
+        systemUnderTest.getBreadcrumbLinks(requestContext, siteMapItem, builder);
+
+        // Verify
+        assertThat(buildCount).hasValue(2);
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+}
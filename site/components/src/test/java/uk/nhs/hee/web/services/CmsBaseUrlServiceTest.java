@@ -0,0 +1,91 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHost;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.platform.model.HstModel;
+import org.hippoecm.hst.platform.model.HstModelRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class CmsBaseUrlServiceTest {
+    private static final String HOST_GROUP_NAME = "prd-brcloud";
+
+    private final HstModelRegistry hstModelRegistry = mock(HstModelRegistry.class);
+    private final HstModel siteModel = mock(HstModel.class);
+    private final HstModel cmsModel = mock(HstModel.class);
+    private final CmsBaseUrlService systemUnderTest = spy(new CmsBaseUrlService());
+
+    @Before
+    public void setUp() {
+        final VirtualHosts siteVirtualHosts = mock(VirtualHosts.class);
+        when(siteVirtualHosts.getContextPath()).thenReturn("/site");
+        when(siteModel.getVirtualHosts()).thenReturn(siteVirtualHosts);
+        when(hstModelRegistry.getHstModels()).thenReturn(Arrays.asList(siteModel, cmsModel));
+        doReturn(hstModelRegistry).when(systemUnderTest).getHstModelRegistry();
+    }
+
+    @Test
+    public void getCmsBaseURL_WithSameModel_ResolvesPlatformMountOnce() throws Exception {
+        // Mocks & stubs
+        final VirtualHosts cmsVirtualHosts = mockCmsVirtualHosts("cms-prod.hee.bloomreach.cloud");
+
+        // Execute the method to be tested
+        final String actual = systemUnderTest.getCmsBaseURL(HOST_GROUP_NAME);
+
+        // Verify
+        assertThat(actual).isEqualTo("https://cms-prod.hee.bloomreach.cloud/cms");
+        assertThat(systemUnderTest.getCmsBaseURL(HOST_GROUP_NAME)).isEqualTo(actual);
+        verify(cmsVirtualHosts, times(1))
+                .getMountByGroupAliasAndType(HOST_GROUP_NAME, CmsBaseUrlService.CMS_MOUNT_ALIAS, Mount.LIVE_NAME);
+    }
+
+    @Test
+    public void getCmsBaseURL_WithReloadedModel_ResolvesPlatformMountAgain() throws Exception {
+        // Mocks & stubs
+        mockCmsVirtualHosts("cms-prod.hee.bloomreach.cloud");
+        systemUnderTest.getCmsBaseURL(HOST_GROUP_NAME);
+        mockCmsVirtualHosts("cms.hee.nhs.uk");
+
+        // Execute the method to be tested
+        final String actual = systemUnderTest.getCmsBaseURL(HOST_GROUP_NAME);
+
+        // Verify
+        assertThat(actual).isEqualTo("https://cms.hee.nhs.uk/cms");
+    }
+
+    @Test
+    public void getCmsBaseURL_WithoutPlatformMount_ReturnsEmptyString() {
+        // Mocks & stubs
+        final VirtualHosts cmsVirtualHosts = mock(VirtualHosts.class);
+        when(cmsVirtualHosts.getContextPath()).thenReturn(CmsBaseUrlService.CMS_CONTEXT_PATH);
+        when(cmsModel.getVirtualHosts()).thenReturn(cmsVirtualHosts);
+
+        // Execute the method to be tested
+        final String actual = systemUnderTest.getCmsBaseURL(HOST_GROUP_NAME);
+
+        // Verify
+        assertThat(actual).isEmpty();
+    }
+
+    private VirtualHosts mockCmsVirtualHosts(final String hostName) throws Exception {
+        final VirtualHosts cmsVirtualHosts = mock(VirtualHosts.class);
+        final Mount platformMount = mock(Mount.class);
+        final VirtualHost virtualHost = mock(VirtualHost.class);
+
+        when(cmsVirtualHosts.getContextPath()).thenReturn(CmsBaseUrlService.CMS_CONTEXT_PATH);
+        when(cmsVirtualHosts.getMountByGroupAliasAndType(
+                HOST_GROUP_NAME, CmsBaseUrlService.CMS_MOUNT_ALIAS, Mount.LIVE_NAME)).thenReturn(platformMount);
+        when(platformMount.getScheme()).thenReturn("https");
+        when(platformMount.getVirtualHost()).thenReturn(virtualHost);
+        when(platformMount.isPortInUrl()).thenReturn(false);
+        when(virtualHost.getHostName()).thenReturn(hostName);
+        when(cmsModel.getVirtualHosts()).thenReturn(cmsVirtualHosts);
+        return cmsVirtualHosts;
+    }
+}
@@ -0,0 +1,90 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ListingFacetServiceTest {
+    private static final String FACET_FIELD = "hee:categories";
+
+    private final ListingFacetService systemUnderTest = new ListingFacetService(10, 10);
+
+    @Test
+    public void countFacetValues_WithSingleAndMultiValuedFields_CountsDocumentsPerValue() {
+        // Mocks & stubs
+        final HippoBean multiValuedBean = mockBean(new String[]{"education", "workforce"});
+        final HippoBean singleValuedBean = mockBean("education");
+        final HippoBean beanWithoutFacet = mock(HippoBean.class);
+        when(beanWithoutFacet.getProperties()).thenReturn(Collections.emptyMap());
+
+        // Execute the method to be tested
+        final Map<String, Long> actual = ListingFacetService.countFacetValues(
+                Arrays.asList(multiValuedBean, null, singleValuedBean, beanWithoutFacet).iterator(), FACET_FIELD);
+
+        // Verify
+        assertThat(actual).containsOnly(entry("education", 2L), entry("workforce", 1L));
+    }
+
+    @Test
+    public void getFacetCounts_WithCachedCounts_LoadsOnlyUntilDocumentsChange() {
+        // Mocks & stubs
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        // Execute the method to be tested
+        systemUnderTest.getFacetCounts("key", () -> {
+            loadCount.incrementAndGet();
+            return Collections.singletonMap("education", 1L);
+        });
+        final Map<String, Long> actual = systemUnderTest.getFacetCounts("key", () -> {
+            loadCount.incrementAndGet();
+            return Collections.emptyMap();
+        });
+
+        // Verify
+        assertThat(actual).containsOnly(entry("education", 1L));
+        assertThat(loadCount).hasValue(1);
+        assertThat(systemUnderTest.getHitCount()).isEqualTo(1L);
+
+        systemUnderTest.onDocumentsChanged(Collections.singleton("/content/documents/lks/news/news"));
+        assertThat(systemUnderTest.getSize()).isZero();
+    }
+
+    @Test
+    public void getFacetCounts_WithDocumentsChangedWhileComputing_DoesNotCacheCounts() {
+        // Execute the method to be tested
+        final Map<String, Long> computed = systemUnderTest.getFacetCounts("key", () -> {
+            systemUnderTest.onDocumentsChanged(Collections.singleton("/content/documents/lks/news/news"));
+            return Collections.singletonMap("education", 1L);
+        });
+        final Map<String, Long> actual =
+                systemUnderTest.getFacetCounts("key", () -> Collections.singletonMap("education", 2L));
+
+        // Verify
+        assertThat(computed).containsOnly(entry("education", 1L));
+        assertThat(actual).containsOnly(entry("education", 2L));
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+
+    @Test
+    public void getFacetCounts_WithFailingLoader_ReturnsEmptyMap() {
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.getFacetCounts("key", () -> {
+            throw new IllegalStateException("Query failed");
+        })).isEmpty();
+    }
+
+    private static HippoBean mockBean(final Object facetValue) {
+        final HippoBean bean = mock(HippoBean.class);
+        when(bean.getProperties()).thenReturn(Collections.singletonMap(FACET_FIELD, facetValue));
+        return bean;
+    }
+}
@@ -0,0 +1,82 @@
+package uk.nhs.hee.web.services;
+
+import org.junit.Test;
+import uk.nhs.hee.web.components.ListingPageType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ListingResultServiceTest {
+    private final ListingResultService systemUnderTest = new ListingResultService(10);
+
+    @Test
+    public void getListingResult_WithCachedResult_LoadsOnlyUntilListingTypeDocumentsChange()
+            throws ExecutionException {
+        // Mocks & stubs
+        final AtomicInteger loadCount = new AtomicInteger();
+        final ListingResult newsResult = new ListingResult(
+                Arrays.asList("uuid-1", "uuid-2"), 12, Collections.singleton("hee:news"));
+
+        // Execute the method to be tested
+        systemUnderTest.getListingResult(ListingPageType.NEWS_LISTING, "key", () -> {
+            loadCount.incrementAndGet();
+            return newsResult;
+        });
+        systemUnderTest.getListingResult(ListingPageType.BLOG_LISTING, "key", () -> newsResult);
+        final ListingResult actual = systemUnderTest.getListingResult(ListingPageType.NEWS_LISTING, "key", () -> {
+            loadCount.incrementAndGet();
+            return null;
+        });
+
+        // Verify
+        assertThat(actual).isSameAs(newsResult);
+        assertThat(actual.getHandleIds()).containsExactly("uuid-1", "uuid-2");
+        assertThat(loadCount).hasValue(1);
+        assertThat(systemUnderTest.getHitRatio()).isEqualTo(1.0 / 3);
+
+        systemUnderTest.evict(ListingPageType.NEWS_LISTING);
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+
+    @Test
+    public void getListingResult_WithListingTypeDocumentsChangedWhileLoading_DoesNotCacheResult()
+            throws ExecutionException {
+        // Mocks & stubs
+        final ListingResult staleResult = new ListingResult(
+                Collections.singletonList("uuid-1"), 1, Collections.singleton("hee:news"));
+        final ListingResult freshResult = new ListingResult(
+                Arrays.asList("uuid-1", "uuid-2"), 2, Collections.singleton("hee:news"));
+
+        // Execute the method to be tested
+        final ListingResult loaded = systemUnderTest.getListingResult(ListingPageType.NEWS_LISTING, "key", () -> {
+            systemUnderTest.evict(ListingPageType.NEWS_LISTING);
+            return staleResult;
+        });
+        final ListingResult actual =
+                systemUnderTest.getListingResult(ListingPageType.NEWS_LISTING, "key", () -> freshResult);
+
+        // Verify
+        assertThat(loaded).isSameAs(staleResult);
+        assertThat(actual).isSameAs(freshResult);
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+
+    @Test
+    public void getListingResult_WithMoreResultsThanMaximumSize_EvictsLeastRecentlyUsed() throws ExecutionException {
+        // Mocks & stubs
+        final ListingResult listingResult =
+                new ListingResult(Collections.emptyList(), 0, Collections.emptySet());
+
+        // Execute the method to be tested
+        for (int page = 1; page <= 50; page++) {
+            systemUnderTest.getListingResult(ListingPageType.NEWS_LISTING, "page-" + page, () -> listingResult);
+        }
+
+        // Verify
+        assertThat(systemUnderTest.getSize()).isLessThanOrEqualTo(10L);
+    }
+}
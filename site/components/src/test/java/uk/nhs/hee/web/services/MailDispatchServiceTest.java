@@ -0,0 +1,242 @@
+package uk.nhs.hee.web.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.mail.Address;
+import javax.mail.Session;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MailDispatchServiceTest {
+    private static final long WAIT_TIMEOUT_MILLIS = 5000;
+
+    private SmtpStandIn smtpServer;
+    private MailDispatchService systemUnderTest;
+
+    @Before
+    public void setUp() throws IOException {
+        smtpServer = new SmtpStandIn();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (systemUnderTest != null) {
+            systemUnderTest.destroy();
+        }
+        smtpServer.close();
+    }
+
+    @Test
+    public void enqueue_WithMailsOfSameBatch_SendsSingleMail() throws Exception {
+        // Mocks & stubs
+        systemUnderTest = newMailDispatchService(10, 200);
+
+        // Execute the method to be tested
+        final boolean firstQueued = systemUnderTest.enqueue(mail("/blog/welcome", "First comment"));
+        final boolean secondQueued = systemUnderTest.enqueue(mail("/blog/welcome", "Second comment"));
+
+        // Verify
+        assertThat(firstQueued).isTrue();
+        assertThat(secondQueued).isTrue();
+        waitUntilQueueIsEmpty();
+        assertThat(smtpServer.getMessages()).hasSize(1);
+        assertThat(smtpServer.getMessages().get(0))
+                .contains("Subject: Blog comment moderation notification (2)")
+                .contains("First comment")
+                .contains("Second comment");
+        assertThat(systemUnderTest.getProcessedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void enqueue_WithHtmlDocumentsOfSameBatch_CombinesTheirBodiesIntoSingleDocument() throws Exception {
+        // Mocks & stubs
+        systemUnderTest = newMailDispatchService(10, 200);
+
+        // Execute the method to be tested
+        systemUnderTest.enqueue(mail("/blog/welcome", "moderator@example.com",
+                "<html><head><title>Comment</title></head><body><p>First comment</p></body></html>"));
+        systemUnderTest.enqueue(mail("/blog/welcome", "moderator@example.com",
+                "<html><head><title>Comment</title></head><body><p>Second comment</p></body></html>"));
+
+        // Verify
+        waitUntilQueueIsEmpty();
+        assertThat(smtpServer.getMessages()).hasSize(1);
+        assertThat(smtpServer.getMessages().get(0))
+                .containsOnlyOnce("<html>")
+                .containsOnlyOnce("</body>")
+                .contains("<p>First comment</p><hr/><p>Second comment</p>");
+    }
+
+    @Test
+    public void enqueue_WithMailsOfSameBatchToDifferentRecipients_SendsMailPerRecipient() throws Exception {
+        // Mocks & stubs
+        systemUnderTest = newMailDispatchService(10, 200);
+
+        // Execute the method to be tested
+        systemUnderTest.enqueue(mail("/blog/welcome", "moderator@example.com", "<p>First comment</p>"));
+        systemUnderTest.enqueue(mail("/blog/welcome", "editor@example.com", "<p>Second comment</p>"));
+
+        // Verify
+        waitUntilQueueIsEmpty();
+        assertThat(smtpServer.getMessages()).hasSize(2);
+        assertThat(smtpServer.getMessages()).noneMatch(message -> message.contains("(2)"));
+        assertThat(systemUnderTest.getProcessedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void enqueue_WithTemporarySmtpFailure_RetriesWithBackoff() throws Exception {
+        // Mocks & stubs
+        smtpServer.failNextMails(1);
+        systemUnderTest = newMailDispatchService(10, 0);
+
+        // Execute the method to be tested
+        systemUnderTest.enqueue(mail(null, "Comment"));
+
+        // Verify
+        waitUntilQueueIsEmpty();
+        assertThat(smtpServer.getMessages()).hasSize(1);
+        assertThat(systemUnderTest.getFailedAttemptCount()).isEqualTo(1);
+        assertThat(systemUnderTest.getProcessedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void enqueue_WithFullQueue_RejectsMail() throws Exception {
+        // Mocks & stubs
+        systemUnderTest = newMailDispatchService(1, 60000);
+        systemUnderTest.enqueue(mail("/blog/welcome", "First comment"));
+
+        // Execute the method to be tested
+        final boolean actual = systemUnderTest.enqueue(mail("/blog/welcome", "Second comment"));
+
+        // Verify
+        assertThat(actual).isFalse();
+        assertThat(systemUnderTest.getQueueDepth()).isEqualTo(1);
+        assertThat(smtpServer.getMessages()).isEmpty();
+    }
+
+    private MailDispatchService newMailDispatchService(final int queueCapacity, final long batchWindowMillis) {
+        final Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "localhost");
+        properties.setProperty("mail.smtp.port", String.valueOf(smtpServer.getPort()));
+        properties.setProperty("mail.from", "no-reply@example.com");
+
+        return new MailDispatchService(
+                Session.getInstance(properties), "", 1, queueCapacity, batchWindowMillis, 3, 10);
+    }
+
+    private void waitUntilQueueIsEmpty() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (systemUnderTest.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+    }
+
+    private static OutboundMail mail(final String batchKey, final String comment) throws AddressException {
+        return mail(batchKey, "moderator@example.com", "<p>" + comment + "</p>");
+    }
+
+    private static OutboundMail mail(final String batchKey, final String recipient, final String html)
+            throws AddressException {
+        final List<Address> recipients = Collections.singletonList(new InternetAddress(recipient));
+        return new OutboundMail(batchKey, recipients, null, null,
+                "Blog comment moderation notification", html, html.replaceAll("<[^>]+>", ""));
+    }
+
+    /**
+     * Minimal local SMTP server accepting (or temporarily rejecting) the mails sent by the service.
+     */
+    private static class SmtpStandIn {
+        private final ServerSocket serverSocket;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final AtomicInteger mailsToFail = new AtomicInteger();
+
+        SmtpStandIn() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            final Thread acceptor = new Thread(this::accept, "smtp-stand-in");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        List<String> getMessages() {
+            return messages;
+        }
+
+        void failNextMails(final int count) {
+            mailsToFail.set(count);
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    converse(socket);
+                } catch (final IOException e) {
+                    // Server socket has been closed or the client has disconnected
+                }
+            }
+        }
+
+        private void converse(final Socket socket) throws IOException {
+            final BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            final PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            reply(out, "220 localhost SMTP stand-in");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                final String command = line.toUpperCase();
+                if (command.startsWith("MAIL FROM") && mailsToFail.getAndDecrement() > 0) {
+                    reply(out, "451 Temporary failure");
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    messages.add(readData(in));
+                    reply(out, "250 OK");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+        }
+
+        private String readData(final BufferedReader in) throws IOException {
+            final StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !".".equals(line)) {
+                data.append(line).append('\n');
+            }
+            return data.toString();
+        }
+
+        private void reply(final PrintWriter out, final String response) {
+            out.print(response + "\r\n");
+            out.flush();
+        }
+    }
+}
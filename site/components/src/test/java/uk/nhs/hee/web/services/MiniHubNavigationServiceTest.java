@@ -0,0 +1,103 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.content.beans.ObjectBeanManagerException;
+import org.hippoecm.hst.content.beans.manager.ObjectBeanManager;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.junit.Before;
+import org.junit.Test;
+import uk.nhs.hee.web.beans.Guidance;
+import uk.nhs.hee.web.beans.MiniHub;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class MiniHubNavigationServiceTest {
+    private static final String MINI_HUB_PATH = "/content/documents/hee/minihubs/starting-work";
+
+    private final HstRequestContext requestContext = mock(HstRequestContext.class);
+    private final MiniHub miniHub = mock(MiniHub.class);
+    private final MiniHubNavigationService systemUnderTest = new MiniHubNavigationService();
+
+    @Before
+    public void setUp() {
+        when(requestContext.isPreview()).thenReturn(false);
+        when(miniHub.getCanonicalHandlePath()).thenReturn(MINI_HUB_PATH);
+        when(miniHub.getGuidancePages()).thenReturn(Arrays.asList(
+                mockGuidance("induction", "Induction"),
+                mockGuidance("rotas", "Rotas"),
+                mockGuidance("pay", "Pay")));
+    }
+
+    @Test
+    public void getNavigation_WithSameMiniHub_LoadsGuidancePagesOnce() {
+        // Execute the method to be tested
+        final MiniHubNavigation actual = systemUnderTest.getNavigation(requestContext, miniHub);
+
+        // Verify
+        assertThat(systemUnderTest.getNavigation(requestContext, miniHub)).isSameAs(actual);
+        assertThat(actual.indexOf("ROTAS")).isEqualTo(1);
+        assertThat(actual.indexOf("non-existent")).isEqualTo(-1);
+        assertThat(actual.getGuidancePages())
+                .extracting(MiniHubNavigation.GuidancePage::getTitle)
+                .containsExactly("Induction", "Rotas", "Pay");
+        verify(miniHub, times(1)).getGuidancePages();
+    }
+
+    @Test
+    public void getGuidance_WithNeighbourIndexes_LoadsOnlyRequestedGuidance() throws ObjectBeanManagerException {
+        // Mocks & stubs
+        final ObjectBeanManager objectBeanManager = mock(ObjectBeanManager.class);
+        final Guidance pay = mock(Guidance.class);
+        when(requestContext.getObjectBeanManager()).thenReturn(objectBeanManager);
+        when(objectBeanManager.getObject(MINI_HUB_PATH + "/pay")).thenReturn(pay);
+        final MiniHubNavigation navigation = systemUnderTest.getNavigation(requestContext, miniHub);
+
+        // Execute the method to be tested
+        final Guidance actual = systemUnderTest.getGuidance(requestContext, navigation, 2);
+
+        // Verify
+        assertThat(actual).isSameAs(pay);
+        assertThat(systemUnderTest.getGuidance(requestContext, navigation, 3)).isNull();
+        verify(objectBeanManager, times(1)).getObject(anyString());
+    }
+
+    @Test
+    public void onDocumentsChanged_WithGuidanceHandle_EvictsNavigations() {
+        // Mocks & stubs
+        systemUnderTest.getNavigation(requestContext, miniHub);
+
+        // Execute the method to be tested
+        systemUnderTest.onDocumentsChanged(Collections.singleton(MINI_HUB_PATH + "/rotas"));
+
+        // Verify
+        assertThat(systemUnderTest.getSize()).isZero();
+    }
+
+    @Test
+    public void getNavigation_WithDocumentsChangedWhileBuilding_DoesNotCacheNavigation() {
+        // Mocks & stubs
+        final Guidance induction = mockGuidance("induction", "Induction");
+        when(miniHub.getGuidancePages()).thenAnswer(invocation -> {
+            systemUnderTest.onDocumentsChanged(Collections.singleton(MINI_HUB_PATH + "/rotas"));
+            return Collections.singletonList(induction);
+        });
+
+        // Execute the method to be tested
+        final MiniHubNavigation actual = systemUnderTest.getNavigation(requestContext, miniHub);
+
+        // Verify
+        assertThat(actual.getGuidancePages()).hasSize(1);
+        assertThat(systemUnderTest.getSize()).isZero();
+    }
+
+    private static Guidance mockGuidance(final String name, final String title) {
+        final Guidance guidance = mock(Guidance.class);
+        when(guidance.getName()).thenReturn(name);
+        when(guidance.getTitle()).thenReturn(title);
+        when(guidance.getCanonicalHandlePath()).thenReturn(MINI_HUB_PATH + "/" + name);
+        return guidance;
+    }
+}
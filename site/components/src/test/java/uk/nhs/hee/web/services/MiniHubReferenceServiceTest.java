@@ -0,0 +1,61 @@
+package uk.nhs.hee.web.services;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MiniHubReferenceServiceTest {
+    private static final String CONTENT_PATH = "content/documents/lks";
+    private static final String GUIDANCE_UUID = "9071bfc1-35e4-4cb8-852c-c91f97fb43f0";
+    private static final String MINI_HUB_HANDLE_PATH = "/content/documents/lks/minihubs/library-services";
+
+    private final MiniHubReferenceService systemUnderTest = new MiniHubReferenceService();
+
+    @Test
+    public void getMiniHubPath_WithLookupCachedForOtherAvailability_ReturnsNull() {
+        // Mocks & stubs
+        systemUnderTest.putMiniHubPath(
+                CONTENT_PATH, "preview", GUIDANCE_UUID, MINI_HUB_HANDLE_PATH + "/library-services", 0L);
+
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.getMiniHubPath(CONTENT_PATH, "live", GUIDANCE_UUID)).isNull();
+        assertThat(systemUnderTest.getMiniHubPath(CONTENT_PATH, "preview", GUIDANCE_UUID))
+                .isEqualTo(MINI_HUB_HANDLE_PATH + "/library-services");
+    }
+
+    @Test
+    public void onDocumentsChanged_WithChangedMiniHub_EvictsNegativeAndAffectedLookups() {
+        // Mocks & stubs
+        systemUnderTest.putMiniHubPath(
+                CONTENT_PATH, "live", GUIDANCE_UUID, MINI_HUB_HANDLE_PATH + "/library-services", 0L);
+        systemUnderTest.putMiniHubPath(CONTENT_PATH, "live", "not-referenced-guidance-uuid", null, 0L);
+        systemUnderTest.putMiniHubPath(
+                CONTENT_PATH, "live", "other-guidance-uuid", "/content/documents/lks/minihubs/other/other", 0L);
+
+        // Execute the method to be tested
+        systemUnderTest.onDocumentsChanged(Collections.singleton(MINI_HUB_HANDLE_PATH));
+
+        // Verify
+        assertThat(systemUnderTest.getMiniHubPath(CONTENT_PATH, "live", GUIDANCE_UUID)).isNull();
+        assertThat(systemUnderTest.getMiniHubPath(CONTENT_PATH, "live", "not-referenced-guidance-uuid")).isNull();
+        assertThat(systemUnderTest.getMiniHubPath(CONTENT_PATH, "live", "other-guidance-uuid"))
+                .isEqualTo("/content/documents/lks/minihubs/other/other");
+    }
+
+    @Test
+    public void putMiniHubPath_WithMiniHubChangedDuringLookup_DoesNotCacheLookup() {
+        // Mocks & stubs
+        final long lookupGeneration = systemUnderTest.getGeneration();
+        systemUnderTest.onDocumentsChanged(Collections.singleton(MINI_HUB_HANDLE_PATH));
+
+        // Execute the method to be tested
+        final boolean actual = systemUnderTest.putMiniHubPath(
+                CONTENT_PATH, "live", GUIDANCE_UUID, null, lookupGeneration);
+
+        // Verify
+        assertThat(actual).isFalse();
+        assertThat(systemUnderTest.getMiniHubPath(CONTENT_PATH, "live", GUIDANCE_UUID)).isNull();
+    }
+}
@@ -0,0 +1,65 @@
+package uk.nhs.hee.web.services;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.jcr.Credentials;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class ModelLookupServiceTest {
+    private final Repository repository = mock(Repository.class);
+    private final Credentials liveCredentials = mock(Credentials.class);
+    private final Credentials previewCredentials = mock(Credentials.class);
+    private final ModelLookupService systemUnderTest =
+            new ModelLookupService(repository, liveCredentials, previewCredentials, 2, 4, 1000L);
+
+    @After
+    public void tearDown() {
+        systemUnderTest.destroy();
+    }
+
+    @Test
+    public void submit_WithPreviewLookup_RunsLookupWithPreviewSessionOfItsOwn() throws Exception {
+        // Mocks & stubs
+        final Session previewSession = mock(Session.class);
+        when(repository.login(previewCredentials)).thenReturn(previewSession);
+
+        // Execute the method to be tested
+        final Future<String> actual = systemUnderTest.submit(true, session -> {
+            assertThat(session).isSameAs(previewSession);
+            assertThat(Thread.currentThread().getName()).startsWith("hee-model-lookup-");
+            return "model";
+        });
+
+        // Verify
+        assertThat(actual.get()).isEqualTo("model");
+        verify(repository, never()).login(liveCredentials);
+        verify(previewSession).logout();
+    }
+
+    @Test
+    public void submit_WithFailingLookup_LogsOutSessionAndFailsFuture() throws Exception {
+        // Mocks & stubs
+        final Session liveSession = mock(Session.class);
+        when(repository.login(liveCredentials)).thenReturn(liveSession);
+
+        // Execute the method to be tested
+        final Future<Object> actual = systemUnderTest.submit(false, session -> {
+            throw new RepositoryException("Value-list not readable");
+        });
+
+        // Verify
+        assertThatThrownBy(actual::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RepositoryException.class);
+        verify(liveSession).logout();
+    }
+}
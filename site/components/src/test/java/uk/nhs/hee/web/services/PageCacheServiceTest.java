@@ -0,0 +1,182 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PageCacheServiceTest {
+    private static final String NEWS_HANDLE_PATH = "/content/documents/hee/news/covid-update";
+
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final PageDependencyService pageDependencyService = mock(PageDependencyService.class);
+    private final VirtualHosts virtualHosts = mock(VirtualHosts.class);
+    private final Map<String, String[]> parameters = new HashMap<>();
+    private final PageCacheService systemUnderTest =
+            new PageCacheService(pageDependencyService, 10000, 30, 1000, "page, topic");
+
+    @Before
+    public void setUp() {
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getScheme()).thenReturn("https");
+        when(request.getServerName()).thenReturn("WWW.hee.nhs.uk");
+        when(request.getServerPort()).thenReturn(443);
+        when(request.getRequestURI()).thenReturn("/site//news/;jsessionid=F00/");
+        when(request.getRequestURL()).thenReturn(new StringBuffer("https://www.hee.nhs.uk/site/news"));
+        when(request.getParameterMap()).thenReturn(parameters);
+        when(pageDependencyService.isCacheable(request)).thenReturn(true);
+        when(pageDependencyService.getRecordedDependencies(request))
+                .thenReturn(Collections.singleton("/content/documents/hee/news"));
+    }
+
+    @Test
+    public void getCacheKey_WithWhitelistedParametersAndAnalyticsCookie_ReturnsNormalisedKey() {
+        // Mocks & stubs
+        parameters.put("topic", new String[]{"workforce"});
+        parameters.put("page", new String[]{"2"});
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie("analyticsCookie", "true")});
+
+        // Execute the method to be tested
+        final String actual = systemUnderTest.getCacheKey(request);
+
+        // Verify
+        assertThat(actual)
+                .isEqualTo("https://www.hee.nhs.uk:443/site/news?page=2&topic=workforce|analyticsCookie=true");
+    }
+
+    @Test
+    public void getCacheKey_WithUncacheableRequests_ReturnsNull() {
+        // Channel Manager request
+        parameters.put("org.hippoecm.hst.container.render_host", new String[]{"www.hee.nhs.uk"});
+        assertThat(systemUnderTest.getCacheKey(request)).isNull();
+
+        // Preview request
+        parameters.clear();
+        when(request.getRequestURI()).thenReturn("/site/_cmsinternal/news");
+        assertThat(systemUnderTest.getCacheKey(request)).isNull();
+
+        // Form submission
+        when(request.getRequestURI()).thenReturn("/site/news");
+        when(request.getMethod()).thenReturn("POST");
+        assertThat(systemUnderTest.getCacheKey(request)).isNull();
+    }
+
+    @Test
+    public void getCacheKey_WithSessionAuthenticationOrUnknownParameter_ReturnsNull() {
+        // Query parameter which isn't whitelisted (e.g. search text)
+        parameters.put("q", new String[]{"nursing"});
+        assertThat(systemUnderTest.getCacheKey(request)).isNull();
+
+        // Authenticated request
+        parameters.clear();
+        when(request.getHeader("Authorization")).thenReturn("Basic dXNlcjpwYXNz");
+        assertThat(systemUnderTest.getCacheKey(request)).isNull();
+
+        // Visitor having a session
+        when(request.getHeader("Authorization")).thenReturn(null);
+        when(request.getSession(false)).thenReturn(mock(HttpSession.class));
+        assertThat(systemUnderTest.getCacheKey(request)).isNull();
+    }
+
+    @Test
+    public void getCacheKey_WithoutCookies_ReturnsKeyWithoutAnalyticsConsent() {
+        // Execute the method to be tested
+        final String actual = systemUnderTest.getCacheKey(request);
+
+        // Verify
+        assertThat(actual).isEqualTo("https://www.hee.nhs.uk:443/site/news|analyticsCookie=none");
+    }
+
+    @Test
+    public void onDocumentsChanged_WithAffectedPage_EvictsPage() {
+        // Mocks & stubs
+        final String cacheKey = systemUnderTest.getCacheKey(request);
+        final CachedPage page = createPage();
+        when(pageDependencyService.getAffectedPages(Collections.singleton(NEWS_HANDLE_PATH)))
+                .thenReturn(Collections.singletonMap(cacheKey, "https://www.hee.nhs.uk/site/news"));
+
+        // Execute the method to be tested
+        final boolean cached = systemUnderTest.putPage(
+                virtualHosts, cacheKey, request, page, systemUnderTest.getGeneration());
+        final CachedPage actual = systemUnderTest.getPage(virtualHosts, cacheKey);
+        systemUnderTest.onDocumentsChanged(Collections.singleton(NEWS_HANDLE_PATH));
+
+        // Verify
+        assertThat(cached).isTrue();
+        assertThat(actual).isSameAs(page);
+        assertThat(systemUnderTest.getPage(virtualHosts, cacheKey)).isNull();
+        assertThat(systemUnderTest.getHitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void putPage_WithDocumentsChangedWhileRendering_DoesNotCachePage() {
+        // Mocks & stubs
+        final String cacheKey = systemUnderTest.getCacheKey(request);
+        final long renderGeneration = systemUnderTest.getGeneration();
+        when(pageDependencyService.getAffectedPages(Collections.singleton(NEWS_HANDLE_PATH)))
+                .thenReturn(Collections.emptyMap());
+        systemUnderTest.onDocumentsChanged(Collections.singleton(NEWS_HANDLE_PATH));
+
+        // Execute the method to be tested
+        final boolean actual =
+                systemUnderTest.putPage(virtualHosts, cacheKey, request, createPage(), renderGeneration);
+
+        // Verify
+        assertThat(actual).isFalse();
+        assertThat(systemUnderTest.getSize()).isZero();
+    }
+
+    @Test
+    public void putPage_WithUnrelatedDocumentsChangedWhileRendering_CachesPage() {
+        // Mocks & stubs
+        final String cacheKey = systemUnderTest.getCacheKey(request);
+        final long renderGeneration = systemUnderTest.getGeneration();
+        final Set<String> eventHandlePaths = Collections.singleton("/content/documents/hee/events/open-day");
+        when(pageDependencyService.getAffectedPages(eventHandlePaths)).thenReturn(Collections.emptyMap());
+        systemUnderTest.onDocumentsChanged(eventHandlePaths);
+
+        // Execute the method to be tested
+        final boolean actual =
+                systemUnderTest.putPage(virtualHosts, cacheKey, request, createPage(), renderGeneration);
+
+        // Verify
+        assertThat(actual).isTrue();
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+
+    @Test
+    public void putPage_WithCacheClearedWhileRendering_DoesNotCachePage() {
+        // Mocks & stubs
+        final String cacheKey = systemUnderTest.getCacheKey(request);
+        final long renderGeneration = systemUnderTest.getGeneration();
+        systemUnderTest.clear();
+
+        // Execute the method to be tested
+        final boolean actual =
+                systemUnderTest.putPage(virtualHosts, cacheKey, request, createPage(), renderGeneration);
+
+        // Verify
+        assertThat(actual).isFalse();
+    }
+
+    /**
+     * Returns a rendered page to be cached.
+     *
+     * @return a rendered page to be cached.
+     */
+    private static CachedPage createPage() {
+        return new CachedPage("text/html;charset=UTF-8", "<html></html>".getBytes(),
+                Collections.singletonMap("X-Frame-Options", Collections.singletonList("SAMEORIGIN")), null, null, 0L);
+    }
+}
@@ -0,0 +1,140 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.content.beans.standard.HippoBean;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PageDependencyServiceTest {
+    private static final String MINI_HUB_HANDLE_PATH = "/content/documents/hee/minihubs/legal";
+    private static final String GUIDANCE_HANDLE_PATH = "/content/documents/hee/guidance/copyright";
+
+    private final HstRequestContext requestContext = mock(HstRequestContext.class);
+    private final HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+    private final HippoBean miniHub = mock(HippoBean.class);
+    private final PageDependencyService systemUnderTest = new PageDependencyService(100);
+
+    @Before
+    public void setUp() throws RepositoryException {
+        final Map<String, Object> attributes = new HashMap<>();
+        when(requestContext.getServletRequest()).thenReturn(servletRequest);
+        when(servletRequest.getAttribute(anyString()))
+                .thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(servletRequest).setAttribute(anyString(), any());
+
+        final Session session = mock(Session.class);
+        final Node miniHubNode = mock(Node.class);
+        final Node guidancePageNode = mock(Node.class);
+        final Property docbaseProperty = mock(Property.class);
+        final Node guidanceHandleNode = mock(Node.class);
+        final Node guidanceNode = mock(Node.class);
+        final NodeIterator miniHubChildNodes = mock(NodeIterator.class);
+
+        when(miniHub.getNode()).thenReturn(miniHubNode);
+        when(miniHub.getCanonicalHandlePath()).thenReturn(MINI_HUB_HANDLE_PATH);
+        when(miniHubNode.getIdentifier()).thenReturn("mini-hub-id");
+        when(miniHubNode.getPath()).thenReturn(MINI_HUB_HANDLE_PATH + "/legal");
+        when(miniHubNode.getSession()).thenReturn(session);
+        when(miniHubNode.getNodes()).thenReturn(miniHubChildNodes);
+        when(miniHubChildNodes.hasNext()).thenReturn(true, false);
+        when(miniHubChildNodes.nextNode()).thenReturn(guidancePageNode);
+
+        when(guidancePageNode.hasProperty(HippoNodeType.HIPPO_DOCBASE)).thenReturn(true);
+        when(guidancePageNode.getProperty(HippoNodeType.HIPPO_DOCBASE)).thenReturn(docbaseProperty);
+        when(guidancePageNode.getNodes()).thenReturn(mock(NodeIterator.class));
+        when(docbaseProperty.getString()).thenReturn("guidance-handle-id");
+
+        when(session.getNodeByIdentifier("guidance-handle-id")).thenReturn(guidanceHandleNode);
+        when(session.getNode(GUIDANCE_HANDLE_PATH)).thenReturn(guidanceHandleNode);
+        when(guidanceHandleNode.getPath()).thenReturn(GUIDANCE_HANDLE_PATH);
+        when(guidanceHandleNode.getName()).thenReturn("copyright");
+        when(guidanceHandleNode.isNodeType(HippoNodeType.NT_HANDLE)).thenReturn(true);
+        when(guidanceHandleNode.hasNode("copyright")).thenReturn(true);
+        when(guidanceHandleNode.getNode("copyright")).thenReturn(guidanceNode);
+        when(guidanceNode.getIdentifier()).thenReturn("guidance-id");
+        when(guidanceNode.getPath()).thenReturn(GUIDANCE_HANDLE_PATH + "/copyright");
+        when(guidanceNode.getSession()).thenReturn(session);
+        when(guidanceNode.getNodes()).thenReturn(mock(NodeIterator.class));
+    }
+
+    @Test
+    public void recordDocument_WithLinkedDocuments_RecordsDocumentAndLinkedDocuments() {
+        // Execute the method to be tested
+        systemUnderTest.recordDocument(requestContext, miniHub);
+        systemUnderTest.recordDocument(requestContext, "/content/documents/administration/valuelists/logotypes");
+
+        // Verify
+        assertThat(systemUnderTest.getRecordedDependencies(servletRequest)).containsExactly(
+                MINI_HUB_HANDLE_PATH,
+                GUIDANCE_HANDLE_PATH,
+                "/content/documents/administration/valuelists/logotypes");
+    }
+
+    @Test
+    public void isCacheable_WithDependenciesMarkedAsComplete_ReturnsTrue() {
+        // Execute the method to be tested
+        systemUnderTest.recordDocument(requestContext, "/content/documents/administration/valuelists/logotypes");
+        final boolean recordedOnly = systemUnderTest.isCacheable(servletRequest);
+        systemUnderTest.recordDocument(requestContext, miniHub);
+        systemUnderTest.markComplete(requestContext);
+
+        // Verify
+        assertThat(recordedOnly).isFalse();
+        assertThat(systemUnderTest.isCacheable(servletRequest)).isTrue();
+    }
+
+    @Test
+    public void getAffectedPages_WithRegisteredPages_ReturnsPagesDependingOnDocument() {
+        // Mocks & stubs
+        systemUnderTest.recordDocument(requestContext, miniHub);
+        systemUnderTest.registerPage("mini-hub-page", "/site/legal",
+                systemUnderTest.getRecordedDependencies(servletRequest));
+        systemUnderTest.registerPage("news-listing-page", "/site/news",
+                Arrays.asList("/content/documents/hee/listings/news", "/content/documents/hee/news"));
+
+        // Execute the method to be tested
+        final Map<String, String> actual = systemUnderTest.getAffectedPages(
+                Arrays.asList(GUIDANCE_HANDLE_PATH, "/content/documents/hee/news/2024/05/covid-update"));
+
+        // Verify
+        assertThat(actual)
+                .containsEntry("mini-hub-page", "/site/legal")
+                .containsEntry("news-listing-page", "/site/news")
+                .hasSize(2);
+        assertThat(systemUnderTest.getAffectedURLs(MINI_HUB_HANDLE_PATH)).containsExactly("/site/legal");
+        assertThat(systemUnderTest.getAffectedCacheKeys("/content/documents/hee/events/open-day")).isEmpty();
+    }
+
+    @Test
+    public void removePage_WithRegisteredPage_RemovesPageFromGraph() {
+        // Mocks & stubs
+        systemUnderTest.registerPage("mini-hub-page", "/site/legal", Collections.singleton(MINI_HUB_HANDLE_PATH));
+
+        // Execute the method to be tested
+        systemUnderTest.removePage("mini-hub-page");
+
+        // Verify
+        assertThat(systemUnderTest.getAffectedCacheKeys(MINI_HUB_HANDLE_PATH)).isEmpty();
+        assertThat(systemUnderTest.getPageCount()).isZero();
+    }
+}
@@ -0,0 +1,261 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.core.request.ResolvedSiteMapItem;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PageValidatorServiceTest {
+    private static final String PAGE_KEY = "https://www.hee.nhs.uk:443/site/news|analyticsCookie=none";
+    private static final String NEWS_FOLDER_PATH = "/content/documents/hee/news";
+    private static final String NEWS_HANDLE_PATH = "/content/documents/hee/news/covid-update";
+    private static final String EVENT_HANDLE_PATH = "/content/documents/hee/news/open-day";
+    private static final long DOCUMENT_LAST_MODIFIED = 1_600_000_000_123L;
+    private static final long HST_LAST_MODIFIED = 1_500_000_000_456L;
+
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final Session session = mock(Session.class);
+    private final Property lastModificationDate = mock(Property.class);
+    private final Property hstLastModified = mock(Property.class);
+    private final Node folder = mock(Node.class);
+    private final Node handle = mock(Node.class);
+    private final PageDependencyService pageDependencyService = mock(PageDependencyService.class);
+    private final VirtualHosts virtualHosts = mock(VirtualHosts.class);
+    private final PageValidatorService systemUnderTest =
+            new PageValidatorService(pageDependencyService, 100, 30, "public, max-age=0, must-revalidate");
+
+    @Before
+    public void setUp() throws RepositoryException {
+        final Node hstRoot = mock(Node.class);
+        final Node variant = mock(Node.class);
+        when(session.nodeExists("/hst:hst")).thenReturn(true);
+        when(session.getNode("/hst:hst")).thenReturn(hstRoot);
+        when(hstRoot.hasProperty("hst:lastmodified")).thenReturn(true);
+        when(hstRoot.getProperty("hst:lastmodified")).thenReturn(hstLastModified);
+        when(hstLastModified.getDate()).thenReturn(toCalendar(HST_LAST_MODIFIED));
+        when(session.nodeExists(NEWS_FOLDER_PATH)).thenReturn(true);
+        when(session.getNode(NEWS_FOLDER_PATH)).thenReturn(folder);
+        when(folder.getNodes()).thenAnswer(invocation -> mockNodeIterator(handle));
+        when(session.nodeExists(NEWS_HANDLE_PATH)).thenReturn(true);
+        when(session.getNode(NEWS_HANDLE_PATH)).thenReturn(handle);
+        when(handle.isNodeType("hippo:handle")).thenReturn(true);
+        when(handle.getName()).thenReturn("covid-update");
+        when(handle.getPath()).thenReturn(NEWS_HANDLE_PATH);
+        when(handle.hasNode("covid-update")).thenReturn(true);
+        when(handle.getNode("covid-update")).thenReturn(variant);
+        when(variant.hasProperty("hippostdpubwf:lastModificationDate")).thenReturn(true);
+        when(variant.getProperty("hippostdpubwf:lastModificationDate")).thenReturn(lastModificationDate);
+        when(lastModificationDate.getDate()).thenReturn(toCalendar(DOCUMENT_LAST_MODIFIED));
+
+        when(pageDependencyService.isCacheable(request)).thenReturn(true);
+        when(pageDependencyService.getRecordedDependencies(request))
+                .thenReturn(new HashSet<>(Arrays.asList(NEWS_FOLDER_PATH, NEWS_HANDLE_PATH)));
+    }
+
+    @Test
+    public void isNotModified_WithRegisteredValidator_MatchesConditionalHeaders() {
+        // Mocks & stubs
+        final PageValidator validator = registerValidator();
+        when(request.getHeader("If-None-Match")).thenReturn("\"stale\", " + validator.getETag());
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(validator.getLastModified() - 1000);
+
+        // Execute the method to be tested
+        final PageValidator actual = systemUnderTest.getValidator(virtualHosts, PAGE_KEY);
+
+        // Verify
+        assertThat(actual).isSameAs(validator);
+        assertThat(actual.getETag()).startsWith("W/\"");
+        assertThat(actual.getLastModified() % 1000).isZero();
+        assertThat(actual.isNotModified(request)).isTrue();
+
+        when(request.getHeader("If-None-Match")).thenReturn(null);
+        assertThat(actual.isNotModified(request)).isFalse();
+    }
+
+    @Test
+    public void registerValidator_WithUnchangedDocuments_ReturnsSameETag() {
+        // Mocks & stubs
+        final PageValidator validator = registerValidator();
+        systemUnderTest.clear();
+
+        // Execute the method to be tested
+        final PageValidator actual = registerValidator();
+
+        // Verify
+        assertThat(actual).isNotSameAs(validator);
+        assertThat(actual.getETag()).isEqualTo(validator.getETag());
+        assertThat(actual.getLastModified()).isEqualTo(validator.getLastModified());
+    }
+
+    @Test
+    public void registerValidator_WithDependencyModified_ReturnsDifferentETag() throws RepositoryException {
+        // Mocks & stubs
+        final PageValidator validator = registerValidator();
+        when(lastModificationDate.getDate()).thenReturn(toCalendar(DOCUMENT_LAST_MODIFIED + 60_000L));
+
+        // Execute the method to be tested
+        final PageValidator actual = registerValidator();
+
+        // Verify
+        assertThat(actual.getETag()).isNotEqualTo(validator.getETag());
+        assertThat(actual.getLastModified()).isGreaterThanOrEqualTo(validator.getLastModified());
+    }
+
+    @Test
+    public void registerValidator_OnAnotherNode_ReturnsSameETagAndLastModified() {
+        // Mocks & stubs
+        final PageValidator validator = registerValidator();
+        final PageValidatorService anotherNode =
+                new PageValidatorService(pageDependencyService, 100, 30, "public, max-age=0, must-revalidate");
+
+        // Execute the method to be tested
+        final VirtualHosts anotherVirtualHosts = mock(VirtualHosts.class);
+        anotherNode.getValidator(anotherVirtualHosts, PAGE_KEY);
+        final PageValidator actual = anotherNode.registerValidator(
+                anotherVirtualHosts, PAGE_KEY, DOCUMENT_LAST_MODIFIED, request, session, anotherNode.getGeneration());
+
+        // Verify
+        assertThat(actual.getETag()).isEqualTo(validator.getETag());
+        assertThat(actual.getLastModified()).isEqualTo(validator.getLastModified());
+        assertThat(actual.getLastModified()).isEqualTo(DOCUMENT_LAST_MODIFIED / 1000 * 1000);
+    }
+
+    @Test
+    public void registerValidator_WithDocumentPublishedUnderFolder_ReturnsDifferentETag() throws RepositoryException {
+        // Mocks & stubs
+        final PageValidator validator = registerValidator();
+        final Node eventHandle = mock(Node.class);
+        when(eventHandle.isNodeType("hippo:handle")).thenReturn(true);
+        when(eventHandle.getName()).thenReturn("open-day");
+        when(eventHandle.getPath()).thenReturn(EVENT_HANDLE_PATH);
+        when(eventHandle.hasNode("open-day")).thenReturn(true);
+        when(eventHandle.getNode("open-day")).thenReturn(mock(Node.class));
+        when(folder.getNodes()).thenAnswer(invocation -> mockNodeIterator(handle, eventHandle));
+
+        // Execute the method to be tested
+        systemUnderTest.onDocumentsChanged(Collections.singleton(EVENT_HANDLE_PATH));
+        final PageValidator actual = registerValidator();
+
+        // Verify
+        assertThat(actual.getETag()).isNotEqualTo(validator.getETag());
+        assertThat(actual.getLastModified()).isEqualTo(validator.getLastModified());
+    }
+
+    @Test
+    public void registerValidator_WithHstConfigurationModified_ReturnsDifferentETag() throws RepositoryException {
+        // Mocks & stubs
+        final PageValidator validator = registerValidator();
+        final long modifiedHstLastModified = DOCUMENT_LAST_MODIFIED + 60_000L;
+        when(hstLastModified.getDate()).thenReturn(toCalendar(modifiedHstLastModified));
+
+        // Execute the method to be tested
+        final VirtualHosts rebuiltVirtualHosts = mock(VirtualHosts.class);
+        systemUnderTest.getValidator(rebuiltVirtualHosts, PAGE_KEY);
+        final PageValidator actual = systemUnderTest.registerValidator(
+                rebuiltVirtualHosts, PAGE_KEY, DOCUMENT_LAST_MODIFIED, request, session,
+                systemUnderTest.getGeneration());
+
+        // Verify
+        assertThat(actual.getETag()).isNotEqualTo(validator.getETag());
+        assertThat(actual.getLastModified()).isEqualTo(modifiedHstLastModified / 1000 * 1000);
+    }
+
+    @Test
+    public void registerValidator_WithIncompleteDependencies_DoesNotRegisterValidator() {
+        // Mocks & stubs
+        when(pageDependencyService.isCacheable(request)).thenReturn(false);
+
+        // Execute the method to be tested
+        final PageValidator actual = registerValidator();
+
+        // Verify
+        assertThat(actual).isNull();
+        assertThat(systemUnderTest.getValidator(virtualHosts, PAGE_KEY)).isNull();
+    }
+
+    @Test
+    public void onDocumentsChanged_WithDependencyChanged_DiscardsValidator() throws RepositoryException {
+        // Mocks & stubs
+        final PageValidator validator = registerValidator();
+
+        // Execute the method to be tested
+        systemUnderTest.onDocumentsChanged(Collections.singleton("/content/documents/hee/events/open-day"));
+        final PageValidator unaffected = systemUnderTest.getValidator(virtualHosts, PAGE_KEY);
+        when(lastModificationDate.getDate()).thenReturn(toCalendar(DOCUMENT_LAST_MODIFIED + 60_000L));
+        systemUnderTest.onDocumentsChanged(Collections.singleton(NEWS_HANDLE_PATH));
+
+        // Verify
+        assertThat(unaffected).isSameAs(validator);
+        assertThat(systemUnderTest.getValidator(virtualHosts, PAGE_KEY)).isNull();
+        assertThat(registerValidator().getETag()).isNotEqualTo(validator.getETag());
+    }
+
+    @Test
+    public void getCacheControl_WithSiteMapItemParameter_ReturnsSiteMapItemPolicy() {
+        // Mocks & stubs
+        final ResolvedSiteMapItem newsSiteMapItem = mock(ResolvedSiteMapItem.class);
+        final ResolvedSiteMapItem guidanceSiteMapItem = mock(ResolvedSiteMapItem.class);
+        when(newsSiteMapItem.getParameter("cacheControl")).thenReturn("public, max-age=60");
+
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.getCacheControl(newsSiteMapItem)).isEqualTo("public, max-age=60");
+        assertThat(systemUnderTest.getCacheControl(guidanceSiteMapItem))
+                .isEqualTo("public, max-age=0, must-revalidate");
+    }
+
+    /**
+     * Registers the validator of the news page the way {@link uk.nhs.hee.web.valves.ConditionalRequestValve} does
+     * i.e. looks the validator up and reads the generation before the page gets built.
+     *
+     * @return the registered validator of the news page or {@code null} if it hasn't been registered.
+     */
+    private PageValidator registerValidator() {
+        systemUnderTest.getValidator(virtualHosts, PAGE_KEY);
+        final long renderGeneration = systemUnderTest.getGeneration();
+
+        return systemUnderTest.registerValidator(
+                virtualHosts, PAGE_KEY, DOCUMENT_LAST_MODIFIED, request, session, renderGeneration);
+    }
+
+    /**
+     * Returns {@link NodeIterator} of the given {@code nodes}.
+     *
+     * @param nodes the nodes to be iterated.
+     * @return the {@link NodeIterator} of the given {@code nodes}.
+     */
+    private static NodeIterator mockNodeIterator(final Node... nodes) {
+        final Iterator<Node> iterator = Arrays.asList(nodes).iterator();
+        final NodeIterator nodeIterator = mock(NodeIterator.class);
+        when(nodeIterator.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(nodeIterator.nextNode()).thenAnswer(invocation -> iterator.next());
+        return nodeIterator;
+    }
+
+    /**
+     * Returns {@link Calendar} of the given time.
+     *
+     * @param timeInMillis the time (in milliseconds).
+     * @return {@link Calendar} of the given time.
+     */
+    private static Calendar toCalendar(final long timeInMillis) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(timeInMillis);
+        return calendar;
+    }
+}
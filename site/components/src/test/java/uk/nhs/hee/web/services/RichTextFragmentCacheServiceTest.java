@@ -0,0 +1,164 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.hst.configuration.hosting.Mount;
+import org.hippoecm.hst.configuration.hosting.VirtualHost;
+import org.hippoecm.hst.configuration.hosting.VirtualHosts;
+import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.core.request.ResolvedMount;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RichTextFragmentCacheServiceTest {
+    private static final String HANDLE_PATH = "/content/documents/hee/guidance/copyright";
+    private static final String LINKED_HANDLE_PATH = "/content/documents/hee/guidance/privacy";
+    private static final String MINI_HUB_HANDLE_PATH = "/content/documents/hee/minihubs/legal";
+
+    private final HstRequestContext requestContext = mock(HstRequestContext.class);
+    private final Node htmlNode = mock(Node.class);
+    private final Session session = mock(Session.class);
+    private final AtomicInteger renderCount = new AtomicInteger();
+    private final RichTextFragmentCacheService systemUnderTest = new RichTextFragmentCacheService(10000);
+    private final Supplier<String> renderer = () -> {
+        renderCount.incrementAndGet();
+        systemUnderTest.addLinkDependency(requestContext, MINI_HUB_HANDLE_PATH);
+        return "<p>Read our <a href=\"/site/legal/privacy\">privacy notice</a></p>";
+    };
+
+    @Before
+    public void setUp() throws RepositoryException {
+        final ResolvedMount resolvedMount = mock(ResolvedMount.class);
+        final Mount mount = mock(Mount.class);
+        final VirtualHost virtualHost = mock(VirtualHost.class);
+        final Map<String, Object> attributes = new HashMap<>();
+
+        when(requestContext.getResolvedMount()).thenReturn(resolvedMount);
+        when(resolvedMount.getMount()).thenReturn(mount);
+        when(mount.getIdentifier()).thenReturn("mount-id");
+        when(mount.getVirtualHost()).thenReturn(virtualHost);
+        when(virtualHost.getVirtualHosts()).thenReturn(mock(VirtualHosts.class));
+        when(requestContext.getAttribute(anyString()))
+                .thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(requestContext).setAttribute(anyString(), any());
+        doAnswer(invocation -> attributes.remove(invocation.getArgument(0)))
+                .when(requestContext).removeAttribute(anyString());
+
+        final Node handleNode = mock(Node.class);
+        final Node documentNode = mock(Node.class);
+        when(handleNode.isNodeType(HippoNodeType.NT_HANDLE)).thenReturn(true);
+        when(handleNode.getPath()).thenReturn(HANDLE_PATH);
+        when(documentNode.getDepth()).thenReturn(6);
+        when(documentNode.getParent()).thenReturn(handleNode);
+
+        final Node linkNode = mock(Node.class);
+        final Property docbaseProperty = mock(Property.class);
+        final Node linkedHandleNode = mock(Node.class);
+        when(linkNode.hasProperty(HippoNodeType.HIPPO_DOCBASE)).thenReturn(true);
+        when(linkNode.getProperty(HippoNodeType.HIPPO_DOCBASE)).thenReturn(docbaseProperty);
+        when(docbaseProperty.getString()).thenReturn("linked-handle-id");
+        when(session.getNodeByIdentifier("linked-handle-id")).thenReturn(linkedHandleNode);
+        when(linkedHandleNode.getPath()).thenReturn(LINKED_HANDLE_PATH);
+
+        when(htmlNode.getIdentifier()).thenReturn("html-node-id");
+        when(htmlNode.getDepth()).thenReturn(7);
+        when(htmlNode.getParent()).thenReturn(documentNode);
+        when(htmlNode.getNodes()).thenAnswer(invocation -> {
+            final NodeIterator linkNodes = mock(NodeIterator.class);
+            when(linkNodes.hasNext()).thenReturn(true, false);
+            when(linkNodes.nextNode()).thenReturn(linkNode);
+            return linkNodes;
+        });
+        when(htmlNode.getSession()).thenReturn(session);
+    }
+
+    @Test
+    public void getRenderedFragment_WithSameHtmlNode_RendersFragmentOnce() throws RepositoryException {
+        // Execute the method to be tested
+        final String actual = systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, renderer);
+
+        // Verify
+        assertThat(systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, renderer)).isSameAs(actual);
+        assertThat(renderCount).hasValue(1);
+        assertThat(systemUnderTest.getHitCount()).isEqualTo(1L);
+        verify(session, times(1)).getNodeByIdentifier("linked-handle-id");
+        assertThat(requestContext.getAttribute(
+                RichTextFragmentCacheService.class.getName() + ".renderDependencies")).isNull();
+    }
+
+    @Test
+    public void onDocumentsChanged_WithDependencyChanged_EvictsFragment() {
+        // Mocks & stubs
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, renderer);
+
+        // Execute the method to be tested
+        systemUnderTest.onDocumentsChanged(Collections.singleton("/content/documents/hee/news/unrelated"));
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, renderer);
+        systemUnderTest.onDocumentsChanged(Collections.singleton(LINKED_HANDLE_PATH));
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, renderer);
+        systemUnderTest.onDocumentsChanged(Collections.singleton(MINI_HUB_HANDLE_PATH));
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, renderer);
+        systemUnderTest.onDocumentsChanged(Collections.singleton(HANDLE_PATH));
+
+        // Verify
+        assertThat(renderCount).hasValue(3);
+        assertThat(systemUnderTest.getSize()).isZero();
+    }
+
+    @Test
+    public void getRenderedFragment_WithUncacheableFragment_DoesNotCacheFragment() {
+        // Mocks & stubs
+        final Supplier<String> uncacheableRenderer = () -> {
+            renderCount.incrementAndGet();
+            systemUnderTest.markUncacheable(requestContext);
+            return "<a href=\"/site/pagenotfound\">Copyright</a>";
+        };
+
+        // Execute the method to be tested
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, uncacheableRenderer);
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, uncacheableRenderer);
+
+        // Verify
+        assertThat(renderCount).hasValue(2);
+        assertThat(systemUnderTest.getSize()).isZero();
+    }
+
+    @Test
+    public void getRenderedFragment_WithDocumentsChangedWhileRendering_DoesNotCacheFragment() {
+        // Mocks & stubs
+        final Supplier<String> racingRenderer = () -> {
+            final String fragment = renderer.get();
+            // E.g. the MiniHub the link has been resolved through has been changed in the meantime
+            systemUnderTest.onDocumentsChanged(Collections.singleton(MINI_HUB_HANDLE_PATH));
+            return fragment;
+        };
+
+        // Execute the method to be tested
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, racingRenderer);
+        systemUnderTest.getRenderedFragment(requestContext, null, htmlNode, renderer);
+
+        // Verify
+        assertThat(renderCount).hasValue(2);
+        assertThat(systemUnderTest.getSize()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,34 @@
+package uk.nhs.hee.web.services;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenSigningServiceTest {
+    private static final String TOKEN = "MjtuO2Rlc2M7MTYxNzIzNTIwMDAwMDt1dWlkLTE=";
+
+    private final TokenSigningService systemUnderTest = new TokenSigningService("secret");
+
+    @Test
+    public void verify_WithSignedToken_ReturnsToken() {
+        // Execute the method to be tested
+        final String actual = systemUnderTest.verify(systemUnderTest.sign(TOKEN));
+
+        // Verify
+        assertThat(actual).isEqualTo(TOKEN);
+    }
+
+    @Test
+    public void verify_WithTamperedOrForeignTokens_ReturnsNull() {
+        // Mocks & stubs
+        final String signedToken = systemUnderTest.sign(TOKEN);
+        final String signature = signedToken.substring(signedToken.lastIndexOf('.'));
+
+        // Execute the method to be tested & verify
+        assertThat(systemUnderTest.verify(null)).isNull();
+        assertThat(systemUnderTest.verify(TOKEN)).isNull();
+        assertThat(systemUnderTest.verify("MjtwO2Rlc2M7MDs=" + signature)).isNull();
+        assertThat(systemUnderTest.verify(TOKEN + ".not base64!")).isNull();
+        assertThat(new TokenSigningService("").verify(signedToken)).isNull();
+    }
+}
@@ -0,0 +1,171 @@
+package uk.nhs.hee.web.services;
+
+import org.hippoecm.repository.api.HippoNodeType;
+import org.junit.Before;
+import org.junit.Test;
+import org.onehippo.forge.selection.hst.manager.ValueListManager;
+
+import javax.jcr.Credentials;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ValueListServiceTest {
+    private static final String LOGO_TYPES_PATH = "/content/documents/administration/valuelists/logotypes";
+
+    private final Repository repository = mock(Repository.class);
+    private final Session session = mock(Session.class);
+    private final ValueListManager valueListManager = mock(ValueListManager.class);
+    private final ValueListService systemUnderTest = new ValueListService(
+            repository, mock(Credentials.class), mock(Credentials.class), valueListManager, 100);
+
+    @Before
+    public void setUp() throws RepositoryException {
+        when(repository.login(any(Credentials.class))).thenReturn(session);
+        when(valueListManager.getValueListIdentifiers()).thenReturn(Collections.singletonList("logoTypes"));
+        when(valueListManager.getValueListPath("logoTypes")).thenReturn(LOGO_TYPES_PATH);
+        when(session.nodeExists(LOGO_TYPES_PATH)).thenReturn(true);
+    }
+
+    @Test
+    public void getValueListMap_AfterInit_ServesValueListMapWithoutReadingRepository() throws RepositoryException {
+        // Mocks & stubs
+        final Node handle = mockValueListHandle(new String[]{"hee", "Health Education England"});
+        when(session.getNode(LOGO_TYPES_PATH)).thenReturn(handle);
+        systemUnderTest.init();
+        reset(repository);
+
+        // Execute the method to be tested
+        final Map<String, String> actual = systemUnderTest.getValueListMap("logoTypes", false);
+
+        // Verify
+        assertThat(actual).containsExactly(entry("hee", "Health Education England"));
+        assertThat(systemUnderTest.getValueListMap("logoTypes", true)).isEqualTo(actual);
+        assertThat(systemUnderTest.getHitRatio()).isEqualTo(1.0);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void onDocumentsChanged_WithValueListHandle_ReloadsValueListMap() throws RepositoryException {
+        // Mocks & stubs
+        final Node handle = mockValueListHandle(new String[]{"hee", "Health Education England"});
+        final Node changedHandle = mockValueListHandle(
+                new String[]{"hee", "Health Education England"}, new String[]{"nes", "NHS Education for Scotland"});
+        when(session.getNode(LOGO_TYPES_PATH)).thenReturn(handle, handle, changedHandle);
+        systemUnderTest.init();
+
+        // Execute the method to be tested
+        systemUnderTest.onDocumentsChanged(Collections.singleton(LOGO_TYPES_PATH));
+
+        // Verify
+        assertThat(systemUnderTest.getValueListMap("logoTypes", false)).containsExactly(
+                entry("hee", "Health Education England"), entry("nes", "NHS Education for Scotland"));
+    }
+
+    @Test
+    public void onDocumentsChanged_WithOtherHandle_KeepsValueListMap() throws RepositoryException {
+        // Mocks & stubs
+        final Node handle = mockValueListHandle(new String[]{"hee", "Health Education England"});
+        when(session.getNode(LOGO_TYPES_PATH)).thenReturn(handle);
+        systemUnderTest.init();
+        reset(repository);
+
+        // Execute the method to be tested
+        systemUnderTest.onDocumentsChanged(
+                Collections.singleton("/content/documents/administration/valuelists/navmapregions"));
+
+        // Verify
+        assertThat(systemUnderTest.getSize()).isEqualTo(2L);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void getValueListMap_WithLookupSessionAndIncompleteListItems_ReadsThroughLookupSession()
+            throws RepositoryException {
+        // Mocks & stubs
+        final Session lookupSession = mock(Session.class);
+        final Node handle = mockValueListHandle(
+                new String[]{"hee", null}, new String[]{null, "NHS Education for Scotland"});
+        when(lookupSession.nodeExists(LOGO_TYPES_PATH)).thenReturn(true);
+        when(lookupSession.getNode(LOGO_TYPES_PATH)).thenReturn(handle);
+
+        // Execute the method to be tested
+        final Map<String, String> actual = systemUnderTest.getValueListMap(lookupSession, "logoTypes", true);
+
+        // Verify
+        assertThat(actual).containsExactly(entry("hee", "hee"));
+        assertThat(systemUnderTest.getValueListMap("logoTypes", true)).isSameAs(actual);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void getCachedValueListMap_BeforeAndAfterLookup_ServesOnlyCachedValueListMap() throws RepositoryException {
+        // Mocks & stubs
+        final Node handle = mockValueListHandle(new String[]{"hee", "Health Education England"});
+        when(session.getNode(LOGO_TYPES_PATH)).thenReturn(handle);
+
+        // Execute the method to be tested
+        final Map<String, String> notCached = systemUnderTest.getCachedValueListMap("logoTypes", false);
+        final Map<String, String> loaded = systemUnderTest.getValueListMap("logoTypes", false);
+        final Map<String, String> cached = systemUnderTest.getCachedValueListMap("logoTypes", false);
+
+        // Verify
+        assertThat(notCached).isNull();
+        assertThat(cached).isSameAs(loaded);
+        assertThat(systemUnderTest.getCachedValueListMap("logoTypes", true)).isNull();
+        verify(repository, times(1)).login(any(Credentials.class));
+    }
+
+    private static Node mockValueListHandle(final String[]... listItems) throws RepositoryException {
+        final Node handle = mock(Node.class);
+        final Node variant = mock(Node.class);
+        final Property availability = mock(Property.class);
+        final Value live = mock(Value.class);
+        final Value preview = mock(Value.class);
+
+        when(handle.getName()).thenReturn("logotypes");
+        when(handle.getNodes("logotypes")).thenAnswer(invocation -> mockNodeIterator(variant));
+        when(variant.hasProperty(HippoNodeType.HIPPO_AVAILABILITY)).thenReturn(true);
+        when(variant.getProperty(HippoNodeType.HIPPO_AVAILABILITY)).thenReturn(availability);
+        when(availability.getValues()).thenReturn(new Value[]{live, preview});
+        when(live.getString()).thenReturn("live");
+        when(preview.getString()).thenReturn("preview");
+
+        final Node[] listItemNodes = new Node[listItems.length];
+        for (int i = 0; i < listItems.length; i++) {
+            listItemNodes[i] = mock(Node.class);
+            final Property key = mock(Property.class);
+            final Property label = mock(Property.class);
+            when(key.getString()).thenReturn(listItems[i][0]);
+            when(label.getString()).thenReturn(listItems[i][1]);
+            when(listItemNodes[i].hasProperty("selection:key")).thenReturn(listItems[i][0] != null);
+            when(listItemNodes[i].hasProperty("selection:label")).thenReturn(listItems[i][1] != null);
+            when(listItemNodes[i].getProperty("selection:key")).thenReturn(key);
+            when(listItemNodes[i].getProperty("selection:label")).thenReturn(label);
+        }
+        when(variant.getNodes("selection:listitem")).thenAnswer(invocation -> mockNodeIterator(listItemNodes));
+
+        return handle;
+    }
+
+    private static NodeIterator mockNodeIterator(final Node... nodes) {
+        final Iterator<Node> iterator = Arrays.asList(nodes).iterator();
+        final NodeIterator nodeIterator = mock(NodeIterator.class);
+        when(nodeIterator.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(nodeIterator.nextNode()).thenAnswer(invocation -> iterator.next());
+        return nodeIterator;
+    }
+}
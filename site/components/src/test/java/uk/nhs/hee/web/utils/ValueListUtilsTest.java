@@ -1,7 +1,9 @@
 package uk.nhs.hee.web.utils;
 
 import org.hippoecm.hst.container.RequestContextProvider;
+import org.hippoecm.hst.core.container.ComponentManager;
 import org.hippoecm.hst.core.request.HstRequestContext;
+import org.hippoecm.hst.site.HstServices;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,6 +13,7 @@ import org.onehippo.forge.selection.hst.util.SelectionUtil;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import uk.nhs.hee.web.services.ValueListService;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -24,6 +27,7 @@ import static org.powermock.api.mockito.PowerMockito.when;
 @RunWith(PowerMockRunner.class)
 @PowerMockIgnore({"javax.management.*", "javax.script.*"})
 @PrepareForTest({
+        HstServices.class,
         RequestContextProvider.class,
         SelectionUtil.class
 })
@@ -35,12 +39,37 @@ public class ValueListUtilsTest {
     @Mock
     private HstRequestContext mockHstRequestContext;
 
+    @Mock
+    private ComponentManager mockComponentManager;
+
+    @Mock
+    private ValueListService mockValueListService;
+
     @Before
     public void setUp() {
-        mockStatic(RequestContextProvider.class, SelectionUtil.class);
+        mockStatic(HstServices.class, RequestContextProvider.class, SelectionUtil.class);
         when(RequestContextProvider.get()).thenReturn(mockHstRequestContext);
     }
 
+    @Test
+    public void getValueListMap_WithIdentifierAndHstServicesAvailable_ReturnsCachedPreviewValueListMap() {
+        // Mocks & stubs
+        final String valueListIdentifier = "logoTypes";
+        final Map<String, String> logoTypesMap = Collections.singletonMap("hee", "Health Education England");
+
+        when(HstServices.isAvailable()).thenReturn(true);
+        when(HstServices.getComponentManager()).thenReturn(mockComponentManager);
+        when(mockComponentManager.getComponent(ValueListService.class.getName())).thenReturn(mockValueListService);
+        when(mockHstRequestContext.isPreview()).thenReturn(true);
+        when(mockValueListService.getValueListMap(valueListIdentifier, true)).thenReturn(logoTypesMap);
+
+        // Execute the method to be tested
+        final Map<String, String> actualLogoTypesMap = ValueListUtils.getValueListMap(valueListIdentifier);
+
+        // Verify
+        assertThat(actualLogoTypesMap).isEqualTo(logoTypesMap);
+    }
+
     @Test
     public void getValueListMap_WithIdentifierAndChannelAndVLExists_ReturnsValueListMap() {
         // Mocks & stubs